@@ -5,11 +5,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableDiscoveryClient
 @Configuration
 @SpringBootApplication
 @EnableMongoRepositories(basePackages = "com.analytics_insights_service.analytics_insights_service.repository")
+@EnableScheduling
 public class AnalyticsInsightsServiceApplication {
 
 	public static void main(String[] args) {
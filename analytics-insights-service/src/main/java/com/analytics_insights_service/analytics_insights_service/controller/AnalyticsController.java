@@ -6,11 +6,15 @@ import com.analytics_insights_service.analytics_insights_service.service.Analyti
 import com.analytics_insights_service.analytics_insights_service.util.Response;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,10 +30,19 @@ public class AnalyticsController {
     }
 
     @GetMapping
-    public Response<SOPStatusOverviewResponseDto> getAnalytics(@RequestParam String timeframe, HttpServletRequest request) {
+    public Response<SOPStatusOverviewResponseDto> getAnalytics(@RequestParam String timeframe,
+                                                               @RequestParam(required = false) String timezone,
+                                                               HttpServletRequest request) {
         UUID departmentId = UUID.fromString(request.getHeader("X-Department-Id"));
         String role = request.getHeader("X-User-Role");
-        SOPStatusOverviewResponseDto data = analyticsService.getSopOverview(departmentId, role, timeframe);
+        // periods are cut in the caller's time zone when given
+        ZoneId zone;
+        try {
+            zone = timezone == null ? ZoneId.systemDefault() : ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid timezone: " + timezone);
+        }
+        SOPStatusOverviewResponseDto data = analyticsService.getSopOverview(departmentId, role, timeframe, zone);
         return new Response<>(true,"analytics retrieved successfully", data);
     }
 }
@@ -1,26 +1,58 @@
 package com.analytics_insights_service.analytics_insights_service.controller;
 
 import com.analytics_insights_service.analytics_insights_service.dto.ApiResponse;
+import com.analytics_insights_service.analytics_insights_service.dto.ReadCountDto;
+import com.analytics_insights_service.analytics_insights_service.dto.TrendingSopDto;
+import com.analytics_insights_service.analytics_insights_service.enums.ReadGranularity;
 import com.analytics_insights_service.analytics_insights_service.model.SopReads;
+import com.analytics_insights_service.analytics_insights_service.service.SopReadTrendsService;
 import com.analytics_insights_service.analytics_insights_service.service.SopReadsService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/sop-reads")
 public class SopReadsController {
     
     private final SopReadsService sopReadsService;
+    private final SopReadTrendsService sopReadTrendsService;
 
-    public SopReadsController(SopReadsService sopReadsService) {
+    public SopReadsController(SopReadsService sopReadsService, SopReadTrendsService sopReadTrendsService) {
         this.sopReadsService = sopReadsService;
+        this.sopReadTrendsService = sopReadTrendsService;
     }
 
     @GetMapping("/{sopId}")
     public ResponseEntity<ApiResponse<SopReads>> getSopReads(@PathVariable String sopId) {
         return ResponseEntity.ok(new ApiResponse<>("sop reads retrieved successfully",sopReadsService.getSopReads(sopId)));
     }
+
+    // reads per hour or utc day of [from, to), instants in ISO-8601
+    @GetMapping("/{sopId}/series")
+    public ResponseEntity<ApiResponse<List<ReadCountDto>>> getSopReadSeries(
+            @PathVariable String sopId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "DAY") ReadGranularity granularity) {
+        List<ReadCountDto> series = sopReadTrendsService.getSopReadSeries(sopId, from, to, granularity);
+        return ResponseEntity.ok(new ApiResponse<>("sop read series retrieved successfully", series));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<TrendingSopDto>>> getTrendingSops(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String departmentId,
+            @RequestParam(required = false) Integer limit) {
+        List<TrendingSopDto> trending = sopReadTrendsService.getTrendingSops(from, to, departmentId, limit);
+        return ResponseEntity.ok(new ApiResponse<>("trending sops retrieved successfully", trending));
+    }
 }
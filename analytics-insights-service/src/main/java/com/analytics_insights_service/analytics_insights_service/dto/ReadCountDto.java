@@ -0,0 +1,16 @@
+package com.analytics_insights_service.analytics_insights_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// reads in the hour or day starting at bucketStart
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadCountDto {
+    private Date bucketStart;
+    private long reads;
+}
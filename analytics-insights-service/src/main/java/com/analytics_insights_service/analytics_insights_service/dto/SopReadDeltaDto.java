@@ -0,0 +1,19 @@
+package com.analytics_insights_service.analytics_insights_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// reads of one sop counted by sop-content-service since windowStart
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SopReadDeltaDto {
+    private String sopId;
+    private long delta;
+    private Date windowStart;
+}
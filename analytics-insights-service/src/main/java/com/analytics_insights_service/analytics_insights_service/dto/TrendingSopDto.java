@@ -0,0 +1,13 @@
+package com.analytics_insights_service.analytics_insights_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingSopDto {
+    private String sopId;
+    private long reads;
+}
@@ -0,0 +1,6 @@
+package com.analytics_insights_service.analytics_insights_service.enums;
+
+public enum ReadGranularity {
+    HOUR,
+    DAY
+}
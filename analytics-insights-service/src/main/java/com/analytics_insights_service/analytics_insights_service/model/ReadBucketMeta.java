@@ -0,0 +1,14 @@
+package com.analytics_insights_service.analytics_insights_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// meta field of the read buckets, the time series collections store the buckets of one sop together
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadBucketMeta {
+    private String sopId;
+    private String departmentId;
+}
@@ -0,0 +1,20 @@
+package com.analytics_insights_service.analytics_insights_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// the days before rolledUpTo are in the daily read buckets
+@Document(collection = "sop_read_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadRollup {
+    @Id
+    private String id;
+    private Date rolledUpTo;
+}
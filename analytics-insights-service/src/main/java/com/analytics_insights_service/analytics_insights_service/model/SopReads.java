@@ -16,4 +16,6 @@ public class SopReads {
     @Id
     private String sopId;
     private Integer reads;
+    // from the sop-created event, sops created before it was kept have none
+    private String departmentId;
 }
@@ -0,0 +1,27 @@
+package com.analytics_insights_service.analytics_insights_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.util.Date;
+
+// reads of a sop on the utc day starting at day, rolled up from the hourly buckets
+@Document(collection = "sop_reads_daily")
+@TimeSeries(timeField = "day", metaField = "meta", granularity = Granularity.HOURS)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SopReadsDaily {
+    @Id
+    private String id;
+    private Date day;
+    private ReadBucketMeta meta;
+    private long reads;
+}
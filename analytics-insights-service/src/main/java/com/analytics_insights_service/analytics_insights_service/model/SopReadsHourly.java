@@ -0,0 +1,27 @@
+package com.analytics_insights_service.analytics_insights_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.util.Date;
+
+// reads of a sop in the hour starting at hour, an hour may hold one measurement per ingested batch
+@Document(collection = "sop_reads_hourly")
+@TimeSeries(timeField = "hour", metaField = "meta", granularity = Granularity.HOURS)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SopReadsHourly {
+    @Id
+    private String id;
+    private Date hour;
+    private ReadBucketMeta meta;
+    private long reads;
+}
@@ -0,0 +1,11 @@
+package com.analytics_insights_service.analytics_insights_service.repository;
+
+import java.util.Map;
+
+public interface SopReadsRepositoryCustom {
+    // adds each sop's reads in one unordered bulk of upserts, creating the counts of sops not seen yet
+    void addReads(Map<String, Long> readsBySop);
+
+    // starts the count of a created sop, a count already started by early reads is kept
+    void createReads(String sopId, String departmentId);
+}
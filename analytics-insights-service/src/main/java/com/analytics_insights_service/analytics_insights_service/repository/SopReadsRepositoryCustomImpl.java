@@ -0,0 +1,39 @@
+package com.analytics_insights_service.analytics_insights_service.repository;
+
+import com.analytics_insights_service.analytics_insights_service.model.SopReads;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class SopReadsRepositoryCustomImpl implements SopReadsRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void addReads(Map<String, Long> readsBySop) {
+        if (readsBySop.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SopReads.class);
+        // $inc is applied by mongo, so consumers of different partitions never overwrite each other's counts
+        readsBySop.forEach((sopId, reads) -> bulk.upsert(
+                Query.query(Criteria.where("sopId").is(sopId)),
+                new Update().inc("reads", Math.toIntExact(reads))));
+        bulk.execute();
+    }
+
+    @Override
+    public void createReads(String sopId, String departmentId) {
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("sopId").is(sopId)),
+                new Update().inc("reads", 0).set("departmentId", departmentId),
+                SopReads.class);
+    }
+}
@@ -4,20 +4,27 @@ import com.analytics_insights_service.analytics_insights_service.dto.StatusCount
 import com.analytics_insights_service.analytics_insights_service.dto.SOPStatusOverviewResponseDto;
 import com.analytics_insights_service.analytics_insights_service.dto.SopByStatusDto;
 import com.analytics_insights_service.analytics_insights_service.enums.SOPStatus;
+import com.at.grpc.ProtoTimestamps;
 import org.springframework.stereotype.Service;
 import sopWorkflowService.GetDepartmentSopsByStatusResponse;
+import sopWorkflowService.GetSopStatusCountsResponse;
+import sopWorkflowService.SopStatusCount;
+import sopWorkflowService.TimeBucket;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService {
 
+    private static final int PERIODS = 6;
+
     private final SopWorkflowClientService sopWorkflowClientService;
 
     public AnalyticsService(SopWorkflowClientService sopWorkflowClientService) {
@@ -31,8 +38,8 @@ public class AnalyticsService {
                         .id(sop.getId())
                         .title(sop.getTitle())
                         .status(SOPStatus.valueOf(sop.getStatus()))
-                        .createdAt(parseDate(sop.getCreatedAt()))
-                        .updatedAt(parseDate(sop.getUpdatedAt()))
+                        .createdAt(ProtoTimestamps.toDate(sop.hasCreatedTime(), sop.getCreatedTime(), sop.getCreatedAt()))
+                        .updatedAt(ProtoTimestamps.toDate(sop.hasUpdatedTime(), sop.getUpdatedTime(), sop.getUpdatedAt()))
                         .build())
                 .collect(Collectors.toList());
 
@@ -46,107 +53,90 @@ public class AnalyticsService {
                         .id(sop.getId())
                         .title(sop.getTitle())
                         .status(SOPStatus.valueOf(sop.getStatus()))
-                        .createdAt(parseDate(sop.getCreatedAt()))
-                        .updatedAt(parseDate(sop.getUpdatedAt()))
+                        .createdAt(ProtoTimestamps.toDate(sop.hasCreatedTime(), sop.getCreatedTime(), sop.getCreatedAt()))
+                        .updatedAt(ProtoTimestamps.toDate(sop.hasUpdatedTime(), sop.getUpdatedTime(), sop.getUpdatedAt()))
                         .build())
                 .collect(Collectors.toList());
     }
 
-    public SOPStatusOverviewResponseDto getSopOverview(UUID departmentId, String role, String timeframe){
-        LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate;
+    // the workflow service counts the SOPs per status and bucket, only the counts come back
+    public SOPStatusOverviewResponseDto getSopOverview(UUID departmentId, String role, String timeframe, ZoneId zone){
+        LocalDate today = LocalDate.now(zone);
+        LocalDate firstPeriod;
+        UnaryOperator<LocalDate> nextPeriod;
+        TimeBucket bucket;
         DateTimeFormatter formatter;
-        int periods = 6;
 
         // Set up time period based on timeFrame parameter
         switch (timeframe.toLowerCase()) {
             case "daily":
-                startDate = endDate.minusDays(5);
+                firstPeriod = today.minusDays(PERIODS - 1);
+                nextPeriod = date -> date.plusDays(1);
+                bucket = TimeBucket.DAY;
+                formatter = DateTimeFormatter.ofPattern("dd MMM");
+                break;
+            case "weekly":
+                firstPeriod = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(PERIODS - 1);
+                nextPeriod = date -> date.plusWeeks(1);
+                bucket = TimeBucket.WEEK;
                 formatter = DateTimeFormatter.ofPattern("dd MMM");
                 break;
             case "monthly":
-                startDate = endDate.minusMonths(5);
+                firstPeriod = today.withDayOfMonth(1).minusMonths(PERIODS - 1);
+                nextPeriod = date -> date.plusMonths(1);
+                bucket = TimeBucket.MONTH;
                 formatter = DateTimeFormatter.ofPattern("MMM");
                 break;
             default:
-                throw new IllegalArgumentException("Invalid timeFrame. Use 'daily' or 'monthly'");
+                throw new IllegalArgumentException("Invalid timeFrame. Use 'daily', 'weekly' or 'monthly'");
         }
 
-        // Create a map to store counts for each month
-        Map<String, StatusCountDto> monthlyCountsMap = new TreeMap<>();
+        // Initialize counts for all periods in range, keyed by the first day of the period
+        Map<LocalDate, StatusCountDto> countsByStart = new LinkedHashMap<>();
         List<String> periodLabels = new ArrayList<>();
-
-        // Initialize counts for all months in range
-        for (int i = 0; i < periods; i++) {
-            LocalDateTime currentPeriod = timeframe.equalsIgnoreCase("daily")
-                    ? startDate.plusDays(i)
-                    : startDate.plusMonths(i);
-
-            String periodKey = currentPeriod.format(formatter);
+        LocalDate periodStart = firstPeriod;
+        for (int i = 0; i < PERIODS; i++) {
+            String periodKey = periodStart.format(formatter);
             periodLabels.add(periodKey);
+            countsByStart.put(periodStart, new StatusCountDto(periodKey, 0, 0, 0, 0));
+            periodStart = nextPeriod.apply(periodStart);
+        }
 
-            StatusCountDto monthCount = new StatusCountDto();
-            monthCount.setPeriod(periodKey);
-            monthCount.setPublished(0);
-            monthCount.setInitialized(0);
-            monthCount.setUnderReview(0);
-            monthCount.setDraft(0);
-
-            monthlyCountsMap.put(periodKey, monthCount);
+        GetSopStatusCountsResponse response = sopWorkflowClientService.getSopStatusCounts(
+                firstPeriod.atStartOfDay(zone).toInstant(),
+                periodStart.atStartOfDay(zone).toInstant(),
+                bucket,
+                zone,
+                role.equals("ADMIN") ? null : departmentId);
+        // a failed count would otherwise be shown as periods without any sops
+        if (!response.getSuccess()) {
+            throw new IllegalStateException("Could not count sops by status: " + response.getErrorMessage());
         }
 
-        List<SopByStatusDto> sops = role.equals("ADMIN")
-                ? getSopsByStatus()
-                : getDepartmentSopsByStatus(departmentId);
-
-
-        for(SopByStatusDto sop : sops){
-
-            Date sopDate = sop.getCreatedAt();
-
-            if (sopDate != null) {
-                // Convert sopDate to LocalDateTime
-                LocalDateTime sopDateTime = sopDate.toInstant()
-                        .atZone(ZoneId.systemDefault())
-                        .toLocalDateTime();
-
-                // Only process SOPs within our date range
-                if (sopDateTime.isAfter(startDate) && sopDateTime.isBefore(endDate.plusDays(1))) {
-                    String monthKey = sopDateTime.format(DateTimeFormatter.ofPattern("MMM"));
-                    StatusCountDto monthCount = monthlyCountsMap.get(monthKey);
-
-                    if (monthCount != null) {
-                        switch (sop.getStatus()) {
-                            case SOPStatus.PUBLISHED:
-                                monthCount.setPublished(monthCount.getPublished() + 1);
-                                break;
-                            case SOPStatus.UNDER_REVIEWAL:
-                                monthCount.setUnderReview(monthCount.getUnderReview() + 1);
-                                break;
-                            case SOPStatus.INITIALIZED:
-                                monthCount.setInitialized(monthCount.getInitialized() + 1);
-                                break;
-                            case SOPStatus.DRAFTED:
-                                monthCount.setDraft(monthCount.getDraft() + 1);
-                                break;
-                        }
-                    }
-
-                }
+        for (SopStatusCount count : response.getCountsList()) {
+            LocalDate bucketStart = ProtoTimestamps.toDate(count.getBucketStart()).toInstant()
+                    .atZone(zone)
+                    .toLocalDate();
+            StatusCountDto periodCount = countsByStart.get(bucketStart);
+            if (periodCount == null) {
+                continue;
+            }
+
+            int sops = (int) count.getCount();
+            switch (SOPStatus.valueOf(count.getStatus())) {
+                case PUBLISHED -> periodCount.setPublished(periodCount.getPublished() + sops);
+                case UNDER_REVIEWAL -> periodCount.setUnderReview(periodCount.getUnderReview() + sops);
+                case INITIALIZED -> periodCount.setInitialized(periodCount.getInitialized() + sops);
+                case DRAFTED -> periodCount.setDraft(periodCount.getDraft() + sops);
             }
         }
 
+        Map<String, StatusCountDto> counts = new TreeMap<>();
+        countsByStart.values().forEach(periodCount -> counts.put(periodCount.getPeriod(), periodCount));
+
         return SOPStatusOverviewResponseDto.builder()
-                .counts(monthlyCountsMap)
+                .counts(counts)
                 .periods(periodLabels)
                 .build();
     }
-
-    private Date parseDate(String dateStr) {
-        try {
-            return new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy").parse(dateStr);
-        } catch (ParseException e) {
-            throw new RuntimeException("Failed to parse date: " + dateStr, e);
-        }
-    }
 }
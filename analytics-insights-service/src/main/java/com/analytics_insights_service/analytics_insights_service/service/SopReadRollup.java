@@ -0,0 +1,129 @@
+package com.analytics_insights_service.analytics_insights_service.service;
+
+import com.analytics_insights_service.analytics_insights_service.model.ReadBucketMeta;
+import com.analytics_insights_service.analytics_insights_service.model.ReadRollup;
+import com.analytics_insights_service.analytics_insights_service.model.SopReadsDaily;
+import com.analytics_insights_service.analytics_insights_service.model.SopReadsHourly;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Sums the hourly read buckets of each completed utc day into the daily ones, a grace period after the day
+ * ends so late batches are still counted. Each day is claimed by moving the rollup's rolledUpTo past it,
+ * so instances running the job at the same time never roll a day up twice.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SopReadRollup {
+
+    private static final Duration GRACE = Duration.ofHours(1);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Scheduled(cron = "${analytics.reads.rollup-cron:0 5 * * * *}")
+    public void rollUp() {
+        Instant completedUpTo = Instant.now().minus(GRACE).truncatedTo(ChronoUnit.DAYS);
+        Instant day = start();
+        int days = 0;
+        while (day != null && day.isBefore(completedUpTo)) {
+            Instant next = day.plus(1, ChronoUnit.DAYS);
+            if (!claim(day, next)) {
+                // another instance is rolling up the same days
+                break;
+            }
+
+            try {
+                rollUpDay(day, next);
+            } catch (RuntimeException e) {
+                // handed back, so the day is tried again on the next run instead of missing from the daily buckets
+                release(day, next);
+                throw e;
+            }
+            days++;
+            day = next;
+        }
+
+        if (days > 0) {
+            log.info("Rolled up {} days of sop reads", days);
+        }
+    }
+
+    // the first day not rolled up yet, the day of the oldest hourly bucket on the first run, null without any
+    private Instant start() {
+        ReadRollup rollup = mongoTemplate.findById(SopReadTrendsService.ROLLUP_ID, ReadRollup.class);
+        if (rollup != null) {
+            return rollup.getRolledUpTo().toInstant();
+        }
+
+        Query oldest = new Query().with(Sort.by(Sort.Direction.ASC, "hour")).limit(1);
+        SopReadsHourly first = mongoTemplate.findOne(oldest, SopReadsHourly.class);
+        if (first == null) {
+            return null;
+        }
+
+        Instant day = first.getHour().toInstant().truncatedTo(ChronoUnit.DAYS);
+        try {
+            mongoTemplate.insert(new ReadRollup(SopReadTrendsService.ROLLUP_ID, Date.from(day)));
+        } catch (DuplicateKeyException e) {
+            return mongoTemplate.findById(SopReadTrendsService.ROLLUP_ID, ReadRollup.class).getRolledUpTo().toInstant();
+        }
+        return day;
+    }
+
+    private boolean claim(Instant day, Instant next) {
+        return moveRolledUpTo(day, next);
+    }
+
+    private void release(Instant day, Instant next) {
+        moveRolledUpTo(next, day);
+    }
+
+    private boolean moveRolledUpTo(Instant from, Instant to) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(SopReadTrendsService.ROLLUP_ID).and("rolledUpTo").is(Date.from(from))),
+                new Update().set("rolledUpTo", Date.from(to)),
+                FindAndModifyOptions.options().returnNew(true),
+                ReadRollup.class) != null;
+    }
+
+    private void rollUpDay(Instant day, Instant next) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("hour").gte(Date.from(day)).lt(Date.from(next))),
+                Aggregation.group("meta.sopId", "meta.departmentId").sum("reads").as("reads"));
+
+        List<SopReadsDaily> daily = mongoTemplate.aggregate(aggregation, SopReadsHourly.class, Document.class)
+                .getMappedResults().stream()
+                .map(sop -> {
+                    Document id = sop.get("_id", Document.class);
+                    return SopReadsDaily.builder()
+                            .day(Date.from(day))
+                            .meta(new ReadBucketMeta(id.getString("sopId"), id.getString("departmentId")))
+                            .reads(sop.get("reads", Number.class).longValue())
+                            .build();
+                })
+                .toList();
+        // a run that failed after inserting may have left some of the day behind, it is replaced rather than added to
+        mongoTemplate.remove(Query.query(Criteria.where("day").is(Date.from(day))), SopReadsDaily.class);
+        if (!daily.isEmpty()) {
+            mongoTemplate.insertAll(daily);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.analytics_insights_service.analytics_insights_service.service;
+
+import com.analytics_insights_service.analytics_insights_service.dto.ReadCountDto;
+import com.analytics_insights_service.analytics_insights_service.dto.SopReadDeltaDto;
+import com.analytics_insights_service.analytics_insights_service.dto.TrendingSopDto;
+import com.analytics_insights_service.analytics_insights_service.enums.ReadGranularity;
+import com.analytics_insights_service.analytics_insights_service.model.ReadBucketMeta;
+import com.analytics_insights_service.analytics_insights_service.model.ReadRollup;
+import com.analytics_insights_service.analytics_insights_service.model.SopReadsDaily;
+import com.analytics_insights_service.analytics_insights_service.model.SopReadsHourly;
+import com.analytics_insights_service.analytics_insights_service.repository.SopReadsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads per sop and department in hourly and daily buckets, kept in two Mongo time series collections.
+ * Every ingested batch adds one hourly measurement per sop and hour, and SopReadRollup sums completed days
+ * into the daily collection. Hourly buckets expire after HOURLY_RETENTION and daily ones after DAILY_RETENTION,
+ * so windows reaching further back than the hourly buckets are answered from the daily ones.
+ * Every query matches a time range, on a secondary index of the collection it reads.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SopReadTrendsService implements InitializingBean {
+
+    static final Duration HOURLY_RETENTION = Duration.ofDays(90);
+    static final Duration DAILY_RETENTION = Duration.ofDays(730);
+    static final String ROLLUP_ID = "daily";
+
+    private static final int MAX_HOURLY_POINTS = 24 * 31;
+    private static final int DEFAULT_TRENDING = 10;
+    private static final int MAX_TRENDING = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final SopReadsRepository sopReadsRepository;
+
+    // inserting into a missing collection would create a regular one, so both are created before listeners start
+    @Override
+    public void afterPropertiesSet() {
+        createCollection(SopReadsHourly.class, "hour", HOURLY_RETENTION);
+        createCollection(SopReadsDaily.class, "day", DAILY_RETENTION);
+    }
+
+    // one measurement per sop and hour of the batch, with the department kept for the sop
+    public void record(List<SopReadDeltaDto> deltas) {
+        Map<String, Map<Date, Long>> readsBySopAndHour = new HashMap<>();
+        for (SopReadDeltaDto delta : deltas) {
+            Instant readAt = delta.getWindowStart() == null ? Instant.now() : delta.getWindowStart().toInstant();
+            readsBySopAndHour.computeIfAbsent(delta.getSopId(), sopId -> new HashMap<>())
+                    .merge(Date.from(readAt.truncatedTo(ChronoUnit.HOURS)), delta.getDelta(), Long::sum);
+        }
+        if (readsBySopAndHour.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> departments = new HashMap<>();
+        sopReadsRepository.findAllById(readsBySopAndHour.keySet())
+                .forEach(sopReads -> departments.put(sopReads.getSopId(), sopReads.getDepartmentId()));
+
+        List<SopReadsHourly> measurements = new ArrayList<>();
+        readsBySopAndHour.forEach((sopId, readsByHour) -> readsByHour.forEach((hour, reads) -> measurements.add(
+                SopReadsHourly.builder()
+                        .hour(hour)
+                        .meta(new ReadBucketMeta(sopId, departments.get(sopId)))
+                        .reads(reads)
+                        .build())));
+        mongoTemplate.insertAll(measurements);
+    }
+
+    public List<ReadCountDto> getSopReadSeries(String sopId, Instant from, Instant to, ReadGranularity granularity) {
+        checkWindow(from, to);
+        if (granularity == ReadGranularity.HOUR) {
+            if (Duration.between(from, to).toHours() > MAX_HOURLY_POINTS) {
+                throw new IllegalArgumentException("Hourly series cover at most " + MAX_HOURLY_POINTS / 24 + " days");
+            }
+            return readsPerBucket(SopReadsHourly.class, "hour", "meta.sopId", sopId,
+                    from.truncatedTo(ChronoUnit.HOURS), to);
+        }
+
+        // rolled up days come from the daily buckets, the days since from the hourly ones summed per day
+        Instant dayFrom = from.truncatedTo(ChronoUnit.DAYS);
+        Instant rolledUpTo = rolledUpTo();
+        Map<Date, Long> readsByDay = new TreeMap<>();
+        if (dayFrom.isBefore(rolledUpTo)) {
+            readsPerBucket(SopReadsDaily.class, "day", "meta.sopId", sopId, dayFrom, min(to, rolledUpTo))
+                    .forEach(count -> readsByDay.merge(count.getBucketStart(), count.getReads(), Long::sum));
+        }
+        Instant hourlyFrom = max(dayFrom, rolledUpTo);
+        if (hourlyFrom.isBefore(to)) {
+            readsPerBucket(SopReadsHourly.class, "hour", "meta.sopId", sopId, hourlyFrom, to)
+                    .forEach(count -> readsByDay.merge(
+                            Date.from(count.getBucketStart().toInstant().truncatedTo(ChronoUnit.DAYS)), count.getReads(), Long::sum));
+        }
+
+        return readsByDay.entrySet().stream()
+                .map(day -> new ReadCountDto(day.getKey(), day.getValue()))
+                .toList();
+    }
+
+    // the most read sops of the window, of one department when departmentId is given
+    public List<TrendingSopDto> getTrendingSops(Instant from, Instant to, String departmentId, Integer limit) {
+        checkWindow(from, to);
+        int size = limit == null || limit <= 0 ? DEFAULT_TRENDING : Math.min(limit, MAX_TRENDING);
+        String metaField = departmentId == null ? null : "meta.departmentId";
+
+        // windows the hourly buckets still cover are counted to the hour, older ones by the day
+        Map<String, Long> readsBySop = new HashMap<>();
+        Instant hourlyFrom = from;
+        if (from.isBefore(Instant.now().minus(HOURLY_RETENTION))) {
+            Instant rolledUpTo = rolledUpTo();
+            Instant dayFrom = from.truncatedTo(ChronoUnit.DAYS);
+            if (dayFrom.isBefore(rolledUpTo)) {
+                readsPerSop(SopReadsDaily.class, "day", metaField, departmentId, dayFrom, min(to, rolledUpTo))
+                        .forEach((sopId, reads) -> readsBySop.merge(sopId, reads, Long::sum));
+            }
+            hourlyFrom = max(from, rolledUpTo);
+        }
+        if (hourlyFrom.isBefore(to)) {
+            readsPerSop(SopReadsHourly.class, "hour", metaField, departmentId, hourlyFrom, to)
+                    .forEach((sopId, reads) -> readsBySop.merge(sopId, reads, Long::sum));
+        }
+
+        return readsBySop.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .map(sop -> new TrendingSopDto(sop.getKey(), sop.getValue()))
+                .toList();
+    }
+
+    private void createCollection(Class<?> type, String timeField, Duration retention) {
+        if (!mongoTemplate.collectionExists(type)) {
+            mongoTemplate.createCollection(type);
+        }
+        // set on existing collections too, so a changed retention applies without dropping them
+        mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(type))
+                .append("expireAfterSeconds", retention.toSeconds()));
+
+        IndexOperations indexes = mongoTemplate.indexOps(type);
+        indexes.ensureIndex(new Index().on("meta.sopId", Sort.Direction.ASC).on(timeField, Sort.Direction.ASC)
+                .named("sopId_" + timeField));
+        indexes.ensureIndex(new Index().on("meta.departmentId", Sort.Direction.ASC).on(timeField, Sort.Direction.ASC)
+                .named("departmentId_" + timeField));
+        indexes.ensureIndex(new Index().on(timeField, Sort.Direction.ASC).named(timeField));
+    }
+
+    private List<ReadCountDto> readsPerBucket(Class<?> type, String timeField, String metaField, String metaValue,
+                                              Instant from, Instant to) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(window(timeField, metaField, metaValue, from, to)),
+                Aggregation.group(timeField).sum("reads").as("reads"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
+
+        return mongoTemplate.aggregate(aggregation, type, Document.class).getMappedResults().stream()
+                .map(bucket -> new ReadCountDto(bucket.getDate("_id"), bucket.get("reads", Number.class).longValue()))
+                .toList();
+    }
+
+    private Map<String, Long> readsPerSop(Class<?> type, String timeField, String metaField, String metaValue,
+                                          Instant from, Instant to) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(window(timeField, metaField, metaValue, from, to)),
+                Aggregation.group("meta.sopId").sum("reads").as("reads"));
+
+        Map<String, Long> readsBySop = new HashMap<>();
+        for (Document sop : mongoTemplate.aggregate(aggregation, type, Document.class).getMappedResults()) {
+            readsBySop.put(sop.getString("_id"), sop.get("reads", Number.class).longValue());
+        }
+        return readsBySop;
+    }
+
+    private static Criteria window(String timeField, String metaField, String metaValue, Instant from, Instant to) {
+        Criteria criteria = Criteria.where(timeField).gte(Date.from(from)).lt(Date.from(to));
+        return metaField == null ? criteria : criteria.and(metaField).is(metaValue);
+    }
+
+    private Instant rolledUpTo() {
+        ReadRollup rollup = mongoTemplate.findById(ROLLUP_ID, ReadRollup.class);
+        return rollup == null || rollup.getRolledUpTo() == null ? Instant.EPOCH : rollup.getRolledUpTo().toInstant();
+    }
+
+    private static void checkWindow(Instant from, Instant to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Invalid window, from must be before to");
+        }
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
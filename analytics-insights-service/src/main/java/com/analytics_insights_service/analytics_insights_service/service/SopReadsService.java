@@ -1,6 +1,7 @@
 package com.analytics_insights_service.analytics_insights_service.service;
 
 import com.analytics_insights_service.analytics_insights_service.dto.SOPDto;
+import com.analytics_insights_service.analytics_insights_service.dto.SopReadDeltaDto;
 import com.analytics_insights_service.analytics_insights_service.exception.NotFoundException;
 import com.analytics_insights_service.analytics_insights_service.model.SopReads;
 import com.analytics_insights_service.analytics_insights_service.repository.SopReadsRepository;
@@ -8,63 +9,118 @@ import com.analytics_insights_service.analytics_insights_service.util.DtoConvert
 import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @Slf4j
 public class SopReadsService {
 
+    private static final String CACHE = "sop-reads";
+
     private final SopReadsRepository sopReadsRepository;
+    private final SopReadTrendsService sopReadTrendsService;
+    private final CacheManager cacheManager;
 
     @Autowired
-    public SopReadsService(SopReadsRepository sopReadsRepository) {
+    public SopReadsService(SopReadsRepository sopReadsRepository,
+                           SopReadTrendsService sopReadTrendsService,
+                           CacheManager cacheManager) {
         this.sopReadsRepository = sopReadsRepository;
+        this.sopReadTrendsService = sopReadTrendsService;
+        this.cacheManager = cacheManager;
     }
 
-    @Cacheable(value = "sop-reads", key = "#sopId")
+    @Cacheable(value = CACHE, key = "#sopId")
     public SopReads getSopReads(String sopId) {
         log.info("Getting sop reads for sopId: {}", sopId);
         return sopReadsRepository.findById(sopId).orElse(null);
     }
 
-    @KafkaListener(topics = "sop-read")
-    @CacheEvict(value = "sop-reads", allEntries = true)
-    public void sopViewedListener(String data) throws JsonProcessingException {
-        log.info("Received sop read event: {}", data);
+    // one event per view, a poll's worth of them is folded into per sop counts and applied at once
+    @KafkaListener(topics = "sop-read", batch = "true")
+    public void sopViewedListener(List<String> data) {
+        // the events carry no time, they are counted in the hour they arrive
+        Date receivedAt = new Date();
+        List<SopReadDeltaDto> reads = new ArrayList<>();
+        for (String event : data) {
+            try {
+                String sopId = DtoConverter.sopDtoFromJson(event).getId();
+                if (sopId != null) {
+                    reads.add(new SopReadDeltaDto(sopId, 1, receivedAt));
+                }
+            } catch (JsonProcessingException e) {
+                // skipped rather than failing the batch, which would be redelivered forever
+                log.warn("Skipping unreadable sop read event: {}", event, e);
+            }
+        }
 
-        SOPDto sopDto = DtoConverter.sopDtoFromJson(data);
-        SopReads sopReads = sopReadsRepository.findById(sopDto.getId()).orElse(null);
+        addReads(reads);
+    }
 
-        if(sopReads == null) {
-            SopReads newSopReads =SopReads.builder()
-                    .sopId(sopDto.getId())
-                    .reads(0)
-                    .build();
+    // batched read counts published by sop-content-service, one delta per sop and window
+    @KafkaListener(topics = "sop-reads-aggregated", batch = "true")
+    public void sopReadsAggregatedListener(List<String> data) {
+        List<SopReadDeltaDto> reads = new ArrayList<>();
+        for (String batch : data) {
+            try {
+                DtoConverter.sopReadDeltasFromJson(batch).stream()
+                        .filter(delta -> delta.getSopId() != null)
+                        .forEach(reads::add);
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping unreadable sop read deltas: {}", batch, e);
+            }
+        }
 
-            sopReadsRepository.save(newSopReads);
-            sopReads = newSopReads;
+        addReads(reads);
+    }
+
+    private void addReads(List<SopReadDeltaDto> reads) {
+        Map<String, Long> readsBySop = new HashMap<>();
+        reads.forEach(delta -> readsBySop.merge(delta.getSopId(), delta.getDelta(), Long::sum));
+        if (readsBySop.isEmpty()) {
+            return;
         }
 
-        sopReads.setReads(sopReads.getReads() + 1);
+        sopReadsRepository.addReads(readsBySop);
+        log.info("Added reads of {} sops", readsBySop.size());
+        evict(readsBySop.keySet());
+
+        // the totals are already counted, so a failure here is logged rather than redelivering the batch
+        try {
+            sopReadTrendsService.record(reads);
+        } catch (RuntimeException e) {
+            log.error("Failed to record read buckets of {} sops: {}", readsBySop.size(), e.getMessage(), e);
+        }
+    }
 
-        sopReadsRepository.save(sopReads);
+    // only the counts that changed leave the cache
+    private void evict(Collection<String> sopIds) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache != null) {
+            sopIds.forEach(cache::evict);
+        }
     }
 
+    // an upsert adding no reads, so a count already started by early reads is kept
     @KafkaListener(topics = "sop-created")
-    @CacheEvict(value = "sop-reads", allEntries = true)
     public void sopCreatedListener(String data) throws JsonProcessingException {
         log.info("Received sop created event: {}", data);
 
         SOPDto sopDto = DtoConverter.sopDtoFromJson(data);
+        String departmentId = sopDto.getDepartmentId() == null ? null : sopDto.getDepartmentId().toString();
 
-        SopReads sopReads =SopReads.builder()
-                .sopId(sopDto.getId())
-                .reads(0)
-                .build();
-
-        sopReadsRepository.save(sopReads);
+        sopReadsRepository.createReads(sopDto.getId(), departmentId);
+        evict(List.of(sopDto.getId()));
     }
 }
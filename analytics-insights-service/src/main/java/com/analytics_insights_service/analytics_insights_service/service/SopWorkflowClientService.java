@@ -1,9 +1,16 @@
 package com.analytics_insights_service.analytics_insights_service.service;
 
+import com.at.grpc.CallPolicy;
+import com.at.grpc.ProtoTimestamps;
+import com.at.grpc.ResilientClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 import sopWorkflowService.*;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.UUID;
 
 
@@ -11,20 +18,49 @@ import java.util.UUID;
 public class SopWorkflowClientService {
 
     @GrpcClient("sop-workflow-service")
-    SopWorkflowServiceGrpc.SopWorkflowServiceBlockingStub workflowServiceBlockingStub;
+    SopWorkflowServiceGrpc.SopWorkflowServiceFutureStub workflowServiceFutureStub;
+
+    private final ResilientClient client;
+
+    // the by-status calls return every SOP of their scope, so they get a longer deadline than the counts
+    public SopWorkflowClientService(MeterRegistry meterRegistry) {
+        this.client = ResilientClient.builder("sop-workflow-service")
+                .defaultPolicy(CallPolicy.hedged(Duration.ofSeconds(5), Duration.ofMillis(500)))
+                .method("getSopStatusCounts", CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(200)))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
 
     public GetDepartmentSopsByStatusResponse getDepartmentSopsByStatus(UUID departmentId) {
         GetDepartmentSopsByStatusRequest request = GetDepartmentSopsByStatusRequest.newBuilder()
                 .setDepartmentId(departmentId.toString())
                 .build();
 
-        return workflowServiceBlockingStub.getDepartmentSopsByStatus(request);
+        return client.get("getDepartmentSopsByStatus", departmentId,
+                deadline -> workflowServiceFutureStub.withDeadline(deadline).getDepartmentSopsByStatus(request));
     }
 
     public GetDepartmentSopsByStatusResponse getSopsByStatusRequest(){
         GetSopsStatusRequest request = GetSopsStatusRequest.newBuilder()
                 .build();
 
-        return workflowServiceBlockingStub.getSopsByStatus(request);
+        return client.get("getSopsByStatus", "all",
+                deadline -> workflowServiceFutureStub.withDeadline(deadline).getSopsByStatus(request));
+    }
+
+    // departmentId null counts every department
+    public GetSopStatusCountsResponse getSopStatusCounts(Instant from, Instant to, TimeBucket bucket, ZoneId zone, UUID departmentId) {
+        GetSopStatusCountsRequest.Builder request = GetSopStatusCountsRequest.newBuilder()
+                .setFrom(ProtoTimestamps.toTimestamp(from))
+                .setTo(ProtoTimestamps.toTimestamp(to))
+                .setBucket(bucket)
+                .setTimeZone(zone.getId());
+        if (departmentId != null) {
+            request.setDepartmentId(departmentId.toString());
+        }
+
+        GetSopStatusCountsRequest built = request.build();
+        return client.get("getSopStatusCounts", built,
+                deadline -> workflowServiceFutureStub.withDeadline(deadline).getSopStatusCounts(built));
     }
 }
@@ -1,20 +1,34 @@
 package com.analytics_insights_service.analytics_insights_service.service;
 
+import com.at.grpc.CallPolicy;
+import com.at.grpc.ResilientClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 import userService.*;
 
+import java.time.Duration;
+
 @Service
 public class UserClientService{
     @GrpcClient("user-management-service")
-    userServiceGrpc.userServiceBlockingStub userInfoServiceBlockingStub;
+    userServiceGrpc.userServiceFutureStub userInfoServiceFutureStub;
+
+    private final ResilientClient client;
 
+    public UserClientService(MeterRegistry meterRegistry) {
+        this.client = ResilientClient.builder("user-management-service")
+                .defaultPolicy(CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(200)))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
 
     public getUserInfoResponse getUserInfo(String userId) {
         getUserInfoRequest request = getUserInfoRequest.newBuilder()
                 .setUserId(userId)
                 .build();
 
-        return userInfoServiceBlockingStub.getUserInfo(request);
+        return client.get("getUserInfo", userId,
+                deadline -> userInfoServiceFutureStub.withDeadline(deadline).getUserInfo(request));
     }
 }
@@ -1,9 +1,13 @@
 package com.analytics_insights_service.analytics_insights_service.util;
 
 import com.analytics_insights_service.analytics_insights_service.dto.SOPDto;
+import com.analytics_insights_service.analytics_insights_service.dto.SopReadDeltaDto;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.List;
+
 public class DtoConverter {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
@@ -12,6 +16,10 @@ public class DtoConverter {
         return objectMapper.readValue(json, SOPDto.class);
     }
 
+    public static List<SopReadDeltaDto> sopReadDeltasFromJson(String json) throws JsonProcessingException {
+        return objectMapper.readValue(json, new TypeReference<List<SopReadDeltaDto>>() {});
+    }
+
     public static String sopDtoTojson(SOPDto sopDto) throws JsonProcessingException {
         return objectMapper.writeValueAsString(sopDto);
     }
@@ -3,19 +3,27 @@ package com.analytics_insights_service.analytics_insights_service.service;
 import com.analytics_insights_service.analytics_insights_service.dto.SOPStatusOverviewResponseDto;
 import com.analytics_insights_service.analytics_insights_service.dto.SopByStatusDto;
 import com.analytics_insights_service.analytics_insights_service.enums.SOPStatus;
+import com.google.protobuf.Timestamp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import sopWorkflowService.GetDepartmentSopsByStatusResponse;
+import sopWorkflowService.GetSopStatusCountsResponse;
 import sopWorkflowService.SopByStatus;
+import sopWorkflowService.SopStatusCount;
+import sopWorkflowService.TimeBucket;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,12 +44,11 @@ class AnalyticsServiceTest {
     @Test
     void getDepartmentSopsByStatus_ShouldReturnMappedSops() {
         // Arrange
-        LocalDateTime now = LocalDateTime.now();
-        String dateStr = now.atZone(ZoneId.systemDefault()).toString();
+        Date date = Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
 
         List<SopByStatus> mockSops = Arrays.asList(
-                createMockSop(UUID.randomUUID(), "SOP 1", "PUBLISHED", dateStr),
-                createMockSop(UUID.randomUUID(), "SOP 2", "DRAFTED", dateStr)
+                createMockSop(UUID.randomUUID(), "SOP 1", "PUBLISHED", date),
+                createMockSop(UUID.randomUUID(), "SOP 2", "DRAFTED", date)
         );
 
         GetDepartmentSopsByStatusResponse mockResponse = GetDepartmentSopsByStatusResponse.newBuilder()
@@ -60,19 +67,42 @@ class AnalyticsServiceTest {
         assertEquals(SOPStatus.PUBLISHED, result.get(0).getStatus());
         assertEquals("SOP 2", result.get(1).getTitle());
         assertEquals(SOPStatus.DRAFTED, result.get(1).getStatus());
+        assertEquals(date, result.get(0).getCreatedAt());
 
         verify(sopWorkflowClientService).getDepartmentSopsByStatus(departmentId);
     }
 
+    @Test
+    void getDepartmentSopsByStatus_WithoutTimestamps_ReadsLegacyDateStrings() {
+        // Arrange
+        Date date = new Date(1700000000000L);
+        SopByStatus legacySop = SopByStatus.newBuilder()
+                .setId(UUID.randomUUID().toString())
+                .setTitle("SOP 1")
+                .setStatus("PUBLISHED")
+                .setCreatedAt(date.toString())
+                .setUpdatedAt("not a date")
+                .build();
+
+        when(sopWorkflowClientService.getDepartmentSopsByStatus(departmentId))
+                .thenReturn(GetDepartmentSopsByStatusResponse.newBuilder().addSops(legacySop).build());
+
+        // Act
+        List<SopByStatusDto> result = analyticsService.getDepartmentSopsByStatus(departmentId);
+
+        // Assert
+        assertEquals(date, result.get(0).getCreatedAt());
+        assertNull(result.get(0).getUpdatedAt());
+    }
+
     @Test
     void getSopsByStatus_ShouldReturnAllSops() {
         // Arrange
-        LocalDateTime now = LocalDateTime.now();
-        String dateStr = now.atZone(ZoneId.systemDefault()).toString();
+        Date date = Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
 
         List<SopByStatus> mockSops = Arrays.asList(
-                createMockSop(UUID.randomUUID(), "SOP 1", "PUBLISHED", dateStr),
-                createMockSop(UUID.randomUUID(), "SOP 2", "UNDER_REVIEWAL", dateStr)
+                createMockSop(UUID.randomUUID(), "SOP 1", "PUBLISHED", date),
+                createMockSop(UUID.randomUUID(), "SOP 2", "UNDER_REVIEWAL", date)
         );
 
         GetDepartmentSopsByStatusResponse mockResponse = GetDepartmentSopsByStatusResponse.newBuilder()
@@ -96,77 +126,115 @@ class AnalyticsServiceTest {
     }
 
     @Test
-    void getSopOverview_Daily_ShouldReturnCorrectPeriods() {
+    void getSopOverview_Daily_CountsTodayInTheRequestedZone() {
         // Arrange
-        LocalDateTime now = LocalDateTime.now();
-        String dateStr = now.atZone(ZoneId.systemDefault()).toString();
-
-        List<SopByStatus> mockSops = Arrays.asList(
-                createMockSop(UUID.randomUUID(), "SOP 1", "PUBLISHED", dateStr),
-                createMockSop(UUID.randomUUID(), "SOP 2", "DRAFTED", dateStr)
-        );
-
-        GetDepartmentSopsByStatusResponse mockResponse = GetDepartmentSopsByStatusResponse.newBuilder()
-                .addAllSops(mockSops)
+        ZoneId zone = ZoneId.of("Africa/Harare");
+        LocalDate today = LocalDate.now(zone);
+        Instant from = today.minusDays(5).atStartOfDay(zone).toInstant();
+        Instant to = today.plusDays(1).atStartOfDay(zone).toInstant();
+
+        GetSopStatusCountsResponse mockResponse = GetSopStatusCountsResponse.newBuilder()
+                .setSuccess(true)
+                .addCounts(createCount(today.atStartOfDay(zone).toInstant(), "PUBLISHED", 2))
+                .addCounts(createCount(today.atStartOfDay(zone).toInstant(), "DRAFTED", 1))
                 .build();
 
-        when(sopWorkflowClientService.getDepartmentSopsByStatus(departmentId))
+        when(sopWorkflowClientService.getSopStatusCounts(from, to, TimeBucket.DAY, zone, departmentId))
                 .thenReturn(mockResponse);
 
         // Act
-        SOPStatusOverviewResponseDto result = analyticsService.getSopOverview(departmentId, "USER", "daily");
+        SOPStatusOverviewResponseDto result = analyticsService.getSopOverview(departmentId, "USER", "daily", zone);
 
         // Assert
-        assertNotNull(result);
         assertEquals(6, result.getPeriods().size());
-        assertNotNull(result.getCounts());
-
-        verify(sopWorkflowClientService).getDepartmentSopsByStatus(departmentId);
+        String todayLabel = today.format(DateTimeFormatter.ofPattern("dd MMM"));
+        assertEquals(todayLabel, result.getPeriods().get(5));
+        assertEquals(2, result.getCounts().get(todayLabel).getPublished());
+        assertEquals(1, result.getCounts().get(todayLabel).getDraft());
+        assertEquals(0, result.getCounts().get(result.getPeriods().get(0)).getPublished());
     }
 
     @Test
-    void getSopOverview_Monthly_ShouldReturnCorrectPeriods() {
+    void getSopOverview_Monthly_AdminCountsEveryDepartment() {
         // Arrange
-        LocalDateTime now = LocalDateTime.now();
-        String dateStr = now.atZone(ZoneId.systemDefault()).toString();
-
-        List<SopByStatus> mockSops = Arrays.asList(
-                createMockSop(UUID.randomUUID(), "SOP 1", "PUBLISHED", dateStr),
-                createMockSop(UUID.randomUUID(), "SOP 2", "UNDER_REVIEWAL", dateStr)
-        );
+        ZoneId zone = ZoneId.of("UTC");
+        LocalDate firstMonth = LocalDate.now(zone).withDayOfMonth(1).minusMonths(5);
+        Instant bucketStart = firstMonth.atStartOfDay(zone).toInstant();
 
-        GetDepartmentSopsByStatusResponse mockResponse = GetDepartmentSopsByStatusResponse.newBuilder()
-                .addAllSops(mockSops)
+        GetSopStatusCountsResponse mockResponse = GetSopStatusCountsResponse.newBuilder()
+                .setSuccess(true)
+                .addCounts(createCount(bucketStart, "UNDER_REVIEWAL", 3))
                 .build();
 
-        when(sopWorkflowClientService.getSopsByStatusRequest())
+        when(sopWorkflowClientService.getSopStatusCounts(eq(bucketStart), any(), eq(TimeBucket.MONTH), eq(zone), isNull()))
                 .thenReturn(mockResponse);
 
         // Act
-        SOPStatusOverviewResponseDto result = analyticsService.getSopOverview(departmentId, "ADMIN", "monthly");
+        SOPStatusOverviewResponseDto result = analyticsService.getSopOverview(departmentId, "ADMIN", "monthly", zone);
 
         // Assert
-        assertNotNull(result);
         assertEquals(6, result.getPeriods().size());
-        assertNotNull(result.getCounts());
+        assertEquals(3, result.getCounts().get(result.getPeriods().get(0)).getUnderReview());
+    }
 
-        verify(sopWorkflowClientService).getSopsByStatusRequest();
+    @Test
+    void getSopOverview_Weekly_BucketsStartOnMonday() {
+        // Arrange
+        ZoneId zone = ZoneId.of("UTC");
+        LocalDate thisWeek = LocalDate.now(zone).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+        when(sopWorkflowClientService.getSopStatusCounts(
+                thisWeek.minusWeeks(5).atStartOfDay(zone).toInstant(),
+                thisWeek.plusWeeks(1).atStartOfDay(zone).toInstant(),
+                TimeBucket.WEEK, zone, departmentId))
+                .thenReturn(GetSopStatusCountsResponse.newBuilder().setSuccess(true).build());
+
+        // Act
+        SOPStatusOverviewResponseDto result = analyticsService.getSopOverview(departmentId, "USER", "weekly", zone);
+
+        // Assert
+        assertEquals(thisWeek.format(DateTimeFormatter.ofPattern("dd MMM")), result.getPeriods().get(5));
+    }
+
+    @Test
+    void getSopOverview_WhenCountsFail_ShouldThrowException() {
+        // Arrange
+        when(sopWorkflowClientService.getSopStatusCounts(any(), any(), any(), any(), any()))
+                .thenReturn(GetSopStatusCountsResponse.newBuilder().setSuccess(false).setErrorMessage("database down").build());
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                analyticsService.getSopOverview(departmentId, "USER", "daily", ZoneId.of("UTC")));
+        assertTrue(exception.getMessage().contains("database down"));
     }
 
     @Test
     void getSopOverview_InvalidTimeframe_ShouldThrowException() {
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () ->
-                analyticsService.getSopOverview(departmentId, "USER", "invalid"));
+                analyticsService.getSopOverview(departmentId, "USER", "invalid", ZoneId.systemDefault()));
+        verifyNoInteractions(sopWorkflowClientService);
     }
 
-    private SopByStatus createMockSop(UUID id, String title, String status, String date) {
+    private SopStatusCount createCount(Instant bucketStart, String status, long count) {
+        return SopStatusCount.newBuilder()
+                .setBucketStart(Timestamp.newBuilder().setSeconds(bucketStart.getEpochSecond()))
+                .setStatus(status)
+                .setCount(count)
+                .build();
+    }
+
+    private SopByStatus createMockSop(UUID id, String title, String status, Date date) {
+        Timestamp timestamp = Timestamp.newBuilder()
+                .setSeconds(date.getTime() / 1000)
+                .setNanos((int) (date.getTime() % 1000) * 1_000_000)
+                .build();
         return SopByStatus.newBuilder()
                 .setId(id.toString())
                 .setTitle(title)
                 .setStatus(status)
-                .setCreatedAt(date)
-                .setUpdatedAt(date)
+                .setCreatedTime(timestamp)
+                .setUpdatedTime(timestamp)
                 .build();
     }
 }
\ No newline at end of file
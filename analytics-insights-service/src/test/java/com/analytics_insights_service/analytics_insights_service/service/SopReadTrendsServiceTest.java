@@ -0,0 +1,135 @@
+package com.analytics_insights_service.analytics_insights_service.service;
+
+import com.analytics_insights_service.analytics_insights_service.dto.SopReadDeltaDto;
+import com.analytics_insights_service.analytics_insights_service.dto.TrendingSopDto;
+import com.analytics_insights_service.analytics_insights_service.enums.ReadGranularity;
+import com.analytics_insights_service.analytics_insights_service.model.SopReads;
+import com.analytics_insights_service.analytics_insights_service.model.SopReadsDaily;
+import com.analytics_insights_service.analytics_insights_service.model.SopReadsHourly;
+import com.analytics_insights_service.analytics_insights_service.repository.SopReadsRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SopReadTrendsServiceTest {
+
+    private static final Instant HOUR = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SopReadsRepository sopReadsRepository;
+
+    @InjectMocks
+    private SopReadTrendsService sopReadTrendsService;
+
+    @Test
+    void afterPropertiesSet_ShouldSetRetentionOfBothCollections() {
+        // Given
+        when(mongoTemplate.collectionExists(any(Class.class))).thenReturn(true);
+        when(mongoTemplate.getCollectionName(SopReadsHourly.class)).thenReturn("sop_reads_hourly");
+        when(mongoTemplate.getCollectionName(SopReadsDaily.class)).thenReturn("sop_reads_daily");
+        when(mongoTemplate.indexOps(any(Class.class))).thenReturn(mock(IndexOperations.class));
+
+        // When
+        sopReadTrendsService.afterPropertiesSet();
+
+        // Then
+        verify(mongoTemplate, never()).createCollection(any(Class.class));
+        verify(mongoTemplate).executeCommand(new Document("collMod", "sop_reads_hourly")
+                .append("expireAfterSeconds", Duration.ofDays(90).toSeconds()));
+        verify(mongoTemplate).executeCommand(new Document("collMod", "sop_reads_daily")
+                .append("expireAfterSeconds", Duration.ofDays(730).toSeconds()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_ShouldInsertOneMeasurementPerSopAndHourWithDepartment() {
+        // Given
+        when(sopReadsRepository.findAllById(any())).thenReturn(List.of(
+                SopReads.builder().sopId("sop-1").reads(10).departmentId("dept-1").build()));
+        List<SopReadDeltaDto> deltas = List.of(
+                new SopReadDeltaDto("sop-1", 3, Date.from(HOUR.plusSeconds(60))),
+                new SopReadDeltaDto("sop-1", 2, Date.from(HOUR.plusSeconds(120))),
+                new SopReadDeltaDto("sop-1", 4, Date.from(HOUR.plus(Duration.ofHours(1)))),
+                new SopReadDeltaDto("sop-2", 1, Date.from(HOUR)));
+
+        // When
+        sopReadTrendsService.record(deltas);
+
+        // Then
+        ArgumentCaptor<Collection<SopReadsHourly>> inserted = ArgumentCaptor.forClass(Collection.class);
+        verify(mongoTemplate).insertAll(inserted.capture());
+        assertEquals(3, inserted.getValue().size());
+        assertTrue(inserted.getValue().stream().anyMatch(bucket ->
+                bucket.getMeta().getSopId().equals("sop-1")
+                        && "dept-1".equals(bucket.getMeta().getDepartmentId())
+                        && bucket.getHour().equals(Date.from(HOUR))
+                        && bucket.getReads() == 5));
+        assertTrue(inserted.getValue().stream().anyMatch(bucket ->
+                bucket.getMeta().getSopId().equals("sop-2") && bucket.getMeta().getDepartmentId() == null));
+    }
+
+    @Test
+    void record_WhenNoReads_ShouldNotWrite() {
+        // When
+        sopReadTrendsService.record(List.of());
+
+        // Then
+        verifyNoInteractions(mongoTemplate, sopReadsRepository);
+    }
+
+    @Test
+    void getTrendingSops_WithinHourlyRetention_ShouldRankSopsFromHourlyBuckets() {
+        // Given
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofDays(7));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(SopReadsHourly.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "sop-1").append("reads", 4L),
+                        new Document("_id", "sop-2").append("reads", 9L),
+                        new Document("_id", "sop-3").append("reads", 1L)), new Document()));
+
+        // When
+        List<TrendingSopDto> trending = sopReadTrendsService.getTrendingSops(from, to, null, 2);
+
+        // Then
+        assertEquals(List.of(new TrendingSopDto("sop-2", 9), new TrendingSopDto("sop-1", 4)), trending);
+        verify(mongoTemplate, never()).findById(any(), any());
+    }
+
+    @Test
+    void getTrendingSops_WhenWindowReversed_ShouldThrow() {
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () ->
+                sopReadTrendsService.getTrendingSops(HOUR, HOUR.minusSeconds(1), null, null));
+    }
+
+    @Test
+    void getSopReadSeries_WhenHourlyWindowTooLong_ShouldThrow() {
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () ->
+                sopReadTrendsService.getSopReadSeries("sop-1", HOUR, HOUR.plus(Duration.ofDays(60)), ReadGranularity.HOUR));
+    }
+}
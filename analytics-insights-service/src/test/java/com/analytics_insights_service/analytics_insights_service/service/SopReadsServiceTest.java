@@ -12,10 +12,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +35,9 @@ class SopReadsServiceTest {
     @Mock
     private SopReadsRepository sopReadsRepository;
 
+    @Mock
+    private SopReadTrendsService sopReadTrendsService;
+
     @Spy
     private CacheManager cacheManager = new ConcurrentMapCacheManager("sop-reads");
 
@@ -44,22 +54,30 @@ class SopReadsServiceTest {
 
     @Test
     void getSopReads_WhenCached_ShouldReturnFromCache() {
-        // Given
+        // Given - @Cacheable needs the caching proxy, so the service comes from a context with caching enabled
         SopReads sopReads = SopReads.builder()
                 .sopId(TEST_SOP_ID)
                 .reads(5)
                 .build();
-
-        // First call to actually fetch from repository
         when(sopReadsRepository.findById(TEST_SOP_ID)).thenReturn(Optional.of(sopReads));
-        SopReads firstCall = sopReadsService.getSopReads(TEST_SOP_ID);
-
-        // When - Second call should be from cache
-        SopReads secondCall = sopReadsService.getSopReads(TEST_SOP_ID);
 
-        // Then
-        assertEquals(firstCall, secondCall);
-        verify(sopReadsRepository, times(1)).findById(TEST_SOP_ID); // Repository should only be called once
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.register(CachingConfig.class);
+            context.registerBean(SopReadsRepository.class, () -> sopReadsRepository);
+            context.registerBean(SopReadTrendsService.class, () -> sopReadTrendsService);
+            context.registerBean(SopReadsService.class);
+            context.refresh();
+            SopReadsService cachedService = context.getBean(SopReadsService.class);
+
+            // When
+            SopReads firstCall = cachedService.getSopReads(TEST_SOP_ID);
+            SopReads secondCall = cachedService.getSopReads(TEST_SOP_ID);
+
+            // Then
+            assertEquals(firstCall, secondCall);
+            verify(sopReadsRepository, times(1)).findById(TEST_SOP_ID);
+            assertNotNull(context.getBean(CacheManager.class).getCache("sop-reads").get(TEST_SOP_ID));
+        }
     }
 
     @Test
@@ -76,71 +94,82 @@ class SopReadsServiceTest {
     }
 
     @Test
-    void sopViewedListener_WhenSopExists_ShouldIncrementReads() throws JsonProcessingException {
+    void sopViewedListener_ShouldAddBatchReadsPerSopInOneBulk() {
         // Given
-        SopReads existingSopReads = SopReads.builder()
-                .sopId(TEST_SOP_ID)
-                .reads(5)
-                .build();
-        when(sopReadsRepository.findById(TEST_SOP_ID)).thenReturn(Optional.of(existingSopReads));
-        when(sopReadsRepository.save(any(SopReads.class))).thenReturn(existingSopReads);
+        String otherJson = "{\"id\":\"other-sop-id\",\"title\":\"Other SOP\"}";
 
         // When
-        sopReadsService.sopViewedListener(TEST_JSON);
+        sopReadsService.sopViewedListener(List.of(TEST_JSON, otherJson, TEST_JSON));
 
         // Then
-        verify(sopReadsRepository).save(argThat(sopReads ->
-                sopReads.getSopId().equals(TEST_SOP_ID) &&
-                        sopReads.getReads() == 6
-        ));
-
-        // Verify cache was evicted
-        assertNull(cacheManager.getCache("sop-reads").get(TEST_SOP_ID));
+        verify(sopReadsRepository).addReads(Map.of(TEST_SOP_ID, 2L, "other-sop-id", 1L));
+        verify(sopReadsRepository, never()).save(any(SopReads.class));
+        verify(sopReadTrendsService).record(argThat(reads -> reads.size() == 3));
     }
 
     @Test
-    void sopViewedListener_WhenSopDoesNotExist_ShouldCreateNewEntry() throws JsonProcessingException {
+    void sopViewedListener_ShouldEvictOnlyAffectedCounts() {
         // Given
-        when(sopReadsRepository.findById(TEST_SOP_ID)).thenReturn(Optional.empty());
-        when(sopReadsRepository.save(any(SopReads.class))).thenAnswer(i -> i.getArguments()[0]);
+        cacheManager.getCache("sop-reads").put(TEST_SOP_ID, SopReads.builder().sopId(TEST_SOP_ID).reads(5).build());
+        cacheManager.getCache("sop-reads").put("untouched-sop-id", SopReads.builder().sopId("untouched-sop-id").reads(3).build());
 
         // When
-        sopReadsService.sopViewedListener(TEST_JSON);
+        sopReadsService.sopViewedListener(List.of(TEST_JSON));
 
         // Then
-        verify(sopReadsRepository).save(argThat(sopReads ->
-                sopReads.getSopId().equals(TEST_SOP_ID) &&
-                        sopReads.getReads() == 1
-        ));
+        assertNull(cacheManager.getCache("sop-reads").get(TEST_SOP_ID));
+        assertNotNull(cacheManager.getCache("sop-reads").get("untouched-sop-id"));
     }
 
     @Test
-    void sopCreatedListener_ShouldCreateNewEntry() throws JsonProcessingException {
+    void sopReadsAggregatedListener_ShouldAddDeltasPerSop() {
         // Given
-        when(sopReadsRepository.save(any(SopReads.class))).thenAnswer(i -> i.getArguments()[0]);
+        String batch = "[{\"sopId\":\"" + TEST_SOP_ID + "\",\"delta\":3,\"windowStart\":1700000000000}," +
+                "{\"sopId\":\"other-sop-id\",\"delta\":2,\"windowStart\":1700000000000}]";
+        String nextBatch = "[{\"sopId\":\"" + TEST_SOP_ID + "\",\"delta\":4,\"windowStart\":1700000005000}]";
 
+        // When
+        sopReadsService.sopReadsAggregatedListener(List.of(batch, nextBatch));
+
+        // Then
+        verify(sopReadsRepository).addReads(Map.of(TEST_SOP_ID, 7L, "other-sop-id", 2L));
+    }
+
+    @Test
+    void sopCreatedListener_ShouldCreateCountWithoutResettingIt() throws JsonProcessingException {
         // When
         sopReadsService.sopCreatedListener(TEST_JSON);
 
         // Then
-        verify(sopReadsRepository).save(argThat(sopReads ->
-                sopReads.getSopId().equals(TEST_SOP_ID) &&
-                        sopReads.getReads() == 0
-        ));
+        verify(sopReadsRepository).createReads(TEST_SOP_ID, null);
+        verify(sopReadsRepository, never()).save(any(SopReads.class));
 
         // Verify cache was evicted
         assertNull(cacheManager.getCache("sop-reads").get(TEST_SOP_ID));
     }
 
     @Test
-    void sopViewedListener_WithInvalidJson_ShouldHandleException() {
+    void sopViewedListener_WhenBucketsFail_ShouldKeepCountedTotals() {
+        // Given
+        doThrow(new RuntimeException("mongo down")).when(sopReadTrendsService).record(any());
+
+        // When
+        sopReadsService.sopViewedListener(List.of(TEST_JSON));
+
+        // Then
+        verify(sopReadsRepository).addReads(Map.of(TEST_SOP_ID, 1L));
+    }
+
+    @Test
+    void sopViewedListener_WithInvalidJson_ShouldSkipIt() {
         // Given
         String invalidJson = "invalid-json";
 
-        // When/Then
-        assertThrows(JsonProcessingException.class, () ->
-                sopReadsService.sopViewedListener(invalidJson)
-        );
+        // When
+        sopReadsService.sopViewedListener(List.of(invalidJson, TEST_JSON));
+
+        // Then
+        verify(sopReadsRepository).addReads(Map.of(TEST_SOP_ID, 1L));
     }
 
     @Test
@@ -157,26 +186,26 @@ class SopReadsServiceTest {
     @Test
     void cacheEviction_ShouldWork() {
         // Given
-        SopReads sopReads = SopReads.builder()
-                .sopId(TEST_SOP_ID)
-                .reads(5)
-                .build();
-        when(sopReadsRepository.findById(TEST_SOP_ID)).thenReturn(Optional.of(sopReads));
+        CacheManager mockCacheManager = mock(CacheManager.class);
+        Cache cache = mock(Cache.class);
+        when(mockCacheManager.getCache("sop-reads")).thenReturn(cache);
+        SopReadsService service = new SopReadsService(sopReadsRepository, sopReadTrendsService, mockCacheManager);
 
-        // When - First call to cache the value
-        sopReadsService.getSopReads(TEST_SOP_ID);
+        // When
+        service.sopViewedListener(List.of(TEST_JSON));
 
-        // Then - Verify value is in cache
-        assertNotNull(cacheManager.getCache("sop-reads").get(TEST_SOP_ID));
+        // Then
+        verify(cache).evict(TEST_SOP_ID);
+        verifyNoMoreInteractions(cache);
+    }
 
-        // When - Trigger cache eviction through Kafka listener
-        try {
-            sopReadsService.sopCreatedListener(TEST_JSON);
-        } catch (JsonProcessingException e) {
-            fail("Should not throw exception");
-        }
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
 
-        // Then - Verify cache was evicted
-        assertNull(cacheManager.getCache("sop-reads").get(TEST_SOP_ID));
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("sop-reads");
+        }
     }
-}
\ No newline at end of file
+}
@@ -18,18 +18,14 @@ import org.springframework.stereotype.Service;
 import sopVersionService.GetSopVersionsResponse;
 import userService.getUserInfoResponse;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
-import org.springframework.retry.annotation.Retryable;
-import org.springframework.retry.annotation.Backoff;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class SOPReportService {
 
     private static final Logger log = LoggerFactory.getLogger(SOPReportService.class);
-    private static final int MAX_RETRY_ATTEMPTS = 3;
-    private static final long RETRY_DELAY_MS = 1000;
 
     private final SOPReportRepository repository;
     private final VersionClientService versionClientService;
@@ -119,61 +115,45 @@ public class SOPReportService {
                 .orElseThrow(() -> new RuntimeException("Report not found with id: " + reportId));
     }
 
-    @Retryable(
-            value = { Exception.class },
-            maxAttempts = MAX_RETRY_ATTEMPTS,
-            backoff = @Backoff(delay = RETRY_DELAY_MS)
-    )
+    // every lookup of the report is sent at once instead of one after the other
     public ReportResponseDto mapReportToReportResponseDTO(SOPReport sopReport) {
-        // Default values
-        String authorName = "Unknown";
-        String approverName = "Unknown";
-        List<String> reviewersInfo = new ArrayList<>();
-        int versionsCount = 0;
-
-        // Get versions info
-        if (sopReport.getSopId() != null) {
-            GetSopVersionsResponse versionsResponse = versionClientService.GetSopVersions(sopReport.getSopId());
-            if (versionsResponse != null && versionsResponse.getSuccess()) {
-                versionsCount = versionsResponse.getVersionsCount();
-            } else {
-                log.warn("Could not fetch versions for SOP: {}", sopReport.getSopId());
+        CompletableFuture<GetSopVersionsResponse> versionsFuture = sopReport.getSopId() != null
+                ? versionClientService.GetSopVersionsAsync(sopReport.getSopId())
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<getUserInfoResponse> authorFuture = getUserInfo(sopReport.getAuthorId());
+        CompletableFuture<getUserInfoResponse> approverFuture = getUserInfo(sopReport.getApproverId());
+        Map<UUID, CompletableFuture<getUserInfoResponse>> reviewerFutures = new LinkedHashMap<>();
+        if (sopReport.getReviewers() != null) {
+            for (UUID reviewerId : sopReport.getReviewers()) {
+                if (reviewerId != null) {
+                    reviewerFutures.put(reviewerId, getUserInfo(reviewerId));
+                }
             }
         }
 
-        // Get author info
-        if (sopReport.getAuthorId() != null) {
-            getUserInfoResponse authorInfo = userInfoClientService.getUserInfo(sopReport.getAuthorId().toString());
-            if (authorInfo != null && authorInfo.getSuccess()) {
-                authorName = authorInfo.getName();
-            }
+        // Get versions info
+        int versionsCount = 0;
+        GetSopVersionsResponse versionsResponse = await(versionsFuture);
+        if (versionsResponse != null && versionsResponse.getSuccess()) {
+            versionsCount = versionsResponse.getVersionsCount();
+        } else if (sopReport.getSopId() != null) {
+            log.warn("Could not fetch versions for SOP: {}", sopReport.getSopId());
         }
 
-        // Get approver info
-        if (sopReport.getApproverId() != null) {
-            getUserInfoResponse approverInfo = userInfoClientService.getUserInfo(sopReport.getApproverId().toString());
-            if (approverInfo != null && approverInfo.getSuccess()) {
-                approverName = approverInfo.getName();
-            }
-        }
+        // Get author and approver info
+        String authorName = userName(await(authorFuture), "Unknown");
+        String approverName = userName(await(approverFuture), "Unknown");
 
         // Get reviewers info
-        if (sopReport.getReviewers() != null) {
-            for (UUID reviewerId : sopReport.getReviewers()) {
-                if (reviewerId != null) {
-                    try {
-                        getUserInfoResponse reviewerInfo = userInfoClientService.getUserInfo(reviewerId.toString());
-                        String reviewerName = (reviewerInfo != null && reviewerInfo.getSuccess())
-                                ? reviewerInfo.getName()
-                                : "Unknown Reviewer";
-                        reviewersInfo.add(reviewerName);
-                    } catch (Exception e) {
-                        log.error("Error fetching reviewer info for {}: {}", reviewerId, e.getMessage());
-                        reviewersInfo.add("Unknown Reviewer");
-                    }
-                }
+        List<String> reviewersInfo = new ArrayList<>();
+        reviewerFutures.forEach((reviewerId, reviewerFuture) -> {
+            try {
+                reviewersInfo.add(userName(await(reviewerFuture), "Unknown Reviewer"));
+            } catch (Exception e) {
+                log.error("Error fetching reviewer info for {}: {}", reviewerId, e.getMessage());
+                reviewersInfo.add("Unknown Reviewer");
             }
-        }
+        });
 
         // Build and return the DTO
         return ReportResponseDto.builder()
@@ -189,4 +169,26 @@ public class SOPReportService {
                 .reviewers(reviewersInfo)
                 .build();
     }
-}
\ No newline at end of file
+
+    private CompletableFuture<getUserInfoResponse> getUserInfo(UUID userId) {
+        return userId != null
+                ? userInfoClientService.getUserInfoAsync(userId.toString())
+                : CompletableFuture.completedFuture(null);
+    }
+
+    private static String userName(getUserInfoResponse userInfo, String fallback) {
+        return userInfo != null && userInfo.getSuccess() ? userInfo.getName() : fallback;
+    }
+
+    // surface the downstream failure itself rather than the CompletionException wrapping it
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,23 +1,46 @@
 package compliance_reporting_service.compliance_reporting_service.service;
 
+import com.at.grpc.CallPolicy;
+import com.at.grpc.ResilientClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 import userService.getUserInfoRequest;
 import userService.getUserInfoResponse;
 import userService.userServiceGrpc;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserInfoClientService {
 
     @GrpcClient("user-management-service")
-    userServiceGrpc.userServiceBlockingStub userInfoServiceBlockingStub;
+    userServiceGrpc.userServiceFutureStub userInfoServiceFutureStub;
+
+    private final ResilientClient client;
 
+    public UserInfoClientService(MeterRegistry meterRegistry) {
+        this.client = ResilientClient.builder("user-management-service")
+                .defaultPolicy(CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(200)))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
 
     public getUserInfoResponse getUserInfo(String userId) {
+        return client.get("getUserInfo", userId, userInfo(userId));
+    }
+
+    // a report asking for the same user twice shares the call
+    public CompletableFuture<getUserInfoResponse> getUserInfoAsync(String userId) {
+        return client.call("getUserInfo", userId, userInfo(userId));
+    }
+
+    private ResilientClient.Call<getUserInfoResponse> userInfo(String userId) {
         getUserInfoRequest request = getUserInfoRequest.newBuilder()
                 .setUserId(userId)
                 .build();
 
-        return userInfoServiceBlockingStub.getUserInfo(request);
+        return deadline -> userInfoServiceFutureStub.withDeadline(deadline).getUserInfo(request);
     }
 }
@@ -1,23 +1,45 @@
 package compliance_reporting_service.compliance_reporting_service.service;
 
+import com.at.grpc.CallPolicy;
+import com.at.grpc.ResilientClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 
 import sopVersionService.*;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class VersionClientService {
 
     @GrpcClient("version-control-service")
-    VersionServiceGrpc.VersionServiceBlockingStub versionServiceBlockingStub;
+    VersionServiceGrpc.VersionServiceFutureStub versionServiceFutureStub;
+
+    private final ResilientClient client;
 
+    public VersionClientService(MeterRegistry meterRegistry) {
+        this.client = ResilientClient.builder("version-control-service")
+                .defaultPolicy(CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(200)))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
 
     public GetSopVersionsResponse GetSopVersions(String sopId){
-        return versionServiceBlockingStub.getSopVersions(
-                GetSopVersionsRequest
-                        .newBuilder()
-                        .setSopId(sopId)
-                        .build()
-        );
+        return client.get("getSopVersions", sopId, sopVersions(sopId));
+    }
+
+    public CompletableFuture<GetSopVersionsResponse> GetSopVersionsAsync(String sopId){
+        return client.call("getSopVersions", sopId, sopVersions(sopId));
+    }
+
+    private ResilientClient.Call<GetSopVersionsResponse> sopVersions(String sopId) {
+        GetSopVersionsRequest request = GetSopVersionsRequest
+                .newBuilder()
+                .setSopId(sopId)
+                .build();
+
+        return deadline -> versionServiceFutureStub.withDeadline(deadline).getSopVersions(request);
     }
 }
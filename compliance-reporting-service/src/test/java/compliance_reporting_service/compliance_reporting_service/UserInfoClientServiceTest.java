@@ -1,11 +1,14 @@
 package compliance_reporting_service.compliance_reporting_service;
 
 import compliance_reporting_service.compliance_reporting_service.service.UserInfoClientService;
+import com.google.common.util.concurrent.Futures;
+import io.grpc.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 import userService.getUserInfoRequest;
 import userService.getUserInfoResponse;
 import userService.userServiceGrpc;
@@ -17,14 +20,16 @@ import static org.mockito.Mockito.*;
 class UserInfoClientServiceTest {
 
     @Mock
-    private userServiceGrpc.userServiceBlockingStub userInfoServiceBlockingStub;
+    private userServiceGrpc.userServiceFutureStub userInfoServiceFutureStub;
 
-    @InjectMocks
     private UserInfoClientService userInfoClientService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        userInfoClientService = new UserInfoClientService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userInfoClientService, "userInfoServiceFutureStub", userInfoServiceFutureStub);
+        when(userInfoServiceFutureStub.withDeadline(any(Deadline.class))).thenReturn(userInfoServiceFutureStub);
     }
 
     @Test
@@ -36,8 +41,8 @@ class UserInfoClientServiceTest {
                 .setName("John Doe")
                 .build();
 
-        when(userInfoServiceBlockingStub.getUserInfo(any(getUserInfoRequest.class)))
-                .thenReturn(mockResponse);
+        when(userInfoServiceFutureStub.getUserInfo(any(getUserInfoRequest.class)))
+                .thenReturn(Futures.immediateFuture(mockResponse));
 
         // Act
         getUserInfoResponse response = userInfoClientService.getUserInfo(userId);
@@ -48,7 +53,7 @@ class UserInfoClientServiceTest {
 
 
         // Verify that the gRPC stub was called once
-        verify(userInfoServiceBlockingStub, times(1)).getUserInfo(any(getUserInfoRequest.class));
+        verify(userInfoServiceFutureStub, times(1)).getUserInfo(any(getUserInfoRequest.class));
     }
 
     @Test
@@ -60,8 +65,8 @@ class UserInfoClientServiceTest {
                 .setErrorMessage("User not found")
                 .build();
 
-        when(userInfoServiceBlockingStub.getUserInfo(any(getUserInfoRequest.class)))
-                .thenReturn(mockResponse);
+        when(userInfoServiceFutureStub.getUserInfo(any(getUserInfoRequest.class)))
+                .thenReturn(Futures.immediateFuture(mockResponse));
 
         // Act
         getUserInfoResponse response = userInfoClientService.getUserInfo(userId);
@@ -71,6 +76,6 @@ class UserInfoClientServiceTest {
         assertEquals("User not found", response.getErrorMessage());
 
         // Verify that the gRPC stub was called once
-        verify(userInfoServiceBlockingStub, times(1)).getUserInfo(any(getUserInfoRequest.class));
+        verify(userInfoServiceFutureStub, times(1)).getUserInfo(any(getUserInfoRequest.class));
     }
 }
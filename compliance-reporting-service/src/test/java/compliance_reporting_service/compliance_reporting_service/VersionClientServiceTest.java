@@ -1,11 +1,14 @@
 package compliance_reporting_service.compliance_reporting_service;
 
 import compliance_reporting_service.compliance_reporting_service.service.VersionClientService;
+import com.google.common.util.concurrent.Futures;
+import io.grpc.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 import sopVersionService.GetSopVersionsRequest;
 import sopVersionService.GetSopVersionsResponse;
 import sopVersionService.SopVersion;
@@ -18,14 +21,16 @@ import static org.mockito.Mockito.*;
 class VersionClientServiceTest {
 
     @Mock
-    private VersionServiceGrpc.VersionServiceBlockingStub versionServiceBlockingStub;
+    private VersionServiceGrpc.VersionServiceFutureStub versionServiceFutureStub;
 
-    @InjectMocks
     private VersionClientService versionClientService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        versionClientService = new VersionClientService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(versionClientService, "versionServiceFutureStub", versionServiceFutureStub);
+        when(versionServiceFutureStub.withDeadline(any(Deadline.class))).thenReturn(versionServiceFutureStub);
     }
 
     @Test
@@ -48,8 +53,8 @@ class VersionClientServiceTest {
                 .addVersions(version2)
                 .build();
 
-        when(versionServiceBlockingStub.getSopVersions(any(GetSopVersionsRequest.class)))
-                .thenReturn(mockResponse);
+        when(versionServiceFutureStub.getSopVersions(any(GetSopVersionsRequest.class)))
+                .thenReturn(Futures.immediateFuture(mockResponse));
 
         // Act
         GetSopVersionsResponse response = versionClientService.GetSopVersions(sopId);
@@ -61,7 +66,7 @@ class VersionClientServiceTest {
         assertEquals(true, response.getVersions(1).getCurrentVersion());
 
         // Verify that the gRPC stub was called once
-        verify(versionServiceBlockingStub, times(1)).getSopVersions(any(GetSopVersionsRequest.class));
+        verify(versionServiceFutureStub, times(1)).getSopVersions(any(GetSopVersionsRequest.class));
     }
 
     @Test
@@ -73,8 +78,8 @@ class VersionClientServiceTest {
                 .setErrorMessage("SOP not found")
                 .build();
 
-        when(versionServiceBlockingStub.getSopVersions(any(GetSopVersionsRequest.class)))
-                .thenReturn(mockResponse);
+        when(versionServiceFutureStub.getSopVersions(any(GetSopVersionsRequest.class)))
+                .thenReturn(Futures.immediateFuture(mockResponse));
 
         // Act
         GetSopVersionsResponse response = versionClientService.GetSopVersions(sopId);
@@ -84,6 +89,6 @@ class VersionClientServiceTest {
         assertEquals("SOP not found", response.getErrorMessage());
 
         // Verify that the gRPC stub was called once
-        verify(versionServiceBlockingStub, times(1)).getSopVersions(any(GetSopVersionsRequest.class));
+        verify(versionServiceFutureStub, times(1)).getSopVersions(any(GetSopVersionsRequest.class));
     }
 }
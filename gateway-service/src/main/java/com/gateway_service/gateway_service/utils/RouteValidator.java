@@ -25,16 +25,18 @@ public class RouteValidator {
             "/notifications/ws"
     );
 
-    private final Map<String, String> routeRoles = Map.of(
-            "/api/v1/roles", "ADMIN",
-            "/api/v1/users", "ADMIN",
-            "/api/v1/sops/all", "ADMIN",
-            "/api/v1/users/department", "HOD",
-            "/api/v1/departments", "ADMIN",
-            "/api/v1/sops/create", "AUTHOR",
-            "/api/v1/sops/review", "REVIEWER",
-            "/api/v1/sops/approve", "APPROVER"
-
+    // a route covers its path and every path below it, the most specific route decides
+    private final Map<String, Set<String>> routeRoles = Map.of(
+            "/api/v1/roles", Set.of("ADMIN"),
+            "/api/v1/users", Set.of("ADMIN"),
+            "/api/v1/sops/all", Set.of("ADMIN"),
+            "/api/v1/sops/views", Set.of("ADMIN"),
+            "/api/v1/users/department", Set.of("HOD"),
+            "/api/v1/departments", Set.of("ADMIN"),
+            "/api/v1/sops/create", Set.of("AUTHOR"),
+            "/api/v1/sops/review", Set.of("REVIEWER"),
+            "/api/v1/sops/reviews", Set.of("REVIEWER", "APPROVER"),
+            "/api/v1/sops/approve", Set.of("APPROVER")
     );
 
     public Predicate<ServerHttpRequest> isSecured =
@@ -48,21 +50,17 @@ public class RouteValidator {
             };
 
 
-    //     Get required role for a specific path
-    public String getRequiredRole(String path) {
-        // Check for exact matches first
-        for (Map.Entry<String, String> entry : routeRoles.entrySet()) {
-            if (path.equals(entry.getKey())) {
-                return entry.getValue();
-            }
-        }
-        // Fallback to contains-based matching
-        for (Map.Entry<String, String> entry : routeRoles.entrySet()) {
-            if (path.startsWith(entry.getKey())) {
-                return entry.getValue();
+    //     Get the roles admitted to a specific path, null when any role is
+    public Set<String> getRequiredRoles(String path) {
+        String route = null;
+        for (String candidate : routeRoles.keySet()) {
+            // whole path segments only, so /api/v1/sops/reviews is not taken for /api/v1/sops/review
+            boolean matches = path.equals(candidate) || path.startsWith(candidate + "/");
+            if (matches && (route == null || candidate.length() > route.length())) {
+                route = candidate;
             }
         }
-        return null;
+        return route == null ? null : routeRoles.get(route);
     }
 
 
@@ -70,10 +68,10 @@ public class RouteValidator {
 //     Check if user's role matches the required role for the path
 
     public boolean hasRequiredRole(String path, String userRole) {
-        String requiredRole = getRequiredRole(path);
-        if (requiredRole == null) {
+        Set<String> requiredRoles = getRequiredRoles(path);
+        if (requiredRoles == null) {
             return true; // No specific role required
         }
-        return requiredRole.equals(userRole);
+        return userRole != null && requiredRoles.contains(userRole);
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.gateway_service.gateway_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteValidatorTest {
+
+    private final RouteValidator routeValidator = new RouteValidator();
+
+    @Test
+    void hasRequiredRole_BulkReviews_ShouldAdmitReviewersAndApprovers() {
+        // Act & Assert
+        assertTrue(routeValidator.hasRequiredRole("/api/v1/sops/reviews", "REVIEWER"));
+        assertTrue(routeValidator.hasRequiredRole("/api/v1/sops/reviews", "APPROVER"));
+        assertFalse(routeValidator.hasRequiredRole("/api/v1/sops/reviews", "AUTHOR"));
+        assertFalse(routeValidator.hasRequiredRole("/api/v1/sops/reviews", null));
+    }
+
+    @Test
+    void hasRequiredRole_SingleReview_ShouldStillRequireReviewer() {
+        // Act & Assert
+        assertTrue(routeValidator.hasRequiredRole("/api/v1/sops/review/sop-1", "REVIEWER"));
+        assertFalse(routeValidator.hasRequiredRole("/api/v1/sops/review/sop-1", "APPROVER"));
+    }
+
+    @Test
+    void hasRequiredRole_NestedRoute_ShouldUseTheMostSpecificRoute() {
+        // Act & Assert
+        assertTrue(routeValidator.hasRequiredRole("/api/v1/users/department/dept-1", "HOD"));
+        assertTrue(routeValidator.hasRequiredRole("/api/v1/users/user-1", "ADMIN"));
+        assertFalse(routeValidator.hasRequiredRole("/api/v1/users/user-1", "HOD"));
+    }
+
+    @Test
+    void hasRequiredRole_UnlistedPath_ShouldAdmitAnyRole() {
+        // Act & Assert
+        assertTrue(routeValidator.hasRequiredRole("/api/v1/sops/sop-1", "AUTHOR"));
+        assertTrue(routeValidator.hasRequiredRole("/api/v1/usersettings", "AUTHOR"));
+    }
+}
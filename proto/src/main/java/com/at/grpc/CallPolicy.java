@@ -0,0 +1,24 @@
+package com.at.grpc;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * How one rpc method is called: the deadline every attempt shares and, for idempotent reads,
+ * how long to wait before sending a hedged second attempt. A null hedge delay disables hedging.
+ */
+public record CallPolicy(Duration deadline, Duration hedgeDelay) {
+
+    public CallPolicy {
+        Objects.requireNonNull(deadline, "deadline");
+    }
+
+    public static CallPolicy of(Duration deadline) {
+        return new CallPolicy(deadline, null);
+    }
+
+    // only for reads, the slower of the two attempts is cancelled
+    public static CallPolicy hedged(Duration deadline, Duration hedgeDelay) {
+        return new CallPolicy(deadline, Objects.requireNonNull(hedgeDelay, "hedgeDelay"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.at.grpc;
+
+import com.google.protobuf.Timestamp;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Converts dates to and from {@code google.protobuf.Timestamp} for the gRPC contracts.
+ * The old string date fields are still read until every service sends the timestamps.
+ */
+public final class ProtoTimestamps {
+
+    // Date.toString(), the format the string fields were written in
+    private static final DateTimeFormatter LEGACY_FORMAT =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+
+    private ProtoTimestamps() {
+    }
+
+    public static Timestamp toTimestamp(Date date) {
+        long millis = date.getTime();
+        return Timestamp.newBuilder()
+                .setSeconds(Math.floorDiv(millis, 1000))
+                .setNanos((int) Math.floorMod(millis, 1000) * 1_000_000)
+                .build();
+    }
+
+    public static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+
+    public static Date toDate(Timestamp timestamp) {
+        return new Date(timestamp.getSeconds() * 1000 + timestamp.getNanos() / 1_000_000);
+    }
+
+    // the timestamp when the sender set it, otherwise the string field, null if neither is usable
+    public static Date toDate(boolean hasTimestamp, Timestamp timestamp, String legacy) {
+        if (hasTimestamp) {
+            return toDate(timestamp);
+        }
+        if (legacy == null || legacy.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return Date.from(ZonedDateTime.parse(legacy, LEGACY_FORMAT).toInstant());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // for responses that keep the Date.toString() format the string fields had, empty if there is no date
+    public static String format(boolean hasTimestamp, Timestamp timestamp, String legacy) {
+        Date date = toDate(hasTimestamp, timestamp, legacy);
+        return date != null ? date.toString() : "";
+    }
+}
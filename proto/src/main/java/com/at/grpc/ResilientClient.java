@@ -0,0 +1,266 @@
+package com.at.grpc;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Calls one downstream gRPC service through its future stub.
+ * Every call gets the deadline of its method and fails fast with UNAVAILABLE while the circuit is open
+ * or with RESOURCE_EXHAUSTED once the bulkhead's concurrent calls are in use, so a slow downstream
+ * holds neither request threads nor more than its share of connections.
+ * Reads with a dedup key share one in-flight rpc, reads with a hedge delay send a second attempt when
+ * the first is slow. Call latency is recorded as the grpc.client.calls timer when a registry is given.
+ */
+public class ResilientClient {
+
+    private static final Set<Status.Code> FAILURES = EnumSet.of(
+            Status.Code.UNAVAILABLE,
+            Status.Code.DEADLINE_EXCEEDED,
+            Status.Code.RESOURCE_EXHAUSTED,
+            Status.Code.INTERNAL,
+            Status.Code.UNKNOWN);
+
+    private static final ScheduledExecutorService HEDGE_TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "grpc-hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @FunctionalInterface
+    public interface Call<T> {
+        ListenableFuture<T> start(Deadline deadline);
+    }
+
+    private final String name;
+    private final CallPolicy defaultPolicy;
+    private final Map<String, CallPolicy> methodPolicies;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    private ResilientClient(Builder builder) {
+        this.name = builder.name;
+        this.defaultPolicy = builder.defaultPolicy;
+        this.methodPolicies = Map.copyOf(builder.methodPolicies);
+        this.bulkhead = new Semaphore(builder.maxConcurrentCalls);
+        this.circuitBreaker = new CircuitBreaker(builder.failureThreshold, builder.openDuration);
+        this.meterRegistry = builder.meterRegistry;
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public <T> CompletableFuture<T> call(String method, Call<T> call) {
+        return call(method, null, call);
+    }
+
+    // calls of a method with an equal key share one rpc while it is in flight, only for reads
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> call(String method, Object dedupKey, Call<T> call) {
+        if (dedupKey == null) {
+            return execute(method, call);
+        }
+
+        String key = method + ":" + dedupKey;
+        CompletableFuture<T> created = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing.copy();
+        }
+
+        execute(method, call).whenComplete((value, error) -> {
+            inFlight.remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(value);
+            }
+        });
+        return created.copy();
+    }
+
+    // for callers that need the response on their own thread, still bounded by the method's deadline
+    public <T> T get(String method, Call<T> call) {
+        return get(method, null, call);
+    }
+
+    public <T> T get(String method, Object dedupKey, Call<T> call) {
+        try {
+            return call(method, dedupKey, call).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> execute(String method, Call<T> call) {
+        long startedAt = System.nanoTime();
+        if (!bulkhead.tryAcquire()) {
+            record(method, Status.Code.RESOURCE_EXHAUSTED, startedAt);
+            return CompletableFuture.failedFuture(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many concurrent calls to " + name)
+                    .asRuntimeException());
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            record(method, Status.Code.UNAVAILABLE, startedAt);
+            return CompletableFuture.failedFuture(Status.UNAVAILABLE
+                    .withDescription("Circuit to " + name + " is open")
+                    .asRuntimeException());
+        }
+
+        CallPolicy policy = methodPolicies.getOrDefault(method, defaultPolicy);
+        Deadline deadline = Deadline.after(policy.deadline().toNanos(), TimeUnit.NANOSECONDS);
+        Attempts<T> attempts = new Attempts<>(call, deadline);
+        attempts.start();
+
+        if (policy.hedgeDelay() != null) {
+            ScheduledFuture<?> hedge = HEDGE_TIMER.schedule(() -> {
+                if (circuitBreaker.isClosed()) {
+                    attempts.start();
+                }
+            }, policy.hedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+            attempts.result.whenComplete((value, error) -> hedge.cancel(false));
+        }
+
+        attempts.result.whenComplete((value, error) -> {
+            bulkhead.release();
+            Status.Code code = error == null ? Status.Code.OK : Status.fromThrowable(error).getCode();
+            circuitBreaker.record(!FAILURES.contains(code));
+            attempts.cancelRemaining();
+            record(method, code, startedAt);
+        });
+        return attempts.result;
+    }
+
+    private void record(String method, Status.Code code, long startedAt) {
+        if (meterRegistry == null) {
+            return;
+        }
+
+        Timer.builder("grpc.client.calls")
+                .tag("client", name)
+                .tag("method", method)
+                .tag("status", code.name())
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    // the first successful attempt wins, the call fails once every attempt has failed
+    private static final class Attempts<T> {
+
+        private final Call<T> call;
+        private final Deadline deadline;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<ListenableFuture<T>> started = new ArrayList<>();
+        private int pending;
+
+        private Attempts(Call<T> call, Deadline deadline) {
+            this.call = call;
+            this.deadline = deadline;
+        }
+
+        private void start() {
+            ListenableFuture<T> attempt;
+            synchronized (this) {
+                if (result.isDone()) {
+                    return;
+                }
+                pending++;
+                try {
+                    attempt = call.start(deadline);
+                } catch (RuntimeException e) {
+                    failed(e);
+                    return;
+                }
+                started.add(attempt);
+            }
+
+            Futures.addCallback(attempt, new FutureCallback<>() {
+                @Override
+                public void onSuccess(T value) {
+                    result.complete(value);
+                }
+
+                @Override
+                public void onFailure(Throwable error) {
+                    failed(error);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        private synchronized void failed(Throwable error) {
+            if (--pending == 0) {
+                result.completeExceptionally(error);
+            }
+        }
+
+        private void cancelRemaining() {
+            List<ListenableFuture<T>> attempts;
+            synchronized (this) {
+                attempts = List.copyOf(started);
+            }
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    public static final class Builder {
+
+        private final String name;
+        private CallPolicy defaultPolicy = CallPolicy.of(Duration.ofSeconds(5));
+        private final Map<String, CallPolicy> methodPolicies = new HashMap<>();
+        private int maxConcurrentCalls = 64;
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private MeterRegistry meterRegistry;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder defaultPolicy(CallPolicy policy) {
+            this.defaultPolicy = policy;
+            return this;
+        }
+
+        public Builder method(String method, CallPolicy policy) {
+            this.methodPolicies.put(method, policy);
+            return this;
+        }
+
+        public Builder maxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        public Builder circuitBreaker(int failureThreshold, Duration openDuration) {
+            this.failureThreshold = failureThreshold;
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        // null leaves the calls unmeasured
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        public ResilientClient build() {
+            return new ResilientClient(this);
+        }
+    }
+}
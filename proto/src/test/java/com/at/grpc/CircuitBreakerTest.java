@@ -0,0 +1,80 @@
+package com.at.grpc;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(50);
+
+    @Test
+    void tryAcquire_WhenFailuresReachThreshold_ShouldOpen() {
+        // Arrange
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, OPEN_DURATION);
+
+        // Act
+        circuitBreaker.record(false);
+        boolean beforeThreshold = circuitBreaker.tryAcquire();
+        circuitBreaker.record(false);
+
+        // Assert
+        assertTrue(beforeThreshold);
+        assertFalse(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.isClosed());
+    }
+
+    @Test
+    void tryAcquire_WhenSuccessBetweenFailures_ShouldStayClosed() {
+        // Arrange
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, OPEN_DURATION);
+
+        // Act
+        circuitBreaker.record(false);
+        circuitBreaker.record(true);
+        circuitBreaker.record(false);
+
+        // Assert
+        assertTrue(circuitBreaker.tryAcquire());
+        assertTrue(circuitBreaker.isClosed());
+    }
+
+    @Test
+    void tryAcquire_AfterOpenPeriod_ShouldLetOneTrialThroughAndCloseOnSuccess() throws InterruptedException {
+        // Arrange
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, OPEN_DURATION);
+        circuitBreaker.record(false);
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+
+        // Act
+        boolean trial = circuitBreaker.tryAcquire();
+        boolean secondWhileHalfOpen = circuitBreaker.tryAcquire();
+        circuitBreaker.record(true);
+
+        // Assert
+        assertTrue(trial);
+        assertFalse(secondWhileHalfOpen);
+        assertTrue(circuitBreaker.isClosed());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void record_WhenTrialFails_ShouldOpenAgain() throws InterruptedException {
+        // Arrange
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, OPEN_DURATION);
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.record(false);
+        }
+        Thread.sleep(OPEN_DURATION.toMillis() + 20);
+        assertTrue(circuitBreaker.tryAcquire());
+
+        // Act
+        circuitBreaker.record(false);
+
+        // Assert
+        assertFalse(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.isClosed());
+    }
+}
@@ -0,0 +1,185 @@
+package com.at.grpc;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientClientTest {
+
+    @Test
+    void call_WhenFirstAttemptIsSlow_ShouldHedgeAndCancelTheLoser() throws Exception {
+        // Arrange
+        ResilientClient client = ResilientClient.builder("workflow")
+                .method("getSop", CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(50)))
+                .build();
+        SettableFuture<String> slow = SettableFuture.create();
+        SettableFuture<String> fast = SettableFuture.create();
+        fast.set("hedged");
+        Attempts attempts = new Attempts(slow, fast);
+        CountDownLatch loserDone = new CountDownLatch(1);
+        slow.addListener(loserDone::countDown, MoreExecutors.directExecutor());
+
+        // Act
+        String result = client.call("getSop", attempts).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("hedged", result);
+        assertEquals(2, attempts.started.size());
+        // the loser is cancelled after the result completes, on the hedge timer's thread
+        assertTrue(loserDone.await(1, TimeUnit.SECONDS));
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    void call_WhenFirstAttemptAnswersBeforeHedgeDelay_ShouldNotHedge() throws Exception {
+        // Arrange
+        ResilientClient client = ResilientClient.builder("workflow")
+                .method("getSop", CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(50)))
+                .build();
+        SettableFuture<String> first = SettableFuture.create();
+        first.set("first");
+        Attempts attempts = new Attempts(first);
+
+        // Act
+        String result = client.call("getSop", attempts).get(1, TimeUnit.SECONDS);
+        Thread.sleep(100);
+
+        // Assert
+        assertEquals("first", result);
+        assertEquals(1, attempts.started.size());
+    }
+
+    @Test
+    void call_WhenBulkheadFull_ShouldRejectWithoutCalling() {
+        // Arrange
+        ResilientClient client = ResilientClient.builder("workflow")
+                .maxConcurrentCalls(1)
+                .build();
+        SettableFuture<String> pending = SettableFuture.create();
+        Attempts attempts = new Attempts(pending);
+        client.call("getSop", attempts);
+
+        // Act
+        CompletableFuture<String> rejected = client.call("getSop", attempts);
+
+        // Assert
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, statusOf(rejected));
+        assertEquals(1, attempts.started.size());
+    }
+
+    @Test
+    void call_WhenBulkheadCallCompletes_ShouldReleaseItsPermit() throws Exception {
+        // Arrange
+        ResilientClient client = ResilientClient.builder("workflow")
+                .maxConcurrentCalls(1)
+                .build();
+        SettableFuture<String> first = SettableFuture.create();
+        SettableFuture<String> second = SettableFuture.create();
+        second.set("second");
+        Attempts attempts = new Attempts(first, second);
+        CompletableFuture<String> firstCall = client.call("getSop", attempts);
+
+        // Act
+        first.set("first");
+        String result = client.call("getSop", attempts).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("first", firstCall.get(1, TimeUnit.SECONDS));
+        assertEquals("second", result);
+    }
+
+    @Test
+    void call_WhenCircuitOpen_ShouldFailFastWithoutCalling() {
+        // Arrange
+        ResilientClient client = ResilientClient.builder("workflow")
+                .circuitBreaker(1, Duration.ofSeconds(30))
+                .build();
+        SettableFuture<String> failing = SettableFuture.create();
+        failing.setException(Status.UNAVAILABLE.asRuntimeException());
+        Attempts attempts = new Attempts(failing);
+        assertEquals(Status.Code.UNAVAILABLE, statusOf(client.call("getSop", attempts)));
+
+        // Act
+        CompletableFuture<String> rejected = client.call("getSop", attempts);
+
+        // Assert
+        assertEquals(Status.Code.UNAVAILABLE, statusOf(rejected));
+        assertEquals(1, attempts.started.size());
+    }
+
+    @Test
+    void call_WithSameDedupKey_ShouldShareOneInFlightRpc() throws Exception {
+        // Arrange
+        ResilientClient client = ResilientClient.builder("workflow").build();
+        SettableFuture<String> pending = SettableFuture.create();
+        Attempts attempts = new Attempts(pending);
+
+        // Act
+        CompletableFuture<String> first = client.call("getSop", "sop-1", attempts);
+        CompletableFuture<String> second = client.call("getSop", "sop-1", attempts);
+        pending.set("shared");
+
+        // Assert
+        assertEquals(1, attempts.started.size());
+        assertEquals("shared", first.get(1, TimeUnit.SECONDS));
+        assertEquals("shared", second.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void call_WhenSharedRpcFails_ShouldFailEveryCallerAndForgetTheKey() throws Exception {
+        // Arrange
+        ResilientClient client = ResilientClient.builder("workflow").build();
+        SettableFuture<String> failing = SettableFuture.create();
+        SettableFuture<String> retried = SettableFuture.create();
+        retried.set("retried");
+        Attempts attempts = new Attempts(failing, retried);
+        CompletableFuture<String> first = client.call("getSop", "sop-1", attempts);
+        CompletableFuture<String> second = client.call("getSop", "sop-1", attempts);
+
+        // Act
+        failing.setException(Status.INTERNAL.asRuntimeException());
+        String result = client.call("getSop", "sop-1", attempts).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(Status.Code.INTERNAL, statusOf(first));
+        assertEquals(Status.Code.INTERNAL, statusOf(second));
+        assertEquals("retried", result);
+        assertEquals(2, attempts.started.size());
+    }
+
+    private static Status.Code statusOf(CompletableFuture<?> future) {
+        CompletionException error = assertThrows(CompletionException.class, future::join);
+        return Status.fromThrowable(error.getCause()).getCode();
+    }
+
+    // hands out the given futures in order, one per started attempt
+    private static final class Attempts implements ResilientClient.Call<String> {
+
+        private final List<SettableFuture<String>> futures;
+        private final List<Deadline> started = new CopyOnWriteArrayList<>();
+
+        @SafeVarargs
+        private Attempts(SettableFuture<String>... futures) {
+            this.futures = List.of(futures);
+        }
+
+        @Override
+        public ListenableFuture<String> start(Deadline deadline) {
+            started.add(deadline);
+            return futures.get(Math.min(started.size(), futures.size()) - 1);
+        }
+    }
+}
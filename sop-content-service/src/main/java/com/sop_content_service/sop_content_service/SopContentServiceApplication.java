@@ -3,10 +3,12 @@ package com.sop_content_service.sop_content_service;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class SopContentServiceApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(SopContentServiceApplication.class, args);
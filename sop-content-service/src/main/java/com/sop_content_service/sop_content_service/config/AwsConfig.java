@@ -2,11 +2,13 @@ package com.sop_content_service.sop_content_service.config;
 
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
 @Configuration
 public class AwsConfig {
@@ -20,14 +22,25 @@ public class AwsConfig {
     @Value("${aws.s3.region}")
     private String region;
 
+    // set to point at an s3 compatible stand-in such as minio or localstack
+    @Value("${aws.s3.endpoint:}")
+    private String endpoint;
+
     @Bean
     public AmazonS3 s3Client() {
         // Print the credentials and region to the console (masking sensitive info)
 
         BasicAWSCredentials credentials = new BasicAWSCredentials(accessKey, secretKey);
-        return AmazonS3ClientBuilder.standard()
-                .withRegion(region)
-                .withCredentials(new AWSStaticCredentialsProvider(credentials))
-                .build();
+        AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(credentials));
+
+        if (StringUtils.hasText(endpoint)) {
+            return builder
+                    .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region))
+                    .withPathStyleAccessEnabled(true)
+                    .build();
+        }
+
+        return builder.withRegion(region).build();
     }
 }
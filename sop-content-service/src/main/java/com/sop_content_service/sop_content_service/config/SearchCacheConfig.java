@@ -0,0 +1,33 @@
+package com.sop_content_service.sop_content_service.config;
+
+import com.sop_content_service.sop_content_service.service.SopSearchCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class SearchCacheConfig {
+
+    // stale search results are recomputed in the background on this pool
+    @Value("${sop.search.cache.refresh-pool-size:2}")
+    private int poolSize;
+
+    @Bean(name = "searchRefreshExecutor", destroyMethod = "shutdown")
+    public ExecutorService searchRefreshExecutor() {
+        return Executors.newFixedThreadPool(poolSize);
+    }
+
+    // an entry is never served past max-stale, so it expires then instead of staying in redis for good.
+    // tag versions have no ttl: there is one per filter combination, and a lost tag could revive stale entries
+    @Bean
+    public RedisCacheManagerBuilderCustomizer searchCacheTtl(
+            @Value("${sop.search.cache.max-stale-seconds:600}") long maxStaleSeconds) {
+        return builder -> builder.withCacheConfiguration(SopSearchCache.ENTRIES_CACHE,
+                builder.cacheDefaults().entryTtl(Duration.ofSeconds(maxStaleSeconds)));
+    }
+}
@@ -0,0 +1,21 @@
+package com.sop_content_service.sop_content_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class UploadConfig {
+
+    // documents attached to one request are streamed to s3 side by side on this pool
+    @Value("${sop.upload.pool-size:8}")
+    private int poolSize;
+
+    @Bean(name = "uploadExecutor", destroyMethod = "shutdown")
+    public ExecutorService uploadExecutor() {
+        return Executors.newFixedThreadPool(poolSize);
+    }
+}
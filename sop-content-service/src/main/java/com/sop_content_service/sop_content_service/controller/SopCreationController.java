@@ -1,10 +1,13 @@
 package com.sop_content_service.sop_content_service.controller;
 
 import com.sop_content_service.sop_content_service.dto.ApiResponse;
+import com.sop_content_service.sop_content_service.dto.CursorPage;
 import com.sop_content_service.sop_content_service.dto.SOPResponseDto;
 import com.sop_content_service.sop_content_service.dto.SopContentDto;
+import com.sop_content_service.sop_content_service.dto.SopSummaryDto;
 import com.sop_content_service.sop_content_service.model.Sop;
 import com.sop_content_service.sop_content_service.service.SopService;
+import com.sop_content_service.sop_content_service.service.SopViewService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -26,11 +29,13 @@ public class SopCreationController {
     private static final Logger log = LoggerFactory.getLogger(SopCreationController.class);
 
     private final SopService sopService;
+    private final SopViewService sopViewService;
 
 
 
-    public SopCreationController(SopService sopService) {
+    public SopCreationController(SopService sopService, SopViewService sopViewService) {
         this.sopService = sopService;
+        this.sopViewService = sopViewService;
 
     }
 
@@ -57,23 +62,28 @@ public class SopCreationController {
     }
 
 
-//      * @return ApiResponse containing a list of SOPDto objects
+//      * @return ApiResponse containing a page of SOP summaries, pass nextCursor back as cursor for the next one
     @GetMapping
-    public ResponseEntity<ApiResponse<List<SOPResponseDto>>> getSops(HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<CursorPage<SopSummaryDto>>> getSops(
+            HttpServletRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
 
         String departmentId = request.getHeader("X-Department-Id");
 
-        List<SOPResponseDto> sops = sopService.getSops(UUID.fromString(departmentId));
-        ApiResponse<List<SOPResponseDto>> response = new ApiResponse<>("Fetched all SOPs successfully.", sops);
+        CursorPage<SopSummaryDto> sops = sopService.getSops(UUID.fromString(departmentId), cursor, limit);
+        ApiResponse<CursorPage<SopSummaryDto>> response = new ApiResponse<>("Fetched all SOPs successfully.", sops);
         return ResponseEntity.status(HttpStatus.OK).body(response);
 
     }
 
-    //      * @return ApiResponse containing a list of SOPDto objects
+    //      * @return ApiResponse containing a page of SOP summaries
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse<List<SOPResponseDto>>> getAllSops() {
-        List<SOPResponseDto> sops = sopService.getAllSops();
-        ApiResponse<List<SOPResponseDto>> response = new ApiResponse<>("Fetched all SOPs successfully.", sops);
+    public ResponseEntity<ApiResponse<CursorPage<SopSummaryDto>>> getAllSops(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<SopSummaryDto> sops = sopService.getAllSops(cursor, limit);
+        ApiResponse<CursorPage<SopSummaryDto>> response = new ApiResponse<>("Fetched all SOPs successfully.", sops);
         return ResponseEntity.status(HttpStatus.OK).body(response);
 
     }
@@ -90,6 +100,23 @@ public class SopCreationController {
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
+    /**
+     * Regenerate the SOP detail views from the source services in the background, for recovery. Admins only.
+     */
+    @PostMapping("/views/rebuild")
+    public ResponseEntity<ApiResponse<Void>> rebuildSopViews(HttpServletRequest request) {
+        if (!"ADMIN".equals(request.getHeader("X-User-Role"))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponse<>("Only admins can rebuild SOP views.", null));
+        }
+
+        if (!sopViewService.rebuildAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>("A SOP view rebuild is already running.", null));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse<>("SOP view rebuild started.", null));
+    }
 
-}
 
+}
@@ -22,7 +22,7 @@ public class SopSearchController {
             @ModelAttribute SopSearchRequest request,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) throws Exception {
         return searchService.searchSOPs(request, page, size, sortBy, sortDir);
     }
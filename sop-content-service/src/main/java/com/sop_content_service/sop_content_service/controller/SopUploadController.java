@@ -0,0 +1,81 @@
+package com.sop_content_service.sop_content_service.controller;
+
+import com.sop_content_service.sop_content_service.dto.ApiResponse;
+import com.sop_content_service.sop_content_service.dto.ChunkedUploadDto;
+import com.sop_content_service.sop_content_service.dto.UploadedPartDto;
+import com.sop_content_service.sop_content_service.service.S3UploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+// resumable uploads: start, send numbered chunks, check which chunks arrived, complete; only the user who started one may touch it
+@RestController
+@RequestMapping("/api/v1/sops/uploads")
+public class SopUploadController {
+
+    private final S3UploadService s3UploadService;
+
+    public SopUploadController(S3UploadService s3UploadService) {
+        this.s3UploadService = s3UploadService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ChunkedUploadDto>> startUpload(
+            @RequestParam String fileName,
+            @RequestParam(required = false) String contentType,
+            @RequestHeader("X-User-Id") UUID userId) {
+        ChunkedUploadDto upload = s3UploadService.startChunkedUpload(fileName, contentType, userId);
+        ApiResponse<ChunkedUploadDto> response = new ApiResponse<>("Upload started successfully.", upload);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    // the chunk is the raw request body, streamed to s3 without being buffered
+    @PutMapping(value = "/{uploadId}/parts/{partNumber}", consumes = "application/octet-stream")
+    public ResponseEntity<ApiResponse<UploadedPartDto>> uploadPart(
+            @PathVariable String uploadId,
+            @PathVariable int partNumber,
+            @RequestParam String key,
+            @RequestHeader("X-User-Id") UUID userId,
+            HttpServletRequest request) throws IOException {
+        try (InputStream body = request.getInputStream()) {
+            UploadedPartDto part = s3UploadService.uploadChunk(key, uploadId, userId, partNumber, body, request.getContentLengthLong());
+            ApiResponse<UploadedPartDto> response = new ApiResponse<>("Part uploaded successfully.", part);
+            return ResponseEntity.status(HttpStatus.OK).body(response);
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<ApiResponse<ChunkedUploadDto>> getUpload(
+            @PathVariable String uploadId,
+            @RequestParam String key,
+            @RequestHeader("X-User-Id") UUID userId) {
+        ChunkedUploadDto upload = s3UploadService.getChunkedUpload(key, uploadId, userId);
+        ApiResponse<ChunkedUploadDto> response = new ApiResponse<>("Fetched upload successfully.", upload);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<ApiResponse<String>> completeUpload(
+            @PathVariable String uploadId,
+            @RequestParam String key,
+            @RequestHeader("X-User-Id") UUID userId) {
+        String fileUrl = s3UploadService.completeChunkedUpload(key, uploadId, userId);
+        ApiResponse<String> response = new ApiResponse<>("Upload completed successfully.", fileUrl);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<ApiResponse<String>> abortUpload(
+            @PathVariable String uploadId,
+            @RequestParam String key,
+            @RequestHeader("X-User-Id") UUID userId) {
+        s3UploadService.abortChunkedUpload(key, uploadId, userId);
+        ApiResponse<String> response = new ApiResponse<>("Upload aborted successfully.", null);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+}
@@ -0,0 +1,20 @@
+package com.sop_content_service.sop_content_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// state of a resumable upload, a client resumes by sending only the parts missing from uploadedParts
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChunkedUploadDto {
+    private String key;
+    private String uploadId;
+    private long minPartSize;
+    private List<UploadedPartDto> uploadedParts;
+}
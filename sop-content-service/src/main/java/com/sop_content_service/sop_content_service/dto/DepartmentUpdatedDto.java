@@ -0,0 +1,16 @@
+package com.sop_content_service.sop_content_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// the department-updated event of user-management, published when a department is renamed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentUpdatedDto {
+    private UUID id;
+    private String name;
+}
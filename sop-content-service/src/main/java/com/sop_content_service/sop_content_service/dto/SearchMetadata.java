@@ -2,11 +2,14 @@ package com.sop_content_service.sop_content_service.dto;
 
 import lombok.Builder;
 import lombok.Data;
+
+import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
-public class SearchMetadata {
+public class SearchMetadata implements Serializable {
     private long totalElements;
     private int totalPages;
     private int currentPage;
@@ -14,4 +17,11 @@ public class SearchMetadata {
     private String sortBy;
     private String sortOrder;
     private List<String> appliedFilters;
+    // false when the total was skipped, totalElements is then only a lower bound
+    private boolean totalExact;
+    private boolean hasNext;
+    // field -> value -> number of matching sops, only computed along with an exact total
+    private Map<String, Map<String, Long>> facets;
+    // keyword searches only: sop id -> field -> highlighted fragments
+    private Map<String, Map<String, List<String>>> highlights;
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import com.sop_content_service.sop_content_service.enums.SOPStatus;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.*;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @Getter
@@ -14,4 +16,6 @@ public class SopContentDto {
     @NotEmpty(message = "SOP body is required")
     private String body;
     private SOPStatus status = SOPStatus.DRAFTED;
+    // urls of documents already uploaded through the chunked upload endpoints
+    private List<String> documentUrls;
 }
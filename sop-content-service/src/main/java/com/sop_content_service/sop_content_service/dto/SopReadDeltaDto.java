@@ -0,0 +1,19 @@
+package com.sop_content_service.sop_content_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// reads of one sop counted since windowStart, published in batches on sop-reads-aggregated
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SopReadDeltaDto {
+    private String sopId;
+    private long delta;
+    private Date windowStart;
+}
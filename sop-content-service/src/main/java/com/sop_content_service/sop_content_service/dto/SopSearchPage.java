@@ -0,0 +1,58 @@
+package com.sop_content_service.sop_content_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sop_content_service.sop_content_service.model.Sop;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of search results with what the search computed alongside it: facet counts over the whole
+ * match set, highlighted fragments keyed by sop id, and whether the total is exact.
+ * When the total is skipped it only counts up to one past the current page, enough for hasNext().
+ */
+public class SopSearchPage extends PageImpl<Sop> {
+
+    private final boolean totalExact;
+    private final Map<String, Map<String, Long>> facets;
+    private final Map<String, Map<String, List<String>>> highlights;
+
+    private SopSearchPage(List<Sop> content, Pageable pageable, long total, boolean totalExact,
+                          Map<String, Map<String, Long>> facets,
+                          Map<String, Map<String, List<String>>> highlights) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+        this.facets = facets;
+        this.highlights = highlights;
+    }
+
+    public static SopSearchPage withTotal(List<Sop> content, Pageable pageable, long total,
+                                          Map<String, Map<String, Long>> facets,
+                                          Map<String, Map<String, List<String>>> highlights) {
+        return new SopSearchPage(content, pageable, total, true, facets, highlights);
+    }
+
+    public static SopSearchPage withoutTotal(List<Sop> content, Pageable pageable, boolean hasNext,
+                                             Map<String, Map<String, List<String>>> highlights) {
+        long total = pageable.getOffset() + content.size() + (hasNext ? 1 : 0);
+        return new SopSearchPage(content, pageable, total, false, null, highlights);
+    }
+
+    // the extras are surfaced through the search metadata rather than the page itself
+    @JsonIgnore
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    @JsonIgnore
+    public Map<String, Map<String, Long>> getFacets() {
+        return facets;
+    }
+
+    @JsonIgnore
+    public Map<String, Map<String, List<String>>> getHighlights() {
+        return highlights;
+    }
+}
@@ -10,4 +10,6 @@ public class SopSearchRequest {
     private String status;
     private String sortBy = "createdAt";
     private String sortOrder = "desc";
+    // false skips the exact total and facets, the response then only says whether a next page exists
+    private boolean exactTotal = true;
 }
\ No newline at end of file
@@ -2,8 +2,10 @@ package com.sop_content_service.sop_content_service.dto;
 
 import lombok.Data;
 
+import java.io.Serializable;
+
 @Data
-public class SopSearchResponse<T> {
+public class SopSearchResponse<T> implements Serializable {
     private T data;
     private String message;
     private String error;
@@ -0,0 +1,28 @@
+package com.sop_content_service.sop_content_service.dto;
+
+import com.sop_content_service.sop_content_service.enums.SOPStatus;
+import com.sop_content_service.sop_content_service.enums.Visibility;
+import lombok.*;
+
+import java.util.Date;
+import java.util.UUID;
+
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SopSummaryDto {
+        private String id;
+        private String coverUrl;
+        private String title;
+        private String description;
+        private String category;
+        private UUID departmentId;
+        private String departmentName;
+        private Visibility visibility;
+        private SOPStatus status;
+        private StageDto author;
+        private Date createdAt;
+        private Date updatedAt;
+}
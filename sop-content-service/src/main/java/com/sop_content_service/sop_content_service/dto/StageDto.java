@@ -16,5 +16,7 @@ public class StageDto {
     private String name;
     private String profilePictureUrl;
     private ApprovalStatus status;
+    // only the latest comments, commentCount counts the whole thread
     private List<CommentDto> comments;
+    private int commentCount;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.sop_content_service.sop_content_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadedPartDto {
+    private int partNumber;
+    private long size;
+    private String eTag;
+}
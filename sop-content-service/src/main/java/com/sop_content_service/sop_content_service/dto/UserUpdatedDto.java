@@ -0,0 +1,16 @@
+package com.sop_content_service.sop_content_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// the part of the user-management user events the content service reads
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserUpdatedDto {
+    private UUID id;
+    private String name;
+}
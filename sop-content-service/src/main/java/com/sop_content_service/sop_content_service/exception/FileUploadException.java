@@ -4,4 +4,8 @@ public class FileUploadException extends RuntimeException {
     public FileUploadException(String message) {
         super(message);
     }
+
+    public FileUploadException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -0,0 +1,28 @@
+package com.sop_content_service.sop_content_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.UUID;
+
+// a started resumable upload and the user who started it, only they may send, complete or abort it
+@Document(collection = "chunked_uploads")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkedUpload {
+
+    @Id
+    private String uploadId;
+    private String key;
+    private UUID ownerId;
+
+    // uploads left unfinished are forgotten after a week
+    @Indexed(expireAfter = "7d")
+    private Date startedAt;
+}
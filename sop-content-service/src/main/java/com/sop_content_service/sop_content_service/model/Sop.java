@@ -5,20 +5,28 @@ import com.sop_content_service.sop_content_service.enums.Visibility;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
 @Document(collection = "sops") // Specifies the MongoDB collection name
+@CompoundIndexes({ // keyset pagination of the listings, one index per branch of the department/visibility filter
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "departmentId_createdAt_id", def = "{'departmentId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "visibility_createdAt_id", def = "{'visibility': 1, 'createdAt': -1, '_id': -1}")
+})
 @Data // Lombok annotation to generate getters, setters, toString, equals, and hashCode
 @NoArgsConstructor // Generates a no-argument constructor
-public class Sop {
+public class Sop implements Serializable {
 
     @Id
     private String id;
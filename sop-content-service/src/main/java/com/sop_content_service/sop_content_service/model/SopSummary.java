@@ -0,0 +1,27 @@
+package com.sop_content_service.sop_content_service.model;
+
+import com.sop_content_service.sop_content_service.enums.SOPStatus;
+import com.sop_content_service.sop_content_service.enums.Visibility;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.UUID;
+
+// projection of the sops collection with what a list card shows, the body and document urls are never read
+@Data
+@NoArgsConstructor
+public class SopSummary {
+
+    private String id;
+    private String coverUrl;
+    private String title;
+    private String description;
+    private String category;
+    private UUID departmentId;
+    private Visibility visibility;
+    private SOPStatus status;
+    private UUID author;
+    private Date createdAt;
+    private Date updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.sop_content_service.sop_content_service.model;
+
+import com.sop_content_service.sop_content_service.dto.SOPResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+// read model of the sop detail page, the enriched response stored as served and kept current from events
+@Document(collection = "sop_views")
+// finds the views a department rename touches
+@CompoundIndex(name = "sop_department", def = "{'sop.departmentId': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SopView {
+
+    @Id
+    private String id;
+    // null once evicted, the next read rebuilds it
+    private SOPResponseDto sop;
+
+    // author, reviewers and approver, to find the views a profile change touches
+    @Indexed
+    private Set<UUID> participants;
+
+    // when the sources were read, a view read earlier never replaces it
+    @Indexed
+    private Date refreshedAt;
+}
@@ -0,0 +1,7 @@
+package com.sop_content_service.sop_content_service.repository;
+
+import com.sop_content_service.sop_content_service.model.ChunkedUpload;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ChunkedUploadRepository extends MongoRepository<ChunkedUpload, String> {
+}
@@ -0,0 +1,22 @@
+package com.sop_content_service.sop_content_service.repository;
+
+import com.sop_content_service.sop_content_service.enums.SOPStatus;
+import com.sop_content_service.sop_content_service.enums.Visibility;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.model.SopSummary;
+import com.sop_content_service.sop_content_service.util.SopCursor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface SopRepositoryCustom {
+    // cursor backed stream of sops holding only the given fields (all fields when empty), must be closed by the caller
+    Stream<Sop> streamSops(Collection<String> fields, SOPStatus status, int batchSize);
+
+    // up to limit summaries after the cursor (from the newest when null), newest first
+    List<SopSummary> findSummaries(SopCursor after, int limit);
+
+    List<SopSummary> findSummariesByDepartmentIdOrVisibility(UUID departmentId, Visibility visibility, SopCursor after, int limit);
+}
@@ -0,0 +1,72 @@
+package com.sop_content_service.sop_content_service.repository;
+
+import com.sop_content_service.sop_content_service.enums.SOPStatus;
+import com.sop_content_service.sop_content_service.enums.Visibility;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.model.SopSummary;
+import com.sop_content_service.sop_content_service.util.SopCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class SopRepositoryCustomImpl implements SopRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public SopRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Stream<Sop> streamSops(Collection<String> fields, SOPStatus status, int batchSize) {
+        Query query = new Query().cursorBatchSize(batchSize);
+
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+
+        fields.forEach(field -> query.fields().include(field));
+
+        return mongoTemplate.stream(query, Sop.class);
+    }
+
+    @Override
+    public List<SopSummary> findSummaries(SopCursor after, int limit) {
+        return findSummaryPage(new ArrayList<>(), after, limit);
+    }
+
+    @Override
+    public List<SopSummary> findSummariesByDepartmentIdOrVisibility(UUID departmentId, Visibility visibility, SopCursor after, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(new Criteria().orOperator(
+                Criteria.where("departmentId").is(departmentId),
+                Criteria.where("visibility").is(visibility)));
+        return findSummaryPage(criteria, after, limit);
+    }
+
+    // seeks straight to the cursor on the (createdAt, _id) index instead of skipping the earlier pages
+    private List<SopSummary> findSummaryPage(List<Criteria> criteria, SopCursor after, int limit) {
+        if (after != null) {
+            criteria.add(after.seek());
+        }
+
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit);
+        if (!criteria.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(criteria));
+        }
+
+        return mongoTemplate.query(Sop.class)
+                .as(SopSummary.class)
+                .matching(query)
+                .all();
+    }
+}
@@ -16,7 +16,7 @@ public interface SopRepositorySearch extends MongoRepository<Sop, String> {
     @Query("{ $or: [ " +
             "{ title: { $regex: ?0, $options: 'i' } }, " +
             "{ description: { $regex: ?0, $options: 'i' } }, " +
-            "{ content: { $regex: ?0, $options: 'i' } } " +
+            "{ body: { $regex: ?0, $options: 'i' } } " +
             "] }")
     Page<Sop> searchByKeyword(String keyword, Pageable pageable);
 }
\ No newline at end of file
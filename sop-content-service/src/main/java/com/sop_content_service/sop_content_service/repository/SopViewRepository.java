@@ -0,0 +1,14 @@
+package com.sop_content_service.sop_content_service.repository;
+
+import com.sop_content_service.sop_content_service.model.SopView;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+public interface SopViewRepository extends MongoRepository<SopView, String>, SopViewRepositoryCustom {
+    List<SopView> findByParticipants(UUID userId);
+    List<SopView> findBySopDepartmentId(UUID departmentId);
+    long deleteByRefreshedAtBefore(Date refreshedAt);
+}
@@ -0,0 +1,8 @@
+package com.sop_content_service.sop_content_service.repository;
+
+import com.sop_content_service.sop_content_service.model.SopView;
+
+public interface SopViewRepositoryCustom {
+    // replaces the stored view unless it was read from the sources after this one, false when it was
+    boolean saveIfNotOlder(SopView view);
+}
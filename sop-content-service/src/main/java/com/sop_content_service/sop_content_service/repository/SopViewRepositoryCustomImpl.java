@@ -0,0 +1,31 @@
+package com.sop_content_service.sop_content_service.repository;
+
+import com.sop_content_service.sop_content_service.model.SopView;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+public class SopViewRepositoryCustomImpl implements SopViewRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public SopViewRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // a newer stored view makes the filter miss, and the upsert then collides on _id
+    @Override
+    public boolean saveIfNotOlder(SopView view) {
+        Query query = Query.query(Criteria.where("_id").is(view.getId()).orOperator(
+                Criteria.where("refreshedAt").lte(view.getRefreshedAt()),
+                Criteria.where("refreshedAt").is(null)));
+        try {
+            mongoTemplate.findAndReplace(query, view, FindAndReplaceOptions.options().upsert());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.sop_content_service.sop_content_service.dto.ChunkedUploadDto;
+import com.sop_content_service.sop_content_service.dto.UploadedPartDto;
+import com.sop_content_service.sop_content_service.exception.BadRequestException;
+import com.sop_content_service.sop_content_service.exception.FileUploadException;
+import com.sop_content_service.sop_content_service.model.ChunkedUpload;
+import com.sop_content_service.sop_content_service.repository.ChunkedUploadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Streams files into S3 with the content length always known up front, so the SDK never buffers a
+ * whole object. Files larger than one part go through a multipart upload, each part read straight from
+ * the (disk spooled) upload at its offset and retried on its own if it fails.
+ * Clients with very large files or unreliable connections use the chunked upload flow instead: they
+ * send parts one request at a time and, after a dropped connection, ask which parts S3 already has.
+ */
+@Service
+public class S3UploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(S3UploadService.class);
+
+    static final String UPLOAD_PREFIX = "uploads/";
+    // S3 rejects smaller parts except for the last one
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final AmazonS3 s3Client;
+    private final ChunkedUploadRepository chunkedUploadRepository;
+    private final Executor uploadExecutor;
+    private final String bucketName;
+    private final long partSize;
+    private final int maxPartAttempts;
+
+    public S3UploadService(AmazonS3 s3Client,
+                           ChunkedUploadRepository chunkedUploadRepository,
+                           @Qualifier("uploadExecutor") Executor uploadExecutor,
+                           @Value("${aws.s3.bucket}") String bucketName,
+                           @Value("${sop.upload.part-size-bytes:8388608}") long partSize,
+                           @Value("${sop.upload.max-part-attempts:3}") int maxPartAttempts) {
+        this.s3Client = s3Client;
+        this.chunkedUploadRepository = chunkedUploadRepository;
+        this.uploadExecutor = uploadExecutor;
+        this.bucketName = bucketName;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.maxPartAttempts = maxPartAttempts;
+    }
+
+    private interface PartSource {
+        InputStream open() throws IOException;
+    }
+
+    // uploads side by side, urls come back in the order of the files
+    public List<String> uploadAll(List<MultipartFile> files) {
+        List<String> keys = files.stream().map(file -> objectKey(file.getOriginalFilename())).toList();
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String key = keys.get(i);
+            uploads.add(CompletableFuture.supplyAsync(() -> upload(file, key), uploadExecutor));
+        }
+
+        try {
+            // waits for every upload, so none is still running when the failed ones are cleaned up
+            CompletableFuture.allOf(uploads.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            // nothing will reference the files that did make it
+            for (int i = 0; i < uploads.size(); i++) {
+                if (!uploads.get(i).isCompletedExceptionally()) {
+                    delete(keys.get(i));
+                }
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return uploads.stream().map(CompletableFuture::join).toList();
+    }
+
+    public String upload(MultipartFile file) {
+        return upload(file, objectKey(file.getOriginalFilename()));
+    }
+
+    private String upload(MultipartFile file, String key) {
+        long size = file.getSize();
+        log.info("Uploading file to S3: {} ({} bytes)", key, size);
+
+        try {
+            if (size <= partSize) {
+                try (InputStream inputStream = file.getInputStream()) {
+                    s3Client.putObject(new PutObjectRequest(bucketName, key, inputStream, metadata(file.getContentType(), size)));
+                }
+            } else {
+                uploadMultipart(file, key, size);
+            }
+        } catch (IOException | AmazonClientException e) {
+            log.error("Failed to upload file to S3: {}", key, e);
+            throw new FileUploadException("Failed to upload file to S3: " + file.getOriginalFilename(), e);
+        }
+
+        String fileUrl = s3Client.getUrl(bucketName, key).toString();
+        log.info("File successfully uploaded to S3. URL: {}", fileUrl);
+        return fileUrl;
+    }
+
+    public ChunkedUploadDto startChunkedUpload(String fileName, String contentType, UUID ownerId) {
+        String key = objectKey(fileName);
+        String uploadId = s3Client.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(bucketName, key, metadata(contentType, -1))).getUploadId();
+        chunkedUploadRepository.save(new ChunkedUpload(uploadId, key, ownerId, new Date()));
+
+        log.info("Started chunked upload {} for {}", uploadId, key);
+        return ChunkedUploadDto.builder()
+                .key(key)
+                .uploadId(uploadId)
+                .minPartSize(MIN_PART_SIZE)
+                .uploadedParts(new ArrayList<>())
+                .build();
+    }
+
+    // re-sending a part number replaces that part, so a client can retry any chunk safely
+    public UploadedPartDto uploadChunk(String key, String uploadId, UUID ownerId, int partNumber, InputStream body, long size) {
+        validateUpload(key, uploadId, ownerId);
+        if (partNumber < 1 || partNumber > 10000) {
+            throw new BadRequestException("Part number must be between 1 and 10000");
+        }
+        if (size <= 0) {
+            throw new BadRequestException("A chunk needs a Content-Length");
+        }
+
+        PartETag partETag = s3Client.uploadPart(partRequest(key, uploadId, partNumber, body, size)).getPartETag();
+        return new UploadedPartDto(partNumber, size, partETag.getETag());
+    }
+
+    public ChunkedUploadDto getChunkedUpload(String key, String uploadId, UUID ownerId) {
+        validateUpload(key, uploadId, ownerId);
+        List<UploadedPartDto> parts = listParts(key, uploadId).stream()
+                .map(part -> new UploadedPartDto(part.getPartNumber(), part.getSize(), part.getETag()))
+                .toList();
+
+        return ChunkedUploadDto.builder()
+                .key(key)
+                .uploadId(uploadId)
+                .minPartSize(MIN_PART_SIZE)
+                .uploadedParts(parts)
+                .build();
+    }
+
+    public String completeChunkedUpload(String key, String uploadId, UUID ownerId) {
+        validateUpload(key, uploadId, ownerId);
+        List<PartETag> partETags = listParts(key, uploadId).stream()
+                .map(part -> new PartETag(part.getPartNumber(), part.getETag()))
+                .toList();
+        if (partETags.isEmpty()) {
+            throw new BadRequestException("No parts have been uploaded for " + uploadId);
+        }
+
+        s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+        chunkedUploadRepository.deleteById(uploadId);
+        log.info("Completed chunked upload {} for {}", uploadId, key);
+        return s3Client.getUrl(bucketName, key).toString();
+    }
+
+    public void abortChunkedUpload(String key, String uploadId, UUID ownerId) {
+        validateUpload(key, uploadId, ownerId);
+        s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+        chunkedUploadRepository.deleteById(uploadId);
+    }
+
+    // urls handed out by this service, the only document urls a sop may reference
+    public boolean isUploadedFile(String url) {
+        return url != null && url.startsWith(s3Client.getUrl(bucketName, UPLOAD_PREFIX).toString());
+    }
+
+    private void uploadMultipart(MultipartFile file, String key, long size) throws IOException {
+        String uploadId = s3Client.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(bucketName, key, metadata(file.getContentType(), -1))).getUploadId();
+
+        try {
+            List<PartETag> partETags = new ArrayList<>();
+            int partCount = (int) ((size + partSize - 1) / partSize);
+            for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                long offset = (partNumber - 1) * partSize;
+                long length = Math.min(partSize, size - offset);
+                partETags.add(uploadPart(key, uploadId, partNumber, () -> openAt(file, offset), length));
+            }
+            s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+        } catch (IOException | RuntimeException e) {
+            s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+            throw e;
+        }
+    }
+
+    // a failed part is re-read from its own offset, earlier parts are kept
+    private PartETag uploadPart(String key, String uploadId, int partNumber, PartSource source, long length) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try (InputStream inputStream = source.open()) {
+                return s3Client.uploadPart(partRequest(key, uploadId, partNumber, inputStream, length)).getPartETag();
+            } catch (IOException | AmazonClientException e) {
+                if (attempt >= maxPartAttempts) {
+                    throw e;
+                }
+                log.warn("Retrying part {} of {} after attempt {} failed: {}", partNumber, key, attempt, e.getMessage());
+            }
+        }
+    }
+
+    private UploadPartRequest partRequest(String key, String uploadId, int partNumber, InputStream inputStream, long length) {
+        return new UploadPartRequest()
+                .withBucketName(bucketName)
+                .withKey(key)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withInputStream(inputStream)
+                .withPartSize(length);
+    }
+
+    private List<PartSummary> listParts(String key, String uploadId) {
+        List<PartSummary> parts = new ArrayList<>();
+        ListPartsRequest request = new ListPartsRequest(bucketName, key, uploadId);
+        PartListing listing;
+        do {
+            listing = s3Client.listParts(request);
+            parts.addAll(listing.getParts());
+            request.setPartNumberMarker(listing.getNextPartNumberMarker());
+        } while (listing.isTruncated());
+
+        parts.sort(Comparator.comparingInt(PartSummary::getPartNumber));
+        return parts;
+    }
+
+    private void delete(String key) {
+        try {
+            s3Client.deleteObject(bucketName, key);
+        } catch (AmazonClientException e) {
+            log.warn("Failed to delete orphaned upload {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static InputStream openAt(MultipartFile file, long offset) throws IOException {
+        InputStream inputStream = file.getInputStream();
+        try {
+            inputStream.skipNBytes(offset);
+            return inputStream;
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    private static ObjectMetadata metadata(String contentType, long contentLength) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        if (contentLength >= 0) {
+            metadata.setContentLength(contentLength);
+        }
+        return metadata;
+    }
+
+    // unique per call, files of one batch are uploaded in parallel and may share a name
+    private static String objectKey(String fileName) {
+        String safeName = fileName == null ? "file" : fileName.replaceAll("[^A-Za-z0-9._-]", "_");
+        return UPLOAD_PREFIX + UUID.randomUUID() + "_" + safeName;
+    }
+
+    private void validateUpload(String key, String uploadId, UUID ownerId) {
+        if (key == null || !key.startsWith(UPLOAD_PREFIX) || key.contains("..")) {
+            throw new BadRequestException("Invalid upload key: " + key);
+        }
+
+        ChunkedUpload upload = chunkedUploadRepository.findById(uploadId)
+                .orElseThrow(() -> new BadRequestException("Unknown upload: " + uploadId));
+        if (!upload.getOwnerId().equals(ownerId) || !upload.getKey().equals(key)) {
+            throw new BadRequestException("You are not authorized to access this upload.");
+        }
+    }
+}
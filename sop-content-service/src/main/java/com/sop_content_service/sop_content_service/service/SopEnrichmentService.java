@@ -0,0 +1,315 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.at.grpc.ProtoTimestamps;
+import com.sop_content_service.sop_content_service.dto.CommentDto;
+import com.sop_content_service.sop_content_service.dto.SOPResponseDto;
+import com.sop_content_service.sop_content_service.dto.SopSummaryDto;
+import com.sop_content_service.sop_content_service.dto.SopVersionDto;
+import com.sop_content_service.sop_content_service.dto.StageDto;
+import com.sop_content_service.sop_content_service.enums.ApprovalStatus;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.model.SopSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import sopVersionService.GetSopsVersionsResponse;
+import sopVersionService.SopVersions;
+import sopWorkflowService.GetWorkflowStagesInfoResponse;
+import sopWorkflowService.WorkflowStageInfo;
+import userService.departmentInfo;
+import userService.getDepartmentNamesResponse;
+import userService.getUsersInfoResponse;
+import userService.userInfo;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link SOPResponseDto}s for a page of SOPs.
+ * All the ids referenced by the page are collected first and resolved with one batched
+ * call per downstream service, issued in parallel on the async stubs, so the number of
+ * round trips no longer depends on the number of SOPs or participants.
+ */
+@Service
+public class SopEnrichmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(SopEnrichmentService.class);
+
+    private final WorkflowClientService workflowClientService;
+    private final UserInfoClientService userInfoClientService;
+    private final VersionClientService versionClientService;
+
+    public SopEnrichmentService(WorkflowClientService workflowClientService,
+                                UserInfoClientService userInfoClientService,
+                                VersionClientService versionClientService) {
+        this.workflowClientService = workflowClientService;
+        this.userInfoClientService = userInfoClientService;
+        this.versionClientService = versionClientService;
+    }
+
+    public SOPResponseDto enrich(Sop sop) {
+        return enrich(List.of(sop)).get(0);
+    }
+
+    public List<SOPResponseDto> enrich(List<Sop> sops) {
+        if (sops.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // collect every id the page refers to, each one is looked up once
+        Set<String> sopIds = new LinkedHashSet<>();
+        Set<String> departmentIds = new LinkedHashSet<>();
+        Set<String> userIds = new LinkedHashSet<>();
+
+        for (Sop sop : sops) {
+            sopIds.add(sop.getId());
+            if (sop.getDepartmentId() != null) {
+                departmentIds.add(sop.getDepartmentId().toString());
+            }
+            addUserId(userIds, sop.getAuthor());
+            addUserId(userIds, sop.getApprover());
+            if (sop.getReviewers() != null) {
+                sop.getReviewers().forEach(reviewerId -> addUserId(userIds, reviewerId));
+            }
+        }
+
+        CompletableFuture<GetSopsVersionsResponse> versionsFuture =
+                versionClientService.GetSopsVersionsAsync(sopIds);
+        CompletableFuture<GetWorkflowStagesInfoResponse> stagesFuture =
+                workflowClientService.getWorkflowStagesAsync(sopIds);
+        CompletableFuture<getDepartmentNamesResponse> departmentsFuture = departmentIds.isEmpty()
+                ? CompletableFuture.completedFuture(getDepartmentNamesResponse.getDefaultInstance())
+                : userInfoClientService.getDepartmentNamesAsync(departmentIds);
+        CompletableFuture<getUsersInfoResponse> usersFuture = userIds.isEmpty()
+                ? CompletableFuture.completedFuture(getUsersInfoResponse.getDefaultInstance())
+                : userInfoClientService.getUsersInfoAsync(userIds);
+
+        Map<String, List<SopVersionDto>> versionsBySop = indexVersions(await(versionsFuture));
+        Map<String, WorkflowStageInfo> stagesBySopAndUser = indexStages(await(stagesFuture));
+        Map<String, String> departmentNames = indexDepartmentNames(await(departmentsFuture));
+        Map<String, userInfo> usersById = indexUsers(await(usersFuture));
+
+        List<SOPResponseDto> responses = new ArrayList<>(sops.size());
+        for (Sop sop : sops) {
+            responses.add(mapSOPToSOPResponseDto(sop, versionsBySop, stagesBySopAndUser, departmentNames, usersById));
+        }
+        return responses;
+    }
+
+    // list cards only name the department and the author, versions and stages are left to the detail view
+    public List<SopSummaryDto> summarize(List<SopSummary> sops) {
+        if (sops.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<String> departmentIds = new LinkedHashSet<>();
+        Set<String> userIds = new LinkedHashSet<>();
+
+        for (SopSummary sop : sops) {
+            if (sop.getDepartmentId() != null) {
+                departmentIds.add(sop.getDepartmentId().toString());
+            }
+            addUserId(userIds, sop.getAuthor());
+        }
+
+        CompletableFuture<getDepartmentNamesResponse> departmentsFuture = departmentIds.isEmpty()
+                ? CompletableFuture.completedFuture(getDepartmentNamesResponse.getDefaultInstance())
+                : userInfoClientService.getDepartmentNamesAsync(departmentIds);
+        CompletableFuture<getUsersInfoResponse> usersFuture = userIds.isEmpty()
+                ? CompletableFuture.completedFuture(getUsersInfoResponse.getDefaultInstance())
+                : userInfoClientService.getUsersInfoAsync(userIds);
+
+        Map<String, String> departmentNames = indexDepartmentNames(await(departmentsFuture));
+        Map<String, userInfo> usersById = indexUsers(await(usersFuture));
+
+        List<SopSummaryDto> summaries = new ArrayList<>(sops.size());
+        for (SopSummary sop : sops) {
+            SopSummaryDto summary = new SopSummaryDto();
+            summary.setId(sop.getId());
+            summary.setCoverUrl(sop.getCoverUrl());
+            summary.setTitle(sop.getTitle());
+            summary.setDescription(sop.getDescription());
+            summary.setCategory(sop.getCategory());
+            summary.setDepartmentId(sop.getDepartmentId());
+            summary.setDepartmentName(sop.getDepartmentId() != null
+                    ? departmentNames.getOrDefault(sop.getDepartmentId().toString(), "")
+                    : "");
+            summary.setVisibility(sop.getVisibility());
+            summary.setStatus(sop.getStatus());
+            summary.setAuthor(createAuthorDto(sop.getAuthor(), usersById));
+            summary.setCreatedAt(sop.getCreatedAt());
+            summary.setUpdatedAt(sop.getUpdatedAt());
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    private SOPResponseDto mapSOPToSOPResponseDto(Sop sop,
+                                                  Map<String, List<SopVersionDto>> versionsBySop,
+                                                  Map<String, WorkflowStageInfo> stagesBySopAndUser,
+                                                  Map<String, String> departmentNames,
+                                                  Map<String, userInfo> usersById) {
+        SOPResponseDto response = new SOPResponseDto();
+        response.setId(sop.getId());
+        response.setTitle(sop.getTitle());
+        response.setStatus(sop.getStatus());
+        response.setCategory(sop.getCategory());
+        response.setBody(sop.getBody());
+        response.setDepartmentId(sop.getDepartmentId());
+        response.setDepartmentName(sop.getDepartmentId() != null
+                ? departmentNames.getOrDefault(sop.getDepartmentId().toString(), "")
+                : "");
+        response.setDocumentUrls(sop.getDocumentUrls());
+        response.setCoverUrl(sop.getCoverUrl());
+        response.setVisibility(sop.getVisibility());
+        response.setDescription(sop.getDescription());
+        response.setCreatedAt(sop.getCreatedAt());
+        response.setVersions(versionsBySop.getOrDefault(sop.getId(), new ArrayList<>()));
+        response.setUpdatedAt(sop.getUpdatedAt());
+
+        List<StageDto> reviewers = new ArrayList<>();
+
+        if (sop.getReviewers() != null) {
+            for (UUID reviewerId : sop.getReviewers()) {
+                reviewers.add(createStageDto(reviewerId, sop.getId(), stagesBySopAndUser, usersById));
+            }
+        }
+
+        response.setApprover(createStageDto(sop.getApprover(), sop.getId(), stagesBySopAndUser, usersById));
+        response.setAuthor(createStageDto(sop.getAuthor(), sop.getId(), stagesBySopAndUser, usersById));
+
+        response.setReviewers(reviewers);
+
+        return response;
+    }
+
+    @SuppressWarnings("deprecation")
+    private StageDto createStageDto(UUID userId,
+                                    String sopId,
+                                    Map<String, WorkflowStageInfo> stagesBySopAndUser,
+                                    Map<String, userInfo> usersById) {
+        if (userId == null) {
+            return null;
+        }
+
+        userInfo user = usersById.get(userId.toString());
+        WorkflowStageInfo stageInfo = stagesBySopAndUser.get(stageKey(sopId, userId.toString()));
+
+        if (user == null) {
+            log.error("User info not found for user: {}", userId);
+        }
+
+        if (stageInfo == null) {
+            log.error("Stage info not found for user: {} on sop: {}", userId, sopId);
+        }
+
+        StageDto stageDto = new StageDto();
+        stageDto.setUserId(userId);
+        stageDto.setName(user != null ? user.getName() : "");
+        stageDto.setProfilePictureUrl(user != null ? user.getProfilePictureUrl() : "");
+        stageDto.setStatus(stageInfo != null ? ApprovalStatus.valueOf(stageInfo.getStatus()) : null);
+        stageDto.setComments(stageInfo == null ? new ArrayList<>() : stageInfo.getCommentsList().stream()
+                .map(comment -> new CommentDto(
+                        comment.getCommentId(),
+                        comment.getComment(),
+                        ProtoTimestamps.toDate(comment.hasCreatedTime(), comment.getCreatedTime(), comment.getCreatedAt())))
+                .collect(Collectors.toList()));
+        stageDto.setCommentCount(stageInfo != null ? stageInfo.getCommentCount() : 0);
+        return stageDto;
+    }
+
+    private StageDto createAuthorDto(UUID userId, Map<String, userInfo> usersById) {
+        if (userId == null) {
+            return null;
+        }
+
+        userInfo user = usersById.get(userId.toString());
+        if (user == null) {
+            log.error("User info not found for user: {}", userId);
+        }
+
+        StageDto stageDto = new StageDto();
+        stageDto.setUserId(userId);
+        stageDto.setName(user != null ? user.getName() : "");
+        stageDto.setProfilePictureUrl(user != null ? user.getProfilePictureUrl() : "");
+        return stageDto;
+    }
+
+    private Map<String, List<SopVersionDto>> indexVersions(GetSopsVersionsResponse response) {
+        if (!response.getSuccess()) {
+            log.error("Error fetching versions: {}", response.getErrorMessage());
+        }
+
+        Map<String, List<SopVersionDto>> versionsBySop = new HashMap<>();
+        for (SopVersions sopVersions : response.getSopVersionsList()) {
+            versionsBySop.put(sopVersions.getSopId(), sopVersions.getVersionsList().stream()
+                    .map(version -> SopVersionDto
+                            .builder()
+                            .versionNumber(version.getVersionNumber())
+                            .currentVersion(version.getCurrentVersion())
+                            .build())
+                    .collect(Collectors.toList()));
+        }
+        return versionsBySop;
+    }
+
+    private Map<String, WorkflowStageInfo> indexStages(GetWorkflowStagesInfoResponse response) {
+        if (!response.getSuccess()) {
+            log.error("Error fetching stage info: {}", response.getErrorMessage());
+        }
+
+        Map<String, WorkflowStageInfo> stagesBySopAndUser = new HashMap<>();
+        for (WorkflowStageInfo stage : response.getStagesList()) {
+            stagesBySopAndUser.putIfAbsent(stageKey(stage.getSopId(), stage.getUserId()), stage);
+        }
+        return stagesBySopAndUser;
+    }
+
+    private Map<String, String> indexDepartmentNames(getDepartmentNamesResponse response) {
+        if (!response.getSuccess()) {
+            log.error("Error fetching department names: {}", response.getErrorMessage());
+        }
+
+        Map<String, String> departmentNames = new HashMap<>();
+        for (departmentInfo department : response.getDepartmentsList()) {
+            departmentNames.put(department.getDepartmentId(), department.getDepartmentName());
+        }
+        return departmentNames;
+    }
+
+    private Map<String, userInfo> indexUsers(getUsersInfoResponse response) {
+        if (!response.getSuccess()) {
+            log.error("Error fetching user info: {}", response.getErrorMessage());
+        }
+
+        Map<String, userInfo> usersById = new HashMap<>();
+        for (userInfo user : response.getUsersList()) {
+            usersById.put(user.getUserId(), user);
+        }
+        return usersById;
+    }
+
+    // surface the downstream failure itself rather than the CompletionException wrapping it
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void addUserId(Set<String> userIds, UUID userId) {
+        if (userId != null) {
+            userIds.add(userId.toString());
+        }
+    }
+
+    private static String stageKey(String sopId, String userId) {
+        return sopId + ":" + userId;
+    }
+}
@@ -1,26 +1,53 @@
 package com.sop_content_service.sop_content_service.service;
 
+import com.at.grpc.ProtoTimestamps;
 import com.sop_content_service.sop_content_service.dto.SopVersionDto;
 import com.sop_content_service.sop_content_service.dto.StageDto;
+import com.sop_content_service.sop_content_service.enums.SOPStatus;
+import com.sop_content_service.sop_content_service.model.Sop;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
 import sopFromWorkflow.*;
 import com.sop_content_service.sop_content_service.dto.SOPResponseDto;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @GrpcService
 @RequiredArgsConstructor
 public class SopGrpcServer extends SopServiceGrpc.SopServiceImplBase {
 
+    private static final int DEFAULT_CHUNK_SIZE = 100;
+    private static final int MAX_CHUNK_SIZE = 1000;
+
+    // SopDetails field name -> Sop property it is read from
+    private static final Map<String, String> SOP_DETAILS_FIELDS = Map.ofEntries(
+            Map.entry("sopId", "id"),
+            Map.entry("title", "title"),
+            Map.entry("description", "description"),
+            Map.entry("body", "body"),
+            Map.entry("category", "category"),
+            Map.entry("departmentId", "departmentId"),
+            Map.entry("visibility", "visibility"),
+            Map.entry("status", "status"),
+            Map.entry("documentUrls", "documentUrls"),
+            Map.entry("coverUrl", "coverUrl"),
+            Map.entry("initiatedBy", "author"),
+            Map.entry("createdAt", "createdAt"),
+            Map.entry("updatedAt", "updatedAt"),
+            Map.entry("createdTime", "createdAt"),
+            Map.entry("updatedTime", "updatedAt")
+    );
+
     private final SopService sopService;
 
     @Override
+    @SuppressWarnings("deprecation")
     public void getSopDetails(GetSopDetailsRequest request, StreamObserver<GetSopDetailsResponse> responseObserver) {
         try {
             log.info("Received gRPC request for SOP details. SOP ID: {}", request.getSopId());
@@ -44,6 +71,8 @@ public class SopGrpcServer extends SopServiceGrpc.SopServiceImplBase {
                     .setAuthor(mapStage(sop.getAuthor()))
                     .setCreatedAt(sop.getCreatedAt().toString())
                     .setUpdatedAt(sop.getUpdatedAt().toString())
+                    .setCreatedTime(ProtoTimestamps.toTimestamp(sop.getCreatedAt()))
+                    .setUpdatedTime(ProtoTimestamps.toTimestamp(sop.getUpdatedAt()))
                     .build();
 
             responseObserver.onNext(response);
@@ -65,7 +94,7 @@ public class SopGrpcServer extends SopServiceGrpc.SopServiceImplBase {
         try {
             log.info("Received gRPC request for all SOP details");
 
-            List<SOPResponseDto> sops = sopService.getAllSops();
+            List<SOPResponseDto> sops = sopService.getAllSopDetails();
 
             List<SopDetails> sopDetailsList = sops.stream()
                     .map(this::mapToSopDetails)
@@ -89,6 +118,84 @@ public class SopGrpcServer extends SopServiceGrpc.SopServiceImplBase {
         }
     }
 
+    @Override
+    public void streamSopDetails(StreamSopDetailsRequest request, StreamObserver<SopDetailsChunk> responseObserver) {
+        log.info("Received gRPC request to stream SOP details. Fields: {}, status: {}",
+                request.getFieldMask().getPathsList(), request.getStatus());
+
+        Set<String> paths = new HashSet<>(request.getFieldMask().getPathsList());
+        Optional<String> unknownPath = paths.stream()
+                .filter(path -> !SOP_DETAILS_FIELDS.containsKey(path))
+                .findFirst();
+
+        if (unknownPath.isPresent()) {
+            responseObserver.onError(
+                    Status.INVALID_ARGUMENT
+                            .withDescription("Unknown SopDetails field: " + unknownPath.get())
+                            .asRuntimeException()
+            );
+            return;
+        }
+
+        SOPStatus status;
+        try {
+            status = request.getStatus().isEmpty() ? null : SOPStatus.valueOf(request.getStatus().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(
+                    Status.INVALID_ARGUMENT
+                            .withDescription("Unknown SOP status: " + request.getStatus())
+                            .asRuntimeException()
+            );
+            return;
+        }
+
+        int chunkSize = request.getChunkSize() > 0
+                ? Math.min(request.getChunkSize(), MAX_CHUNK_SIZE)
+                : DEFAULT_CHUNK_SIZE;
+
+        List<String> fields = paths.stream()
+                .map(SOP_DETAILS_FIELDS::get)
+                .distinct()
+                .toList();
+
+        try (Stream<Sop> sops = sopService.streamSops(fields, status, chunkSize)) {
+            Iterator<Sop> iterator = sops.iterator();
+            SopDetailsChunk.Builder chunk = SopDetailsChunk.newBuilder();
+            int sent = 0;
+
+            while (iterator.hasNext() && !isCancelled(responseObserver)) {
+                chunk.addSopDetails(mapToSopDetails(iterator.next(), paths));
+
+                if (chunk.getSopDetailsCount() == chunkSize) {
+                    responseObserver.onNext(chunk.build());
+                    sent += chunkSize;
+                    chunk = SopDetailsChunk.newBuilder();
+                }
+            }
+
+            if (isCancelled(responseObserver)) {
+                log.info("SOP details stream cancelled by client after {} SOPs", sent);
+                return;
+            }
+
+            if (chunk.getSopDetailsCount() > 0) {
+                responseObserver.onNext(chunk.build());
+                sent += chunk.getSopDetailsCount();
+            }
+
+            responseObserver.onCompleted();
+            log.info("Successfully streamed details for {} SOPs", sent);
+
+        } catch (Exception e) {
+            log.error("Error processing streamSopDetails request", e);
+            responseObserver.onError(
+                    Status.INTERNAL
+                            .withDescription("Error streaming SOP details: " + e.getMessage())
+                            .asRuntimeException()
+            );
+        }
+    }
+
     private List<SopVersion> mapVersions(List<SopVersionDto> versions) {
         if (versions == null) {
             return Collections.emptyList();
@@ -112,6 +219,7 @@ public class SopGrpcServer extends SopServiceGrpc.SopServiceImplBase {
                 .collect(Collectors.toList());
     }
 
+    @SuppressWarnings("deprecation")
     private Stage mapStage(StageDto stage) {
         if (stage == null) {
             return Stage.newBuilder()
@@ -124,7 +232,8 @@ public class SopGrpcServer extends SopServiceGrpc.SopServiceImplBase {
         Stage.Builder stageBuilder = Stage.newBuilder()
                 .setName(stage.getName() != null ? stage.getName() : "")
                 .setProfilePictureUrl(stage.getProfilePictureUrl() != null ? stage.getProfilePictureUrl() : "")
-                .setStatus(stage.getStatus() != null ? stage.getStatus().toString() : "UNKNOWN");
+                .setStatus(stage.getStatus() != null ? stage.getStatus().toString() : "UNKNOWN")
+                .setCommentCount(stage.getCommentCount());
 
         if (stage.getComments() != null) {
             List<Comment> comments = stage.getComments().stream()
@@ -132,6 +241,7 @@ public class SopGrpcServer extends SopServiceGrpc.SopServiceImplBase {
                             .setCommentId(comment.getCommentId())
                             .setComment(comment.getComment())
                             .setCreatedAt(comment.getCreatedAt().toString())
+                            .setCreatedTime(ProtoTimestamps.toTimestamp(comment.getCreatedAt()))
                             .build())
                     .collect(Collectors.toList());
             stageBuilder.addAllComments(comments);
@@ -140,6 +250,7 @@ public class SopGrpcServer extends SopServiceGrpc.SopServiceImplBase {
         return stageBuilder.build();
     }
 
+    @SuppressWarnings("deprecation")
     private SopDetails mapToSopDetails(SOPResponseDto sop) {
         return SopDetails.newBuilder()
                 .setSopId(sop.getId())
@@ -155,6 +266,68 @@ public class SopGrpcServer extends SopServiceGrpc.SopServiceImplBase {
                 .setInitiatedBy(sop.getAuthor() != null ? sop.getAuthor().getName() : "Unknown")
                 .setCreatedAt(sop.getCreatedAt().toString())
                 .setUpdatedAt(sop.getUpdatedAt().toString())
+                .setCreatedTime(ProtoTimestamps.toTimestamp(sop.getCreatedAt()))
+                .setUpdatedTime(ProtoTimestamps.toTimestamp(sop.getUpdatedAt()))
                 .build();
     }
-}
\ No newline at end of file
+
+    // only the requested fields are set, an empty mask means every field
+    @SuppressWarnings("deprecation")
+    private SopDetails mapToSopDetails(Sop sop, Set<String> paths) {
+        SopDetails.Builder builder = SopDetails.newBuilder();
+
+        if (includes(paths, "sopId") && sop.getId() != null) {
+            builder.setSopId(sop.getId());
+        }
+        if (includes(paths, "title") && sop.getTitle() != null) {
+            builder.setTitle(sop.getTitle());
+        }
+        if (includes(paths, "description") && sop.getDescription() != null) {
+            builder.setDescription(sop.getDescription());
+        }
+        if (includes(paths, "body") && sop.getBody() != null) {
+            builder.setBody(sop.getBody());
+        }
+        if (includes(paths, "category") && sop.getCategory() != null) {
+            builder.setCategory(sop.getCategory());
+        }
+        if (includes(paths, "departmentId") && sop.getDepartmentId() != null) {
+            builder.setDepartmentId(sop.getDepartmentId().toString());
+        }
+        if (includes(paths, "visibility") && sop.getVisibility() != null) {
+            builder.setVisibility(sop.getVisibility().toString());
+        }
+        if (includes(paths, "status") && sop.getStatus() != null) {
+            builder.setStatus(sop.getStatus().toString());
+        }
+        if (includes(paths, "documentUrls") && sop.getDocumentUrls() != null) {
+            builder.addAllDocumentUrls(sop.getDocumentUrls());
+        }
+        if (includes(paths, "coverUrl") && sop.getCoverUrl() != null) {
+            builder.setCoverUrl(sop.getCoverUrl());
+        }
+        if (includes(paths, "initiatedBy") && sop.getAuthor() != null) {
+            builder.setInitiatedBy(sop.getAuthor().toString());
+        }
+        // either path fills both representations while the string fields are still sent
+        if ((includes(paths, "createdAt") || paths.contains("createdTime")) && sop.getCreatedAt() != null) {
+            builder.setCreatedAt(sop.getCreatedAt().toString());
+            builder.setCreatedTime(ProtoTimestamps.toTimestamp(sop.getCreatedAt()));
+        }
+        if ((includes(paths, "updatedAt") || paths.contains("updatedTime")) && sop.getUpdatedAt() != null) {
+            builder.setUpdatedAt(sop.getUpdatedAt().toString());
+            builder.setUpdatedTime(ProtoTimestamps.toTimestamp(sop.getUpdatedAt()));
+        }
+
+        return builder.build();
+    }
+
+    // stop reading the cursor once the caller has gone away
+    private static boolean isCancelled(StreamObserver<?> responseObserver) {
+        return responseObserver instanceof ServerCallStreamObserver<?> serverObserver && serverObserver.isCancelled();
+    }
+
+    private static boolean includes(Set<String> paths, String field) {
+        return paths.isEmpty() || paths.contains(field);
+    }
+}
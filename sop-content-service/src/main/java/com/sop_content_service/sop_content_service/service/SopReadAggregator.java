@@ -0,0 +1,135 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.sop_content_service.sop_content_service.dto.SopReadDeltaDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts sop reads in memory and publishes them as {sopId, delta, windowStart} batches instead of
+ * one kafka message per view. Readers only touch a per-sop LongAdder, so a read spike costs no
+ * more than a quiet period; the counters are drained every flush interval, as soon as flush-threshold
+ * reads are pending, and on shutdown.
+ */
+@Service
+public class SopReadAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(SopReadAggregator.class);
+
+    static final String TOPIC = "sop-reads-aggregated";
+    private static final long SHUTDOWN_SEND_TIMEOUT_SECONDS = 10;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final long flushThreshold;
+    private final int maxBatchSize;
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final LongAdder pending = new LongAdder();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile long windowStart = System.currentTimeMillis();
+
+    public SopReadAggregator(KafkaTemplate<String, Object> kafkaTemplate,
+                             @Value("${sop.reads.flush-threshold:10000}") long flushThreshold,
+                             @Value("${sop.reads.max-batch-size:500}") int maxBatchSize) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.flushThreshold = flushThreshold;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void record(String sopId) {
+        counters.computeIfAbsent(sopId, id -> new LongAdder()).increment();
+        pending.increment();
+
+        // whichever reader crosses the threshold drains the counters, the others carry on counting
+        if (pending.sum() >= flushThreshold && flushLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sop.reads.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            CompletableFuture.allOf(drain().toArray(new CompletableFuture[0]))
+                    .get(SHUTDOWN_SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            log.info("Flushed pending sop reads on shutdown");
+        } catch (Exception e) {
+            log.error("Failed to flush pending sop reads on shutdown: {}", e.getMessage(), e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // must hold flushLock
+    private List<CompletableFuture<?>> drain() {
+        Date start = new Date(windowStart);
+        windowStart = System.currentTimeMillis();
+        pending.reset();
+
+        List<SopReadDeltaDto> deltas = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            // sumThenReset swaps each cell out, reads landing meanwhile are carried into the next window
+            long delta = counter.getValue().sumThenReset();
+            if (delta > 0) {
+                deltas.add(new SopReadDeltaDto(counter.getKey(), delta, start));
+            }
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (int from = 0; from < deltas.size(); from += maxBatchSize) {
+            List<SopReadDeltaDto> batch = new ArrayList<>(deltas.subList(from, Math.min(from + maxBatchSize, deltas.size())));
+            sends.add(send(batch));
+        }
+
+        if (!deltas.isEmpty()) {
+            log.debug("Flushed reads of {} sops in {} batches", deltas.size(), sends.size());
+        }
+        return sends;
+    }
+
+    private CompletableFuture<?> send(List<SopReadDeltaDto> batch) {
+        try {
+            return kafkaTemplate.send(TOPIC, batch).whenComplete((result, e) -> {
+                if (e != null) {
+                    restore(batch, e);
+                }
+            });
+        } catch (RuntimeException e) {
+            restore(batch, e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    // a failed batch goes back into the counters and is retried with the next window
+    private void restore(List<SopReadDeltaDto> batch, Throwable e) {
+        log.error("Failed to publish {} sop read deltas, keeping them for the next flush: {}", batch.size(), e.getMessage());
+        for (SopReadDeltaDto delta : batch) {
+            counters.computeIfAbsent(delta.getSopId(), id -> new LongAdder()).add(delta.getDelta());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.sop_content_service.sop_content_service.dto.SopSearchRequest;
+import com.sop_content_service.sop_content_service.dto.SopSearchResponse;
+import com.sop_content_service.sop_content_service.model.Sop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Search result cache keyed by the normalized request and tagged by the filters it depends on.
+ * A tag is the (department, category, status) combination a search filters on, with "*" for an
+ * unused filter. A write to a sop only touches the tags that sop can match, so a search whose
+ * filters exclude it stays cached.
+ * Tags carry a version token. An entry whose tag has moved on is reloaded before it is returned, one that
+ * has only outlived the fresh ttl is still served until max-stale while it is recomputed in the background.
+ */
+@Service
+public class SopSearchCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SopSearchCache.class);
+
+    public static final String ENTRIES_CACHE = "sopSearch";
+    static final String TAGS_CACHE = "sopSearchTags";
+    private static final String ANY = "*";
+
+    private final Cache entries;
+    private final Cache tags;
+    private final Executor refreshExecutor;
+    private final long freshMillis;
+    private final long maxStaleMillis;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public SopSearchCache(CacheManager cacheManager,
+                          @Qualifier("searchRefreshExecutor") Executor refreshExecutor,
+                          @Value("${sop.search.cache.fresh-ttl-seconds:60}") long freshTtlSeconds,
+                          @Value("${sop.search.cache.max-stale-seconds:600}") long maxStaleSeconds) {
+        this.entries = cacheManager.getCache(ENTRIES_CACHE);
+        this.tags = cacheManager.getCache(TAGS_CACHE);
+        this.refreshExecutor = refreshExecutor;
+        this.freshMillis = freshTtlSeconds * 1000;
+        this.maxStaleMillis = maxStaleSeconds * 1000;
+    }
+
+    record Entry(SopSearchResponse<Page<Sop>> response, String tagVersion, long cachedAt) implements Serializable {
+    }
+
+    public SopSearchResponse<Page<Sop>> get(SopSearchRequest request,
+                                            Pageable pageable,
+                                            Supplier<SopSearchResponse<Page<Sop>>> search) {
+        String key = keyOf(request, pageable);
+        String tag = tagOf(request.getDepartment(), request.getCategory(), request.getStatus());
+
+        // an entry whose tag has moved on misses a write it depends on and is never served
+        Entry entry = entries.get(key, Entry.class);
+        if (entry != null && Objects.equals(entry.tagVersion(), tagVersion(tag))) {
+            long age = System.currentTimeMillis() - entry.cachedAt();
+            if (age < freshMillis) {
+                return entry.response();
+            }
+            if (age < maxStaleMillis) {
+                refreshInBackground(key, tag, search);
+                return entry.response();
+            }
+        }
+
+        return load(key, tag, search);
+    }
+
+    // every tag a search matching this sop could be filed under
+    public Set<String> tagsOf(Sop sop) {
+        Set<String> sopTags = new HashSet<>();
+        if (sop == null) {
+            return sopTags;
+        }
+
+        String department = sop.getDepartmentId() != null ? sop.getDepartmentId().toString() : null;
+        String status = sop.getStatus() != null ? sop.getStatus().name() : null;
+
+        for (String d : withAny(department)) {
+            for (String c : withAny(sop.getCategory())) {
+                for (String s : withAny(status)) {
+                    sopTags.add(tagOf(d, c, s));
+                }
+            }
+        }
+        return sopTags;
+    }
+
+    public void invalidate(Collection<String> staleTags) {
+        for (String tag : staleTags) {
+            tags.put(tag, UUID.randomUUID().toString());
+        }
+        log.debug("Invalidated search cache tags: {}", staleTags);
+    }
+
+    private SopSearchResponse<Page<Sop>> load(String key, String tag, Supplier<SopSearchResponse<Page<Sop>>> search) {
+        // the version is read before searching, a write landing mid-search leaves the entry stale
+        String version = tagVersion(tag);
+        SopSearchResponse<Page<Sop>> response = search.get();
+        entries.put(key, new Entry(response, version, System.currentTimeMillis()));
+        return response;
+    }
+
+    private void refreshInBackground(String key, String tag, Supplier<SopSearchResponse<Page<Sop>>> search) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, tag, search);
+                } catch (RuntimeException e) {
+                    // e.g. the search no longer matches anything, drop the entry instead of serving it
+                    log.info("Dropping cached search {}: {}", key, e.getMessage());
+                    entries.evict(key);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key);
+            log.warn("Could not schedule refresh of cached search {}: {}", key, e.getMessage());
+        }
+    }
+
+    private String tagVersion(String tag) {
+        return tags.get(tag, String.class);
+    }
+
+    // sorted, trimmed request fields plus pagination, independent of how the request was built
+    static String keyOf(SopSearchRequest request, Pageable pageable) {
+        Map<String, String> parts = new TreeMap<>();
+        putIfPresent(parts, "category", request.getCategory());
+        putIfPresent(parts, "department", request.getDepartment());
+        putIfPresent(parts, "status", request.getStatus());
+        if (StringUtils.hasText(request.getKeyword())) {
+            // the analyzer and the regex fallback both ignore case and spacing
+            parts.put("keyword", request.getKeyword().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT));
+        }
+        parts.put("exactTotal", String.valueOf(request.isExactTotal()));
+        parts.put("page", String.valueOf(pageable.getPageNumber()));
+        parts.put("size", String.valueOf(pageable.getPageSize()));
+        parts.put("sort", pageable.getSort().toString());
+
+        StringJoiner key = new StringJoiner("&");
+        parts.forEach((name, value) -> key.add(name + "=" + value));
+        return key.toString();
+    }
+
+    // lower-cased so a case variant of a filter can only over-invalidate, never miss
+    private static String tagOf(String department, String category, String status) {
+        return "d=" + tagValue(department) + "|c=" + tagValue(category) + "|s=" + tagValue(status);
+    }
+
+    private static String tagValue(String value) {
+        return StringUtils.hasText(value) ? value.trim().toLowerCase(Locale.ROOT) : ANY;
+    }
+
+    private static List<String> withAny(String value) {
+        return StringUtils.hasText(value) ? List.of(value, ANY) : List.of(ANY);
+    }
+
+    private static void putIfPresent(Map<String, String> parts, String name, String value) {
+        if (StringUtils.hasText(value)) {
+            parts.put(name, value.trim());
+        }
+    }
+}
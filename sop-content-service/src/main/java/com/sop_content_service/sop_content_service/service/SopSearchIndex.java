@@ -0,0 +1,457 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.sop_content_service.sop_content_service.dto.SopSearchRequest;
+import com.sop_content_service.sop_content_service.exception.InvalidSearchParameterException;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.repository.SopRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over the SOP text (title, description and body).
+ * Text is tokenized and stemmed with the english analyzer and ranked with BM25 (lucene's default
+ * similarity); status, category and department are exact-match filters evaluated inside the index,
+ * so a keyword search never has to scan the sops collection.
+ * The index is rebuilt from mongo on startup and periodically, and kept current in between by
+ * {@link SopService} for the writes it serves and by {@link SopSearchIndexListener} for the sop events,
+ * which every instance consumes. Writes served by another instance reach this one with the next rebuild.
+ */
+@Service
+public class SopSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SopSearchIndex.class);
+
+    public static final String RELEVANCE = "relevance";
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String DESCRIPTION = "description";
+    private static final String BODY = "body";
+    private static final String STATUS = "status";
+    private static final String CATEGORY = "category";
+    private static final String DEPARTMENT_ID = "departmentId";
+    private static final String CREATED_AT = "createdAt";
+    private static final String UPDATED_AT = "updatedAt";
+    private static final String TITLE_SORT = "titleSort";
+
+    private static final String[] TEXT_FIELDS = {TITLE, DESCRIPTION, BODY};
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(TITLE, 3f, DESCRIPTION, 2f, BODY, 1f);
+    private static final String[] FACET_FIELDS = {CATEGORY, DEPARTMENT_ID, STATUS};
+    private static final List<String> INDEXED_FIELDS =
+            List.of(TITLE, DESCRIPTION, BODY, STATUS, CATEGORY, DEPARTMENT_ID, CREATED_AT, UPDATED_AT);
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final int FRAGMENTS_PER_FIELD = 3;
+
+    private final SopRepository sopRepository;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+
+    // writeLock is only held for one document at a time, rebuildLock for a whole rebuild
+    private final Object writeLock = new Object();
+    private final Object rebuildLock = new Object();
+
+    private volatile Generation current;
+    // the index a rebuild is filling, writes made meanwhile go to it as well
+    private Generation building;
+    // ids written while building, the rebuild's copy of them is older and skipped
+    private final Set<String> writtenWhileBuilding = new HashSet<>();
+
+    private volatile boolean ready;
+
+    public SopSearchIndex(SopRepository sopRepository) throws IOException {
+        this.sopRepository = sopRepository;
+        this.current = Generation.open(analyzer);
+    }
+
+    // one complete index; a rebuild fills a new one and swaps it in, so searches and writes never wait for it
+    private record Generation(Directory directory, IndexWriter writer, SearcherManager searcherManager) {
+
+        static Generation open(Analyzer analyzer) throws IOException {
+            Directory directory = new ByteBuffersDirectory();
+            IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            return new Generation(directory, writer, new SearcherManager(writer, null));
+        }
+
+        // searchers acquired before the close keep their reader until released
+        void close() throws IOException {
+            searcherManager.close();
+            writer.close();
+        }
+    }
+
+    // totalHits and facets are only computed when the request asks for an exact total
+    public record Hits(List<String> sopIds, long totalHits, boolean hasNext,
+                       Map<String, Map<String, Long>> facets, Query query) {
+    }
+
+    // false until the first full build has completed, callers fall back to querying mongo
+    public boolean isReady() {
+        return ready;
+    }
+
+    // a full rebuild also reconciles anything a missed event left behind
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${sop.search.index.rebuild-interval-ms:900000}",
+            fixedDelayString = "${sop.search.index.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            log.info("Rebuilding SOP search index");
+            Generation next = null;
+            int count = 0;
+
+            try (Stream<Sop> sops = sopRepository.streamSops(INDEXED_FIELDS, null, REBUILD_BATCH_SIZE)) {
+                next = Generation.open(analyzer);
+                synchronized (writeLock) {
+                    building = next;
+                }
+                for (Iterator<Sop> it = sops.iterator(); it.hasNext(); count++) {
+                    Sop sop = it.next();
+                    synchronized (writeLock) {
+                        if (!writtenWhileBuilding.contains(sop.getId())) {
+                            next.writer().updateDocument(new Term(ID, sop.getId()), toDocument(sop));
+                        }
+                    }
+                }
+                next.searcherManager().maybeRefreshBlocking();
+
+                // searchers keep seeing the previous index until the rebuilt one is swapped in here
+                Generation previous;
+                synchronized (writeLock) {
+                    previous = current;
+                    current = next;
+                    building = null;
+                    writtenWhileBuilding.clear();
+                }
+                // picks up the writes made between the first refresh and the swap
+                next.searcherManager().maybeRefreshBlocking();
+                ready = true;
+                previous.close();
+                log.info("SOP search index rebuilt with {} documents", count);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to rebuild SOP search index: {}", e.getMessage(), e);
+                discard(next);
+            }
+        }
+    }
+
+    public void index(Sop sop) {
+        try {
+            write(sop.getId(), writer -> writer.updateDocument(new Term(ID, sop.getId()), toDocument(sop)));
+        } catch (IOException e) {
+            log.error("Failed to index SOP {}: {}", sop.getId(), e.getMessage(), e);
+        }
+    }
+
+    public void remove(String sopId) {
+        try {
+            write(sopId, writer -> writer.deleteDocuments(new Term(ID, sopId)));
+        } catch (IOException e) {
+            log.error("Failed to remove SOP {} from search index: {}", sopId, e.getMessage(), e);
+        }
+    }
+
+    private interface Write {
+        void apply(IndexWriter writer) throws IOException;
+    }
+
+    private void write(String sopId, Write write) throws IOException {
+        Generation target;
+        synchronized (writeLock) {
+            target = current;
+            write.apply(target.writer());
+            if (building != null) {
+                write.apply(building.writer());
+                writtenWhileBuilding.add(sopId);
+            }
+        }
+        try {
+            target.searcherManager().maybeRefresh();
+        } catch (AlreadyClosedException e) {
+            // swapped out by a rebuild, which refreshed its own index after the swap
+        }
+    }
+
+    private void discard(Generation generation) {
+        synchronized (writeLock) {
+            if (building == generation) {
+                building = null;
+                writtenWhileBuilding.clear();
+            }
+        }
+        if (generation != null) {
+            try {
+                generation.close();
+            } catch (IOException e) {
+                log.warn("Failed to close discarded SOP search index: {}", e.getMessage());
+            }
+        }
+    }
+
+    public Hits search(SopSearchRequest request, Pageable pageable) throws IOException {
+        Query query = buildQuery(request);
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - pageable.getPageSize() - 1);
+        // one extra hit tells whether a next page exists
+        int end = offset + pageable.getPageSize() + 1;
+
+        Generation generation = current;
+        IndexSearcher searcher;
+        try {
+            searcher = generation.searcherManager().acquire();
+        } catch (AlreadyClosedException e) {
+            // a rebuild swapped the index in between, the new one is current now
+            generation = current;
+            searcher = generation.searcherManager().acquire();
+        }
+        try {
+            TopDocs topDocs = searcher.search(query, end, toSort(pageable));
+
+            StoredFields storedFields = searcher.storedFields();
+            List<String> sopIds = new ArrayList<>();
+            int pageEnd = Math.min(topDocs.scoreDocs.length, end - 1);
+            for (int i = offset; i < pageEnd; i++) {
+                sopIds.add(storedFields.document(topDocs.scoreDocs[i].doc).get(ID));
+            }
+            boolean hasNext = topDocs.scoreDocs.length == end;
+
+            if (!request.isExactTotal()) {
+                return new Hits(sopIds, -1, hasNext, null, query);
+            }
+
+            FacetCollector facetCollector = new FacetCollector();
+            searcher.search(query, facetCollector);
+            return new Hits(sopIds, facetCollector.totalHits, hasNext, facetCollector.facets(), query);
+        } finally {
+            generation.searcherManager().release(searcher);
+        }
+    }
+
+    // best matching fragments per text field, matched terms wrapped in <em>
+    public Map<String, List<String>> highlight(Query query, Sop sop) {
+        Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<em>", "</em>"), new QueryScorer(query));
+        Map<String, List<String>> highlights = new LinkedHashMap<>();
+
+        for (String field : TEXT_FIELDS) {
+            String text = textOf(sop, field);
+            if (!StringUtils.hasText(text)) {
+                continue;
+            }
+            try {
+                String[] fragments = highlighter.getBestFragments(analyzer, field, text, FRAGMENTS_PER_FIELD);
+                if (fragments.length > 0) {
+                    highlights.put(field, List.of(fragments));
+                }
+            } catch (IOException | InvalidTokenOffsetsException e) {
+                log.warn("Failed to highlight {} of SOP {}: {}", field, sop.getId(), e.getMessage());
+            }
+        }
+        return highlights;
+    }
+
+    private Query buildQuery(SopSearchRequest request) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+
+        try {
+            MultiFieldQueryParser parser = new MultiFieldQueryParser(TEXT_FIELDS, analyzer, FIELD_BOOSTS);
+            builder.add(parser.parse(QueryParser.escape(request.getKeyword())), BooleanClause.Occur.MUST);
+        } catch (ParseException e) {
+            throw new InvalidSearchParameterException("Invalid search keyword: " + request.getKeyword());
+        }
+
+        // filters narrow the match set without taking part in scoring
+        addFilter(builder, STATUS, normalizeStatus(request.getStatus()));
+        addFilter(builder, CATEGORY, normalize(request.getCategory()));
+        addFilter(builder, DEPARTMENT_ID, normalize(request.getDepartment()));
+
+        return builder.build();
+    }
+
+    private void addFilter(BooleanQuery.Builder builder, String field, String value) {
+        if (value != null) {
+            builder.add(new TermQuery(new Term(field, value)), BooleanClause.Occur.FILTER);
+        }
+    }
+
+    private Sort toSort(Pageable pageable) {
+        List<SortField> sortFields = new ArrayList<>();
+
+        for (org.springframework.data.domain.Sort.Order order : pageable.getSort()) {
+            boolean reverse = order.isDescending();
+            switch (order.getProperty()) {
+                case RELEVANCE -> sortFields.add(SortField.FIELD_SCORE);
+                case CREATED_AT -> sortFields.add(new SortField(CREATED_AT, SortField.Type.LONG, reverse));
+                case UPDATED_AT -> sortFields.add(new SortField(UPDATED_AT, SortField.Type.LONG, reverse));
+                case TITLE -> sortFields.add(new SortField(TITLE_SORT, SortField.Type.STRING, reverse));
+                case STATUS -> sortFields.add(new SortField(STATUS, SortField.Type.STRING, reverse));
+                case CATEGORY -> sortFields.add(new SortField(CATEGORY, SortField.Type.STRING, reverse));
+                case "department" -> sortFields.add(new SortField(DEPARTMENT_ID, SortField.Type.STRING, reverse));
+                default -> throw new InvalidSearchParameterException("Invalid sort field: " + order.getProperty());
+            }
+        }
+
+        // ties fall back to relevance, then index order so paging stays stable
+        sortFields.add(SortField.FIELD_SCORE);
+        sortFields.add(SortField.FIELD_DOC);
+        return new Sort(sortFields.toArray(new SortField[0]));
+    }
+
+    private Document toDocument(Sop sop) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, sop.getId(), Field.Store.YES));
+
+        for (String field : TEXT_FIELDS) {
+            String text = textOf(sop, field);
+            if (text != null) {
+                doc.add(new TextField(field, text, Field.Store.NO));
+            }
+        }
+
+        addKeyword(doc, STATUS, sop.getStatus() != null ? sop.getStatus().name() : null);
+        addKeyword(doc, CATEGORY, sop.getCategory());
+        addKeyword(doc, DEPARTMENT_ID, sop.getDepartmentId() != null ? sop.getDepartmentId().toString() : null);
+
+        if (sop.getTitle() != null) {
+            doc.add(new SortedDocValuesField(TITLE_SORT, new BytesRef(sop.getTitle().toLowerCase(Locale.ROOT))));
+        }
+        if (sop.getCreatedAt() != null) {
+            doc.add(new NumericDocValuesField(CREATED_AT, sop.getCreatedAt().getTime()));
+        }
+        if (sop.getUpdatedAt() != null) {
+            doc.add(new NumericDocValuesField(UPDATED_AT, sop.getUpdatedAt().getTime()));
+        }
+        return doc;
+    }
+
+    // indexed normalized and untokenized for filtering, the doc values keep the original for sorting and facets
+    private void addKeyword(Document doc, String field, String value) {
+        if (value != null) {
+            String term = STATUS.equals(field) ? normalizeStatus(value) : normalize(value);
+            if (term != null) {
+                doc.add(new StringField(field, term, Field.Store.NO));
+            }
+            doc.add(new SortedDocValuesField(field, new BytesRef(value)));
+        }
+    }
+
+    private String textOf(Sop sop, String field) {
+        return switch (field) {
+            case TITLE -> sop.getTitle();
+            case DESCRIPTION -> sop.getDescription();
+            case BODY -> sop.getBody();
+            default -> null;
+        };
+    }
+
+    private static String normalize(String value) {
+        return StringUtils.hasText(value) ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String normalizeStatus(String value) {
+        return StringUtils.hasText(value) ? value.trim().toUpperCase(Locale.ROOT) : null;
+    }
+
+    // counts matches per facet value in one pass over the match set, ordinals are resolved once per segment
+    private static final class FacetCollector extends SimpleCollector {
+
+        private final Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        private final SortedDocValues[] values = new SortedDocValues[FACET_FIELDS.length];
+        private final long[][] ordCounts = new long[FACET_FIELDS.length][];
+        private long totalHits;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            flush();
+            for (int i = 0; i < FACET_FIELDS.length; i++) {
+                values[i] = DocValues.getSorted(context.reader(), FACET_FIELDS[i]);
+                ordCounts[i] = new long[values[i].getValueCount()];
+            }
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            totalHits++;
+            for (int i = 0; i < FACET_FIELDS.length; i++) {
+                if (values[i].advanceExact(doc)) {
+                    ordCounts[i][values[i].ordValue()]++;
+                }
+            }
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+
+        Map<String, Map<String, Long>> facets() throws IOException {
+            flush();
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            for (String field : FACET_FIELDS) {
+                // most common values first, the same order $sortByCount gives the database search
+                Map<String, Long> sorted = new LinkedHashMap<>();
+                counts.getOrDefault(field, Map.of()).entrySet().stream()
+                        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                        .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+                facets.put(field, sorted);
+            }
+            return facets;
+        }
+
+        private void flush() throws IOException {
+            for (int i = 0; i < FACET_FIELDS.length; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                for (int ord = 0; ord < ordCounts[i].length; ord++) {
+                    if (ordCounts[i][ord] > 0) {
+                        counts.computeIfAbsent(FACET_FIELDS[i], k -> new HashMap<>())
+                                .merge(values[i].lookupOrd(ord).utf8ToString(), ordCounts[i][ord], Long::sum);
+                    }
+                }
+                values[i] = null;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        current.close();
+        current.directory().close();
+    }
+}
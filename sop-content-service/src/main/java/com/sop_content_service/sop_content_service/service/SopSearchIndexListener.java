@@ -0,0 +1,70 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sop_content_service.sop_content_service.dto.PublishedSopDto;
+import com.sop_content_service.sop_content_service.dto.SOPDto;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.repository.SopRepository;
+import com.sop_content_service.sop_content_service.util.DtoConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps this instance's {@link SopSearchIndex} current with the sop events.
+ * The index lives in memory on every instance, so each listener here joins a consumer group of its own and
+ * every instance receives every event; {@link SopService} writes the same events to mongo once in the shared
+ * group. Only events published after startup are read, the startup rebuild already covers earlier ones.
+ * The indexed sop is taken from the event itself, the instance that writes mongo may not have done so yet.
+ */
+@Service
+public class SopSearchIndexListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SopSearchIndexListener.class);
+
+    private static final String INSTANCE_GROUP = "sop-content-index-${random.uuid}";
+    private static final String FROM_LATEST = "auto.offset.reset=latest";
+
+    private final SopSearchIndex sopSearchIndex;
+    private final SopSearchCache sopSearchCache;
+    private final SopRepository sopRepository;
+
+    public SopSearchIndexListener(SopSearchIndex sopSearchIndex,
+                                  SopSearchCache sopSearchCache,
+                                  SopRepository sopRepository) {
+        this.sopSearchIndex = sopSearchIndex;
+        this.sopSearchCache = sopSearchCache;
+        this.sopRepository = sopRepository;
+    }
+
+    @KafkaListener(topics = "sop-created", groupId = INSTANCE_GROUP, properties = FROM_LATEST)
+    public void sopCreatedListener(String data) throws JsonProcessingException {
+        SOPDto sopDto = DtoConverter.sopDtoFromJson(data);
+        index(SopService.sopFromCreatedEvent(sopDto));
+    }
+
+    // a revert restores content only, the status comes from the stored sop
+    @KafkaListener(topics = "sop-version-reverted", groupId = INSTANCE_GROUP, properties = FROM_LATEST)
+    public void sopVersionRevertedListener(String data) throws JsonProcessingException {
+        PublishedSopDto sopDto = DtoConverter.publishedSopDtoFromJson(data);
+        sopRepository.findById(sopDto.getId()).ifPresent(sop -> {
+            SopService.applyRevertedVersion(sop, sopDto);
+            index(sop);
+        });
+    }
+
+    @KafkaListener(topics = "sop-deleted", groupId = INSTANCE_GROUP, properties = FROM_LATEST)
+    public void sopDeletedListener(String data) throws JsonProcessingException {
+        SOPDto sopDto = DtoConverter.sopDtoFromJson(data);
+        sopSearchIndex.remove(sopDto.getId());
+        log.debug("Removed SOP {} from the search index", sopDto.getId());
+    }
+
+    // results this instance cached before its index caught up are dropped with the tags
+    private void index(Sop sop) {
+        sopSearchIndex.index(sop);
+        sopSearchCache.invalidate(sopSearchCache.tagsOf(sop));
+        log.debug("Indexed SOP {}", sop.getId());
+    }
+}
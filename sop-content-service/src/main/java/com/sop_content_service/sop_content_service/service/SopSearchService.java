@@ -6,7 +6,6 @@ import com.sop_content_service.sop_content_service.model.Sop;
 import com.sop_content_service.sop_content_service.strategy.SearchContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,19 +22,16 @@ import java.util.Objects;
 @Service
 public class SopSearchService {
     private final SearchContext searchContext;
+    private final SopSearchCache sopSearchCache;
     private static final int MAX_PAGE_SIZE = 100;
     private static final String DEFAULT_SORT_FIELD = "createdAt";
     private static final String DEFAULT_SORT_DIRECTION = "desc";
 
-    public SopSearchService(SearchContext searchContext) {
+    public SopSearchService(SearchContext searchContext, SopSearchCache sopSearchCache) {
         this.searchContext = searchContext;
+        this.sopSearchCache = sopSearchCache;
     }
 
-    @Cacheable(
-            value = "sopSearch",
-            key = "#searchRequest.hashCode() + '_' + #page + '_' + #size + '_' + #sortBy + '_' + #sortDir",
-            unless = "#result.body == null || #result.body.data.content.isEmpty()"
-    )
     public ResponseEntity<SopSearchResponse<Page<Sop>>> searchSOPs(
             SopSearchRequest searchRequest,
             int page,
@@ -52,30 +48,18 @@ public class SopSearchService {
             validatePaginationParams(page, size);
 
             // Prepare pagination and sorting
-            sortBy = StringUtils.hasText(sortBy) ? sortBy : DEFAULT_SORT_FIELD;
+            // keyword searches rank by relevance unless another order is asked for
+            sortBy = StringUtils.hasText(sortBy) ? sortBy : defaultSortField(searchRequest);
+            validateSortField(sortBy, searchRequest);
             sortDir = StringUtils.hasText(sortDir) ? sortDir : DEFAULT_SORT_DIRECTION;
             Sort sort = createSort(sortBy, sortDir);
             Pageable pageable = PageRequest.of(page, size, sort);
 
-            // Execute search
-            Page<Sop> results = searchContext.executeSearch(searchRequest, pageable);
+            String sortField = sortBy;
+            String sortDirection = sortDir;
+            SopSearchResponse<Page<Sop>> response = sopSearchCache.get(searchRequest, pageable,
+                    () -> executeSearch(searchRequest, pageable, sortField, sortDirection));
 
-            // Handle empty results
-            if (results.isEmpty()) {
-                log.info("No SOPs found for search criteria: {}", searchRequest);
-                throw new SopNotFoundException("No SOPs found matching the search criteria");
-            }
-
-            // Create metadata and response
-            SearchMetadata metadata = createSearchMetadata(results, sortBy, sortDir, searchRequest);
-
-            SopSearchResponse<Page<Sop>> response = new SopSearchResponse<>(
-                    results,
-                    "SOPs retrieved successfully",
-                    metadata
-            );
-
-            log.debug("Search completed successfully. Found {} results", results.getTotalElements());
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -87,6 +71,29 @@ public class SopSearchService {
         }
     }
 
+    private SopSearchResponse<Page<Sop>> executeSearch(SopSearchRequest searchRequest,
+                                                       Pageable pageable,
+                                                       String sortBy,
+                                                       String sortDir) {
+        Page<Sop> results = searchContext.executeSearch(searchRequest, pageable);
+
+        // Handle empty results
+        if (results.isEmpty()) {
+            log.info("No SOPs found for search criteria: {}", searchRequest);
+            throw new SopNotFoundException("No SOPs found matching the search criteria");
+        }
+
+        // Create metadata and response
+        SearchMetadata metadata = createSearchMetadata(results, sortBy, sortDir, searchRequest);
+
+        log.debug("Search completed successfully. Found {} results", results.getTotalElements());
+        return new SopSearchResponse<>(
+                results,
+                "SOPs retrieved successfully",
+                metadata
+        );
+    }
+
     private void validateSearchRequest(SopSearchRequest request) {
         if (request == null) {
             throw new InvalidSearchParameterException("Search request cannot be null");
@@ -101,6 +108,19 @@ public class SopSearchService {
         }
     }
 
+    private String defaultSortField(SopSearchRequest request) {
+        return StringUtils.hasText(request.getKeyword()) ? SopSearchIndex.RELEVANCE : DEFAULT_SORT_FIELD;
+    }
+
+    private void validateSortField(String sortBy, SopSearchRequest request) {
+        if (!isValidSortField(sortBy)) {
+            throw new InvalidSearchParameterException("Invalid sort field: " + sortBy);
+        }
+        if (SopSearchIndex.RELEVANCE.equals(sortBy) && !StringUtils.hasText(request.getKeyword())) {
+            throw new InvalidSearchParameterException("Sorting by relevance requires a keyword");
+        }
+    }
+
     private boolean hasValidSearchCriteria(SopSearchRequest request) {
         return StringUtils.hasText(request.getKeyword()) ||
                 StringUtils.hasText(request.getDepartment()) ||
@@ -109,7 +129,8 @@ public class SopSearchService {
     }
 
     private boolean isValidSortField(String sortField) {
-        return Objects.equals(sortField, "title") ||
+        return Objects.equals(sortField, SopSearchIndex.RELEVANCE) ||
+                Objects.equals(sortField, "title") ||
                 Objects.equals(sortField, "createdAt") ||
                 Objects.equals(sortField, "updatedAt") ||
                 Objects.equals(sortField, "department") ||
@@ -145,6 +166,8 @@ public class SopSearchService {
             String sortBy,
             String sortDir,
             SopSearchRequest request) {
+        SopSearchPage searchPage = results instanceof SopSearchPage page ? page : null;
+
         return SearchMetadata.builder()
                 .totalElements(results.getTotalElements())
                 .totalPages(results.getTotalPages())
@@ -153,6 +176,10 @@ public class SopSearchService {
                 .sortBy(sortBy)
                 .sortOrder(sortDir)
                 .appliedFilters(getAppliedFilters(request))
+                .totalExact(searchPage == null || searchPage.isTotalExact())
+                .hasNext(results.hasNext())
+                .facets(searchPage != null ? searchPage.getFacets() : null)
+                .highlights(searchPage != null ? searchPage.getHighlights() : null)
                 .build();
     }
 
@@ -1,10 +1,7 @@
 package com.sop_content_service.sop_content_service.service;
 
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.sop_content_service.sop_content_service.dto.*;
-import com.sop_content_service.sop_content_service.enums.ApprovalStatus;
 import com.sop_content_service.sop_content_service.enums.SOPStatus;
 import com.sop_content_service.sop_content_service.enums.Visibility;
 import com.sop_content_service.sop_content_service.exception.BadInputRequest;
@@ -12,54 +9,50 @@ import com.sop_content_service.sop_content_service.exception.BadRequestException
 import com.sop_content_service.sop_content_service.exception.SopNotFoundException;
 import com.sop_content_service.sop_content_service.exception.WorkflowServerException;
 import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.model.SopSummary;
 import com.sop_content_service.sop_content_service.repository.SopRepository;
 import com.sop_content_service.sop_content_service.util.DtoConverter;
+import com.sop_content_service.sop_content_service.util.SopCursor;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import sopVersionService.GetSopVersionsResponse;
-import sopWorkflowService.GetWorkflowStageInfoResponse;
 import sopWorkflowService.IsSOPApprovedResponse;
-import userService.*;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SopService {
 
     private static final Logger log = LoggerFactory.getLogger(SopService.class);
 
-    private final AmazonS3 s3Client;
+    private final S3UploadService s3UploadService;
     private final SopRepository sopRepository;
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final WorkflowClientService workflowClientService;
-    private final UserInfoClientService userInfoClientService;
-    private final VersionClientService versionClientService;
-
-    @Value("${aws.s3.bucket}")
-    private String bucketName;
+    private final SopEnrichmentService sopEnrichmentService;
+    private final SopSearchIndex sopSearchIndex;
+    private final SopSearchCache sopSearchCache;
+    private final SopReadAggregator sopReadAggregator;
+    private final SopViewService sopViewService;
 
     @Autowired
-    public SopService(AmazonS3 s3Client, SopRepository sopRepository, KafkaTemplate<String, Object> kafkaTemplate, WorkflowClientService workflowClientService, UserInfoClientService userInfoClientService, VersionClientService versionClientService) {
-        this.s3Client = s3Client;
+    public SopService(S3UploadService s3UploadService, SopRepository sopRepository, KafkaTemplate<String, Object> kafkaTemplate, WorkflowClientService workflowClientService, SopEnrichmentService sopEnrichmentService, SopSearchIndex sopSearchIndex, SopSearchCache sopSearchCache, SopReadAggregator sopReadAggregator, SopViewService sopViewService) {
+        this.s3UploadService = s3UploadService;
         this.sopRepository = sopRepository;
         this.kafkaTemplate = kafkaTemplate;
         this.workflowClientService = workflowClientService;
-        this.userInfoClientService = userInfoClientService;
-        this.versionClientService = versionClientService;
+        this.sopEnrichmentService = sopEnrichmentService;
+        this.sopSearchIndex = sopSearchIndex;
+        this.sopSearchCache = sopSearchCache;
+        this.sopReadAggregator = sopReadAggregator;
+        this.sopViewService = sopViewService;
     }
 
     public Sop addSopContent(String sopId,
@@ -75,6 +68,8 @@ public class SopService {
 
 
         Sop existingSop = sop.get();
+        // searches that matched the sop before this change, as well as the ones that will after it
+        Set<String> staleSearchTags = sopSearchCache.tagsOf(existingSop);
 
         if(!existingSop.getAuthor().equals(authorId)){
             throw new BadRequestException("You are not authorized to update this SOP.");
@@ -84,19 +79,36 @@ public class SopService {
         existingSop.setBody(sopContentDto.getBody());
         existingSop.setStatus(sopContentDto.getStatus());
 
-        if(coverImage != null && !coverImage.isEmpty()){
-            String coverUrl = uploadFileToS3(coverImage);
-            existingSop.setCoverUrl(coverUrl);
+        // documents sent through the chunked upload endpoints arrive as urls
+        List<String> documentUrls = new ArrayList<>();
+        if (sopContentDto.getDocumentUrls() != null) {
+            for (String documentUrl : sopContentDto.getDocumentUrls()) {
+                if (!s3UploadService.isUploadedFile(documentUrl)) {
+                    throw new BadRequestException("Unknown document url: " + documentUrl);
+                }
+                documentUrls.add(documentUrl);
+            }
         }
 
+        // the cover and the documents go to S3 side by side, the cover url comes back first
+        boolean hasCover = coverImage != null && !coverImage.isEmpty();
+        List<MultipartFile> files = new ArrayList<>();
+        if (hasCover) {
+            files.add(coverImage);
+        }
+        if (documents != null) {
+            files.addAll(documents);
+        }
+        if (!files.isEmpty()) {
+            log.info("Uploading {} files.", files.size());
+            List<String> uploadedUrls = s3UploadService.uploadAll(files);
+            if (hasCover) {
+                existingSop.setCoverUrl(uploadedUrls.get(0));
+            }
+            documentUrls.addAll(uploadedUrls.subList(hasCover ? 1 : 0, uploadedUrls.size()));
+        }
 
-        // Handle document upload
-        if (documents != null && !documents.isEmpty()) {
-            log.info("Uploading {} documents.", documents.size());
-            // Upload documents to S3 and retrieve their URLs
-            List<String> documentUrls = documents.stream()
-                    .map(this::uploadFileToS3)
-                    .toList();
+        if (!documentUrls.isEmpty()) {
             existingSop.setDocumentUrls(documentUrls);
             log.info("Uploaded document URLs: {}", documentUrls);
         }
@@ -105,6 +117,11 @@ public class SopService {
         existingSop.setStatus(sopContentDto.getStatus());
 
         Sop updatedSop = sopRepository.save(existingSop);
+        sopSearchIndex.index(updatedSop);
+        staleSearchTags.addAll(sopSearchCache.tagsOf(updatedSop));
+        sopSearchCache.invalidate(staleSearchTags);
+        // the reviewal-ready event moves workflow stages too, the view is rebuilt from those on the next read
+        sopViewService.evict(updatedSop.getId());
 
         // prepare kafka transfer object to notify concerned users
         SOPDto sopDto = mapSOPToSOPDto(updatedSop);
@@ -119,46 +136,42 @@ public class SopService {
     }
 
 
-    // public get sops getting
-    public List<SOPResponseDto>  getSops(UUID departmentId){
+    // public get sops getting, list views read the summary projection, the body is only loaded by getSopById
+    public CursorPage<SopSummaryDto> getSops(UUID departmentId, String cursor, Integer limit){
         log.info("Getting SOPs with departmentId: {}", departmentId);
 
-        List<Sop> sops = sopRepository.findByDepartmentIdOrVisibilityOrderByCreatedAtDesc(departmentId, Visibility.PUBLIC);
-
-        List<SOPResponseDto> formattedSops = new ArrayList<>();
+        int pageSize = CursorPage.pageSize(limit);
+        List<SopSummary> sops = sopRepository.findSummariesByDepartmentIdOrVisibility(
+                departmentId, Visibility.PUBLIC, SopCursor.decode(cursor), pageSize + 1);
 
-        for(Sop sop: sops){
-            formattedSops.add(mapSOPToSOPResponseDto(sop));
-        }
-
-        return formattedSops;
+        return toCursorPage(sops, pageSize);
     }
 
-    //      @return List of SOPs for admin
-    public List<SOPResponseDto> getAllSops() {
+    //      @return page of SOPs for admin
+    public CursorPage<SopSummaryDto> getAllSops(String cursor, Integer limit) {
         log.info("Fetching all SOPs");
-        List<Sop> sops =  sopRepository.findAllByOrderByCreatedAtDesc();
+        int pageSize = CursorPage.pageSize(limit);
+        List<SopSummary> sops =  sopRepository.findSummaries(SopCursor.decode(cursor), pageSize + 1);
 
-        List<SOPResponseDto> formattedSops = new ArrayList<>();
+        return toCursorPage(sops, pageSize);
+    }
 
-        for(Sop sop: sops){
-            formattedSops.add(mapSOPToSOPResponseDto(sop));
-        }
+    // every sop with its full details, for the recommendation service
+    public List<SOPResponseDto> getAllSopDetails() {
+        log.info("Fetching all SOP details");
+        List<Sop> sops =  sopRepository.findAllByOrderByCreatedAtDesc();
 
-        return formattedSops;
+        return sopEnrichmentService.enrich(sops);
     }
 
 
     public SOPResponseDto getSopById(String sopId) {
         log.info("Fetching SOP with ID: {}", sopId);
-        Sop sop = sopRepository.findById(sopId)
-                .orElseThrow(() -> new SopNotFoundException("SOP with id " + sopId + " not found."));
-
-        SOPResponseDto sopResponse = mapSOPToSOPResponseDto(sop);
+        SOPResponseDto sopResponse = sopViewService.getSopView(sopId);
 
-        if(SOPStatus.PUBLISHED.equals(sop.getStatus())){
-            SOPDto sopDto = mapSOPToSOPDto(sop);
-            kafkaTemplate.send("sop-read", sopDto);
+        // counted locally and published in batches by the aggregator
+        if(SOPStatus.PUBLISHED.equals(sopResponse.getStatus())){
+            sopReadAggregator.record(sopResponse.getId());
         }
 
         return sopResponse;
@@ -167,10 +180,13 @@ public class SopService {
     //get sop used by ai to prevent counting reads for getting sop by id in the recommendation service
     public SOPResponseDto getSop(String sopId) {
         log.info("Fetching SOP with ID: {}", sopId);
-        Sop sop = sopRepository.findById(sopId)
-                .orElseThrow(() -> new SopNotFoundException("SOP with id " + sopId + " not found."));
+        return sopViewService.getSopView(sopId);
+    }
 
-        return mapSOPToSOPResponseDto(sop);
+    // flat sops for bulk consumers, read through a cursor and never enriched
+    public Stream<Sop> streamSops(Collection<String> fields, SOPStatus status, int batchSize) {
+        log.info("Streaming SOPs with status: {} and fields: {}", status, fields);
+        return sopRepository.streamSops(fields, status, batchSize);
     }
 
     public SOPResponseDto publishSop(String sopId) {
@@ -180,6 +196,8 @@ public class SopService {
         }
 
         Sop existingSop = sop.get();
+        // searches that matched the sop before this change, as well as the ones that will after it
+        Set<String> staleSearchTags = sopSearchCache.tagsOf(existingSop);
 
         // Check if SOP is approved
         IsSOPApprovedResponse response = workflowClientService.isSOPApproved(sopId);
@@ -196,35 +214,17 @@ public class SopService {
         existingSop.setUpdatedAt(new Date());
 
         Sop updatedSop = sopRepository.save(existingSop);
+        sopSearchIndex.index(updatedSop);
+        staleSearchTags.addAll(sopSearchCache.tagsOf(updatedSop));
+        sopSearchCache.invalidate(staleSearchTags);
 
         // kafka transfer object to notify concerned users and control versioning
         PublishedSopDto publishedSopDto = mapSopTopublishedSopDto(updatedSop);
         kafkaTemplate.send("sop-published", publishedSopDto);
 
-        return mapSOPToSOPResponseDto(updatedSop);
-    }
-
-    private String uploadFileToS3(MultipartFile file) {
-        String fileName = "uploads/" + System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        try (InputStream inputStream = new BufferedInputStream(file.getInputStream())) {
-            log.info("Uploading file to S3: {}", fileName);
-
-            PutObjectRequest putObjectRequest = new PutObjectRequest(bucketName, fileName, inputStream, null);
-            putObjectRequest.getRequestClientOptions().setReadLimit(10 * 1024 * 1024); // 10 MB
-
-            s3Client.putObject(putObjectRequest);
-            String fileUrl = s3Client.getUrl(bucketName, fileName).toString();
-
-            log.info("File successfully uploaded to S3. URL: {}", fileUrl);
-            return fileUrl;
-        } catch (IOException e) {
-            log.error("Failed to upload file to S3: {}", fileName, e);
-            throw new RuntimeException("Failed to upload file to S3: " + fileName, e);
-        }
+        return sopViewService.save(mapSOPToSOPResponseDto(updatedSop));
     }
 
-
-
     @KafkaListener(topics = "sop-created")
     public void sopCreatedListener(String data) throws JsonProcessingException {
         log.info("Received sop initiated event: {}", data);
@@ -233,21 +233,11 @@ public class SopService {
         SOPDto sopDto = DtoConverter.sopDtoFromJson(data);
 
         // save the newly initiated sop to our database
-        Sop sop = new Sop();
-        sop.setId(sopDto.getId());
-        sop.setTitle(sopDto.getTitle());
-        sop.setVisibility(Visibility.valueOf(sopDto.getVisibility().toUpperCase()));
-        sop.setCategory(sopDto.getCategory());
-        sop.setDepartmentId(sopDto.getDepartmentId());
-        sop.setAuthor(sopDto.getAuthorId());
-        sop.setReviewers(sopDto.getReviewers());
-        sop.setApprover(sopDto.getApproverId());
-        sop.setCreatedAt(sopDto.getCreatedAt());
-        sop.setUpdatedAt(sop.getUpdatedAt());
-        sop.setStatus(sopDto.getStatus());
+        Sop sop = sopFromCreatedEvent(sopDto);
 
-        // Save to repository
+        // Save to repository, every instance's search index is updated by SopSearchIndexListener
         sopRepository.save(sop);
+        sopSearchCache.invalidate(sopSearchCache.tagsOf(sop));
         log.info("Saved SOP model: {}", sop);
     }
 
@@ -261,19 +251,14 @@ public class SopService {
         // save the newly initiated sop to our database
         Sop sop = sopRepository.findById(sopDto.getId()).orElse(null);
         if(sop != null){
-            sop.setDocumentUrls(sopDto.getDocumentUrls());
-            sop.setCoverUrl(sopDto.getCoverUrl());
-            sop.setTitle(sopDto.getTitle());
-            sop.setDescription(sopDto.getDescription());
-            sop.setBody(sopDto.getBody());
-            sop.setVisibility(sopDto.getVisibility());
-            sop.setCategory(sopDto.getCategory());
-            sop.setDepartmentId(sopDto.getDepartmentId());
-            sop.setCreatedAt(sopDto.getCreatedAt());
-            sopDto.setUpdatedAt(sopDto.getUpdatedAt());
+            Set<String> staleSearchTags = sopSearchCache.tagsOf(sop);
+            applyRevertedVersion(sop, sopDto);
 
             // Save to repository
             sopRepository.save(sop);
+            staleSearchTags.addAll(sopSearchCache.tagsOf(sop));
+            sopSearchCache.invalidate(staleSearchTags);
+            sopViewService.refresh(sop);
             log.info("reverted SOP: {}", sop);
         }
 
@@ -287,10 +272,44 @@ public class SopService {
         // Convert JSON string to DTO
         SOPDto sopDto = DtoConverter.sopDtoFromJson(data);
         // delete the sop from our database
+        Set<String> staleSearchTags = sopRepository.findById(sopDto.getId())
+                .map(sopSearchCache::tagsOf)
+                .orElseGet(HashSet::new);
         sopRepository.deleteById(sopDto.getId());
+        sopSearchCache.invalidate(staleSearchTags);
+        sopViewService.evict(sopDto.getId());
         log.info("Deleted SOP model: {}", sopDto);
     }
 
+    // the sop a sop-created event describes
+    static Sop sopFromCreatedEvent(SOPDto sopDto) {
+        Sop sop = new Sop();
+        sop.setId(sopDto.getId());
+        sop.setTitle(sopDto.getTitle());
+        sop.setVisibility(Visibility.valueOf(sopDto.getVisibility().toUpperCase()));
+        sop.setCategory(sopDto.getCategory());
+        sop.setDepartmentId(sopDto.getDepartmentId());
+        sop.setAuthor(sopDto.getAuthorId());
+        sop.setReviewers(sopDto.getReviewers());
+        sop.setApprover(sopDto.getApproverId());
+        sop.setCreatedAt(sopDto.getCreatedAt());
+        sop.setUpdatedAt(sop.getUpdatedAt());
+        sop.setStatus(sopDto.getStatus());
+        return sop;
+    }
+
+    // copies the content a sop-version-reverted event restores, the workflow fields are left alone
+    static void applyRevertedVersion(Sop sop, PublishedSopDto sopDto) {
+        sop.setDocumentUrls(sopDto.getDocumentUrls());
+        sop.setCoverUrl(sopDto.getCoverUrl());
+        sop.setTitle(sopDto.getTitle());
+        sop.setDescription(sopDto.getDescription());
+        sop.setBody(sopDto.getBody());
+        sop.setVisibility(sopDto.getVisibility());
+        sop.setCategory(sopDto.getCategory());
+        sop.setDepartmentId(sopDto.getDepartmentId());
+        sop.setCreatedAt(sopDto.getCreatedAt());
+    }
 
     // maps sop model to sop dto to prepare kafka communication objects
     public SOPDto mapSOPToSOPDto(Sop sop) {
@@ -327,99 +346,23 @@ public class SopService {
     }
 
 
-    private StageDto createStageDto(UUID userId, String sopId) {
-        if (userId == null) {
-            return null;
-        }
-        getUserInfoResponse userInfo = userInfoClientService.getUserInfo(userId.toString());
-        GetWorkflowStageInfoResponse stageInfo = workflowClientService.getWorkflowStage(userId.toString(), sopId);
-
-        if(!userInfo.getSuccess()){
-            log.error("Error fetching user info: {}", userInfo.getErrorMessage());
-        }
+    // one extra row was fetched to know whether another page follows
+    private CursorPage<SopSummaryDto> toCursorPage(List<SopSummary> sops, int pageSize) {
+        boolean hasNext = sops.size() > pageSize;
+        List<SopSummary> page = hasNext ? sops.subList(0, pageSize) : sops;
 
-        if(!stageInfo.getSuccess()){
-            log.error("Error fetching stage info: {}", stageInfo.getErrorMessage());
+        String nextCursor = null;
+        if (hasNext) {
+            SopSummary last = page.get(page.size() - 1);
+            nextCursor = new SopCursor(last.getCreatedAt(), last.getId()).encode();
         }
 
-        StageDto stageDto = new StageDto();
-        stageDto.setUserId(userId);
-        stageDto.setName(userInfo.getName());
-        stageDto.setProfilePictureUrl(userInfo.getProfilePictureUrl());
-        stageDto.setStatus(ApprovalStatus.valueOf(stageInfo.getStatus()));
-
-        stageDto.setComments(stageInfo.getCommentsList().stream()
-                    .map(comment -> new CommentDto(
-                            comment.getCommentId(),
-                            comment.getComment(),
-                            parseDate(comment.getCreatedAt())))
-                    .collect(Collectors.toList()));
-        return stageDto;
+        return new CursorPage<>(sopEnrichmentService.summarize(page), nextCursor, hasNext);
     }
 
-
-
     // map sop to an object including assigned users profiles
     public SOPResponseDto mapSOPToSOPResponseDto(Sop sop) {
-
-        GetSopVersionsResponse versionsResponse = versionClientService.GetSopVersions(sop.getId());
-        getDepartmentNameResponse departmentNameResponse = userInfoClientService.getDepartmentName(sop.getDepartmentId().toString());
-
-        if(!versionsResponse.getSuccess()){
-            log.error("Error fetching versions: {}", versionsResponse.getErrorMessage());
-        }
-
-        if(!departmentNameResponse.getSuccess()){
-            log.error("Error fetching department name: {}", departmentNameResponse.getErrorMessage());
-        }
-
-        SOPResponseDto response = new SOPResponseDto();
-        response.setId(sop.getId());
-        response.setTitle(sop.getTitle());
-        response.setStatus(sop.getStatus());
-        response.setCategory(sop.getCategory());
-        response.setBody(sop.getBody());
-        response.setDepartmentId(sop.getDepartmentId());
-        response.setDepartmentName(departmentNameResponse.getDepartmentName());
-        response.setDocumentUrls(sop.getDocumentUrls());
-        response.setCoverUrl(sop.getCoverUrl());
-        response.setVisibility(sop.getVisibility());
-        response.setDescription(sop.getDescription());
-        response.setCreatedAt(sop.getCreatedAt());
-        response.setVersions(versionsResponse.getVersionsList().stream()
-                .map(version -> SopVersionDto
-                        .builder()
-                        .versionNumber(version.getVersionNumber())
-                        .currentVersion(version.getCurrentVersion())
-                        .build())
-                .collect(Collectors.toList()));
-        response.setUpdatedAt(sop.getUpdatedAt());
-
-        List<StageDto> reviewers = new ArrayList<>();
-
-
-        for (UUID reviewerId : sop.getReviewers()) {
-            StageDto stageDto = createStageDto(reviewerId, sop.getId());
-            reviewers.add(stageDto);
-        }
-
-        response.setApprover(createStageDto(sop.getApprover(), sop.getId()));
-        response.setAuthor(createStageDto(sop.getAuthor(), sop.getId()));
-
-        response.setReviewers(reviewers);
-
-        return response;
-    }
-
-
-    private Date parseDate(String dateStr) {
-        try {
-            return new SimpleDateFormat("EEE MMM dd HH:mm:ss zzz yyyy").parse(dateStr);
-        } catch (ParseException e) {
-            // Handle the exception, e.g., log it or rethrow it as a runtime exception
-            throw new RuntimeException("Failed to parse date: " + dateStr, e);
-        }
+        return sopEnrichmentService.enrich(sop);
     }
 
 }
-
@@ -0,0 +1,258 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sop_content_service.sop_content_service.dto.DepartmentUpdatedDto;
+import com.sop_content_service.sop_content_service.dto.PublishedSopDto;
+import com.sop_content_service.sop_content_service.dto.SOPDto;
+import com.sop_content_service.sop_content_service.dto.SOPResponseDto;
+import com.sop_content_service.sop_content_service.dto.StageDto;
+import com.sop_content_service.sop_content_service.dto.UserUpdatedDto;
+import com.sop_content_service.sop_content_service.exception.SopNotFoundException;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.model.SopView;
+import com.sop_content_service.sop_content_service.repository.SopRepository;
+import com.sop_content_service.sop_content_service.repository.SopViewRepository;
+import com.sop_content_service.sop_content_service.util.DtoConverter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import userService.getDepartmentNameResponse;
+import userService.getUsersInfoResponse;
+import userService.userInfo;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Keeps one ready to serve {@link SOPResponseDto} per SOP in the sop_views collection, so a detail read is a
+ * single lookup by id instead of a fan out to the workflow, version and user services.
+ * Views are rewritten when the SOP or its workflow stages, comments or versions change, and patched in place
+ * when a participant's profile changes or the SOP's department is renamed. A missing view is built on first read, and {@link #rebuild()}
+ * regenerates every view from the source services.
+ * Every write is stamped with the time its sources were read and never replaces a view read later, so an
+ * event handled late cannot bring back an older view.
+ */
+@Service
+public class SopViewService {
+
+    private static final Logger log = LoggerFactory.getLogger(SopViewService.class);
+
+    private final SopViewRepository sopViewRepository;
+    private final SopRepository sopRepository;
+    private final SopEnrichmentService sopEnrichmentService;
+    private final UserInfoClientService userInfoClientService;
+    private final int rebuildBatchSize;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public SopViewService(SopViewRepository sopViewRepository,
+                          SopRepository sopRepository,
+                          SopEnrichmentService sopEnrichmentService,
+                          UserInfoClientService userInfoClientService,
+                          @Value("${sop.views.rebuild-batch-size:100}") int rebuildBatchSize) {
+        this.sopViewRepository = sopViewRepository;
+        this.sopRepository = sopRepository;
+        this.sopEnrichmentService = sopEnrichmentService;
+        this.userInfoClientService = userInfoClientService;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    public SOPResponseDto getSopView(String sopId) {
+        Date readAt = new Date();
+        return sopViewRepository.findById(sopId)
+                .map(SopView::getSop)
+                .orElseGet(() -> refresh(sopRepository.findById(sopId)
+                        .orElseThrow(() -> new SopNotFoundException("SOP with id " + sopId + " not found.")), readAt));
+    }
+
+    public SOPResponseDto refresh(Sop sop) {
+        return refresh(sop, new Date());
+    }
+
+    // stores a response that was already enriched by the caller
+    public SOPResponseDto save(SOPResponseDto sop) {
+        return save(sop, new Date());
+    }
+
+    // the next read rebuilds it; kept as an empty view so a refresh that read the sources earlier can't restore it
+    public void evict(String sopId) {
+        sopViewRepository.saveIfNotOlder(new SopView(sopId, null, Set.of(), new Date()));
+    }
+
+    // runs rebuild() in the background, false when one is already running
+    public boolean rebuildAsync() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.error("Failed to rebuild SOP views: {}", e.getMessage(), e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    // regenerates every view from the source services, views of sops that no longer exist are dropped
+    public long rebuild() {
+        Date startedAt = new Date();
+        long rebuilt = 0;
+        log.info("Rebuilding SOP views");
+
+        try (Stream<Sop> sops = sopRepository.streamSops(List.of(), null, rebuildBatchSize)) {
+            Iterator<Sop> iterator = sops.iterator();
+            List<Sop> batch = new ArrayList<>(rebuildBatchSize);
+            Date readAt = new Date();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == rebuildBatchSize || !iterator.hasNext()) {
+                    rebuilt += saveAll(sopEnrichmentService.enrich(batch), readAt);
+                    batch = new ArrayList<>(rebuildBatchSize);
+                    readAt = new Date();
+                }
+            }
+        }
+
+        long dropped = sopViewRepository.deleteByRefreshedAtBefore(startedAt);
+        log.info("Rebuilt {} SOP views, dropped {} stale ones", rebuilt, dropped);
+        return rebuilt;
+    }
+
+    @KafkaListener(topics = {"sop-stage-updated", "sop-comment-updated"})
+    public void workflowUpdatedListener(String data) throws JsonProcessingException {
+        SOPDto sopDto = DtoConverter.sopDtoFromJson(data);
+        log.info("Refreshing SOP view after workflow change: {}", sopDto.getId());
+        refreshIfExists(sopDto.getId());
+    }
+
+    @KafkaListener(topics = "sop-version-created")
+    public void versionCreatedListener(String data) throws JsonProcessingException {
+        PublishedSopDto sopDto = DtoConverter.publishedSopDtoFromJson(data);
+        log.info("Refreshing SOP view after new version: {}", sopDto.getId());
+        refreshIfExists(sopDto.getId());
+    }
+
+    // only the participant entries of the affected views are rewritten
+    @KafkaListener(topics = "user-profile-updated")
+    public void userProfileUpdatedListener(String data) throws JsonProcessingException {
+        UserUpdatedDto userDto = DtoConverter.userUpdatedDtoFromJson(data);
+        Date readAt = new Date();
+        List<SopView> views = sopViewRepository.findByParticipants(userDto.getId());
+        if (views.isEmpty()) {
+            return;
+        }
+
+        getUsersInfoResponse response = userInfoClientService.getUsersInfo(List.of(userDto.getId().toString()));
+        if (!response.getSuccess() || response.getUsersCount() == 0) {
+            log.error("Could not load profile of user {}: {}", userDto.getId(), response.getErrorMessage());
+            return;
+        }
+
+        userInfo user = response.getUsers(0);
+        int updated = 0;
+        for (SopView view : views) {
+            SOPResponseDto sop = view.getSop();
+            updateStage(sop.getAuthor(), user);
+            updateStage(sop.getApprover(), user);
+            if (sop.getReviewers() != null) {
+                sop.getReviewers().forEach(reviewer -> updateStage(reviewer, user));
+            }
+            view.setRefreshedAt(readAt);
+            if (sopViewRepository.saveIfNotOlder(view)) {
+                updated++;
+            }
+        }
+        log.info("Updated profile of user {} in {} SOP views", userDto.getId(), updated);
+    }
+
+    // only the department name of the affected views is rewritten
+    @KafkaListener(topics = "department-updated")
+    public void departmentUpdatedListener(String data) throws JsonProcessingException {
+        DepartmentUpdatedDto departmentDto = DtoConverter.departmentUpdatedDtoFromJson(data);
+        Date readAt = new Date();
+        List<SopView> views = sopViewRepository.findBySopDepartmentId(departmentDto.getId());
+        if (views.isEmpty()) {
+            return;
+        }
+
+        getDepartmentNameResponse response = userInfoClientService.getDepartmentName(departmentDto.getId().toString());
+        if (!response.getSuccess()) {
+            log.error("Could not load department {}: {}", departmentDto.getId(), response.getErrorMessage());
+            return;
+        }
+
+        int updated = 0;
+        for (SopView view : views) {
+            view.getSop().setDepartmentName(response.getDepartmentName());
+            view.setRefreshedAt(readAt);
+            if (sopViewRepository.saveIfNotOlder(view)) {
+                updated++;
+            }
+        }
+        log.info("Updated name of department {} in {} SOP views", departmentDto.getId(), updated);
+    }
+
+    private void refreshIfExists(String sopId) {
+        Date readAt = new Date();
+        sopRepository.findById(sopId).ifPresentOrElse(sop -> refresh(sop, readAt), () -> evict(sopId));
+    }
+
+    private SOPResponseDto refresh(Sop sop, Date readAt) {
+        return save(sopEnrichmentService.enrich(sop), readAt);
+    }
+
+    private SOPResponseDto save(SOPResponseDto sop, Date readAt) {
+        if (!sopViewRepository.saveIfNotOlder(toView(sop, readAt))) {
+            log.debug("Kept the newer view of SOP {}", sop.getId());
+        }
+        return sop;
+    }
+
+    private int saveAll(List<SOPResponseDto> sops, Date readAt) {
+        sops.forEach(sop -> save(sop, readAt));
+        return sops.size();
+    }
+
+    private static void updateStage(StageDto stage, userInfo user) {
+        if (stage != null && stage.getUserId() != null && stage.getUserId().toString().equals(user.getUserId())) {
+            stage.setName(user.getName());
+            stage.setProfilePictureUrl(user.getProfilePictureUrl());
+        }
+    }
+
+    private static SopView toView(SOPResponseDto sop, Date refreshedAt) {
+        Set<UUID> participants = new HashSet<>();
+        addParticipant(participants, sop.getAuthor());
+        addParticipant(participants, sop.getApprover());
+        if (sop.getReviewers() != null) {
+            sop.getReviewers().forEach(reviewer -> addParticipant(participants, reviewer));
+        }
+        return new SopView(sop.getId(), sop, participants, refreshedAt);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private static void addParticipant(Set<UUID> participants, StageDto stage) {
+        if (stage != null && stage.getUserId() != null) {
+            participants.add(stage.getUserId());
+        }
+    }
+}
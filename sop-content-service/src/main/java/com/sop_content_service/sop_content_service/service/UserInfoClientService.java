@@ -1,22 +1,40 @@
 package com.sop_content_service.sop_content_service.service;
 
+import com.at.grpc.CallPolicy;
+import com.at.grpc.ResilientClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 import userService.*;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserInfoClientService {
 
     @GrpcClient("user-management-service")
-    userServiceGrpc.userServiceBlockingStub userInfoServiceBlockingStub;
+    userServiceGrpc.userServiceFutureStub userInfoServiceFutureStub;
 
+    private final ResilientClient client;
+
+    public UserInfoClientService(MeterRegistry meterRegistry) {
+        this.client = ResilientClient.builder("user-management-service")
+                .defaultPolicy(CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(200)))
+                .method("getUsersInfo", CallPolicy.hedged(Duration.ofSeconds(5), Duration.ofMillis(500)))
+                .method("getDepartmentNames", CallPolicy.hedged(Duration.ofSeconds(5), Duration.ofMillis(500)))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
 
     public getUserInfoResponse getUserInfo(String userId) {
         getUserInfoRequest request = getUserInfoRequest.newBuilder()
                 .setUserId(userId)
                 .build();
 
-        return userInfoServiceBlockingStub.getUserInfo(request);
+        return client.get("getUserInfo", userId,
+                deadline -> userInfoServiceFutureStub.withDeadline(deadline).getUserInfo(request));
     }
 
     public getDepartmentNameResponse getDepartmentName(String departmentId) {
@@ -24,6 +42,39 @@ public class UserInfoClientService {
                 .setDepartmentId(departmentId)
                 .build();
 
-        return userInfoServiceBlockingStub.getDepartmentName(request);
+        return client.get("getDepartmentName", departmentId,
+                deadline -> userInfoServiceFutureStub.withDeadline(deadline).getDepartmentName(request));
+    }
+
+    public getUsersInfoResponse getUsersInfo(Collection<String> userIds) {
+        return client.get("getUsersInfo", usersInfo(userIds));
+    }
+
+    public CompletableFuture<getUsersInfoResponse> getUsersInfoAsync(Collection<String> userIds) {
+        return client.call("getUsersInfo", usersInfo(userIds));
+    }
+
+    public getDepartmentNamesResponse getDepartmentNames(Collection<String> departmentIds) {
+        return client.get("getDepartmentNames", departmentNames(departmentIds));
+    }
+
+    public CompletableFuture<getDepartmentNamesResponse> getDepartmentNamesAsync(Collection<String> departmentIds) {
+        return client.call("getDepartmentNames", departmentNames(departmentIds));
+    }
+
+    private ResilientClient.Call<getUsersInfoResponse> usersInfo(Collection<String> userIds) {
+        getUsersInfoRequest request = getUsersInfoRequest.newBuilder()
+                .addAllUserIds(userIds)
+                .build();
+
+        return deadline -> userInfoServiceFutureStub.withDeadline(deadline).getUsersInfo(request);
+    }
+
+    private ResilientClient.Call<getDepartmentNamesResponse> departmentNames(Collection<String> departmentIds) {
+        getDepartmentNamesRequest request = getDepartmentNamesRequest.newBuilder()
+                .addAllDepartmentIds(departmentIds)
+                .build();
+
+        return deadline -> userInfoServiceFutureStub.withDeadline(deadline).getDepartmentNames(request);
     }
 }
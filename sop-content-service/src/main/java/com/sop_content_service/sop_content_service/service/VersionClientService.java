@@ -1,22 +1,56 @@
 package com.sop_content_service.sop_content_service.service;
 
+import com.at.grpc.CallPolicy;
+import com.at.grpc.ResilientClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 import sopVersionService.*;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class VersionClientService {
 
     @GrpcClient("version-control-service")
-    VersionServiceGrpc.VersionServiceBlockingStub versionServiceBlockingStub;
+    VersionServiceGrpc.VersionServiceFutureStub versionServiceFutureStub;
+
+    private final ResilientClient client;
 
+    public VersionClientService(MeterRegistry meterRegistry) {
+        this.client = ResilientClient.builder("version-control-service")
+                .defaultPolicy(CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(200)))
+                .method("getSopsVersions", CallPolicy.hedged(Duration.ofSeconds(5), Duration.ofMillis(500)))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
 
     public GetSopVersionsResponse GetSopVersions(String sopId){
-        return versionServiceBlockingStub.getSopVersions(
-                GetSopVersionsRequest
-                        .newBuilder()
-                        .setSopId(sopId)
-                        .build()
-        );
+        GetSopVersionsRequest request = GetSopVersionsRequest
+                .newBuilder()
+                .setSopId(sopId)
+                .build();
+
+        return client.get("getSopVersions", sopId,
+                deadline -> versionServiceFutureStub.withDeadline(deadline).getSopVersions(request));
+    }
+
+    public GetSopsVersionsResponse GetSopsVersions(Collection<String> sopIds){
+        return client.get("getSopsVersions", sopsVersions(sopIds));
+    }
+
+    public CompletableFuture<GetSopsVersionsResponse> GetSopsVersionsAsync(Collection<String> sopIds){
+        return client.call("getSopsVersions", sopsVersions(sopIds));
+    }
+
+    private ResilientClient.Call<GetSopsVersionsResponse> sopsVersions(Collection<String> sopIds) {
+        GetSopsVersionsRequest request = GetSopsVersionsRequest
+                .newBuilder()
+                .addAllSopIds(sopIds)
+                .build();
+
+        return deadline -> versionServiceFutureStub.withDeadline(deadline).getSopsVersions(request);
     }
 }
@@ -1,22 +1,39 @@
 package com.sop_content_service.sop_content_service.service;
+import com.at.grpc.CallPolicy;
+import com.at.grpc.ResilientClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 import sopWorkflowService.*;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class WorkflowClientService {
 
     @GrpcClient("sop-workflow-service")
-    SopWorkflowServiceGrpc.SopWorkflowServiceBlockingStub sopWorkflowServiceBlockingStub;
+    SopWorkflowServiceGrpc.SopWorkflowServiceFutureStub sopWorkflowServiceFutureStub;
+
+    private final ResilientClient client;
+
+    public WorkflowClientService(MeterRegistry meterRegistry) {
+        this.client = ResilientClient.builder("sop-workflow-service")
+                .defaultPolicy(CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(200)))
+                .method("getWorkflowStagesInfo", CallPolicy.hedged(Duration.ofSeconds(5), Duration.ofMillis(500)))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
 
     public IsSOPApprovedResponse isSOPApproved(String sopId) {
-        return sopWorkflowServiceBlockingStub
-                .isSOPApproved(
-                        IsSOPApprovedRequest
-                                .newBuilder()
-                                .setId(sopId)
-                                .build()
-                );
+        IsSOPApprovedRequest request = IsSOPApprovedRequest
+                .newBuilder()
+                .setId(sopId)
+                .build();
+
+        return client.get("isSOPApproved", sopId,
+                deadline -> sopWorkflowServiceFutureStub.withDeadline(deadline).isSOPApproved(request));
     }
 
     public GetWorkflowStageInfoResponse getWorkflowStage(String userId, String sopId) {
@@ -25,6 +42,37 @@ public class WorkflowClientService {
                 .setSopId(sopId)
                 .build();
 
-        return sopWorkflowServiceBlockingStub.getWorkflowStageInfo(request);
+        return client.get("getWorkflowStageInfo", sopId + ":" + userId,
+                deadline -> sopWorkflowServiceFutureStub.withDeadline(deadline).getWorkflowStageInfo(request));
+    }
+
+    // a page of the stage's full comment thread, stage payloads only carry the latest comments
+    public GetStageCommentsResponse getStageComments(String userId, String sopId, String cursor, int limit) {
+        GetStageCommentsRequest.Builder request = GetStageCommentsRequest.newBuilder()
+                .setUserId(userId)
+                .setSopId(sopId)
+                .setLimit(limit);
+        if (cursor != null) {
+            request.setCursor(cursor);
+        }
+
+        return client.get("getStageComments", sopId + ":" + userId + ":" + cursor + ":" + limit,
+                deadline -> sopWorkflowServiceFutureStub.withDeadline(deadline).getStageComments(request.build()));
+    }
+
+    public GetWorkflowStagesInfoResponse getWorkflowStages(Collection<String> sopIds) {
+        return client.get("getWorkflowStagesInfo", workflowStages(sopIds));
+    }
+
+    public CompletableFuture<GetWorkflowStagesInfoResponse> getWorkflowStagesAsync(Collection<String> sopIds) {
+        return client.call("getWorkflowStagesInfo", workflowStages(sopIds));
+    }
+
+    private ResilientClient.Call<GetWorkflowStagesInfoResponse> workflowStages(Collection<String> sopIds) {
+        GetWorkflowStagesInfoRequest request = GetWorkflowStagesInfoRequest.newBuilder()
+                .addAllSopIds(sopIds)
+                .build();
+
+        return deadline -> sopWorkflowServiceFutureStub.withDeadline(deadline).getWorkflowStagesInfo(request);
     }
 }
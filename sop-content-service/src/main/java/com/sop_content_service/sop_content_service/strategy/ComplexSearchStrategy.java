@@ -1,22 +1,30 @@
 package com.sop_content_service.sop_content_service.strategy;
 
+import com.sop_content_service.sop_content_service.dto.SopSearchPage;
 import com.sop_content_service.sop_content_service.dto.SopSearchRequest;
+import com.sop_content_service.sop_content_service.exception.InvalidSearchParameterException;
 import com.sop_content_service.sop_content_service.model.Sop;
+import org.bson.Document;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Component
 public class ComplexSearchStrategy implements SearchStrategy {
+    private static final String RESULTS = "results";
+    private static final String TOTAL = "total";
+    private static final String COUNT = "count";
+    private static final List<String> FACET_FIELDS = List.of("category", "departmentId", "status");
+
     private final MongoTemplate mongoTemplate;
 
     public ComplexSearchStrategy(MongoTemplate mongoTemplate) {
@@ -25,17 +33,87 @@ public class ComplexSearchStrategy implements SearchStrategy {
 
     @Override
     public Page<Sop> search(SopSearchRequest request, Pageable pageable) {
-        Query query = buildQuery(request);
-        long total = mongoTemplate.count(query, Sop.class);
+        boolean exactTotal = request.isExactTotal();
+        // without a total, one extra row is enough to tell whether a next page exists
+        int limit = exactTotal ? pageable.getPageSize() : pageable.getPageSize() + 1;
+
+        List<AggregationOperation> pageStages = new ArrayList<>();
+        if (pageable.getSort().isSorted()) {
+            pageStages.add(Aggregation.sort(toDocumentSort(pageable.getSort())));
+        }
+        pageStages.add(Aggregation.skip(pageable.getOffset()));
+        pageStages.add(Aggregation.limit(limit));
+
+        // page, total and facet counts all come from a single evaluation of the predicate
+        FacetOperation facet = Aggregation.facet(pageStages.toArray(new AggregationOperation[0])).as(RESULTS);
+        if (exactTotal) {
+            facet = facet.and(Aggregation.count().as(COUNT)).as(TOTAL);
+            for (String field : FACET_FIELDS) {
+                facet = facet.and(Aggregation.sortByCount(field)).as(field);
+            }
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(buildCriteria(request)), facet);
+        Document result = mongoTemplate.aggregate(aggregation, Sop.class, Document.class).getUniqueMappedResult();
+
+        List<Sop> results = new ArrayList<>();
+        if (result != null) {
+            for (Document document : result.getList(RESULTS, Document.class)) {
+                results.add(mongoTemplate.getConverter().read(Sop.class, document));
+            }
+        }
+
+        if (!exactTotal) {
+            boolean hasNext = results.size() > pageable.getPageSize();
+            List<Sop> page = hasNext ? results.subList(0, pageable.getPageSize()) : results;
+            return SopSearchPage.withoutTotal(new ArrayList<>(page), pageable, hasNext, null);
+        }
 
-        query.with(pageable);
-        List<Sop> results = mongoTemplate.find(query, Sop.class);
+        return SopSearchPage.withTotal(results, pageable, readTotal(result), readFacets(result), null);
+    }
+
+    private long readTotal(Document result) {
+        if (result == null) {
+            return 0;
+        }
+        List<Document> total = result.getList(TOTAL, Document.class);
+        return total.isEmpty() ? 0 : ((Number) total.get(0).get(COUNT)).longValue();
+    }
+
+    // each facet arrives as [{_id: value, count: n}] sorted by count
+    private Map<String, Map<String, Long>> readFacets(Document result) {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        for (String field : FACET_FIELDS) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            if (result != null) {
+                for (Document bucket : result.getList(field, Document.class)) {
+                    if (bucket.get("_id") != null) {
+                        counts.put(String.valueOf(bucket.get("_id")), ((Number) bucket.get(COUNT)).longValue());
+                    }
+                }
+            }
+            facets.put(field, counts);
+        }
+        return facets;
+    }
+
+    // departmentId is stored as a UUID, the same value the departmentId facet groups on
+    private UUID parseDepartmentId(String department) {
+        try {
+            return UUID.fromString(department.trim());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchParameterException("Invalid department: " + department);
+        }
+    }
 
-        return new PageImpl<>(results, pageable, total);
+    // the request sorts by "department", the document field is departmentId
+    private Sort toDocumentSort(Sort sort) {
+        return Sort.by(sort.stream()
+                .map(order -> "department".equals(order.getProperty()) ? order.withProperty("departmentId") : order)
+                .toList());
     }
 
-    private Query buildQuery(SopSearchRequest request) {
-        Query query = new Query();
+    private Criteria buildCriteria(SopSearchRequest request) {
         List<Criteria> criteriaList = new ArrayList<>();
 
         Optional.ofNullable(request.getKeyword())
@@ -43,7 +121,7 @@ public class ComplexSearchStrategy implements SearchStrategy {
                 .ifPresent(keyword -> criteriaList.add(new Criteria().orOperator(
                         Criteria.where("title").regex(keyword, "i"),
                         Criteria.where("description").regex(keyword, "i"),
-                        Criteria.where("content").regex(keyword, "i")
+                        Criteria.where("body").regex(keyword, "i")
                 )));
 
         Optional.ofNullable(request.getStatus())
@@ -52,16 +130,16 @@ public class ComplexSearchStrategy implements SearchStrategy {
 
         Optional.ofNullable(request.getDepartment())
                 .filter(StringUtils::hasText)
-                .ifPresent(dept -> criteriaList.add(Criteria.where("department").is(dept)));
+                .ifPresent(dept -> criteriaList.add(Criteria.where("departmentId").is(parseDepartmentId(dept))));
 
         Optional.ofNullable(request.getCategory())
                 .filter(StringUtils::hasText)
                 .ifPresent(category -> criteriaList.add(Criteria.where("category").is(category)));
 
-        if (!criteriaList.isEmpty()) {
-            query.addCriteria(new Criteria().andOperator(criteriaList.toArray(new Criteria[0])));
+        if (criteriaList.isEmpty()) {
+            return new Criteria();
         }
 
-        return query;
+        return new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
     }
 }
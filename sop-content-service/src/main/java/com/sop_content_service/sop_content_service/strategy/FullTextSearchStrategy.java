@@ -0,0 +1,68 @@
+package com.sop_content_service.sop_content_service.strategy;
+
+import com.sop_content_service.sop_content_service.dto.SopSearchPage;
+import com.sop_content_service.sop_content_service.dto.SopSearchRequest;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.repository.SopRepository;
+import com.sop_content_service.sop_content_service.service.SopSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+@Component
+public class FullTextSearchStrategy implements SearchStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(FullTextSearchStrategy.class);
+
+    private final SopSearchIndex sopSearchIndex;
+    private final SopRepository sopRepository;
+    private final ComplexSearchStrategy complexSearchStrategy;
+
+    public FullTextSearchStrategy(SopSearchIndex sopSearchIndex,
+                                  SopRepository sopRepository,
+                                  ComplexSearchStrategy complexSearchStrategy) {
+        this.sopSearchIndex = sopSearchIndex;
+        this.sopRepository = sopRepository;
+        this.complexSearchStrategy = complexSearchStrategy;
+    }
+
+    @Override
+    public Page<Sop> search(SopSearchRequest request, Pageable pageable) {
+        if (!sopSearchIndex.isReady()) {
+            log.warn("Search index is still building, falling back to a database search");
+            return complexSearchStrategy.search(request, pageable);
+        }
+
+        SopSearchIndex.Hits hits;
+        try {
+            hits = sopSearchIndex.search(request, pageable);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to query the search index", e);
+        }
+
+        // only the requested page is loaded, then put back into ranking order
+        Map<String, Sop> sopsById = new HashMap<>();
+        sopRepository.findAllById(hits.sopIds()).forEach(sop -> sopsById.put(sop.getId(), sop));
+
+        List<Sop> sops = new ArrayList<>(hits.sopIds().size());
+        Map<String, Map<String, List<String>>> highlights = new LinkedHashMap<>();
+        for (String sopId : hits.sopIds()) {
+            Sop sop = sopsById.get(sopId);
+            if (sop != null) {
+                sops.add(sop);
+                highlights.put(sopId, sopSearchIndex.highlight(hits.query(), sop));
+            }
+        }
+
+        if (!request.isExactTotal()) {
+            return SopSearchPage.withoutTotal(sops, pageable, hits.hasNext(), highlights);
+        }
+        return SopSearchPage.withTotal(sops, pageable, hits.totalHits(), hits.facets(), highlights);
+    }
+}
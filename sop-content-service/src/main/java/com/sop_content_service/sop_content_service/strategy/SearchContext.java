@@ -11,16 +11,24 @@ import org.springframework.util.StringUtils;
 public class SearchContext {
     private final SimpleSearchStrategy simpleSearchStrategy;
     private final ComplexSearchStrategy complexSearchStrategy;
+    private final FullTextSearchStrategy fullTextSearchStrategy;
 
     public SearchContext(SimpleSearchStrategy simpleSearchStrategy,
-                         ComplexSearchStrategy complexSearchStrategy) {
+                         ComplexSearchStrategy complexSearchStrategy,
+                         FullTextSearchStrategy fullTextSearchStrategy) {
         this.simpleSearchStrategy = simpleSearchStrategy;
         this.complexSearchStrategy = complexSearchStrategy;
+        this.fullTextSearchStrategy = fullTextSearchStrategy;
     }
 
     public Page<Sop> executeSearch(SopSearchRequest request, Pageable pageable) {
-        SearchStrategy strategy = isSimpleQuery(request) ?
-                simpleSearchStrategy : complexSearchStrategy;
+        SearchStrategy strategy;
+        if (StringUtils.hasText(request.getKeyword())) {
+            strategy = fullTextSearchStrategy;
+        } else {
+            strategy = isSimpleQuery(request) ?
+                    simpleSearchStrategy : complexSearchStrategy;
+        }
         return strategy.search(request, pageable);
     }
 
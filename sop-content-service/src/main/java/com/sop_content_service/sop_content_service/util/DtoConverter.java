@@ -1,10 +1,13 @@
 package com.sop_content_service.sop_content_service.util;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
+import com.sop_content_service.sop_content_service.dto.DepartmentUpdatedDto;
 import com.sop_content_service.sop_content_service.dto.PublishedSopDto;
 import com.sop_content_service.sop_content_service.dto.SOPDto;
+import com.sop_content_service.sop_content_service.dto.UserUpdatedDto;
 
 public class DtoConverter {
 
@@ -26,4 +29,17 @@ public class DtoConverter {
         return objectMapper.writeValueAsString(publishedSopDto);
     }
 
+    // user events carry more fields than the content service needs
+    public static UserUpdatedDto userUpdatedDtoFromJson(String json) throws JsonProcessingException {
+        return objectMapper.readerFor(UserUpdatedDto.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(json);
+    }
+
+    public static DepartmentUpdatedDto departmentUpdatedDtoFromJson(String json) throws JsonProcessingException {
+        return objectMapper.readerFor(DepartmentUpdatedDto.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(json);
+    }
+
 }
@@ -0,0 +1,48 @@
+package com.sop_content_service.sop_content_service.util;
+
+import com.sop_content_service.sop_content_service.exception.BadRequestException;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+// position in a listing ordered by (createdAt, id) descending, sent to clients as an opaque token;
+// entries without a createdAt sort last and are paged by id alone
+public record SopCursor(Date createdAt, String id) {
+
+    public String encode() {
+        String raw = (createdAt == null ? "" : String.valueOf(createdAt.getTime())) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null for the first page
+    public static SopCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0 || separator == raw.length() - 1) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            Date createdAt = separator == 0 ? null : new Date(Long.parseLong(raw.substring(0, separator)));
+            return new SopCursor(createdAt, raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    // the entries after this one, a missing createdAt compares below every date as in the sort
+    public Criteria seek() {
+        if (createdAt == null) {
+            return Criteria.where("createdAt").is(null).and("id").lt(id);
+        }
+        return new Criteria().orOperator(
+                Criteria.where("createdAt").lt(createdAt),
+                Criteria.where("createdAt").is(createdAt).and("id").lt(id),
+                Criteria.where("createdAt").is(null));
+    }
+}
@@ -0,0 +1,210 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import com.sop_content_service.sop_content_service.dto.ChunkedUploadDto;
+import com.sop_content_service.sop_content_service.exception.BadRequestException;
+import com.sop_content_service.sop_content_service.exception.FileUploadException;
+import com.sop_content_service.sop_content_service.model.ChunkedUpload;
+import com.sop_content_service.sop_content_service.repository.ChunkedUploadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3UploadServiceTest {
+
+    private static final long PART_SIZE = S3UploadService.MIN_PART_SIZE;
+
+    @Mock
+    private AmazonS3 s3Client;
+
+    @Mock
+    private ChunkedUploadRepository chunkedUploadRepository;
+
+    private S3UploadService s3UploadService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        s3UploadService = new S3UploadService(s3Client, chunkedUploadRepository, Runnable::run, "test-bucket", PART_SIZE, 2);
+        lenient().when(s3Client.getUrl(anyString(), anyString())).thenReturn(new URL("http://test-bucket.s3/uploads/file"));
+    }
+
+    @Test
+    void upload_SmallFile_IsPutWithKnownLength() {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("document", "test.pdf", "application/pdf", new byte[1024]);
+
+        // Act
+        s3UploadService.upload(file);
+
+        // Assert
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(request.capture());
+        assertEquals(1024, request.getValue().getMetadata().getContentLength());
+        verify(s3Client, never()).initiateMultipartUpload(any());
+    }
+
+    @Test
+    void upload_LargeFile_IsSentInPartsAndRetriesAFailedPart() {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("document", "big.pdf", "application/pdf",
+                new byte[(int) (2 * PART_SIZE + 1024)]);
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setUploadId("upload-1");
+        when(s3Client.initiateMultipartUpload(any())).thenReturn(initiated);
+        when(s3Client.uploadPart(any()))
+                .thenThrow(new AmazonClientException("connection reset"))
+                .thenAnswer(invocation -> partResult(invocation.getArgument(0)));
+
+        // Act
+        s3UploadService.upload(file);
+
+        // Assert
+        ArgumentCaptor<UploadPartRequest> parts = ArgumentCaptor.forClass(UploadPartRequest.class);
+        verify(s3Client, times(4)).uploadPart(parts.capture());
+        List<Long> sizes = parts.getAllValues().stream().map(UploadPartRequest::getPartSize).toList();
+        assertEquals(List.of(PART_SIZE, PART_SIZE, PART_SIZE, 1024L), sizes);
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3Client).completeMultipartUpload(complete.capture());
+        assertEquals(3, complete.getValue().getPartETags().size());
+        verify(s3Client, never()).abortMultipartUpload(any());
+    }
+
+    @Test
+    void uploadAll_ReturnsUrlsInFileOrder() {
+        // Arrange
+        List<org.springframework.web.multipart.MultipartFile> files = List.of(
+                new MockMultipartFile("document", "a.pdf", "application/pdf", new byte[10]),
+                new MockMultipartFile("document", "b.pdf", "application/pdf", new byte[10]));
+
+        // Act
+        List<String> urls = s3UploadService.uploadAll(files);
+
+        // Assert
+        assertEquals(2, urls.size());
+        verify(s3Client, times(2)).putObject(any(PutObjectRequest.class));
+    }
+
+    @Test
+    void uploadAll_FilesWithTheSameName_GetTheirOwnKeys() {
+        // Arrange
+        List<org.springframework.web.multipart.MultipartFile> files = List.of(
+                new MockMultipartFile("document", "scan.pdf", "application/pdf", new byte[10]),
+                new MockMultipartFile("document", "scan.pdf", "application/pdf", new byte[10]));
+
+        // Act
+        s3UploadService.uploadAll(files);
+
+        // Assert
+        ArgumentCaptor<PutObjectRequest> puts = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client, times(2)).putObject(puts.capture());
+        assertNotEquals(puts.getAllValues().get(0).getKey(), puts.getAllValues().get(1).getKey());
+        assertTrue(puts.getAllValues().get(0).getKey().endsWith("_scan.pdf"));
+    }
+
+    @Test
+    void uploadAll_WhenOneFileFails_DeletesTheOnesThatWereUploaded() {
+        // Arrange
+        List<org.springframework.web.multipart.MultipartFile> files = List.of(
+                new MockMultipartFile("document", "a.pdf", "application/pdf", new byte[10]),
+                new MockMultipartFile("document", "b.pdf", "application/pdf", new byte[10]));
+        when(s3Client.putObject(any(PutObjectRequest.class)))
+                .thenReturn(new PutObjectResult())
+                .thenThrow(new AmazonClientException("connection reset"));
+
+        // Act & Assert
+        assertThrows(FileUploadException.class, () -> s3UploadService.uploadAll(files));
+        ArgumentCaptor<PutObjectRequest> puts = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client, times(2)).putObject(puts.capture());
+        verify(s3Client).deleteObject("test-bucket", puts.getAllValues().get(0).getKey());
+        verify(s3Client, never()).deleteObject("test-bucket", puts.getAllValues().get(1).getKey());
+    }
+
+    @Test
+    void startChunkedUpload_RecordsTheOwner() {
+        // Arrange
+        UUID ownerId = UUID.randomUUID();
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setUploadId("upload-1");
+        when(s3Client.initiateMultipartUpload(any())).thenReturn(initiated);
+
+        // Act
+        ChunkedUploadDto upload = s3UploadService.startChunkedUpload("big.pdf", "application/pdf", ownerId);
+
+        // Assert
+        ArgumentCaptor<ChunkedUpload> saved = ArgumentCaptor.forClass(ChunkedUpload.class);
+        verify(chunkedUploadRepository).save(saved.capture());
+        assertEquals("upload-1", saved.getValue().getUploadId());
+        assertEquals(upload.getKey(), saved.getValue().getKey());
+        assertEquals(ownerId, saved.getValue().getOwnerId());
+    }
+
+    @Test
+    void uploadChunk_RejectsKeysOutsideTheUploadPrefix() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> s3UploadService.uploadChunk(
+                "uploads/../secrets", "upload-1", UUID.randomUUID(), 1, new ByteArrayInputStream(new byte[1]), 1));
+        verify(s3Client, never()).uploadPart(any());
+    }
+
+    @Test
+    void chunkedUpload_StartedByAnotherUser_IsRejected() {
+        // Arrange
+        UUID ownerId = UUID.randomUUID();
+        when(chunkedUploadRepository.findById("upload-1"))
+                .thenReturn(Optional.of(new ChunkedUpload("upload-1", "uploads/1_big.pdf", ownerId, new Date())));
+        UUID otherUser = UUID.randomUUID();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> s3UploadService.uploadChunk(
+                "uploads/1_big.pdf", "upload-1", otherUser, 1, new ByteArrayInputStream(new byte[1]), 1));
+        assertThrows(BadRequestException.class, () -> s3UploadService.completeChunkedUpload(
+                "uploads/1_big.pdf", "upload-1", otherUser));
+        assertThrows(BadRequestException.class, () -> s3UploadService.abortChunkedUpload(
+                "uploads/1_big.pdf", "upload-1", otherUser));
+        verify(s3Client, never()).uploadPart(any());
+        verify(s3Client, never()).completeMultipartUpload(any());
+        verify(s3Client, never()).abortMultipartUpload(any());
+    }
+
+    @Test
+    void abortChunkedUpload_ByItsOwner_AbortsAndForgetsIt() {
+        // Arrange
+        UUID ownerId = UUID.randomUUID();
+        when(chunkedUploadRepository.findById("upload-1"))
+                .thenReturn(Optional.of(new ChunkedUpload("upload-1", "uploads/1_big.pdf", ownerId, new Date())));
+
+        // Act
+        s3UploadService.abortChunkedUpload("uploads/1_big.pdf", "upload-1", ownerId);
+
+        // Assert
+        verify(s3Client).abortMultipartUpload(any());
+        verify(chunkedUploadRepository).deleteById("upload-1");
+    }
+
+    private UploadPartResult partResult(UploadPartRequest request) {
+        UploadPartResult result = new UploadPartResult();
+        result.setPartNumber(request.getPartNumber());
+        result.setETag("etag-" + request.getPartNumber());
+        return result;
+    }
+}
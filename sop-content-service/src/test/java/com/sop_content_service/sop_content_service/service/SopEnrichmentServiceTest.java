@@ -0,0 +1,180 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.sop_content_service.sop_content_service.dto.SOPResponseDto;
+import com.sop_content_service.sop_content_service.dto.SopSummaryDto;
+import com.sop_content_service.sop_content_service.enums.ApprovalStatus;
+import com.sop_content_service.sop_content_service.enums.SOPStatus;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.model.SopSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import sopVersionService.GetSopsVersionsResponse;
+import sopVersionService.SopVersion;
+import sopVersionService.SopVersions;
+import sopWorkflowService.GetWorkflowStagesInfoResponse;
+import sopWorkflowService.WorkflowStageInfo;
+import userService.departmentInfo;
+import userService.getDepartmentNamesResponse;
+import userService.getUsersInfoResponse;
+import userService.userInfo;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SopEnrichmentServiceTest {
+
+    @Mock
+    private WorkflowClientService workflowClientService;
+
+    @Mock
+    private UserInfoClientService userInfoClientService;
+
+    @Mock
+    private VersionClientService versionClientService;
+
+    private SopEnrichmentService sopEnrichmentService;
+
+    private final UUID departmentId = UUID.randomUUID();
+    private final UUID authorId = UUID.randomUUID();
+    private final UUID reviewerId = UUID.randomUUID();
+    private final UUID approverId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        sopEnrichmentService = new SopEnrichmentService(
+                workflowClientService, userInfoClientService, versionClientService);
+    }
+
+    @Test
+    void enrich_ResolvesWholePageWithOneCallPerService() {
+        // Arrange
+        List<Sop> sops = List.of(createSop("sop1"), createSop("sop2"));
+
+        when(versionClientService.GetSopsVersionsAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(GetSopsVersionsResponse.newBuilder()
+                        .setSuccess(true)
+                        .addSopVersions(SopVersions.newBuilder()
+                                .setSopId("sop1")
+                                .addVersions(SopVersion.newBuilder()
+                                        .setVersionNumber(1.0f)
+                                        .setCurrentVersion(true)
+                                        .build())
+                                .build())
+                        .build()));
+        when(userInfoClientService.getDepartmentNamesAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(getDepartmentNamesResponse.newBuilder()
+                        .setSuccess(true)
+                        .addDepartments(departmentInfo.newBuilder()
+                                .setDepartmentId(departmentId.toString())
+                                .setDepartmentName("Engineering")
+                                .build())
+                        .build()));
+        when(userInfoClientService.getUsersInfoAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(getUsersInfoResponse.newBuilder()
+                        .setSuccess(true)
+                        .addUsers(userInfo.newBuilder()
+                                .setUserId(reviewerId.toString())
+                                .setName("Reviewer")
+                                .build())
+                        .build()));
+        when(workflowClientService.getWorkflowStagesAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(GetWorkflowStagesInfoResponse.newBuilder()
+                        .setSuccess(true)
+                        .addStages(WorkflowStageInfo.newBuilder()
+                                .setSopId("sop2")
+                                .setUserId(reviewerId.toString())
+                                .setStatus(ApprovalStatus.APPROVED.name())
+                                .build())
+                        .build()));
+
+        // Act
+        List<SOPResponseDto> result = sopEnrichmentService.enrich(sops);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Engineering", result.get(0).getDepartmentName());
+        assertEquals(1, result.get(0).getVersions().size());
+        assertTrue(result.get(1).getVersions().isEmpty());
+        assertEquals("Reviewer", result.get(1).getReviewers().get(0).getName());
+        assertEquals(ApprovalStatus.APPROVED, result.get(1).getReviewers().get(0).getStatus());
+        assertNull(result.get(0).getReviewers().get(0).getStatus());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> userIds = ArgumentCaptor.forClass(Collection.class);
+        verify(userInfoClientService, times(1)).getUsersInfoAsync(userIds.capture());
+        assertEquals(3, userIds.getValue().size());
+        verify(userInfoClientService, times(1)).getDepartmentNamesAsync(anyCollection());
+        verify(versionClientService, times(1)).GetSopsVersionsAsync(anyCollection());
+        verify(workflowClientService, times(1)).getWorkflowStagesAsync(anyCollection());
+        verifyNoMoreInteractions(userInfoClientService, versionClientService, workflowClientService);
+    }
+
+    @Test
+    void enrich_EmptyPage_MakesNoCalls() {
+        // Act
+        List<SOPResponseDto> result = sopEnrichmentService.enrich(List.of());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(userInfoClientService, versionClientService, workflowClientService);
+    }
+
+    @Test
+    void summarize_OnlyResolvesDepartmentAndAuthor() {
+        // Arrange
+        SopSummary sop = new SopSummary();
+        sop.setId("sop1");
+        sop.setTitle("Test SOP");
+        sop.setDepartmentId(departmentId);
+        sop.setAuthor(authorId);
+
+        when(userInfoClientService.getDepartmentNamesAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(getDepartmentNamesResponse.newBuilder()
+                        .setSuccess(true)
+                        .addDepartments(departmentInfo.newBuilder()
+                                .setDepartmentId(departmentId.toString())
+                                .setDepartmentName("Engineering")
+                                .build())
+                        .build()));
+        when(userInfoClientService.getUsersInfoAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(getUsersInfoResponse.newBuilder()
+                        .setSuccess(true)
+                        .addUsers(userInfo.newBuilder()
+                                .setUserId(authorId.toString())
+                                .setName("Author")
+                                .build())
+                        .build()));
+
+        // Act
+        List<SopSummaryDto> result = sopEnrichmentService.summarize(List.of(sop));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Engineering", result.get(0).getDepartmentName());
+        assertEquals("Author", result.get(0).getAuthor().getName());
+        verifyNoInteractions(versionClientService, workflowClientService);
+    }
+
+    private Sop createSop(String id) {
+        Sop sop = new Sop();
+        sop.setId(id);
+        sop.setTitle("Test SOP");
+        sop.setStatus(SOPStatus.UNDER_REVIEWAL);
+        sop.setDepartmentId(departmentId);
+        sop.setAuthor(authorId);
+        sop.setReviewers(List.of(reviewerId));
+        sop.setApprover(approverId);
+        sop.setCreatedAt(new Date());
+        sop.setUpdatedAt(new Date());
+        return sop;
+    }
+}
@@ -0,0 +1,93 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.sop_content_service.sop_content_service.dto.SopReadDeltaDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SopReadAggregatorTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private SopReadAggregator sopReadAggregator;
+
+    @BeforeEach
+    void setUp() {
+        sopReadAggregator = new SopReadAggregator(kafkaTemplate, 1000, 500);
+    }
+
+    @Test
+    void flush_PublishesOneDeltaPerSop() {
+        // Arrange
+        when(kafkaTemplate.send(eq(SopReadAggregator.TOPIC), any())).thenReturn(CompletableFuture.completedFuture(null));
+        sopReadAggregator.record("sop1");
+        sopReadAggregator.record("sop1");
+        sopReadAggregator.record("sop2");
+
+        // Act
+        sopReadAggregator.flush();
+        sopReadAggregator.flush();
+
+        // Assert
+        List<SopReadDeltaDto> batch = captureBatches(1).get(0);
+        batch.sort(Comparator.comparing(SopReadDeltaDto::getSopId));
+        assertEquals(2, batch.size());
+        assertEquals(2, batch.get(0).getDelta());
+        assertEquals(1, batch.get(1).getDelta());
+        assertNotNull(batch.get(0).getWindowStart());
+    }
+
+    @Test
+    void record_FlushesOnceThresholdIsReached() {
+        // Arrange
+        sopReadAggregator = new SopReadAggregator(kafkaTemplate, 3, 500);
+        when(kafkaTemplate.send(eq(SopReadAggregator.TOPIC), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        sopReadAggregator.record("sop1");
+        sopReadAggregator.record("sop1");
+        sopReadAggregator.record("sop1");
+
+        // Assert
+        assertEquals(3, captureBatches(1).get(0).get(0).getDelta());
+    }
+
+    @Test
+    void flush_FailedBatchIsRetriedWithTheNextWindow() {
+        // Arrange
+        when(kafkaTemplate.send(eq(SopReadAggregator.TOPIC), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        sopReadAggregator.record("sop1");
+        sopReadAggregator.flush();
+
+        // Act
+        sopReadAggregator.record("sop1");
+        sopReadAggregator.flush();
+
+        // Assert
+        assertEquals(2, captureBatches(2).get(1).get(0).getDelta());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<SopReadDeltaDto>> captureBatches(int times) {
+        ArgumentCaptor<Object> batches = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, times(times)).send(eq(SopReadAggregator.TOPIC), batches.capture());
+        return batches.getAllValues().stream().map(batch -> (List<SopReadDeltaDto>) batch).toList();
+    }
+}
@@ -0,0 +1,118 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.sop_content_service.sop_content_service.dto.SopSearchRequest;
+import com.sop_content_service.sop_content_service.dto.SopSearchResponse;
+import com.sop_content_service.sop_content_service.enums.SOPStatus;
+import com.sop_content_service.sop_content_service.model.Sop;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SopSearchCacheTest {
+
+    private final UUID departmentId = UUID.randomUUID();
+    private final Pageable pageable = PageRequest.of(0, 10);
+
+    private SopSearchCache sopSearchCache;
+    private AtomicInteger searches;
+
+    @BeforeEach
+    void setUp() {
+        sopSearchCache = new SopSearchCache(new ConcurrentMapCacheManager(), Runnable::run, 60, 600);
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    void get_EquivalentRequests_ShareOneEntry() {
+        // Arrange
+        SopSearchRequest first = request("Fire  Safety", "Safety", null);
+        SopSearchRequest second = request(" fire safety ", "Safety ", null);
+
+        // Act
+        sopSearchCache.get(first, pageable, search("first"));
+        SopSearchResponse<Page<Sop>> response = sopSearchCache.get(second, pageable, search("second"));
+
+        // Assert
+        assertEquals(1, searches.get());
+        assertEquals("first", response.getMessage());
+    }
+
+    @Test
+    void invalidate_OnlyRefreshesSearchesTheSopCanMatch() {
+        // Arrange
+        SopSearchRequest safety = request(null, "Safety", null);
+        SopSearchRequest hr = request(null, "HR", null);
+        sopSearchCache.get(safety, pageable, search("safety"));
+        sopSearchCache.get(hr, pageable, search("hr"));
+
+        // Act
+        sopSearchCache.invalidate(sopSearchCache.tagsOf(createSop("Safety")));
+        SopSearchResponse<Page<Sop>> invalidatedSafety = sopSearchCache.get(safety, pageable, search("safety-refreshed"));
+        SopSearchResponse<Page<Sop>> cachedHr = sopSearchCache.get(hr, pageable, search("hr-refreshed"));
+
+        // Assert
+        // the invalidated entry is reloaded before it is returned, the unrelated one is never searched again
+        assertEquals("safety-refreshed", invalidatedSafety.getMessage());
+        assertEquals("hr", cachedHr.getMessage());
+        assertEquals(3, searches.get());
+    }
+
+    @Test
+    void get_WhenEntryOutlivedFreshTtl_ServesItWhileRefreshing() {
+        // Arrange
+        sopSearchCache = new SopSearchCache(new ConcurrentMapCacheManager(), Runnable::run, 0, 600);
+        SopSearchRequest safety = request(null, "Safety", null);
+        sopSearchCache.get(safety, pageable, search("safety"));
+
+        // Act
+        SopSearchResponse<Page<Sop>> stale = sopSearchCache.get(safety, pageable, search("safety-refreshed"));
+
+        // Assert
+        assertEquals("safety", stale.getMessage());
+        assertEquals(2, searches.get());
+        assertEquals("safety-refreshed", sopSearchCache.get(safety, pageable, search("unused")).getMessage());
+    }
+
+    @Test
+    void tagsOf_CoversEveryFilterCombinationTheSopMatches() {
+        // Act & Assert
+        assertEquals(8, sopSearchCache.tagsOf(createSop("Safety")).size());
+        assertTrue(sopSearchCache.tagsOf(createSop("Safety")).contains("d=*|c=safety|s=*"));
+        assertTrue(sopSearchCache.tagsOf(null).isEmpty());
+    }
+
+    private Supplier<SopSearchResponse<Page<Sop>>> search(String message) {
+        return () -> {
+            searches.incrementAndGet();
+            return new SopSearchResponse<>(new PageImpl<>(List.of(new Sop())), message, null);
+        };
+    }
+
+    private SopSearchRequest request(String keyword, String category, String status) {
+        SopSearchRequest request = new SopSearchRequest();
+        request.setKeyword(keyword);
+        request.setCategory(category);
+        request.setStatus(status);
+        return request;
+    }
+
+    private Sop createSop(String category) {
+        Sop sop = new Sop();
+        sop.setId("sop1");
+        sop.setCategory(category);
+        sop.setDepartmentId(departmentId);
+        sop.setStatus(SOPStatus.PUBLISHED);
+        return sop;
+    }
+}
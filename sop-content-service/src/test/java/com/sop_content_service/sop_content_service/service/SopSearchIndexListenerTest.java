@@ -0,0 +1,98 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.sop_content_service.sop_content_service.enums.SOPStatus;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.repository.SopRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SopSearchIndexListenerTest {
+
+    @Mock
+    private SopSearchIndex sopSearchIndex;
+
+    @Mock
+    private SopSearchCache sopSearchCache;
+
+    @Mock
+    private SopRepository sopRepository;
+
+    private SopSearchIndexListener sopSearchIndexListener;
+
+    @BeforeEach
+    void setUp() {
+        sopSearchIndexListener = new SopSearchIndexListener(sopSearchIndex, sopSearchCache, sopRepository);
+    }
+
+    @Test
+    void sopCreatedListener_IndexesSopFromTheEvent() throws Exception {
+        // Arrange
+        when(sopSearchCache.tagsOf(any(Sop.class))).thenReturn(Set.of("tag"));
+
+        // Act
+        sopSearchIndexListener.sopCreatedListener(
+                "{\"id\":\"sop1\",\"title\":\"Fire drill\",\"visibility\":\"public\",\"category\":\"safety\"}");
+
+        // Assert
+        ArgumentCaptor<Sop> indexed = ArgumentCaptor.forClass(Sop.class);
+        verify(sopSearchIndex).index(indexed.capture());
+        assertEquals("sop1", indexed.getValue().getId());
+        assertEquals("Fire drill", indexed.getValue().getTitle());
+        verify(sopSearchCache).invalidate(Set.of("tag"));
+        verifyNoInteractions(sopRepository);
+    }
+
+    @Test
+    void sopVersionRevertedListener_IndexesRevertedContentWithStoredStatus() throws Exception {
+        // Arrange
+        Sop stored = new Sop();
+        stored.setId("sop1");
+        stored.setTitle("Current");
+        stored.setStatus(SOPStatus.PUBLISHED);
+        when(sopRepository.findById("sop1")).thenReturn(Optional.of(stored));
+
+        // Act
+        sopSearchIndexListener.sopVersionRevertedListener("{\"id\":\"sop1\",\"title\":\"Reverted\",\"body\":\"old body\"}");
+
+        // Assert
+        ArgumentCaptor<Sop> indexed = ArgumentCaptor.forClass(Sop.class);
+        verify(sopSearchIndex).index(indexed.capture());
+        assertEquals("Reverted", indexed.getValue().getTitle());
+        assertEquals("old body", indexed.getValue().getBody());
+        assertEquals(SOPStatus.PUBLISHED, indexed.getValue().getStatus());
+        verify(sopRepository, never()).save(any());
+    }
+
+    @Test
+    void sopVersionRevertedListener_UnknownSop_DoesNothing() throws Exception {
+        // Arrange
+        when(sopRepository.findById("sop1")).thenReturn(Optional.empty());
+
+        // Act
+        sopSearchIndexListener.sopVersionRevertedListener("{\"id\":\"sop1\",\"title\":\"Reverted\"}");
+
+        // Assert
+        verifyNoInteractions(sopSearchIndex, sopSearchCache);
+    }
+
+    @Test
+    void sopDeletedListener_RemovesSopFromIndex() throws Exception {
+        // Act
+        sopSearchIndexListener.sopDeletedListener("{\"id\":\"sop1\"}");
+
+        // Assert
+        verify(sopSearchIndex).remove("sop1");
+    }
+}
@@ -0,0 +1,179 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.sop_content_service.sop_content_service.dto.SopSearchRequest;
+import com.sop_content_service.sop_content_service.enums.SOPStatus;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.repository.SopRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SopSearchIndexTest {
+
+    @Mock
+    private SopRepository sopRepository;
+
+    private SopSearchIndex sopSearchIndex;
+
+    private final UUID departmentId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sopSearchIndex = new SopSearchIndex(sopRepository);
+
+        when(sopRepository.streamSops(anyCollection(), isNull(), anyInt())).thenReturn(Stream.of(
+                createSop("sop1", "Fire safety", "Evacuating the building during fires", SOPStatus.PUBLISHED),
+                createSop("sop2", "Onboarding", "Laptop setup for new hires", SOPStatus.PUBLISHED),
+                createSop("sop3", "Fire drills", "Quarterly fire drill schedule", SOPStatus.DRAFTED)));
+        sopSearchIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        sopSearchIndex.close();
+    }
+
+    @Test
+    void search_MatchesStemmedTermsAndRanksByRelevance() throws IOException {
+        // Act
+        SopSearchIndex.Hits hits = sopSearchIndex.search(request("evacuate fire", null), relevance());
+
+        // Assert
+        assertTrue(sopSearchIndex.isReady());
+        assertEquals(2, hits.totalHits());
+        assertEquals(List.of("sop1", "sop3"), hits.sopIds());
+    }
+
+    @Test
+    void search_AppliesStatusFilterInsideIndex() throws IOException {
+        // Act
+        SopSearchIndex.Hits hits = sopSearchIndex.search(request("fire", "drafted"), relevance());
+
+        // Assert
+        assertEquals(List.of("sop3"), hits.sopIds());
+    }
+
+    @Test
+    void search_CountsFacetsOverTheWholeMatchSet() throws IOException {
+        // Act
+        SopSearchIndex.Hits hits = sopSearchIndex.search(request("fire", null), PageRequest.of(0, 1,
+                Sort.by(Sort.Direction.DESC, SopSearchIndex.RELEVANCE)));
+
+        // Assert
+        assertEquals(1, hits.sopIds().size());
+        assertTrue(hits.hasNext());
+        assertEquals(2, hits.totalHits());
+        assertEquals(Map.of("Safety", 2L), hits.facets().get("category"));
+        assertEquals(Map.of("PUBLISHED", 1L, "DRAFTED", 1L), hits.facets().get("status"));
+    }
+
+    @Test
+    void search_WithoutExactTotal_OnlyReportsNextPage() throws IOException {
+        // Arrange
+        SopSearchRequest request = request("fire", null);
+        request.setExactTotal(false);
+
+        // Act
+        SopSearchIndex.Hits hits = sopSearchIndex.search(request, PageRequest.of(1, 1,
+                Sort.by(Sort.Direction.DESC, SopSearchIndex.RELEVANCE)));
+
+        // Assert
+        assertEquals(1, hits.sopIds().size());
+        assertFalse(hits.hasNext());
+        assertNull(hits.facets());
+    }
+
+    @Test
+    void indexAndRemove_AreVisibleToTheNextSearch() throws IOException {
+        // Act
+        sopSearchIndex.index(createSop("sop4", "Chemical spill", "Contain the spill", SOPStatus.PUBLISHED));
+        sopSearchIndex.remove("sop1");
+
+        // Assert
+        assertEquals(List.of("sop4"), sopSearchIndex.search(request("spills", null), relevance()).sopIds());
+        assertEquals(List.of("sop3"), sopSearchIndex.search(request("fire", null), relevance()).sopIds());
+    }
+
+    @Test
+    void rebuild_DoesNotBlockWritesAndKeepsThem() throws Exception {
+        // Arrange
+        Sop stale = createSop("sop1", "Fire safety", "Evacuating the building during fires", SOPStatus.PUBLISHED);
+        Sop fresh = createSop("sop1", "Flood safety", "Moving to higher floors during floods", SOPStatus.PUBLISHED);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Stream<Sop> corpus = Stream.of(stale).peek(sop -> {
+            // a create and an update arriving from another thread while the rebuild reads the corpus
+            try {
+                executor.submit(() -> {
+                    sopSearchIndex.index(fresh);
+                    sopSearchIndex.index(createSop("sop4", "Chemical spill", "Contain the spill", SOPStatus.PUBLISHED));
+                }).get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        when(sopRepository.streamSops(anyCollection(), isNull(), anyInt())).thenReturn(corpus);
+
+        // Act
+        sopSearchIndex.rebuild();
+        executor.shutdown();
+
+        // Assert
+        assertEquals(List.of("sop1"), sopSearchIndex.search(request("floods", null), relevance()).sopIds());
+        assertEquals(List.of("sop4"), sopSearchIndex.search(request("spill", null), relevance()).sopIds());
+        assertTrue(sopSearchIndex.search(request("evacuate", null), relevance()).sopIds().isEmpty());
+    }
+
+    @Test
+    void highlight_WrapsMatchedTerms() throws IOException {
+        // Arrange
+        Sop sop = createSop("sop1", "Fire safety", "Evacuating the building during fires", SOPStatus.PUBLISHED);
+        SopSearchIndex.Hits hits = sopSearchIndex.search(request("fire", null), relevance());
+
+        // Act
+        Map<String, List<String>> highlights = sopSearchIndex.highlight(hits.query(), sop);
+
+        // Assert
+        assertEquals(List.of("<em>Fire</em> safety"), highlights.get("title"));
+        assertTrue(highlights.get("body").get(0).contains("<em>fires</em>"));
+    }
+
+    private SopSearchRequest request(String keyword, String status) {
+        SopSearchRequest request = new SopSearchRequest();
+        request.setKeyword(keyword);
+        request.setStatus(status);
+        return request;
+    }
+
+    private PageRequest relevance() {
+        return PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, SopSearchIndex.RELEVANCE));
+    }
+
+    private Sop createSop(String id, String title, String body, SOPStatus status) {
+        Sop sop = new Sop();
+        sop.setId(id);
+        sop.setTitle(title);
+        sop.setBody(body);
+        sop.setStatus(status);
+        sop.setCategory("Safety");
+        sop.setDepartmentId(departmentId);
+        sop.setCreatedAt(new Date());
+        return sop;
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.*;
 import org.springframework.http.ResponseEntity;
 
@@ -32,7 +33,8 @@ class SopSearchServiceTest {
 
     @BeforeEach
     void setUp() {
-        sopSearchService = new SopSearchService(searchContext);
+        SopSearchCache sopSearchCache = new SopSearchCache(new ConcurrentMapCacheManager(), Runnable::run, 60, 600);
+        sopSearchService = new SopSearchService(searchContext, sopSearchCache);
     }
 
     @Test
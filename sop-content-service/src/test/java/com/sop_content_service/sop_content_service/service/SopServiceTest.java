@@ -3,14 +3,18 @@ package com.sop_content_service.sop_content_service.service;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.sop_content_service.sop_content_service.dto.*;
-import com.sop_content_service.sop_content_service.enums.ApprovalStatus;
 import com.sop_content_service.sop_content_service.enums.SOPStatus;
 import com.sop_content_service.sop_content_service.enums.Visibility;
 import com.sop_content_service.sop_content_service.exception.BadInputRequest;
 import com.sop_content_service.sop_content_service.exception.BadRequestException;
 import com.sop_content_service.sop_content_service.exception.SopNotFoundException;
 import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.model.SopSummary;
+import com.sop_content_service.sop_content_service.model.SopView;
 import com.sop_content_service.sop_content_service.repository.SopRepository;
+import com.sop_content_service.sop_content_service.repository.ChunkedUploadRepository;
+import com.sop_content_service.sop_content_service.repository.SopViewRepository;
+import com.sop_content_service.sop_content_service.util.SopCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,18 +24,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
-import sopVersionService.GetSopVersionsResponse;
-import sopWorkflowService.GetWorkflowStageInfoResponse;
+import sopVersionService.GetSopsVersionsResponse;
+import sopWorkflowService.GetWorkflowStagesInfoResponse;
 import sopWorkflowService.IsSOPApprovedResponse;
-import userService.getDepartmentNameResponse;
-import userService.getUserInfoResponse;
+import userService.getDepartmentNamesResponse;
+import userService.getUsersInfoResponse;
 
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -56,12 +62,32 @@ class SopServiceTest {
     @Mock
     private VersionClientService versionClientService;
 
+    @Mock
+    private SopSearchIndex sopSearchIndex;
+
+    @Mock
+    private SopSearchCache sopSearchCache;
+
+    @Mock
+    private SopReadAggregator sopReadAggregator;
+
+    @Mock
+    private SopViewRepository sopViewRepository;
+
+    @Mock
+    private ChunkedUploadRepository chunkedUploadRepository;
+
     private SopService sopService;
 
     @BeforeEach
     void setUp() {
-        sopService = new SopService(s3Client, sopRepository, kafkaTemplate,
+        SopEnrichmentService sopEnrichmentService = new SopEnrichmentService(
                 workflowClientService, userInfoClientService, versionClientService);
+        S3UploadService s3UploadService = new S3UploadService(s3Client, chunkedUploadRepository, Runnable::run, "test-bucket", 8388608, 3);
+        SopViewService sopViewService = new SopViewService(
+                sopViewRepository, sopRepository, sopEnrichmentService, userInfoClientService, 100);
+        sopService = new SopService(s3UploadService, sopRepository, kafkaTemplate,
+                workflowClientService, sopEnrichmentService, sopSearchIndex, sopSearchCache, sopReadAggregator, sopViewService);
     }
 
     @Test
@@ -132,23 +158,83 @@ class SopServiceTest {
     void getSops_Success() {
         // Arrange
         UUID departmentId = UUID.randomUUID();
-        List<Sop> mockSops = Arrays.asList(
-                createMockSop("sop1"),
-                createMockSop("sop2")
+        List<SopSummary> mockSops = Arrays.asList(
+                createMockSummary("sop1"),
+                createMockSummary("sop2")
         );
 
-        when(sopRepository.findByDepartmentIdOrVisibilityOrderByCreatedAtDesc(
-                departmentId, Visibility.PUBLIC)).thenReturn(mockSops);
-        setupMockResponses();
+        when(sopRepository.findSummariesByDepartmentIdOrVisibility(
+                departmentId, Visibility.PUBLIC, null, CursorPage.DEFAULT_LIMIT + 1)).thenReturn(mockSops);
+        setupSummaryMockResponses();
 
         // Act
-        List<SOPResponseDto> result = sopService.getSops(departmentId);
+        CursorPage<SopSummaryDto> result = sopService.getSops(departmentId, null, null);
 
         // Assert
         assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(sopRepository).findByDepartmentIdOrVisibilityOrderByCreatedAtDesc(
-                departmentId, Visibility.PUBLIC);
+        assertEquals(2, result.getItems().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        verifyNoInteractions(versionClientService, workflowClientService);
+    }
+
+    @Test
+    void getAllSops_ReturnsCursorOfLastItemWhenMoreRemain() {
+        // Arrange
+        List<SopSummary> mockSops = Arrays.asList(
+                createMockSummary("sop1"),
+                createMockSummary("sop2"),
+                createMockSummary("sop3")
+        );
+        when(sopRepository.findSummaries(null, 3)).thenReturn(mockSops);
+        setupSummaryMockResponses();
+
+        // Act
+        CursorPage<SopSummaryDto> result = sopService.getAllSops(null, 2);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertTrue(result.isHasNext());
+        SopCursor cursor = SopCursor.decode(result.getNextCursor());
+        assertEquals("sop2", cursor.id());
+        assertEquals(mockSops.get(1).getCreatedAt(), cursor.createdAt());
+    }
+
+    @Test
+    void getAllSops_LastItemWithoutCreatedAt_StillGetsACursor() {
+        // Arrange
+        List<SopSummary> mockSops = Arrays.asList(createMockSummary("sop1"), createMockSummary("sop2"));
+        mockSops.get(0).setCreatedAt(null);
+        when(sopRepository.findSummaries(null, 2)).thenReturn(mockSops);
+        setupSummaryMockResponses();
+
+        // Act
+        CursorPage<SopSummaryDto> result = sopService.getAllSops(null, 1);
+
+        // Assert
+        assertTrue(result.isHasNext());
+        assertEquals(new SopCursor(null, "sop1"), SopCursor.decode(result.getNextCursor()));
+    }
+
+    @Test
+    void getAllSops_PassesDecodedCursorAndBoundsLimit() {
+        // Arrange
+        SopCursor after = new SopCursor(new Date(), "sop2");
+        when(sopRepository.findSummaries(after, CursorPage.MAX_LIMIT + 1)).thenReturn(List.of());
+
+        // Act
+        CursorPage<SopSummaryDto> result = sopService.getAllSops(after.encode(), 10_000);
+
+        // Assert
+        assertTrue(result.getItems().isEmpty());
+        assertFalse(result.isHasNext());
+    }
+
+    @Test
+    void getAllSops_InvalidCursor() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> sopService.getAllSops("not a cursor", null));
+        verifyNoInteractions(sopRepository);
     }
 
     @Test
@@ -173,6 +259,52 @@ class SopServiceTest {
         assertNotNull(result);
         assertEquals(SOPStatus.PUBLISHED, existingSop.getStatus());
         verify(kafkaTemplate).send(eq("sop-published"), any(PublishedSopDto.class));
+        verify(sopViewRepository).saveIfNotOlder(any(SopView.class));
+    }
+
+    @Test
+    void getSopById_ServesStoredView() {
+        // Arrange
+        SOPResponseDto view = new SOPResponseDto();
+        view.setId("sop1");
+        view.setStatus(SOPStatus.PUBLISHED);
+        when(sopViewRepository.findById("sop1"))
+                .thenReturn(Optional.of(new SopView("sop1", view, Set.of(), new Date())));
+
+        // Act
+        SOPResponseDto result = sopService.getSopById("sop1");
+
+        // Assert
+        assertSame(view, result);
+        verify(sopReadAggregator).record("sop1");
+        verifyNoInteractions(sopRepository, userInfoClientService, versionClientService, workflowClientService);
+    }
+
+    @Test
+    void getSopById_BuildsMissingView() {
+        // Arrange
+        Sop sop = createMockSop("sop1");
+        when(sopViewRepository.findById("sop1")).thenReturn(Optional.empty());
+        when(sopRepository.findById("sop1")).thenReturn(Optional.of(sop));
+        setupMockResponses();
+
+        // Act
+        SOPResponseDto result = sopService.getSopById("sop1");
+
+        // Assert
+        assertEquals("sop1", result.getId());
+        verify(sopViewRepository).saveIfNotOlder(any(SopView.class));
+        verify(sopReadAggregator, never()).record(anyString());
+    }
+
+    @Test
+    void getSopById_NotFound() {
+        // Arrange
+        when(sopViewRepository.findById("missing")).thenReturn(Optional.empty());
+        when(sopRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(SopNotFoundException.class, () -> sopService.getSopById("missing"));
     }
 
     @Test
@@ -200,6 +332,7 @@ class SopServiceTest {
         sop.setBody("Test Body");
         sop.setStatus(SOPStatus.UNDER_REVIEWAL);
         sop.setVisibility(Visibility.PUBLIC);
+        sop.setDepartmentId(UUID.randomUUID());
         sop.setAuthor(UUID.randomUUID());
         sop.setReviewers(List.of(UUID.randomUUID()));
         sop.setApprover(UUID.randomUUID());
@@ -208,33 +341,54 @@ class SopServiceTest {
         return sop;
     }
 
+    private SopSummary createMockSummary(String id) {
+        SopSummary sop = new SopSummary();
+        sop.setId(id);
+        sop.setTitle("Test SOP");
+        sop.setDescription("Test Description");
+        sop.setStatus(SOPStatus.PUBLISHED);
+        sop.setVisibility(Visibility.PUBLIC);
+        sop.setDepartmentId(UUID.randomUUID());
+        sop.setAuthor(UUID.randomUUID());
+        sop.setCreatedAt(new Date());
+        sop.setUpdatedAt(new Date());
+        return sop;
+    }
+
+    private void setupSummaryMockResponses() {
+        when(userInfoClientService.getDepartmentNamesAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(getDepartmentNamesResponse.newBuilder()
+                        .setSuccess(true)
+                        .build()));
+        when(userInfoClientService.getUsersInfoAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(getUsersInfoResponse.newBuilder()
+                        .setSuccess(true)
+                        .build()));
+    }
+
     private void setupMockResponses() {
         // Mock version client response
-        when(versionClientService.GetSopVersions(anyString()))
-                .thenReturn(GetSopVersionsResponse.newBuilder()
+        when(versionClientService.GetSopsVersionsAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(GetSopsVersionsResponse.newBuilder()
                         .setSuccess(true)
-                        .build());
+                        .build()));
 
-        // Mock department name response
-        when(userInfoClientService.getDepartmentName(anyString()))
-                .thenReturn(getDepartmentNameResponse.newBuilder()
+        // Mock department names response
+        when(userInfoClientService.getDepartmentNamesAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(getDepartmentNamesResponse.newBuilder()
                         .setSuccess(true)
-                        .setDepartmentName("Test Department")
-                        .build());
+                        .build()));
 
         // Mock user info response
-        when(userInfoClientService.getUserInfo(anyString()))
-                .thenReturn(getUserInfoResponse.newBuilder()
+        when(userInfoClientService.getUsersInfoAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(getUsersInfoResponse.newBuilder()
                         .setSuccess(true)
-                        .setName("Test User")
-                        .setProfilePictureUrl("http://test-url.com/profile.jpg")
-                        .build());
+                        .build()));
 
-        // Mock workflow stage response
-        when(workflowClientService.getWorkflowStage(anyString(), anyString()))
-                .thenReturn(GetWorkflowStageInfoResponse.newBuilder()
+        // Mock workflow stages response
+        when(workflowClientService.getWorkflowStagesAsync(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(GetWorkflowStagesInfoResponse.newBuilder()
                         .setSuccess(true)
-                        .setStatus(ApprovalStatus.PENDING.name())
-                        .build());
+                        .build()));
     }
-}
\ No newline at end of file
+}
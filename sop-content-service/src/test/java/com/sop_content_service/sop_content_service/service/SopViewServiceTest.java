@@ -0,0 +1,217 @@
+package com.sop_content_service.sop_content_service.service;
+
+import com.sop_content_service.sop_content_service.dto.SOPResponseDto;
+import com.sop_content_service.sop_content_service.dto.StageDto;
+import com.sop_content_service.sop_content_service.model.Sop;
+import com.sop_content_service.sop_content_service.model.SopView;
+import com.sop_content_service.sop_content_service.repository.SopRepository;
+import com.sop_content_service.sop_content_service.repository.SopViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import userService.getDepartmentNameResponse;
+import userService.getUsersInfoResponse;
+import userService.userInfo;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SopViewServiceTest {
+
+    @Mock
+    private SopViewRepository sopViewRepository;
+
+    @Mock
+    private SopRepository sopRepository;
+
+    @Mock
+    private SopEnrichmentService sopEnrichmentService;
+
+    @Mock
+    private UserInfoClientService userInfoClientService;
+
+    private SopViewService sopViewService;
+
+    private final UUID authorId = UUID.randomUUID();
+    private final UUID reviewerId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        sopViewService = new SopViewService(sopViewRepository, sopRepository, sopEnrichmentService, userInfoClientService, 2);
+    }
+
+    @Test
+    void rebuild_EnrichesInBatchesAndDropsStaleViews() {
+        // Arrange
+        List<Sop> sops = List.of(createSop("sop1"), createSop("sop2"), createSop("sop3"));
+        when(sopRepository.streamSops(anyCollection(), isNull(), eq(2))).thenReturn(sops.stream());
+        when(sopEnrichmentService.enrich(anyList())).thenAnswer(invocation -> {
+            List<Sop> batch = invocation.getArgument(0);
+            return batch.stream().map(sop -> createView(sop.getId())).toList();
+        });
+        when(sopViewRepository.deleteByRefreshedAtBefore(any(Date.class))).thenReturn(1L);
+
+        // Act
+        long rebuilt = sopViewService.rebuild();
+
+        // Assert
+        assertEquals(3, rebuilt);
+        verify(sopEnrichmentService, times(2)).enrich(anyList());
+        verify(sopViewRepository, times(3)).saveIfNotOlder(any(SopView.class));
+        verify(sopViewRepository).deleteByRefreshedAtBefore(any(Date.class));
+    }
+
+    @Test
+    void rebuildAsync_WhileRunning_DoesNotStartAnother() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(sopRepository.streamSops(anyCollection(), isNull(), eq(2))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Stream.<Sop>empty();
+        });
+
+        // Act
+        boolean first = sopViewService.rebuildAsync();
+        started.await(5, TimeUnit.SECONDS);
+        boolean second = sopViewService.rebuildAsync();
+        release.countDown();
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        verify(sopViewRepository, timeout(5000)).deleteByRefreshedAtBefore(any(Date.class));
+        sopViewService.shutdown();
+    }
+
+    @Test
+    void workflowUpdatedListener_StampsViewWithTimeSourcesWereRead() throws Exception {
+        // Arrange
+        Sop sop = createSop("sop1");
+        Date before = new Date();
+        when(sopRepository.findById("sop1")).thenReturn(Optional.of(sop));
+        when(sopEnrichmentService.enrich(sop)).thenReturn(createView("sop1"));
+        when(sopViewRepository.saveIfNotOlder(any(SopView.class))).thenReturn(false);
+
+        // Act
+        sopViewService.workflowUpdatedListener("{\"id\":\"sop1\"}");
+
+        // Assert
+        ArgumentCaptor<SopView> saved = ArgumentCaptor.forClass(SopView.class);
+        verify(sopViewRepository).saveIfNotOlder(saved.capture());
+        assertFalse(saved.getValue().getRefreshedAt().before(before));
+        verify(sopViewRepository, never()).save(any(SopView.class));
+    }
+
+    @Test
+    void workflowUpdatedListener_DeletedSop_EvictsView() throws Exception {
+        // Arrange
+        when(sopRepository.findById("sop1")).thenReturn(Optional.empty());
+
+        // Act
+        sopViewService.workflowUpdatedListener("{\"id\":\"sop1\"}");
+
+        // Assert
+        verify(sopViewRepository).saveIfNotOlder(argThat(view -> view.getId().equals("sop1") && view.getSop() == null));
+        verifyNoInteractions(sopEnrichmentService);
+    }
+
+    @Test
+    void userProfileUpdatedListener_PatchesParticipantInPlace() throws Exception {
+        // Arrange
+        SOPResponseDto sop = createView("sop1");
+        SopView view = new SopView("sop1", sop, Set.of(authorId, reviewerId), new Date(0));
+        when(sopViewRepository.findByParticipants(reviewerId)).thenReturn(List.of(view));
+        when(sopViewRepository.saveIfNotOlder(any(SopView.class))).thenReturn(true);
+        when(userInfoClientService.getUsersInfo(anyCollection()))
+                .thenReturn(getUsersInfoResponse.newBuilder()
+                        .setSuccess(true)
+                        .addUsers(userInfo.newBuilder()
+                                .setUserId(reviewerId.toString())
+                                .setName("Renamed")
+                                .setProfilePictureUrl("new.png")
+                                .build())
+                        .build());
+
+        // Act
+        sopViewService.userProfileUpdatedListener("{\"id\":\"" + reviewerId + "\",\"email\":\"r@x.com\",\"name\":\"Renamed\"}");
+
+        // Assert
+        ArgumentCaptor<SopView> saved = ArgumentCaptor.forClass(SopView.class);
+        verify(sopViewRepository).saveIfNotOlder(saved.capture());
+        SOPResponseDto updated = saved.getValue().getSop();
+        assertEquals("Renamed", updated.getReviewers().get(0).getName());
+        assertEquals("new.png", updated.getReviewers().get(0).getProfilePictureUrl());
+        assertEquals("Author", updated.getAuthor().getName());
+        verifyNoInteractions(sopEnrichmentService);
+    }
+
+    @Test
+    void departmentUpdatedListener_PatchesDepartmentNameInPlace() throws Exception {
+        // Arrange
+        UUID departmentId = UUID.randomUUID();
+        SOPResponseDto sop = createView("sop1");
+        sop.setDepartmentId(departmentId);
+        sop.setDepartmentName("HR");
+        SopView view = new SopView("sop1", sop, Set.of(authorId, reviewerId), new Date(0));
+        when(sopViewRepository.findBySopDepartmentId(departmentId)).thenReturn(List.of(view));
+        when(sopViewRepository.saveIfNotOlder(any(SopView.class))).thenReturn(true);
+        when(userInfoClientService.getDepartmentName(departmentId.toString()))
+                .thenReturn(getDepartmentNameResponse.newBuilder()
+                        .setSuccess(true)
+                        .setDepartmentName("People")
+                        .build());
+
+        // Act
+        sopViewService.departmentUpdatedListener("{\"id\":\"" + departmentId + "\",\"name\":\"People\"}");
+
+        // Assert
+        ArgumentCaptor<SopView> saved = ArgumentCaptor.forClass(SopView.class);
+        verify(sopViewRepository).saveIfNotOlder(saved.capture());
+        assertEquals("People", saved.getValue().getSop().getDepartmentName());
+        assertEquals("Reviewer", saved.getValue().getSop().getReviewers().get(0).getName());
+        assertTrue(saved.getValue().getRefreshedAt().after(new Date(0)));
+        verifyNoInteractions(sopEnrichmentService);
+    }
+
+    @Test
+    void departmentUpdatedListener_NoViewsOfDepartment_SkipsLookup() throws Exception {
+        // Arrange
+        UUID departmentId = UUID.randomUUID();
+        when(sopViewRepository.findBySopDepartmentId(departmentId)).thenReturn(List.of());
+
+        // Act
+        sopViewService.departmentUpdatedListener("{\"id\":\"" + departmentId + "\",\"name\":\"People\"}");
+
+        // Assert
+        verifyNoInteractions(userInfoClientService);
+        verify(sopViewRepository, never()).saveIfNotOlder(any());
+    }
+
+    private Sop createSop(String id) {
+        Sop sop = new Sop();
+        sop.setId(id);
+        sop.setAuthor(authorId);
+        sop.setReviewers(List.of(reviewerId));
+        return sop;
+    }
+
+    private SOPResponseDto createView(String id) {
+        SOPResponseDto sop = new SOPResponseDto();
+        sop.setId(id);
+        sop.setAuthor(new StageDto(authorId, "Author", "", null, new ArrayList<>(), 0));
+        sop.setReviewers(new ArrayList<>(List.of(new StageDto(reviewerId, "Reviewer", "", null, new ArrayList<>(), 0))));
+        return sop;
+    }
+}
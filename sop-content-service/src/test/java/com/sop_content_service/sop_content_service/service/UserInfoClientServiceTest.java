@@ -1,13 +1,15 @@
 package com.sop_content_service.sop_content_service.service;
 
+import com.google.common.util.concurrent.Futures;
+import io.grpc.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import userService.*;
-import userService.userServiceGrpc.userServiceBlockingStub;
+import userService.userServiceGrpc.userServiceFutureStub;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -17,9 +19,8 @@ import static org.junit.jupiter.api.Assertions.*;
 class UserInfoClientServiceTest {
 
     @Mock
-    private userServiceBlockingStub userInfoServiceBlockingStub;
+    private userServiceFutureStub userInfoServiceFutureStub;
 
-    @InjectMocks
     private UserInfoClientService userInfoClientService;
 
     private static final String TEST_USER_ID = "user123";
@@ -30,7 +31,9 @@ class UserInfoClientServiceTest {
 
     @BeforeEach
     void setUp() {
-        // Method intentionally left empty as mocks are handled by annotations
+        userInfoClientService = new UserInfoClientService(new SimpleMeterRegistry());
+        userInfoClientService.userInfoServiceFutureStub = userInfoServiceFutureStub;
+        when(userInfoServiceFutureStub.withDeadline(any(Deadline.class))).thenReturn(userInfoServiceFutureStub);
     }
 
     @Test
@@ -47,8 +50,8 @@ class UserInfoClientServiceTest {
                 .setUserId(TEST_USER_ID)
                 .build();
 
-        when(userInfoServiceBlockingStub.getUserInfo(any(getUserInfoRequest.class)))
-                .thenReturn(expectedResponse);
+        when(userInfoServiceFutureStub.getUserInfo(any(getUserInfoRequest.class)))
+                .thenReturn(Futures.immediateFuture(expectedResponse));
 
         // Act
         getUserInfoResponse actualResponse = userInfoClientService.getUserInfo(TEST_USER_ID);
@@ -73,8 +76,8 @@ class UserInfoClientServiceTest {
                 .setDepartmentId(TEST_DEPARTMENT_ID)
                 .build();
 
-        when(userInfoServiceBlockingStub.getDepartmentName(any(getDepartmentNameRequest.class)))
-                .thenReturn(expectedResponse);
+        when(userInfoServiceFutureStub.getDepartmentName(any(getDepartmentNameRequest.class)))
+                .thenReturn(Futures.immediateFuture(expectedResponse));
 
         // Act
         getDepartmentNameResponse actualResponse = userInfoClientService.getDepartmentName(TEST_DEPARTMENT_ID);
@@ -94,8 +97,8 @@ class UserInfoClientServiceTest {
                 .setErrorMessage(errorMessage)
                 .build();
 
-        when(userInfoServiceBlockingStub.getUserInfo(any(getUserInfoRequest.class)))
-                .thenReturn(errorResponse);
+        when(userInfoServiceFutureStub.getUserInfo(any(getUserInfoRequest.class)))
+                .thenReturn(Futures.immediateFuture(errorResponse));
 
         // Act
         getUserInfoResponse actualResponse = userInfoClientService.getUserInfo(TEST_USER_ID);
@@ -115,8 +118,8 @@ class UserInfoClientServiceTest {
                 .setErrorMessage(errorMessage)
                 .build();
 
-        when(userInfoServiceBlockingStub.getDepartmentName(any(getDepartmentNameRequest.class)))
-                .thenReturn(errorResponse);
+        when(userInfoServiceFutureStub.getDepartmentName(any(getDepartmentNameRequest.class)))
+                .thenReturn(Futures.immediateFuture(errorResponse));
 
         // Act
         getDepartmentNameResponse actualResponse = userInfoClientService.getDepartmentName(TEST_DEPARTMENT_ID);
@@ -1,13 +1,15 @@
 package com.sop_content_service.sop_content_service.service;
 
+import com.google.common.util.concurrent.Futures;
+import io.grpc.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import sopVersionService.*;
-import sopVersionService.VersionServiceGrpc.VersionServiceBlockingStub;
+import sopVersionService.VersionServiceGrpc.VersionServiceFutureStub;
 
 import java.util.Arrays;
 import java.util.List;
@@ -20,16 +22,17 @@ import static org.junit.jupiter.api.Assertions.*;
 class VersionClientServiceTest {
 
     @Mock
-    private VersionServiceBlockingStub versionServiceBlockingStub;
+    private VersionServiceFutureStub versionServiceFutureStub;
 
-    @InjectMocks
     private VersionClientService versionClientService;
 
     private static final String TEST_SOP_ID = "sop123";
 
     @BeforeEach
     void setUp() {
-        // Method intentionally left empty as mocks are handled by annotations
+        versionClientService = new VersionClientService(new SimpleMeterRegistry());
+        versionClientService.versionServiceFutureStub = versionServiceFutureStub;
+        when(versionServiceFutureStub.withDeadline(any(Deadline.class))).thenReturn(versionServiceFutureStub);
     }
 
     @Test
@@ -50,8 +53,8 @@ class VersionClientServiceTest {
                 .addAllVersions(Arrays.asList(version1, version2))
                 .build();
 
-        when(versionServiceBlockingStub.getSopVersions(any(GetSopVersionsRequest.class)))
-                .thenReturn(expectedResponse);
+        when(versionServiceFutureStub.getSopVersions(any(GetSopVersionsRequest.class)))
+                .thenReturn(Futures.immediateFuture(expectedResponse));
 
         // Act
         GetSopVersionsResponse actualResponse = versionClientService.GetSopVersions(TEST_SOP_ID);
@@ -79,8 +82,8 @@ class VersionClientServiceTest {
                 .setSuccess(true)
                 .build();
 
-        when(versionServiceBlockingStub.getSopVersions(any(GetSopVersionsRequest.class)))
-                .thenReturn(expectedResponse);
+        when(versionServiceFutureStub.getSopVersions(any(GetSopVersionsRequest.class)))
+                .thenReturn(Futures.immediateFuture(expectedResponse));
 
         // Act
         GetSopVersionsResponse actualResponse = versionClientService.GetSopVersions(TEST_SOP_ID);
@@ -101,8 +104,8 @@ class VersionClientServiceTest {
                 .setErrorMessage(errorMessage)
                 .build();
 
-        when(versionServiceBlockingStub.getSopVersions(any(GetSopVersionsRequest.class)))
-                .thenReturn(errorResponse);
+        when(versionServiceFutureStub.getSopVersions(any(GetSopVersionsRequest.class)))
+                .thenReturn(Futures.immediateFuture(errorResponse));
 
         // Act
         GetSopVersionsResponse actualResponse = versionClientService.GetSopVersions(TEST_SOP_ID);
@@ -127,8 +130,8 @@ class VersionClientServiceTest {
                 .addVersions(version)
                 .build();
 
-        when(versionServiceBlockingStub.getSopVersions(any(GetSopVersionsRequest.class)))
-                .thenReturn(expectedResponse);
+        when(versionServiceFutureStub.getSopVersions(any(GetSopVersionsRequest.class)))
+                .thenReturn(Futures.immediateFuture(expectedResponse));
 
         // Act
         GetSopVersionsResponse actualResponse = versionClientService.GetSopVersions(TEST_SOP_ID);
@@ -1,27 +1,30 @@
 package com.sop_content_service.sop_content_service.service;
 
+import com.google.common.util.concurrent.Futures;
+import io.grpc.Deadline;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import sopWorkflowService.*;
-import sopWorkflowService.SopWorkflowServiceGrpc.SopWorkflowServiceBlockingStub;
+import sopWorkflowService.SopWorkflowServiceGrpc.SopWorkflowServiceFutureStub;
 
 import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 class WorkflowClientServiceTest {
 
     @Mock
-    private SopWorkflowServiceBlockingStub sopWorkflowServiceBlockingStub;
+    private SopWorkflowServiceFutureStub sopWorkflowServiceFutureStub;
 
-    @InjectMocks
     private WorkflowClientService workflowClientService;
 
     private static final String TEST_SOP_ID = "sop123";
@@ -31,7 +34,9 @@ class WorkflowClientServiceTest {
 
     @BeforeEach
     void setUp() {
-        // Method intentionally left empty as mocks are handled by annotations
+        workflowClientService = new WorkflowClientService(new SimpleMeterRegistry());
+        workflowClientService.sopWorkflowServiceFutureStub = sopWorkflowServiceFutureStub;
+        when(sopWorkflowServiceFutureStub.withDeadline(any(Deadline.class))).thenReturn(sopWorkflowServiceFutureStub);
     }
 
     @Test
@@ -42,8 +47,8 @@ class WorkflowClientServiceTest {
                 .setSOPApproved(true)
                 .build();
 
-        when(sopWorkflowServiceBlockingStub.isSOPApproved(any(IsSOPApprovedRequest.class)))
-                .thenReturn(expectedResponse);
+        when(sopWorkflowServiceFutureStub.isSOPApproved(any(IsSOPApprovedRequest.class)))
+                .thenReturn(Futures.immediateFuture(expectedResponse));
 
         // Act
         IsSOPApprovedResponse actualResponse = workflowClientService.isSOPApproved(TEST_SOP_ID);
@@ -62,8 +67,8 @@ class WorkflowClientServiceTest {
                 .setSOPApproved(false)
                 .build();
 
-        when(sopWorkflowServiceBlockingStub.isSOPApproved(any(IsSOPApprovedRequest.class)))
-                .thenReturn(expectedResponse);
+        when(sopWorkflowServiceFutureStub.isSOPApproved(any(IsSOPApprovedRequest.class)))
+                .thenReturn(Futures.immediateFuture(expectedResponse));
 
         // Act
         IsSOPApprovedResponse actualResponse = workflowClientService.isSOPApproved(TEST_SOP_ID);
@@ -83,8 +88,8 @@ class WorkflowClientServiceTest {
                 .setErrorMessage(errorMessage)
                 .build();
 
-        when(sopWorkflowServiceBlockingStub.isSOPApproved(any(IsSOPApprovedRequest.class)))
-                .thenReturn(errorResponse);
+        when(sopWorkflowServiceFutureStub.isSOPApproved(any(IsSOPApprovedRequest.class)))
+                .thenReturn(Futures.immediateFuture(errorResponse));
 
         // Act
         IsSOPApprovedResponse actualResponse = workflowClientService.isSOPApproved(TEST_SOP_ID);
@@ -116,8 +121,8 @@ class WorkflowClientServiceTest {
                 .addAllComments(Arrays.asList(comment1, comment2))
                 .build();
 
-        when(sopWorkflowServiceBlockingStub.getWorkflowStageInfo(any(GetWorkflowStageInfoRequest.class)))
-                .thenReturn(expectedResponse);
+        when(sopWorkflowServiceFutureStub.getWorkflowStageInfo(any(GetWorkflowStageInfoRequest.class)))
+                .thenReturn(Futures.immediateFuture(expectedResponse));
 
         // Act
         GetWorkflowStageInfoResponse actualResponse = workflowClientService.getWorkflowStage(TEST_USER_ID, TEST_SOP_ID);
@@ -143,8 +148,8 @@ class WorkflowClientServiceTest {
                 .setStatus(TEST_STATUS)
                 .build();
 
-        when(sopWorkflowServiceBlockingStub.getWorkflowStageInfo(any(GetWorkflowStageInfoRequest.class)))
-                .thenReturn(expectedResponse);
+        when(sopWorkflowServiceFutureStub.getWorkflowStageInfo(any(GetWorkflowStageInfoRequest.class)))
+                .thenReturn(Futures.immediateFuture(expectedResponse));
 
         // Act
         GetWorkflowStageInfoResponse actualResponse = workflowClientService.getWorkflowStage(TEST_USER_ID, TEST_SOP_ID);
@@ -166,8 +171,8 @@ class WorkflowClientServiceTest {
                 .setErrorMessage(errorMessage)
                 .build();
 
-        when(sopWorkflowServiceBlockingStub.getWorkflowStageInfo(any(GetWorkflowStageInfoRequest.class)))
-                .thenReturn(errorResponse);
+        when(sopWorkflowServiceFutureStub.getWorkflowStageInfo(any(GetWorkflowStageInfoRequest.class)))
+                .thenReturn(Futures.immediateFuture(errorResponse));
 
         // Act
         GetWorkflowStageInfoResponse actualResponse = workflowClientService.getWorkflowStage(TEST_USER_ID, TEST_SOP_ID);
@@ -178,4 +183,22 @@ class WorkflowClientServiceTest {
         assertEquals(errorMessage, actualResponse.getErrorMessage());
         assertTrue(actualResponse.getCommentsList().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void isSOPApproved_RepeatedUnavailable_OpensCircuit() {
+        // Arrange
+        when(sopWorkflowServiceFutureStub.isSOPApproved(any(IsSOPApprovedRequest.class)))
+                .thenReturn(Futures.immediateFailedFuture(Status.UNAVAILABLE.asRuntimeException()));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertThrows(StatusRuntimeException.class, () -> workflowClientService.isSOPApproved(TEST_SOP_ID));
+        }
+        StatusRuntimeException rejected = assertThrows(StatusRuntimeException.class,
+                () -> workflowClientService.isSOPApproved(TEST_SOP_ID));
+
+        // Assert
+        assertEquals(Status.Code.UNAVAILABLE, rejected.getStatus().getCode());
+        verify(sopWorkflowServiceFutureStub, times(5)).isSOPApproved(any(IsSOPApprovedRequest.class));
+    }
+}
@@ -1,5 +1,6 @@
 package com.sop_recommendation_service.sop_recommendation_service.service;
 
+import com.at.grpc.ProtoTimestamps;
 import com.sop_recommendation_service.sop_recommendation_service.dtos.RecommendationResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -130,6 +131,7 @@ public class GeminiRecommendationEngine implements RecommendationEngine {
         );
     }
 
+    @SuppressWarnings("deprecation")
     private String formatSopsForPrompt(List<SopDetails> sops) {
         return sops.stream()
                 .map(sop -> String.format("""
@@ -145,7 +147,7 @@ public class GeminiRecommendationEngine implements RecommendationEngine {
                         sop.getDepartmentId(),
                         sop.getDescription(),
                         sop.getStatus(),
-                        sop.getUpdatedAt()
+                        ProtoTimestamps.format(sop.hasUpdatedTime(), sop.getUpdatedTime(), sop.getUpdatedAt())
                 ))
                 .collect(Collectors.joining("\n---\n"));
     }
@@ -1,5 +1,6 @@
 package com.sop_recommendation_service.sop_recommendation_service.service;
 
+import com.at.grpc.ProtoTimestamps;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sop_recommendation_service.sop_recommendation_service.dtos.*;
@@ -16,6 +17,7 @@ import userService.getUserInfoResponse;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -181,6 +183,7 @@ public class RecommendationService {
         }
     }
 
+    @SuppressWarnings("deprecation")
     private List<RecommendationDTO> convertToRecommendationDTOs(
             List<RecommendationResult> results,
             List<SopDetails> allSops) {
@@ -189,20 +192,28 @@ public class RecommendationService {
             sopsByTitle.put(sop.getTitle(), sop);
         }
 
+        // Get full SOP details including versions, reviewers, etc. for all picks at once
+        Map<String, CompletableFuture<GetSopDetailsResponse>> detailsBySopId = new HashMap<>();
+        for (RecommendationResult result : results) {
+            SopDetails sop = sopsByTitle.get(result.getTitle());
+            if (sop != null) {
+                detailsBySopId.computeIfAbsent(sop.getSopId(), sopClientService::getSopDetailsAsync);
+            }
+        }
+
         List<RecommendationDTO> dtos = new ArrayList<>();
         for (RecommendationResult result : results) {
             SopDetails sop = sopsByTitle.get(result.getTitle());
             if (sop != null) {
-                // Get full SOP details including versions, reviewers, etc.
-                GetSopDetailsResponse fullDetails = sopClientService.getSopDetails(sop.getSopId());
+                GetSopDetailsResponse fullDetails = detailsBySopId.get(sop.getSopId()).join();
 
                 RecommendationDTO dto = RecommendationDTO.builder()
                         .sopId(sop.getSopId())
-                        .documentUrls(sop.getDocumentUrlsList())
+                        .documentUrls(fullDetails.getDocumentUrlsList())
                         .coverUrl(sop.getCoverUrl())
                         .title(sop.getTitle())
                         .description(sop.getDescription())
-                        .body(sop.getBody())
+                        .body(fullDetails.getBody())
                         .category(sop.getCategory())
                         .departmentId(sop.getDepartmentId())
                         .visibility(sop.getVisibility())
@@ -213,8 +224,8 @@ public class RecommendationService {
                         .author(convertStage(fullDetails.getAuthor()))
                         .score(result.getScore())
                         .reason(result.getReason())
-                        .createdAt(sop.getCreatedAt())
-                        .updatedAt(sop.getUpdatedAt())
+                        .createdAt(ProtoTimestamps.format(sop.hasCreatedTime(), sop.getCreatedTime(), sop.getCreatedAt()))
+                        .updatedAt(ProtoTimestamps.format(sop.hasUpdatedTime(), sop.getUpdatedTime(), sop.getUpdatedAt()))
                         .build();
                 dtos.add(dto);
             }
@@ -237,6 +248,7 @@ public class RecommendationService {
                 .collect(Collectors.toList());
     }
 
+    @SuppressWarnings("deprecation")
     private Stage convertStage(sopFromWorkflow.Stage protoStage) {
         if (protoStage == null) {
             return null;
@@ -250,7 +262,7 @@ public class RecommendationService {
                         .map(c -> Comment.builder()
                                 .commentId(c.getCommentId())
                                 .comment(c.getComment())
-                                .createdAt(c.getCreatedAt())
+                                .createdAt(ProtoTimestamps.format(c.hasCreatedTime(), c.getCreatedTime(), c.getCreatedAt()))
                                 .build())
                         .collect(Collectors.toList()))
                 .build();
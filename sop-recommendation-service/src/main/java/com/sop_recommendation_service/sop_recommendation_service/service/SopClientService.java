@@ -1,86 +1,104 @@
 package com.sop_recommendation_service.sop_recommendation_service.service;
 
+import com.at.grpc.CallPolicy;
+import com.at.grpc.ResilientClient;
+import com.google.protobuf.FieldMask;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 import sopFromWorkflow.*;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 public class SopClientService {
 
+    // fields the recommendation engine works on, body and documents come from getSopDetails for the picked SOPs
+    private static final FieldMask SOP_SUMMARY_FIELDS = FieldMask.newBuilder()
+            .addPaths("sopId")
+            .addPaths("title")
+            .addPaths("description")
+            .addPaths("category")
+            .addPaths("departmentId")
+            .addPaths("visibility")
+            .addPaths("status")
+            .addPaths("coverUrl")
+            // also brings createdTime and updatedTime, servers that predate them reject those paths
+            .addPaths("createdAt")
+            .addPaths("updatedAt")
+            .build();
+
+    // streaming calls keep the blocking stub, unary ones go through the resilient client
     @GrpcClient("sop-content-service")
     private SopServiceGrpc.SopServiceBlockingStub sopServiceStub;
 
-    public GetSopDetailsResponse getSopDetails(String sopId) {
-        try {
-            log.info("Sending gRPC request to get SOP details for sopId: {}", sopId);
-            GetSopDetailsRequest request = GetSopDetailsRequest.newBuilder()
-                    .setSopId(sopId)
-                    .build();
+    @GrpcClient("sop-content-service")
+    private SopServiceGrpc.SopServiceFutureStub sopServiceFutureStub;
 
-            GetSopDetailsResponse response = sopServiceStub
-                    .withDeadlineAfter(10, TimeUnit.SECONDS)
-                    .getSopDetails(request);
-            log.info("Received response from sop-content-service for sopId: {}", sopId);
+    private final ResilientClient client;
 
-            return response;
-        } catch (StatusRuntimeException e) {
-            log.error("gRPC call failed while getting SOP details: status={}, message={}", e.getStatus(), e.getMessage());
+    public SopClientService(MeterRegistry meterRegistry) {
+        this.client = ResilientClient.builder("sop-content-service")
+                .defaultPolicy(CallPolicy.hedged(Duration.ofSeconds(10), Duration.ofSeconds(1)))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
 
-            if (e.getStatus().getCode() == Status.Code.UNAVAILABLE) {
-                log.error("Unable to connect to sop-content-service. Please check if the service is running and accessible.");
-            }
+    public GetSopDetailsResponse getSopDetails(String sopId) {
+        return getSopDetailsAsync(sopId).join();
+    }
 
-            return GetSopDetailsResponse.newBuilder()
-                    .setId("")
-                    .addAllDocumentUrls(Collections.emptyList())
-                    .setCoverUrl("")
-                    .setTitle("")
-                    .setDescription("")
-                    .setBody("")
-                    .setCategory("")
-                    .setDepartmentId("")
-                    .setVisibility("")
-                    .setStatus("")
-                    .addAllVersions(Collections.emptyList())
-                    .addAllReviewers(Collections.emptyList())
-                    .setApprover(Stage.newBuilder()
-                            .setName("")
-                            .setProfilePictureUrl("")
-                            .setStatus("")
-                            .build())
-                    .setAuthor(Stage.newBuilder()
-                            .setName("")
-                            .setProfilePictureUrl("")
-                            .setStatus("")
-                            .build())
-                    .setCreatedAt("")
-                    .setUpdatedAt("")
-                    .build();
-        } catch (Exception e) {
-            log.error("Unexpected error while getting SOP details", e);
-            return createEmptySopDetailsResponse();
-        }
+    // never fails, a failed call yields an empty response
+    public CompletableFuture<GetSopDetailsResponse> getSopDetailsAsync(String sopId) {
+        log.info("Sending gRPC request to get SOP details for sopId: {}", sopId);
+        GetSopDetailsRequest request = GetSopDetailsRequest.newBuilder()
+                .setSopId(sopId)
+                .build();
+
+        return client.call("getSopDetails", sopId,
+                        deadline -> sopServiceFutureStub.withDeadline(deadline).getSopDetails(request))
+                .handle((response, error) -> {
+                    if (error == null) {
+                        log.info("Received response from sop-content-service for sopId: {}", sopId);
+                        return response;
+                    }
+
+                    Status status = Status.fromThrowable(error);
+                    log.error("gRPC call failed while getting SOP details: status={}, message={}", status, error.getMessage());
+                    if (status.getCode() == Status.Code.UNAVAILABLE) {
+                        log.error("Unable to connect to sop-content-service. Please check if the service is running and accessible.");
+                    }
+                    return createEmptySopDetailsResponse();
+                });
     }
 
     public GetAllSopDetailsResponse getAllSopDetails() {
         try {
-            log.info("Sending gRPC request to get all SOP details");
-            GetAllSopDetailsRequest request = GetAllSopDetailsRequest.newBuilder()
+            log.info("Sending gRPC request to stream published SOP details");
+            StreamSopDetailsRequest request = StreamSopDetailsRequest.newBuilder()
+                    .setFieldMask(SOP_SUMMARY_FIELDS)
+                    .setStatus("PUBLISHED")
                     .build();
 
-            GetAllSopDetailsResponse response = sopServiceStub
+            Iterator<SopDetailsChunk> chunks = sopServiceStub
                     .withDeadlineAfter(30, TimeUnit.SECONDS)
-                    .getAllSopDetails(request);
-            log.info("Received response from sop-content-service for all SOPs");
+                    .streamSopDetails(request);
+
+            GetAllSopDetailsResponse.Builder response = GetAllSopDetailsResponse.newBuilder();
+            while (chunks.hasNext()) {
+                response.addAllSopDetails(chunks.next().getSopDetailsList());
+            }
+            log.info("Received {} SOPs from sop-content-service", response.getSopDetailsCount());
 
-            return response;
+            return response.build();
         } catch (StatusRuntimeException e) {
             log.error("gRPC call failed while getting all SOP details: status={}, message={}", e.getStatus(), e.getMessage());
 
@@ -123,8 +141,6 @@ public class SopClientService {
                         .setProfilePictureUrl("")
                         .setStatus("")
                         .build())
-                .setCreatedAt("")
-                .setUpdatedAt("")
                 .build();
     }
 }
\ No newline at end of file
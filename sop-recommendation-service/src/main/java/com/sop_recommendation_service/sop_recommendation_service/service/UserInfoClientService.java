@@ -1,16 +1,31 @@
 package com.sop_recommendation_service.sop_recommendation_service.service;
 
+import com.at.grpc.CallPolicy;
+import com.at.grpc.ResilientClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 import userService.getUserInfoRequest;
 import userService.getUserInfoResponse;
 import userService.userServiceGrpc;
+
+import java.time.Duration;
+
 @Service
 @Slf4j
 public class UserInfoClientService {
     @GrpcClient("user-management-service")
-    userServiceGrpc.userServiceBlockingStub userInfoServiceBlockingStub;
+    userServiceGrpc.userServiceFutureStub userInfoServiceFutureStub;
+
+    private final ResilientClient client;
+
+    public UserInfoClientService(MeterRegistry meterRegistry) {
+        this.client = ResilientClient.builder("user-management-service")
+                .defaultPolicy(CallPolicy.hedged(Duration.ofSeconds(2), Duration.ofMillis(200)))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
 
     public getUserInfoResponse getUserInfo(String userId) {
         try {
@@ -19,9 +34,8 @@ public class UserInfoClientService {
                     .setUserId(userId)
                     .build();
 
-            log.info("gRPC Client Stub: {}", userInfoServiceBlockingStub);
-
-            getUserInfoResponse response = userInfoServiceBlockingStub.getUserInfo(request);
+            getUserInfoResponse response = client.get("getUserInfo", userId,
+                    deadline -> userInfoServiceFutureStub.withDeadline(deadline).getUserInfo(request));
             log.info("Received user info response: {}", response);
             return response;
         } catch (Exception e) {
@@ -29,4 +43,4 @@ public class UserInfoClientService {
             throw e;
         }
     }
-}
\ No newline at end of file
+}
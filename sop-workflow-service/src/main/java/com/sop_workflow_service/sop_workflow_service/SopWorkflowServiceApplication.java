@@ -2,9 +2,11 @@ package com.sop_workflow_service.sop_workflow_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
+@EnableScheduling
 public class SopWorkflowServiceApplication {
 
 	public static void main(String[] args) {
@@ -13,6 +13,9 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
+import java.time.Duration;
+import java.util.Set;
+
 @Configuration
 @EnableCaching
 public class RedisConfig {
@@ -31,8 +34,13 @@ public class RedisConfig {
         RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
 
+        // created up front with statistics so every cache reports cache.gets hits and misses from startup,
+        // sopSummaries pages left behind by a generation bump expire on their own
         return RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(redisCacheConfiguration)
+                .initialCacheNames(Set.of("sop", "sopSummaries", "sopsByStatus", "allSopsByStatus", "workflowStage", "workflowStagesList"))
+                .withCacheConfiguration("sopSummaries", redisCacheConfiguration.entryTtl(Duration.ofMinutes(30)))
+                .enableStatistics()
                 .build();
     }
 }
\ No newline at end of file
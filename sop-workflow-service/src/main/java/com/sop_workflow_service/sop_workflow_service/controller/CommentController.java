@@ -1,6 +1,7 @@
 package com.sop_workflow_service.sop_workflow_service.controller;
 
 import com.sop_workflow_service.sop_workflow_service.dto.CommentDto;
+import com.sop_workflow_service.sop_workflow_service.dto.CursorPage;
 import com.sop_workflow_service.sop_workflow_service.model.Comment;
 import com.sop_workflow_service.sop_workflow_service.service.CommentService;
 import com.sop_workflow_service.sop_workflow_service.utils.Response;
@@ -22,6 +23,17 @@ public class CommentController {
         this.commentService = commentService;
     }
 
+    // comments of a stage, a page at a time, nextCursor is sent back as cursor for the next page
+    @GetMapping
+    public Response<CursorPage<Comment>> getStageComments(@RequestParam String stageId,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit) {
+
+        CursorPage<Comment> comments = commentService.getStageComments(stageId, cursor, limit);
+
+        return new Response<>(true, "Comments retrieved successfully", comments);
+    }
+
     @PutMapping("/{commentId}")
     public Response<Object> updateComment(HttpServletRequest request,
                                           @PathVariable String commentId,
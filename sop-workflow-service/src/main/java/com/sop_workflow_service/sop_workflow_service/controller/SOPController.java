@@ -1,6 +1,10 @@
 package com.sop_workflow_service.sop_workflow_service.controller;
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewDto;
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewResultDto;
+import com.sop_workflow_service.sop_workflow_service.dto.CursorPage;
 import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
 import com.sop_workflow_service.sop_workflow_service.dto.ReviewSOPDto;
+import com.sop_workflow_service.sop_workflow_service.dto.SopSummaryDto;
 import com.sop_workflow_service.sop_workflow_service.model.SOP;
 import com.sop_workflow_service.sop_workflow_service.service.SOPService;
 import com.sop_workflow_service.sop_workflow_service.utils.Response;
@@ -38,19 +42,22 @@ public class SOPController {
         return new Response<>(true, "SOP retrieved successfully", sop);
     }
 
-    // Get  SOPs
+    // Get  SOPs, a page at a time, nextCursor is sent back as cursor for the next page
     @GetMapping
-    public Response<List<SOP>> getSOPs(HttpServletRequest request) {
+    public Response<CursorPage<SopSummaryDto>> getSOPs(HttpServletRequest request,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit) {
         String departmentId = request.getHeader("X-Department-Id");
-        List<SOP> sops = sopService.getSops(UUID.fromString(departmentId));
+        CursorPage<SopSummaryDto> sops = sopService.getSops(UUID.fromString(departmentId), cursor, limit);
 
         return new Response<>(true, "SOPs retrieved successfully", sops);
     }
 
     // Get all SOPs by admin
     @GetMapping("/all")
-    public Response<List<SOP>> getAllSOPs() {
-        List<SOP> sops = sopService.getAllSops();
+    public Response<CursorPage<SopSummaryDto>> getAllSOPs(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit) {
+        CursorPage<SopSummaryDto> sops = sopService.getAllSops(cursor, limit);
         return new Response<>(true, "SOPs retrieved successfully", sops);
     }
 
@@ -72,6 +79,15 @@ public class SOPController {
         return new Response<>(true, "SOP approved successfully", sop);
     }
 
+    // reviews and approvals of many SOPs in one call, the response holds the result of each item
+    @PostMapping("/reviews")
+    public Response<List<BulkReviewResultDto>> bulkReview(HttpServletRequest request, @Valid @RequestBody BulkReviewDto bulkReviewDto) {
+        String userId = request.getHeader("X-User-Id");
+        List<BulkReviewResultDto> results = sopService.bulkReview(UUID.fromString(userId), bulkReviewDto.getItems());
+
+        return new Response<>(true, "Bulk review processed", results);
+    }
+
     @DeleteMapping("/{id}")
     public Response<String> deleteSOP(@PathVariable String id) {
         sopService.deleteSOP(id);
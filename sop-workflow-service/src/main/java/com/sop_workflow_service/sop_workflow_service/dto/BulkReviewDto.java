@@ -0,0 +1,17 @@
+package com.sop_workflow_service.sop_workflow_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkReviewDto {
+    public static final int MAX_ITEMS = 100;
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " items can be submitted at once")
+    private List<@Valid BulkReviewItemDto> items;
+}
@@ -0,0 +1,24 @@
+package com.sop_workflow_service.sop_workflow_service.dto;
+
+import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.ReviewAction;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReviewItemDto {
+    @NotBlank(message = "SOP id is required")
+    private String sopId;
+    @NotNull(message = "Action is required")
+    private ReviewAction action;
+    @NotNull(message = "Approval status is required")
+    private ApprovalStatus approvalStatus;
+    private String comment;
+}
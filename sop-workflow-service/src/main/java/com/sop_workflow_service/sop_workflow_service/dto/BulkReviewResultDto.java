@@ -0,0 +1,25 @@
+package com.sop_workflow_service.sop_workflow_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// outcome of one bulk review item, in the order of the request
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReviewResultDto {
+    private String sopId;
+    private boolean success;
+    private String message;
+
+    public static BulkReviewResultDto applied(String sopId) {
+        return new BulkReviewResultDto(sopId, true, "Review submitted");
+    }
+
+    public static BulkReviewResultDto failed(String sopId, String message) {
+        return new BulkReviewResultDto(sopId, false, message);
+    }
+}
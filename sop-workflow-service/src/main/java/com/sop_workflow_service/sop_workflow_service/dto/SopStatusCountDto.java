@@ -0,0 +1,20 @@
+package com.sop_workflow_service.sop_workflow_service.dto;
+
+import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// number of sops created in one time bucket that are in the given status
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SopStatusCountDto {
+    private Date bucketStart;
+    private SOPStatus status;
+    private long count;
+}
@@ -0,0 +1,27 @@
+package com.sop_workflow_service.sop_workflow_service.dto;
+
+import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.Visibility;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.UUID;
+
+// list view of an sop, read as a projection so the category and stage references are never resolved
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SopSummaryDto {
+    private String id;
+    private String title;
+    private UUID initiatedBy;
+    private SOPStatus status;
+    private UUID departmentId;
+    private Visibility visibility;
+    private Date createdAt;
+    private Date updatedAt;
+}
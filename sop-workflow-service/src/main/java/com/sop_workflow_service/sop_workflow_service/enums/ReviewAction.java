@@ -0,0 +1,16 @@
+package com.sop_workflow_service.sop_workflow_service.enums;
+
+import lombok.Getter;
+
+// the stage a bulk review item acts on
+@Getter
+public enum ReviewAction {
+    REVIEW(Roles.REVIEWER),
+    APPROVE(Roles.APPROVER);
+
+    private final Roles role;
+
+    ReviewAction(Roles role) {
+        this.role = role;
+    }
+}
@@ -0,0 +1,102 @@
+package com.sop_workflow_service.sop_workflow_service.migration;
+
+import com.mongodb.DBRef;
+import com.sop_workflow_service.sop_workflow_service.model.Comment;
+import com.sop_workflow_service.sop_workflow_service.model.CommentSummary;
+import com.sop_workflow_service.sop_workflow_service.model.SOP;
+import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One-time move of the workflow into the sop documents.
+ * Sops whose workflowStages are still references into the workflow-stage collection get their stages embedded,
+ * each with its newest comments and comment count. Migrated sops no longer match, so later runs do nothing.
+ * The workflow-stage collection is left in place and can be dropped once every instance runs this version.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkflowAggregateMigration implements ApplicationRunner {
+
+    private static final String STAGES_COLLECTION = "workflow-stage";
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query pending = new BasicQuery("{'workflowStages.$id': {$exists: true}}", "{'workflowStages': 1}");
+        List<Document> sops = mongoTemplate.find(pending, Document.class, mongoTemplate.getCollectionName(SOP.class));
+        if (sops.isEmpty()) {
+            return;
+        }
+
+        log.info("Embedding workflow stages into {} SOPs", sops.size());
+        for (Document sop : sops) {
+            migrate(String.valueOf(sop.get("_id")), sop.getList("workflowStages", DBRef.class));
+        }
+
+        // cached sops and stages still have the old shape
+        for (String name : List.of("sop", "workflowStage", "workflowStagesList")) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.info("Workflow stages embedded");
+    }
+
+    private void migrate(String sopId, List<DBRef> stageRefs) {
+        List<Object> stageIds = stageRefs.stream().map(DBRef::getId).toList();
+
+        // the old comments field holds references as well, the comments are read from their own collection
+        Query stagesQuery = Query.query(Criteria.where("_id").in(stageIds));
+        stagesQuery.fields().exclude("comments");
+        Map<String, WorkflowStage> stagesById = mongoTemplate.find(stagesQuery, WorkflowStage.class, STAGES_COLLECTION)
+                .stream()
+                .collect(Collectors.toMap(WorkflowStage::getId, Function.identity()));
+
+        Query commentsQuery = Query.query(Criteria.where("stageId").in(stagesById.keySet()))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Map<String, List<Comment>> commentsByStage = mongoTemplate.find(commentsQuery, Comment.class).stream()
+                .collect(Collectors.groupingBy(Comment::getStageId));
+
+        // keeps the order of the references, stages that no longer exist are dropped
+        List<WorkflowStage> stages = new ArrayList<>();
+        for (Object stageId : stageIds) {
+            WorkflowStage stage = stagesById.get(String.valueOf(stageId));
+            if (stage == null) {
+                continue;
+            }
+
+            List<Comment> comments = commentsByStage.getOrDefault(stage.getId(), List.of());
+            int from = Math.max(0, comments.size() - WorkflowStage.COMMENT_SUMMARY_LIMIT);
+            stage.setSopId(sopId);
+            stage.setCommentCount(comments.size());
+            stage.setComments(comments.subList(from, comments.size()).stream()
+                    .map(CommentSummary::from)
+                    .collect(Collectors.toCollection(ArrayList::new)));
+            stages.add(stage);
+        }
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(sopId)),
+                new Update().set("workflowStages", stages), SOP.class);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -16,6 +17,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "comments")
+// a stage's thread is read newest first, a page at a time
+@CompoundIndex(name = "stageId_createdAt_id", def = "{'stageId': 1, 'createdAt': -1, '_id': -1}")
 public class Comment {
     @Id
     private String id;
@@ -0,0 +1,32 @@
+package com.sop_workflow_service.sop_workflow_service.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.UUID;
+
+// copy of a comment kept on its stage, the full thread stays in the comments collection
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentSummary {
+    @JsonProperty("id")
+    private String commentId;
+    private UUID userId;
+    private String content;
+    private Date createdAt;
+
+    public static CommentSummary from(Comment comment) {
+        return CommentSummary.builder()
+                .commentId(comment.getId())
+                .userId(comment.getUserId())
+                .content(comment.getContent())
+                .createdAt(comment.getCreatedAt())
+                .build();
+    }
+}
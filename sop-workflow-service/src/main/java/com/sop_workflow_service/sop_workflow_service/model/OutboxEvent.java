@@ -0,0 +1,28 @@
+package com.sop_workflow_service.sop_workflow_service.model;
+
+import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// an event written with the change it announces, the relay publishes it and deletes it once kafka has it
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "outbox")
+public class OutboxEvent {
+    // generated on insert, the relay publishes in id order
+    @Id
+    private String id;
+    private String topic;
+    // the sop id, the events of one sop go to one partition
+    private String key;
+    private SOPDto payload;
+    private Date createdAt;
+}
@@ -5,6 +5,9 @@ import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -20,6 +23,14 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "sop")
+// keyset pagination of the listings, one index per branch of the department/visibility filter
+@CompoundIndexes({
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "departmentId_createdAt_id", def = "{'departmentId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "visibility_createdAt_id", def = "{'visibility': 1, 'createdAt': -1, '_id': -1}"),
+        // finds the sop a comment's stage belongs to
+        @CompoundIndex(name = "workflowStages_id", def = "{'workflowStages._id': 1}")
+})
 public class SOP {
     @Id
     private String id;
@@ -30,10 +41,13 @@ public class SOP {
     private Visibility visibility;
     @DBRef
     private Category category;
-    @DBRef
+    // embedded so the sop and its whole workflow are one document read
     private List<WorkflowStage> workflowStages;
     @CreatedDate
     private Date createdAt;
     @LastModifiedDate
     private Date updatedAt;
+    // bumped by every status and stage change, approvals only apply to the version they were checked on
+    @Version
+    private Long version;
 }
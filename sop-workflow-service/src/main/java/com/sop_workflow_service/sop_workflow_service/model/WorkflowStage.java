@@ -2,34 +2,29 @@ package com.sop_workflow_service.sop_workflow_service.model;
 import com.sop_workflow_service.sop_workflow_service.enums.Roles;
 import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
 import lombok.*;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
-import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+// embedded in its sop, the id is assigned when the sop is created
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
-@Document(collection = "workflow-stage")
 public class WorkflowStage {
-    @Id
+    // newest comments kept on the stage, older ones are only in the comments collection
+    public static final int COMMENT_SUMMARY_LIMIT = 20;
+
     private String id;
     private String sopId;
     // roleRequired value set to enum of role required in the approval stage
     private Roles roleRequired;
     private UUID userId;
     private ApprovalStatus approvalStatus;
-    @DBRef
-    private List<Comment> comments;
-    @CreatedDate
+    private List<CommentSummary> comments;
+    private int commentCount;
     private LocalDateTime createdAt;
-    @LastModifiedDate
     private LocalDateTime updatedAt;
 }
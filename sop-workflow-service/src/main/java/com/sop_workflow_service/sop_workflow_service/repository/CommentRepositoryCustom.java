@@ -0,0 +1,11 @@
+package com.sop_workflow_service.sop_workflow_service.repository;
+
+import com.sop_workflow_service.sop_workflow_service.model.Comment;
+import com.sop_workflow_service.sop_workflow_service.utils.SopCursor;
+
+import java.util.List;
+
+public interface CommentRepositoryCustom {
+    // up to limit comments of the stage after the cursor (from the newest when null), newest first
+    List<Comment> findPageByStageId(String stageId, SopCursor after, int limit);
+}
@@ -0,0 +1,31 @@
+package com.sop_workflow_service.sop_workflow_service.repository;
+
+import com.sop_workflow_service.sop_workflow_service.model.Comment;
+import com.sop_workflow_service.sop_workflow_service.utils.SopCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CommentRepositoryCustomImpl implements CommentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    // seeks to the cursor on the (stageId, createdAt, _id) index, so deep pages of long threads cost the same
+    @Override
+    public List<Comment> findPageByStageId(String stageId, SopCursor after, int limit) {
+        Criteria criteria = Criteria.where("stageId").is(stageId);
+        if (after != null) {
+            criteria.andOperator(after.seek());
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Comment.class);
+    }
+}
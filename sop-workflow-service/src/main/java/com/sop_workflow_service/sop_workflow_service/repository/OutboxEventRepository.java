@@ -0,0 +1,11 @@
+package com.sop_workflow_service.sop_workflow_service.repository;
+
+import com.sop_workflow_service.sop_workflow_service.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String> {
+    List<OutboxEvent> findAllBy(Pageable pageable);
+}
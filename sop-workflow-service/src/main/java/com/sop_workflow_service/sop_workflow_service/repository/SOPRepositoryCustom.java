@@ -0,0 +1,56 @@
+package com.sop_workflow_service.sop_workflow_service.repository;
+
+import com.sop_workflow_service.sop_workflow_service.dto.SopStatusCountDto;
+import com.sop_workflow_service.sop_workflow_service.dto.SopSummaryDto;
+import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.Visibility;
+import com.sop_workflow_service.sop_workflow_service.model.CommentSummary;
+import com.sop_workflow_service.sop_workflow_service.model.SOP;
+import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
+import com.sop_workflow_service.sop_workflow_service.utils.SopCursor;
+import com.sop_workflow_service.sop_workflow_service.utils.WorkflowStateMachine;
+
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface SOPRepositoryCustom {
+    // up to limit summaries after the cursor (from the newest when null), newest first
+    List<SopSummaryDto> findSummaries(SopCursor after, int limit);
+
+    List<SopSummaryDto> findSummariesByDepartmentIdOrVisibility(UUID departmentId, Visibility visibility, SopCursor after, int limit);
+
+    // counts of the sops created in [from, to) per status and day, week or month bucket cut in the zone,
+    // departmentId null counts every department
+    List<SopStatusCountDto> countByStatusAndBucket(Date from, Date to, ChronoUnit bucket, ZoneId zone, UUID departmentId);
+
+    // stages are read from the sop document itself, empty when the sop does not exist
+    List<WorkflowStage> findStagesBySopId(String sopId);
+
+    List<WorkflowStage> findStagesBySopIdIn(Collection<String> sopIds);
+
+    // status changes only touch the status, so they never overwrite stages updated in between.
+    // returns the id, department and visibility of the sop, empty when it does not exist
+    Optional<SOP> updateStatus(String sopId, SOPStatus status);
+
+    // atomic update of the user's stage, a comment is pushed onto the bounded summaries
+    Optional<WorkflowStage> updateStage(String sopId, UUID userId, ApprovalStatus approvalStatus, CommentSummary comment);
+
+    // applies the move only while the sop is under review and the stage is still in one of its from statuses,
+    // and for guarded moves while the sop is at the version read. returns the updated sop, empty when a precondition failed
+    Optional<SOP> transitionStage(WorkflowStateMachine.Transition transition, CommentSummary comment);
+
+    // the same conditional moves in one unordered bulk write, comments are matched by index and may be null.
+    // returns how many moves matched
+    int transitionStages(List<WorkflowStateMachine.Transition> transitions, List<CommentSummary> comments);
+
+    // the following return the id of the sop holding the stage, empty when there is none
+    Optional<String> updateCommentSummary(String stageId, String commentId, String content);
+
+    Optional<String> removeCommentSummary(String stageId, String commentId);
+}
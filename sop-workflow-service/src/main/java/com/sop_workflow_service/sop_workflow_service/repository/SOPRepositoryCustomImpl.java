@@ -0,0 +1,230 @@
+package com.sop_workflow_service.sop_workflow_service.repository;
+
+import com.sop_workflow_service.sop_workflow_service.dto.SopStatusCountDto;
+import com.sop_workflow_service.sop_workflow_service.dto.SopSummaryDto;
+import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.Visibility;
+import com.sop_workflow_service.sop_workflow_service.model.CommentSummary;
+import com.sop_workflow_service.sop_workflow_service.model.SOP;
+import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
+import com.sop_workflow_service.sop_workflow_service.utils.SopCursor;
+import com.sop_workflow_service.sop_workflow_service.utils.WorkflowStateMachine;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+@RequiredArgsConstructor
+public class SOPRepositoryCustomImpl implements SOPRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<SopSummaryDto> findSummaries(SopCursor after, int limit) {
+        return findSummaryPage(new ArrayList<>(), after, limit);
+    }
+
+    @Override
+    public List<SopSummaryDto> findSummariesByDepartmentIdOrVisibility(UUID departmentId, Visibility visibility, SopCursor after, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(new Criteria().orOperator(
+                Criteria.where("departmentId").is(departmentId),
+                Criteria.where("visibility").is(visibility)));
+        return findSummaryPage(criteria, after, limit);
+    }
+
+    // seeks straight to the cursor on the (createdAt, _id) index instead of skipping the earlier pages
+    private List<SopSummaryDto> findSummaryPage(List<Criteria> criteria, SopCursor after, int limit) {
+        if (after != null) {
+            criteria.add(after.seek());
+        }
+
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit);
+        if (!criteria.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(criteria));
+        }
+
+        return mongoTemplate.query(SOP.class)
+                .as(SopSummaryDto.class)
+                .matching(query)
+                .all();
+    }
+
+    // $dateTrunc cuts the buckets in the zone, so only the counts leave the database
+    @Override
+    public List<SopStatusCountDto> countByStatusAndBucket(Date from, Date to, ChronoUnit bucket, ZoneId zone, UUID departmentId) {
+        Criteria criteria = Criteria.where("createdAt").gte(from).lt(to);
+        if (departmentId != null) {
+            criteria.and("departmentId").is(departmentId);
+        }
+
+        Document truncate = new Document("date", "$createdAt")
+                .append("unit", bucketUnit(bucket))
+                .append("timezone", zone.getId());
+        if (bucket == ChronoUnit.WEEKS) {
+            truncate.append("startOfWeek", "monday");
+        }
+        AggregationOperation group = context -> new Document("$group", new Document("_id",
+                new Document("bucket", new Document("$dateTrunc", truncate)).append("status", "$status"))
+                .append("count", new Document("$sum", 1)));
+        AggregationOperation sort = context -> new Document("$sort", new Document("_id.bucket", 1).append("_id.status", 1));
+
+        TypedAggregation<SOP> aggregation = Aggregation.newAggregation(SOP.class, Aggregation.match(criteria), group, sort);
+
+        List<SopStatusCountDto> counts = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            counts.add(SopStatusCountDto.builder()
+                    .bucketStart(id.getDate("bucket"))
+                    .status(SOPStatus.valueOf(id.getString("status")))
+                    .count(((Number) row.get("count")).longValue())
+                    .build());
+        }
+        return counts;
+    }
+
+    private static String bucketUnit(ChronoUnit bucket) {
+        return switch (bucket) {
+            case DAYS -> "day";
+            case WEEKS -> "week";
+            case MONTHS -> "month";
+            default -> throw new IllegalArgumentException("Unsupported bucket: " + bucket);
+        };
+    }
+
+    @Override
+    public List<WorkflowStage> findStagesBySopId(String sopId) {
+        return findStages(Criteria.where("id").is(sopId));
+    }
+
+    @Override
+    public List<WorkflowStage> findStagesBySopIdIn(Collection<String> sopIds) {
+        return findStages(Criteria.where("id").in(sopIds));
+    }
+
+    @Override
+    public Optional<SOP> updateStatus(String sopId, SOPStatus status) {
+        Query query = Query.query(Criteria.where("id").is(sopId));
+        query.fields().include("departmentId", "visibility");
+        Update update = new Update()
+                .set("status", status)
+                .set("updatedAt", new Date())
+                .inc("version", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, SOP.class));
+    }
+
+    // the positional $ is the first stage of the user, as findFirstBySopIdAndUserId used to return
+    @Override
+    public Optional<WorkflowStage> updateStage(String sopId, UUID userId, ApprovalStatus approvalStatus, CommentSummary comment) {
+        Query query = Query.query(Criteria.where("id").is(sopId).and("workflowStages.userId").is(userId));
+        query.fields().include("workflowStages");
+
+        SOP updated = mongoTemplate.findAndModify(query, stageUpdate(approvalStatus, comment),
+                FindAndModifyOptions.options().returnNew(true), SOP.class);
+        if (updated == null || updated.getWorkflowStages() == null) {
+            return Optional.empty();
+        }
+        return updated.getWorkflowStages().stream()
+                .filter(stage -> userId.equals(stage.getUserId()))
+                .findFirst();
+    }
+
+    @Override
+    public Optional<SOP> transitionStage(WorkflowStateMachine.Transition transition, CommentSummary comment) {
+        SOP updated = mongoTemplate.findAndModify(Query.query(transitionCriteria(transition)), stageUpdate(transition.to(), comment),
+                FindAndModifyOptions.options().returnNew(true), SOP.class);
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public int transitionStages(List<WorkflowStateMachine.Transition> transitions, List<CommentSummary> comments) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SOP.class);
+        for (int i = 0; i < transitions.size(); i++) {
+            WorkflowStateMachine.Transition transition = transitions.get(i);
+            bulk.updateOne(Query.query(transitionCriteria(transition)), stageUpdate(transition.to(), comments.get(i)));
+        }
+        return bulk.execute().getMatchedCount();
+    }
+
+    // the $elemMatch picks the stage the positional $ updates, stages of other users are not part of the condition
+    private static Criteria transitionCriteria(WorkflowStateMachine.Transition transition) {
+        Criteria criteria = Criteria.where("id").is(transition.sopId())
+                .and("status").is(SOPStatus.UNDER_REVIEWAL)
+                .and("workflowStages").elemMatch(Criteria.where("userId").is(transition.userId())
+                        .and("roleRequired").is(transition.role())
+                        .and("approvalStatus").in(transition.from()));
+        if (transition.versionGuarded()) {
+            // null matches sops written before the version existed
+            criteria.and("version").is(transition.version());
+        }
+        return criteria;
+    }
+
+    private Update stageUpdate(ApprovalStatus approvalStatus, CommentSummary comment) {
+        Update update = new Update()
+                .set("workflowStages.$.approvalStatus", approvalStatus)
+                .set("workflowStages.$.updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+        if (comment != null) {
+            update.push("workflowStages.$.comments")
+                    .slice(-WorkflowStage.COMMENT_SUMMARY_LIMIT)
+                    .each(comment);
+            update.inc("workflowStages.$.commentCount", 1);
+        }
+        return update;
+    }
+
+    @Override
+    public Optional<String> updateCommentSummary(String stageId, String commentId, String content) {
+        Update update = new Update()
+                .set("workflowStages.$[].comments.$[comment].content", content)
+                .filterArray(Criteria.where("comment.commentId").is(commentId));
+        return modifyStage(stageId, update);
+    }
+
+    // the count drops even when the comment was already past the summaries
+    @Override
+    public Optional<String> removeCommentSummary(String stageId, String commentId) {
+        Update update = new Update()
+                .pull("workflowStages.$.comments", new Document("commentId", commentId))
+                .inc("workflowStages.$.commentCount", -1);
+        return modifyStage(stageId, update);
+    }
+
+    private List<WorkflowStage> findStages(Criteria criteria) {
+        Query query = Query.query(criteria);
+        query.fields().include("workflowStages");
+
+        List<WorkflowStage> stages = new ArrayList<>();
+        for (SOP sop : mongoTemplate.find(query, SOP.class)) {
+            if (sop.getWorkflowStages() != null) {
+                stages.addAll(sop.getWorkflowStages());
+            }
+        }
+        return stages;
+    }
+
+    private Optional<String> modifyStage(String stageId, Update update) {
+        Query query = Query.query(Criteria.where("workflowStages.id").is(stageId));
+        query.fields().include("id");
+
+        SOP sop = mongoTemplate.findAndModify(query, update, SOP.class);
+        return Optional.ofNullable(sop).map(SOP::getId);
+    }
+}
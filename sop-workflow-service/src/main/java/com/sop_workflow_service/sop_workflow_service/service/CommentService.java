@@ -1,17 +1,20 @@
 package com.sop_workflow_service.sop_workflow_service.service;
 
+import com.sop_workflow_service.sop_workflow_service.dto.CursorPage;
+import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
 import com.sop_workflow_service.sop_workflow_service.model.Comment;
-import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
 import com.sop_workflow_service.sop_workflow_service.repository.CommentRepository;
-import com.sop_workflow_service.sop_workflow_service.repository.WorkflowStageRepository;
+import com.sop_workflow_service.sop_workflow_service.repository.SOPRepository;
+import com.sop_workflow_service.sop_workflow_service.utils.SopCursor;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.BadRequestException;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.NotFoundException;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -20,33 +23,60 @@ import java.util.UUID;
 public class CommentService {
 
     private final CommentRepository commentRepository;
-    private final WorkflowStageRepository workflowStageRepository;
+    private final SOPRepository sopRepository;
+    private final OutboxService outboxService;
+    private final SopCacheService sopCacheService;
 
     @Autowired
-    public CommentService(CommentRepository commentRepository, WorkflowStageRepository workflowStageRepository) {
+    public CommentService(CommentRepository commentRepository, SOPRepository sopRepository, OutboxService outboxService, SopCacheService sopCacheService) {
         this.commentRepository = commentRepository;
-        this.workflowStageRepository = workflowStageRepository;
+        this.sopRepository = sopRepository;
+        this.outboxService = outboxService;
+        this.sopCacheService = sopCacheService;
    }
 
-    @Caching(evict = {
-            @CacheEvict(value = "workflowStage", allEntries = true),
-            @CacheEvict(value = "workflowStagesList", allEntries = true)
-    })
     public Comment saveComment(UUID userId, String stageId, String comment){
-        Comment newComment = Comment.builder()
+        return saveComment(newComment(userId, stageId, comment));
+    }
+
+    public Comment saveComment(Comment comment) {
+        return commentRepository.save(comment);
+    }
+
+    // comments from newComment, written with one insert
+    public List<Comment> saveComments(List<Comment> comments) {
+        return comments.isEmpty() ? comments : commentRepository.insert(comments);
+    }
+
+    // not saved yet, the id is assigned so the comment's summary can be written in the same transaction
+    public Comment newComment(UUID userId, String stageId, String comment) {
+        return Comment.builder()
+                .id(new ObjectId().toHexString())
                 .content(comment)
                 .stageId(stageId)
                 .userId(userId)
                 .createdAt(new Date())
                 .build();
+    }
 
-        return commentRepository.save(newComment);
+    // the full thread of a stage, newest first; stages themselves only carry the latest comments
+    public CursorPage<Comment> getStageComments(String stageId, String cursor, Integer limit) {
+        int pageSize = CursorPage.pageSize(limit);
+        List<Comment> comments = commentRepository.findPageByStageId(stageId, SopCursor.decode(cursor), pageSize + 1);
+
+        // one extra comment was fetched to know whether another page follows
+        boolean hasNext = comments.size() > pageSize;
+        List<Comment> page = hasNext ? new ArrayList<>(comments.subList(0, pageSize)) : comments;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Comment last = page.get(page.size() - 1);
+            nextCursor = new SopCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(page, nextCursor, hasNext);
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "workflowStage", allEntries = true),
-            @CacheEvict(value = "workflowStagesList", allEntries = true)
-    })
+    @Transactional
     public void deleteCommentById(String commentId, UUID userId) {
         Comment comment = commentRepository.findByIdAndUserId(commentId, userId);
 
@@ -54,12 +84,11 @@ public class CommentService {
             throw new BadRequestException("Comment not found or user not allowed to delete comment");
         }
         commentRepository.deleteById(commentId);
+        sopRepository.removeCommentSummary(comment.getStageId(), commentId)
+                .ifPresent(sopId -> commentChanged(sopId, userId));
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "workflowStage", allEntries = true),
-            @CacheEvict(value = "workflowStagesList", allEntries = true)
-    })
+    @Transactional
     public Comment updateComment(String commentId,UUID userId, String comment){
         Comment existingComment = commentRepository.findByIdAndUserId(commentId, userId);
 
@@ -68,6 +97,20 @@ public class CommentService {
         }
 
         existingComment.setContent(comment);
-        return commentRepository.save(existingComment);
+        Comment updatedComment = commentRepository.save(existingComment);
+        sopRepository.updateCommentSummary(existingComment.getStageId(), commentId, comment)
+                .ifPresent(sopId -> commentChanged(sopId, userId));
+        return updatedComment;
+    }
+
+    // comments are written on the commenter's own stage, so only that stage's keys are stale.
+    // lets the content service refresh its view of the sop the comment belongs to
+    private void commentChanged(String sopId, UUID userId) {
+        sopCacheService.evictSop(sopId);
+        sopCacheService.evictStage(sopId, userId);
+
+        SOPDto sopDto = new SOPDto();
+        sopDto.setId(sopId);
+        outboxService.publish("sop-comment-updated", sopDto);
     }
 }
@@ -0,0 +1,137 @@
+package com.sop_workflow_service.sop_workflow_service.service;
+
+import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
+import com.sop_workflow_service.sop_workflow_service.model.OutboxEvent;
+import com.sop_workflow_service.sop_workflow_service.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the outbox to kafka in the order it was written.
+ * Only the instance holding the relay lease publishes, so one sop's events are never sent out of order by two relays.
+ * Each pass sends up to batch-size events keyed by sop id, waits for the acknowledgements and deletes the acknowledged
+ * events. An event that failed stays in the outbox together with the later events of its sop, so delivery is at least
+ * once and a sop's events keep their order; full batches are followed by the next one while the lease is held.
+ */
+@Slf4j
+@Service
+public class OutboxRelay {
+
+    static final String LEASE_COLLECTION = "outbox-lease";
+    private static final String LEASE_ID = "outbox-relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, SOPDto> kafkaTemplate;
+    private final int batchSize;
+    private final long leaseMs;
+    private final long sendTimeoutMs;
+    private final String owner = UUID.randomUUID().toString();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       MongoTemplate mongoTemplate,
+                       KafkaTemplate<String, SOPDto> kafkaTemplate,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.lease-ms:10000}") long leaseMs,
+                       @Value("${outbox.relay.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = batchSize;
+        this.leaseMs = leaseMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        while (acquireLease()) {
+            List<OutboxEvent> batch = outboxEventRepository.findAllBy(PageRequest.of(0, batchSize, Sort.by("id")));
+            if (batch.isEmpty() || !publish(batch) || batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // true when every event of the batch was acknowledged
+    private boolean publish(List<OutboxEvent> batch) {
+        List<CompletableFuture<SendResult<String, SOPDto>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(send(event));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        Set<String> failedKeys = new HashSet<>();
+        List<String> acknowledged = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            // once an event of a sop failed, its later events are sent again after it
+            if (!failedKeys.contains(event.getKey()) && acknowledged(event, sends.get(i), deadline)) {
+                acknowledged.add(event.getId());
+            } else {
+                failedKeys.add(event.getKey());
+            }
+        }
+
+        outboxEventRepository.deleteAllById(acknowledged);
+        if (!failedKeys.isEmpty()) {
+            log.warn("{} of {} outbox events were not published, retrying with the next pass",
+                    batch.size() - acknowledged.size(), batch.size());
+        }
+        return failedKeys.isEmpty();
+    }
+
+    private CompletableFuture<SendResult<String, SOPDto>> send(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(event.getTopic(), event.getKey(), event.getPayload());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean acknowledged(OutboxEvent event, CompletableFuture<SendResult<String, SOPDto>> send, long deadline) {
+        try {
+            send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.error("Failed to publish outbox event {} to {}: {}", event.getId(), event.getTopic(), e.getMessage());
+            return false;
+        }
+    }
+
+    // taken when free or expired and renewed by its holder, the losing upsert hits the lease's _id
+    private boolean acquireLease() {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", new Date(now.getTime() + leaseMs));
+        try {
+            mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, LEASE_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.sop_workflow_service.sop_workflow_service.service;
+
+import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
+import com.sop_workflow_service.sop_workflow_service.model.OutboxEvent;
+import com.sop_workflow_service.sop_workflow_service.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    // called inside the transaction of the change, the event is only published if that change commits
+    public void publish(String topic, SOPDto payload) {
+        outboxEventRepository.insert(event(topic, payload));
+    }
+
+    // one insert for the events of a batch of changes
+    public void publishAll(List<OutboxEvent> events) {
+        if (!events.isEmpty()) {
+            outboxEventRepository.insert(events);
+        }
+    }
+
+    public static OutboxEvent event(String topic, SOPDto payload) {
+        return OutboxEvent.builder()
+                .topic(topic)
+                .key(payload.getId())
+                .payload(payload)
+                .createdAt(new Date())
+                .build();
+    }
+}
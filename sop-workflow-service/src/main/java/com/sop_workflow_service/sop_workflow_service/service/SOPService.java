@@ -1,31 +1,39 @@
 package com.sop_workflow_service.sop_workflow_service.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewItemDto;
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewResultDto;
+import com.sop_workflow_service.sop_workflow_service.dto.CursorPage;
 import com.sop_workflow_service.sop_workflow_service.dto.PublishedSopDto;
 import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
 import com.sop_workflow_service.sop_workflow_service.dto.SopByStatusDto;
+import com.sop_workflow_service.sop_workflow_service.dto.SopStatusCountDto;
+import com.sop_workflow_service.sop_workflow_service.dto.SopSummaryDto;
 import com.sop_workflow_service.sop_workflow_service.dto.UpdateStageDto;
 import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
 import com.sop_workflow_service.sop_workflow_service.enums.Roles;
 import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
 import com.sop_workflow_service.sop_workflow_service.enums.Visibility;
 import com.sop_workflow_service.sop_workflow_service.model.Category;
+import com.sop_workflow_service.sop_workflow_service.model.OutboxEvent;
 import com.sop_workflow_service.sop_workflow_service.model.SOP;
 import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
 import com.sop_workflow_service.sop_workflow_service.repository.SOPRepository;
 import com.sop_workflow_service.sop_workflow_service.utils.DtoConverter;
+import com.sop_workflow_service.sop_workflow_service.utils.SopCursor;
+import com.sop_workflow_service.sop_workflow_service.utils.WorkflowStateMachine;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.BadRequestException;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.NotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
+import org.bson.types.ObjectId;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -37,10 +45,10 @@ public class SOPService {
     private final SOPRepository sopRepository;
     private final WorkflowStageService workflowStageService;
     private final CategoryService categoryService;
-    private final KafkaTemplate<String, SOPDto> kafkaTemplate;
+    private final OutboxService outboxService;
+    private final SopCacheService sopCacheService;
 
     @Transactional
-    @CacheEvict(value = "sops", allEntries = true)
     public SOP createSOP(SOPDto createSOPDto, UUID departmentId, UUID initiatedBy) {
 
         log.info("Creating SOP: {}", createSOPDto);
@@ -60,27 +68,22 @@ public class SOPService {
         sop.setCategory(category);
         sop.setCreatedAt(new Date());
         sop.setUpdatedAt(new Date());
-
-
-        SOP createdSop = sopRepository.save(sop);
+        // the id is assigned up front so the stages can be embedded in the same single save
+        sop.setId(new ObjectId().toHexString());
 
         // Create workflow stages
         List<WorkflowStage> stages = new ArrayList<>();
-        stages.add(createWorkflowStage(createdSop.getId(), Roles.AUTHOR, createSOPDto.getAuthorId()));
+        stages.add(createWorkflowStage(sop.getId(), Roles.AUTHOR, createSOPDto.getAuthorId()));
 
         for (UUID reviewerId : createSOPDto.getReviewers()) {
-            stages.add(createWorkflowStage(createdSop.getId(), Roles.REVIEWER, reviewerId));
+            stages.add(createWorkflowStage(sop.getId(), Roles.REVIEWER, reviewerId));
         }
 
-        stages.add(createWorkflowStage(createdSop.getId(), Roles.APPROVER, createSOPDto.getApproverId()));
-
-        // Save workflow stages
-        workflowStageService.saveStages(stages);
+        stages.add(createWorkflowStage(sop.getId(), Roles.APPROVER, createSOPDto.getApproverId()));
+        sop.setWorkflowStages(stages);
 
-        // Set workflow stages to SOP
-        createdSop.setWorkflowStages(stages);
-
-        SOP createdSOP= sopRepository.save(createdSop);
+        SOP createdSOP= sopRepository.save(sop);
+        sopCacheService.evictLists(departmentId, createdSOP.getVisibility());
         createSOPDto.setId(createdSOP.getId());
         createSOPDto.setDepartmentId(departmentId);
         createSOPDto.setInitiatedBy(initiatedBy);
@@ -88,7 +91,7 @@ public class SOPService {
         //send SOPDto to notify services accordingly
         createSOPDto.setCreatedAt(createdSOP.getCreatedAt());
         createSOPDto.setUpdatedAt(createdSOP.getUpdatedAt());
-        kafkaTemplate.send("sop-created", createSOPDto);
+        outboxService.publish("sop-created", createSOPDto);
 
         return createdSOP;
     }
@@ -102,168 +105,129 @@ public class SOPService {
                 .orElseThrow(() -> new NotFoundException("SOP not found"));
     }
 
-    // public get sops getting
-    @Cacheable(value = "sops", key = "#departmentId")
-    public List<SOP>  getSops(UUID departmentId){
+    // public get sops getting, the full sop with its stages is only loaded by getSOP
+    @Cacheable(value = "sopSummaries", key = "@sopCacheService.summariesKey(#departmentId, #cursor, #limit)")
+    public CursorPage<SopSummaryDto> getSops(UUID departmentId, String cursor, Integer limit){
         log.info("Getting SOPs with departmentId: {}", departmentId);
 
-        return sopRepository.findByDepartmentIdOrVisibilityOrderByCreatedAtDesc(departmentId, Visibility.PUBLIC);
+        int pageSize = CursorPage.pageSize(limit);
+        List<SopSummaryDto> sops = sopRepository.findSummariesByDepartmentIdOrVisibility(
+                departmentId, Visibility.PUBLIC, SopCursor.decode(cursor), pageSize + 1);
+        return toCursorPage(sops, pageSize);
     }
 
     // Get All SOPs
-    public List<SOP> getAllSops() {
+    public CursorPage<SopSummaryDto> getAllSops(String cursor, Integer limit) {
         log.info("Fetching all SOPs");
-        return sopRepository.findAllByOrderByCreatedAtDesc();
+        int pageSize = CursorPage.pageSize(limit);
+        List<SopSummaryDto> sops = sopRepository.findSummaries(SopCursor.decode(cursor), pageSize + 1);
+        return toCursorPage(sops, pageSize);
     }
 
     // Get SOPs by departmentId and status
     @Cacheable(value = "sopsByStatus", key = "#departmentId")
     public List<SopByStatusDto> getSopsByDepartmentId(UUID departmentId) {
         log.info("Fetching SOPs by departmentId: {}", departmentId);
-        return sopRepository.findAllByDepartmentId(departmentId)
-                .stream()
-                .map(this::mapSopToSopByStatusDto)
-                .collect(Collectors.toList());
+        return sopRepository.findProjectedByDepartmentId(departmentId);
     }
 
     // Get SOPs by status
     @Cacheable(value = "allSopsByStatus")
     public List<SopByStatusDto> getSops() {
         log.info("Fetching SOPs");
-        return sopRepository.findAll()
-                .stream()
-                .map(this::mapSopToSopByStatusDto)
-                .collect(Collectors.toList());
+        return sopRepository.findAllProjectedBy();
+    }
+
+    // status counts per time bucket for the analytics dashboard
+    public List<SopStatusCountDto> getStatusCounts(Date from, Date to, ChronoUnit bucket, ZoneId zone, UUID departmentId) {
+        if (!from.before(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        log.info("Counting SOPs by status per {} from {} to {}", bucket, from, to);
+        return sopRepository.countByStatusAndBucket(from, to, bucket, zone, departmentId);
     }
 
     // Delete SOP
-    @Caching(evict = {
-            @CacheEvict(value = "sop", allEntries = true),
-            @CacheEvict(value = "sops", allEntries = true),
-            @CacheEvict(value = "sopsByStatus", allEntries = true),
-            @CacheEvict(value = "allSopsByStatus", allEntries = true)
-    })
+    @Transactional
     public void deleteSOP(String id) {
         SOP sop = sopRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("SOP not found"));
 
         sopRepository.delete(sop);
+        sopCacheService.evictSop(id);
+        sopCacheService.evictStages(sop);
+        sopCacheService.evictLists(sop.getDepartmentId(), sop.getVisibility());
         //send deleted SOP event to delete it's content too
         SOPDto sopDto = mapSOPToSOPDto(sop);
-        kafkaTemplate.send("sop-deleted", sopDto);
+        outboxService.publish("sop-deleted", sopDto);
     }
 
 
-    @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "sop", allEntries = true),
-            @CacheEvict(value = "sops", allEntries = true)
-    })
+    // reviews of different reviewers touch different stages and run in parallel without conflicting
     public SOP reviewSOP(String sopId, UUID userId, String comment, ApprovalStatus approvalStatus) {
 
-        SOP sop = sopRepository.findById(sopId)
-                .orElseThrow(() -> new NotFoundException("SOP not found"));
-
-        if(sop.getStatus() != SOPStatus.UNDER_REVIEWAL ){
-            throw new BadRequestException("SOP is not under reviewal stage");
-        }
-
         UpdateStageDto updateStageDto = UpdateStageDto.builder()
                 .approvalStatus(approvalStatus)
                 .comment(comment)
                 .build();
 
-        workflowStageService.updateStage(userId, sopId, updateStageDto);
-
-        SOPDto sopDto = mapSOPToSOPDto(sop);
-
-        if(approvalStatus == ApprovalStatus.REVISION){
-            kafkaTemplate.send("sop-revision", sopDto);
-        }
-
-        List<WorkflowStage> stages = workflowStageService.getStagesBySopId(sopId);
-
-        // Check if all reviewers have reviewed to notify the approver
-        boolean allReviewersReviewed = stages.stream()
-                .filter(s -> s.getRoleRequired() == Roles.REVIEWER)
-                .allMatch(s -> s.getApprovalStatus() == ApprovalStatus.APPROVED);
-
-        if(allReviewersReviewed){
-            //notify approver
-            kafkaTemplate.send("sop-reviewed", sopDto);
-        }
-
-        return sop;
+        return workflowStageService.transitionStage(sopId, userId, Roles.REVIEWER, updateStageDto,
+                sop -> outboxService.publishAll(workflowEvents(sop, Roles.REVIEWER, approvalStatus)));
     }
 
-    @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "sop", allEntries = true),
-            @CacheEvict(value = "sops", allEntries = true)
-    })
+    // approving is only applied if no review changed between the check that all reviewers approved and the update
     public SOP approveSOP(String sopId, UUID userId, String comment, ApprovalStatus approvalStatus) {
 
-        SOP sop = sopRepository.findById(sopId)
-                .orElseThrow(() -> new NotFoundException("SOP not found"));
-
-        List<WorkflowStage> stages = workflowStageService.getStagesBySopId(sopId);
-        // Check if all reviewers have reviewed to allow approval
-        boolean allReviewersReviewed = stages.stream()
-                .filter(s -> s.getRoleRequired() == Roles.REVIEWER)
-                .allMatch(s -> s.getApprovalStatus() == ApprovalStatus.APPROVED);
-
-        if(approvalStatus== ApprovalStatus.APPROVED && !allReviewersReviewed){
-            throw new BadRequestException("Approving not allowed before all reviewers review the SOP");
-        }
-
         UpdateStageDto updateStageDto = UpdateStageDto.builder()
                 .approvalStatus(approvalStatus)
                 .comment(comment)
                 .build();
 
-        workflowStageService.updateStage(userId, sopId, updateStageDto);
+        return workflowStageService.transitionStage(sopId, userId, Roles.APPROVER, updateStageDto,
+                sop -> outboxService.publishAll(workflowEvents(sop, Roles.APPROVER, approvalStatus)));
+    }
 
+    // reviews and approvals of many sops by one user, each item succeeds or fails on its own
+    public List<BulkReviewResultDto> bulkReview(UUID userId, List<BulkReviewItemDto> items) {
+        log.info("Bulk review of {} SOPs by {}", items.size(), userId);
+        return workflowStageService.transitionStages(userId, items,
+                (sop, item) -> workflowEvents(sop, item.getAction().getRole(), item.getApprovalStatus()));
+    }
 
+    // the events a review or an approval announces, decided on the sop as the move left it
+    private List<OutboxEvent> workflowEvents(SOP sop, Roles role, ApprovalStatus approvalStatus) {
         SOPDto sopDto = mapSOPToSOPDto(sop);
+        List<OutboxEvent> events = new ArrayList<>();
 
         if(approvalStatus == ApprovalStatus.REVISION){
-            kafkaTemplate.send("sop-revision", sopDto);
+            events.add(OutboxService.event("sop-revision", sopDto));
         }
 
-        kafkaTemplate.send("sop-approved", sopDto);
-
-        return sop;
+        if(role == Roles.APPROVER){
+            events.add(OutboxService.event("sop-approved", sopDto));
+        } else if(approvalStatus == ApprovalStatus.APPROVED && WorkflowStateMachine.allReviewersApproved(sop.getWorkflowStages())){
+            // the updated sop holds every review applied before this one, so only the last approval sees them all.
+            //notify approver
+            events.add(OutboxService.event("sop-reviewed", sopDto));
+        }
+        return events;
     }
 
 
 
     @KafkaListener(topics = "sop-drafted")
-    @Caching(evict = {
-            @CacheEvict(value = "sop", allEntries = true),
-            @CacheEvict(value = "sops", allEntries = true),
-            @CacheEvict(value = "sopsByStatus", allEntries = true),
-            @CacheEvict(value = "allSopsByStatus", allEntries = true)
-    })
     public void sopDraftedListener(String data) throws JsonProcessingException {
 
         SOPDto sopDto = DtoConverter.sopDtoFromJson(data);
         // update the sop status to drafted
         log.info("SOP Drafted: {}", sopDto.getId());
 
-        SOP sop = sopRepository.findById(sopDto.getId())
+        SOP sop = sopRepository.updateStatus(sopDto.getId(), SOPStatus.DRAFTED)
                 .orElseThrow(() -> new NotFoundException("SOP not found"));
-
-        sop.setStatus(SOPStatus.DRAFTED);
-        sopRepository.save(sop);
+        evictStatusChange(sop);
     }
 
     @KafkaListener(topics = "sop-reviewal-ready")
-    @Caching(evict = {
-            @CacheEvict(value = "sop", allEntries = true),
-            @CacheEvict(value = "sops", allEntries = true),
-            @CacheEvict(value = "sopsByStatus", allEntries = true),
-            @CacheEvict(value = "allSopsByStatus", allEntries = true)
-    })
     public void sopReviewalReadyListener(String data) throws JsonProcessingException {
 
         SOPDto sopDto = DtoConverter.sopDtoFromJson(data);
@@ -274,54 +238,55 @@ public class SOPService {
                 .orElseThrow(() -> new NotFoundException("SOP not found"));
 
         // Set author workflow stage to approved
-        WorkflowStage authorWorkflowStage = workflowStageService.getStageBySopIdAndUserId(sopDto.getId(),sopDto.getAuthorId());
-        authorWorkflowStage.setApprovalStatus(ApprovalStatus.APPROVED);
-        workflowStageService.saveStage(authorWorkflowStage);
+        workflowStageService.updateStageStatus(sopDto.getId(), sopDto.getAuthorId(), ApprovalStatus.APPROVED);
 
         // If the sop was published, set reviewers and approver stages to pending
         if(sop.getStatus() == SOPStatus.PUBLISHED){
-            List<WorkflowStage> reviewersStages = new ArrayList<>();
-
             for(UUID reviewerId : sopDto.getReviewers()){
-                WorkflowStage reviewerStage = workflowStageService.getStageBySopIdAndUserId(sopDto.getId(),reviewerId);
-                reviewerStage.setApprovalStatus(ApprovalStatus.PENDING);
-                reviewersStages.add(reviewerStage);
+                workflowStageService.updateStageStatus(sopDto.getId(), reviewerId, ApprovalStatus.PENDING);
             }
 
-            workflowStageService.saveStages(reviewersStages);
-
-            WorkflowStage approverWorkflowStage = workflowStageService.getStageBySopIdAndUserId(sopDto.getId(),sopDto.getApproverId());
-            approverWorkflowStage.setApprovalStatus(ApprovalStatus.PENDING);
-            workflowStageService.saveStage(approverWorkflowStage);
+            workflowStageService.updateStageStatus(sopDto.getId(), sopDto.getApproverId(), ApprovalStatus.PENDING);
         }
 
-
-        sop.setStatus(SOPStatus.UNDER_REVIEWAL);
-        sopRepository.save(sop);
+        sopRepository.updateStatus(sop.getId(), SOPStatus.UNDER_REVIEWAL);
+        evictStatusChange(sop);
     }
 
     @KafkaListener(topics = "sop-published")
-    @Caching(evict = {
-            @CacheEvict(value = "sop", allEntries = true),
-            @CacheEvict(value = "sops", allEntries = true),
-            @CacheEvict(value = "sopsByStatus", allEntries = true),
-            @CacheEvict(value = "allSopsByStatus", allEntries = true)
-    })
     public void sopPublishedListener(String data) throws JsonProcessingException {
 
         PublishedSopDto publishedSopDto = DtoConverter.publishedSopDtoFromJson(data);
         // update the sop status to drafted
         log.info("SOP published: {}", publishedSopDto.getId());
 
-        SOP sop = sopRepository.findById(publishedSopDto.getId())
+        SOP sop = sopRepository.updateStatus(publishedSopDto.getId(), SOPStatus.PUBLISHED)
                 .orElseThrow(() -> new NotFoundException("SOP not found"));
+        evictStatusChange(sop);
+    }
+
+    // the status shows in the sop, its department's lists and the status lists
+    private void evictStatusChange(SOP sop) {
+        sopCacheService.evictSop(sop.getId());
+        sopCacheService.evictLists(sop.getDepartmentId(), sop.getVisibility());
+    }
 
-        sop.setStatus(SOPStatus.PUBLISHED);
-        sopRepository.save(sop);
+    // one extra row was fetched to know whether another page follows
+    private CursorPage<SopSummaryDto> toCursorPage(List<SopSummaryDto> sops, int pageSize) {
+        boolean hasNext = sops.size() > pageSize;
+        List<SopSummaryDto> page = hasNext ? new ArrayList<>(sops.subList(0, pageSize)) : sops;
+
+        String nextCursor = null;
+        if (hasNext) {
+            SopSummaryDto last = page.get(page.size() - 1);
+            nextCursor = new SopCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(page, nextCursor, hasNext);
     }
 
     private WorkflowStage createWorkflowStage(String sopId, Roles roleRequired, UUID userId) {
         WorkflowStage stage = new WorkflowStage();
+        stage.setId(new ObjectId().toHexString());
         stage.setSopId(sopId);
         stage.setRoleRequired(roleRequired);
         stage.setUserId(userId);
@@ -0,0 +1,84 @@
+package com.sop_workflow_service.sop_workflow_service.service;
+
+import com.sop_workflow_service.sop_workflow_service.enums.Visibility;
+import com.sop_workflow_service.sop_workflow_service.model.SOP;
+import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Evicts only the cache keys a write affects.
+ * The paged sopSummaries keys can't be enumerated, so they carry a generation per department and one for public sops.
+ * Bumping a generation moves later reads to new keys, the old pages are never read again and expire with the cache ttl.
+ */
+@Service
+@RequiredArgsConstructor
+public class SopCacheService {
+
+    private static final String GENERATION_KEY = "sopSummaries:generation:";
+    private static final String PUBLIC_SCOPE = "public";
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+
+    // used as the sopSummaries key of getSops, a department's page also lists the public sops of other departments
+    public String summariesKey(UUID departmentId, String cursor, Integer limit) {
+        List<String> generations = redisTemplate.opsForValue()
+                .multiGet(List.of(generationKey(String.valueOf(departmentId)), generationKey(PUBLIC_SCOPE)));
+        return departmentId + ":" + generation(generations, 0) + ":" + generation(generations, 1) + ":" + cursor + ":" + limit;
+    }
+
+    public void evictSop(String sopId) {
+        evict("sop", sopId);
+        evict("workflowStagesList", sopId);
+    }
+
+    // same key as getStageBySopIdAndUserId
+    public void evictStage(String sopId, UUID userId) {
+        evict("workflowStage", List.of(userId, sopId));
+    }
+
+    public void evictStages(SOP sop) {
+        if (sop.getWorkflowStages() == null) {
+            return;
+        }
+        for (WorkflowStage stage : sop.getWorkflowStages()) {
+            evictStage(sop.getId(), stage.getUserId());
+        }
+    }
+
+    // for writes that add or remove an sop or change its status
+    public void evictLists(UUID departmentId, Visibility visibility) {
+        if (departmentId != null) {
+            redisTemplate.opsForValue().increment(generationKey(departmentId.toString()));
+            evict("sopsByStatus", departmentId);
+        }
+        if (visibility == Visibility.PUBLIC) {
+            redisTemplate.opsForValue().increment(generationKey(PUBLIC_SCOPE));
+        }
+        evict("allSopsByStatus", SimpleKey.EMPTY);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private static String generationKey(String scope) {
+        return GENERATION_KEY + scope;
+    }
+
+    private static String generation(List<String> generations, int index) {
+        String generation = generations == null ? null : generations.get(index);
+        return generation == null ? "0" : generation;
+    }
+}
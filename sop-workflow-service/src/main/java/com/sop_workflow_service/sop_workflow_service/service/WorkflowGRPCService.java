@@ -1,8 +1,12 @@
 package com.sop_workflow_service.sop_workflow_service.service;
 
+import com.at.grpc.ProtoTimestamps;
+import com.sop_workflow_service.sop_workflow_service.dto.CursorPage;
 import com.sop_workflow_service.sop_workflow_service.dto.SopByStatusDto;
+import com.sop_workflow_service.sop_workflow_service.dto.SopStatusCountDto;
 import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
 import com.sop_workflow_service.sop_workflow_service.model.Comment;
+import com.sop_workflow_service.sop_workflow_service.model.CommentSummary;
 import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
@@ -10,7 +14,11 @@ import net.devh.boot.grpc.server.service.GrpcService;
 import org.springframework.beans.factory.annotation.Autowired;
 import sopWorkflowService.*;
 
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,13 +26,18 @@ import java.util.UUID;
 @GrpcService
 public class WorkflowGRPCService extends SopWorkflowServiceGrpc.SopWorkflowServiceImplBase {
 
+    // comments carried by stage payloads, which the content service embeds for every participant of every sop
+    static final int STAGE_PAYLOAD_COMMENT_LIMIT = 3;
+
     private final SOPService sopService;
     private final WorkflowStageService workflowStageService;
+    private final CommentService commentService;
 
     @Autowired
-    public WorkflowGRPCService(SOPService sopService, WorkflowStageService workflowStageService) {
+    public WorkflowGRPCService(SOPService sopService, WorkflowStageService workflowStageService, CommentService commentService) {
         this.sopService = sopService;
         this.workflowStageService = workflowStageService;
+        this.commentService = commentService;
     }
 
     @Override
@@ -60,26 +73,11 @@ public class WorkflowGRPCService extends SopWorkflowServiceGrpc.SopWorkflowServi
 
             WorkflowStage stageInfo = workflowStageService.getStageBySopIdAndUserId( request.getSopId(),userId);
 
-            List<Comments> comments = new ArrayList<>();
-
-            if(stageInfo.getComments() != null){
-                for(Comment comment : stageInfo.getComments()){
-                    if (comment != null) { // Add null check for comment
-                        Comments commentDto = Comments.newBuilder()
-                                .setCommentId(comment.getId())
-                                .setComment(comment.getContent())
-                                .setCreatedAt(comment.getCreatedAt().toString())
-                                .build();
-                        comments.add(commentDto);
-                    }
-                }
-
-            }
-
             GetWorkflowStageInfoResponse response = GetWorkflowStageInfoResponse.newBuilder()
                     .setSuccess(true)
                     .setStatus(stageInfo.getApprovalStatus().toString())
-                    .addAllComments(comments)
+                    .addAllComments(latestComments(stageInfo))
+                    .setCommentCount(stageInfo.getCommentCount())
                     .build();
 
             responseObserver.onNext(response);
@@ -95,6 +93,8 @@ public class WorkflowGRPCService extends SopWorkflowServiceGrpc.SopWorkflowServi
         }
     }
 
+    // the string dates are still written for clients that have not moved to the timestamps
+    @SuppressWarnings("deprecation")
     @Override
     public void getDepartmentSopsByStatus(GetDepartmentSopsByStatusRequest request, StreamObserver<GetDepartmentSopsByStatusResponse> responseObserver) {
         log.info("Getting department SOPs by status");
@@ -113,6 +113,8 @@ public class WorkflowGRPCService extends SopWorkflowServiceGrpc.SopWorkflowServi
                                 .setStatus(sop.getStatus().toString())
                                 .setCreatedAt(sop.getCreatedAt().toString())
                                 .setUpdatedAt(sop.getUpdatedAt().toString())
+                                .setCreatedTime(ProtoTimestamps.toTimestamp(sop.getCreatedAt()))
+                                .setUpdatedTime(ProtoTimestamps.toTimestamp(sop.getUpdatedAt()))
                                 .build();
                         sops.add(sopByStatus);
                     }
@@ -136,6 +138,8 @@ public class WorkflowGRPCService extends SopWorkflowServiceGrpc.SopWorkflowServi
         }
     }
 
+    // the string dates are still written for clients that have not moved to the timestamps
+    @SuppressWarnings("deprecation")
     @Override
     public void getSopsByStatus(GetSopsStatusRequest request, StreamObserver<GetDepartmentSopsByStatusResponse> responseObserver) {
         log.info("Getting SOPs by status");
@@ -152,6 +156,8 @@ public class WorkflowGRPCService extends SopWorkflowServiceGrpc.SopWorkflowServi
                                 .setStatus(sop.getStatus().toString())
                                 .setCreatedAt(sop.getCreatedAt().toString())
                                 .setUpdatedAt(sop.getUpdatedAt().toString())
+                                .setCreatedTime(ProtoTimestamps.toTimestamp(sop.getCreatedAt()))
+                                .setUpdatedTime(ProtoTimestamps.toTimestamp(sop.getUpdatedAt()))
                                 .build();
                         sops.add(sopByStatus);
                     }
@@ -174,4 +180,150 @@ public class WorkflowGRPCService extends SopWorkflowServiceGrpc.SopWorkflowServi
             responseObserver.onCompleted();
         }
     }
+
+    @Override
+    public void getWorkflowStagesInfo(GetWorkflowStagesInfoRequest request, StreamObserver<GetWorkflowStagesInfoResponse> responseObserver) {
+        log.info("Getting workflow stages info for {} SOPs", request.getSopIdsCount());
+        try{
+            List<WorkflowStage> stages = workflowStageService.getStagesBySopIds(request.getSopIdsList());
+
+            List<WorkflowStageInfo> stagesInfo = new ArrayList<>();
+
+            for(WorkflowStage stage : stages){
+                WorkflowStageInfo.Builder stageInfo = WorkflowStageInfo.newBuilder()
+                        .setSopId(stage.getSopId())
+                        .setUserId(stage.getUserId().toString())
+                        .setStatus(stage.getApprovalStatus().toString())
+                        .addAllComments(latestComments(stage))
+                        .setCommentCount(stage.getCommentCount());
+
+                stagesInfo.add(stageInfo.build());
+            }
+
+            GetWorkflowStagesInfoResponse response = GetWorkflowStagesInfoResponse.newBuilder()
+                    .setSuccess(true)
+                    .addAllStages(stagesInfo)
+                    .build();
+
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("Error getting workflow stages info: ", e);
+            GetWorkflowStagesInfoResponse response = GetWorkflowStagesInfoResponse.newBuilder()
+                    .setSuccess(false)
+                    .setErrorMessage("Failed to get workflow stages info: " + e.getMessage())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getSopStatusCounts(GetSopStatusCountsRequest request, StreamObserver<GetSopStatusCountsResponse> responseObserver) {
+        log.info("Getting SOP status counts");
+        try{
+            ZoneId zone = request.getTimeZone().isEmpty() ? ZoneOffset.UTC : ZoneId.of(request.getTimeZone());
+            UUID departmentId = request.getDepartmentId().isEmpty() ? null : UUID.fromString(request.getDepartmentId());
+
+            List<SopStatusCountDto> counts = sopService.getStatusCounts(
+                    ProtoTimestamps.toDate(request.getFrom()),
+                    ProtoTimestamps.toDate(request.getTo()),
+                    toChronoUnit(request.getBucket()),
+                    zone,
+                    departmentId);
+
+            GetSopStatusCountsResponse.Builder response = GetSopStatusCountsResponse.newBuilder()
+                    .setSuccess(true);
+            for(SopStatusCountDto count : counts){
+                response.addCounts(SopStatusCount.newBuilder()
+                        .setBucketStart(ProtoTimestamps.toTimestamp(count.getBucketStart()))
+                        .setStatus(count.getStatus().toString())
+                        .setCount(count.getCount())
+                        .build());
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("Error getting SOP status counts: ", e);
+            GetSopStatusCountsResponse response = GetSopStatusCountsResponse.newBuilder()
+                    .setSuccess(false)
+                    .setErrorMessage("Failed to get sop status counts: " + e.getMessage())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getStageComments(GetStageCommentsRequest request, StreamObserver<GetStageCommentsResponse> responseObserver) {
+        log.info("Getting stage comments");
+        try{
+            UUID userId = UUID.fromString(request.getUserId());
+            WorkflowStage stage = workflowStageService.getStageBySopIdAndUserId(request.getSopId(), userId);
+
+            CursorPage<Comment> page = commentService.getStageComments(
+                    stage.getId(),
+                    request.getCursor(),
+                    request.getLimit());
+
+            GetStageCommentsResponse.Builder response = GetStageCommentsResponse.newBuilder()
+                    .setSuccess(true)
+                    .setHasNext(page.isHasNext());
+            if (page.getNextCursor() != null) {
+                response.setNextCursor(page.getNextCursor());
+            }
+            for(Comment comment : page.getItems()){
+                response.addComments(toComments(comment.getId(), comment.getContent(), comment.getCreatedAt()));
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("Error getting stage comments: ", e);
+            GetStageCommentsResponse response = GetStageCommentsResponse.newBuilder()
+                    .setSuccess(false)
+                    .setErrorMessage("Failed to get stage comments: " + e.getMessage())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    // the newest summaries of the stage, oldest first like the summaries themselves
+    private static List<Comments> latestComments(WorkflowStage stage) {
+        List<Comments> comments = new ArrayList<>();
+        if (stage.getComments() == null) {
+            return comments;
+        }
+
+        List<CommentSummary> summaries = stage.getComments();
+        for (CommentSummary comment : summaries.subList(Math.max(0, summaries.size() - STAGE_PAYLOAD_COMMENT_LIMIT), summaries.size())) {
+            if (comment != null) {
+                comments.add(toComments(comment.getCommentId(), comment.getContent(), comment.getCreatedAt()));
+            }
+        }
+        return comments;
+    }
+
+    // comments written before createdAt was recorded go out without a date, readers treat that as unknown
+    @SuppressWarnings("deprecation")
+    private static Comments toComments(String commentId, String content, Date createdAt) {
+        Comments.Builder comment = Comments.newBuilder()
+                .setCommentId(commentId)
+                .setComment(content);
+        if (createdAt != null) {
+            comment.setCreatedAt(createdAt.toString())
+                    .setCreatedTime(ProtoTimestamps.toTimestamp(createdAt));
+        }
+        return comment.build();
+    }
+
+    private static ChronoUnit toChronoUnit(TimeBucket bucket) {
+        return switch (bucket) {
+            case WEEK -> ChronoUnit.WEEKS;
+            case MONTH -> ChronoUnit.MONTHS;
+            default -> ChronoUnit.DAYS;
+        };
+    }
 }
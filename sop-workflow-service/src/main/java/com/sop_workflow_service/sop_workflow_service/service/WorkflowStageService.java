@@ -1,89 +1,275 @@
 package com.sop_workflow_service.sop_workflow_service.service;
 
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewItemDto;
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewResultDto;
+import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
 import com.sop_workflow_service.sop_workflow_service.dto.UpdateStageDto;
 import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
 import com.sop_workflow_service.sop_workflow_service.enums.Roles;
 import com.sop_workflow_service.sop_workflow_service.model.Comment;
+import com.sop_workflow_service.sop_workflow_service.model.CommentSummary;
+import com.sop_workflow_service.sop_workflow_service.model.OutboxEvent;
+import com.sop_workflow_service.sop_workflow_service.model.SOP;
 import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
-import com.sop_workflow_service.sop_workflow_service.repository.WorkflowStageRepository;
+import com.sop_workflow_service.sop_workflow_service.repository.SOPRepository;
+import com.sop_workflow_service.sop_workflow_service.utils.WorkflowStateMachine;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.BadRequestException;
+import com.sop_workflow_service.sop_workflow_service.utils.exception.ConflictException;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.NotFoundException;
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 @Service
+@Slf4j
 public class WorkflowStageService {
 
-    private final WorkflowStageRepository workflowStageRepository;
+    static final int MAX_TRANSITION_ATTEMPTS = 5;
+
+    private final SOPRepository sopRepository;
     private final CommentService commentService;
+    private final OutboxService outboxService;
+    private final SopCacheService sopCacheService;
+    private final TransactionTemplate transactionTemplate;
 
-    public WorkflowStageService(WorkflowStageRepository workflowStageRepository, CommentService commentService) {
-        this.workflowStageRepository = workflowStageRepository;
+    public WorkflowStageService(SOPRepository sopRepository, CommentService commentService, OutboxService outboxService,
+                                SopCacheService sopCacheService, TransactionTemplate transactionTemplate) {
+        this.sopRepository = sopRepository;
         this.commentService = commentService;
+        this.outboxService = outboxService;
+        this.sopCacheService = sopCacheService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Cacheable(value = "workflowStagesList", key = "#sopId")
     public List<WorkflowStage> getStagesBySopId(String sopId) {
-        return workflowStageRepository.findBySopId(sopId);
+        return sopRepository.findStagesBySopId(sopId);
+    }
+
+    public List<WorkflowStage> getStagesBySopIds(Collection<String> sopIds) {
+        return sopRepository.findStagesBySopIdIn(sopIds);
     }
 
     @Cacheable(value = "workflowStage", key = "{#userId, #sopId}")
     public WorkflowStage getStageBySopIdAndUserId( String sopId,UUID userId) {
-        return workflowStageRepository.findFirstBySopIdAndUserId(sopId, userId)
-                .orElseThrow(() -> new NotFoundException("User not assigned on sop"));
+        return findStage(sopId, userId);
     }
 
+    /**
+     * Moves the user's stage of the role on behalf of a review or an approval and returns the updated sop.
+     * The move is checked on a fresh read and applied as a conditional update; when a concurrent change made
+     * the update miss, it is checked again on a new read, up to MAX_TRANSITION_ATTEMPTS times.
+     * onApplied runs in the transaction of the move, with the updated sop, to write the events it announces.
+     */
     @Caching(evict = {
-            @CacheEvict(value = "workflowStage", allEntries = true),
-            @CacheEvict(value = "workflowStagesList", allEntries = true)
+            @CacheEvict(value = "sop", key = "#sopId"),
+            @CacheEvict(value = "workflowStage", key = "{#userId, #sopId}"),
+            @CacheEvict(value = "workflowStagesList", key = "#sopId")
     })
-    public WorkflowStage updateStage(UUID userId, String sopId,UpdateStageDto updateStageDto) {
-        WorkflowStage stage = workflowStageRepository.findFirstBySopIdAndUserId(sopId, userId)
-                .orElseThrow(() -> new NotFoundException("User not assigned on sop"));
-
+    public SOP transitionStage(String sopId, UUID userId, Roles role, UpdateStageDto updateStageDto, Consumer<SOP> onApplied) {
         // A comment is required for Rejected status
         if (updateStageDto.getApprovalStatus() == ApprovalStatus.REVISION && updateStageDto.getComment() == null) {
             throw new BadRequestException("Comment is required for Rejecting an SOP");
         }
 
-        if(updateStageDto.getComment() != null) {
-            Comment newComment = commentService.saveComment(userId, stage.getId(), updateStageDto.getComment());
+        Comment comment = null;
+        for (int attempt = 1; ; attempt++) {
+            SOP sop = sopRepository.findById(sopId)
+                    .orElseThrow(() -> new NotFoundException("SOP not found"));
+            WorkflowStateMachine.Transition transition =
+                    WorkflowStateMachine.plan(sop, userId, role, updateStageDto.getApprovalStatus());
+
+            // the stage a user holds in a sop does not change between attempts
+            if (comment == null && updateStageDto.getComment() != null) {
+                comment = commentService.newComment(userId, transition.stageId(), updateStageDto.getComment());
+            }
+
+            Optional<SOP> updated = applyTransition(transition, comment, onApplied);
+            if (updated.isPresent()) {
+                return updated.get();
+            }
 
-            if (stage.getComments() == null) {
-                stage.setComments(new ArrayList<>());
+            if (attempt == MAX_TRANSITION_ATTEMPTS) {
+                throw new ConflictException("SOP was updated concurrently, please retry");
             }
+            log.debug("Stage transition on SOP {} missed on attempt {}, retrying", sopId, attempt);
+            backOff(attempt);
+        }
+    }
+
+    // the move, its comment and its events commit together or not at all
+    private Optional<SOP> applyTransition(WorkflowStateMachine.Transition transition, Comment comment, Consumer<SOP> onApplied) {
+        CommentSummary summary = comment == null ? null : CommentSummary.from(comment);
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<SOP> updated = sopRepository.transitionStage(transition, summary);
+                updated.ifPresent(sop -> {
+                    if (comment != null) {
+                        commentService.saveComment(comment);
+                    }
 
-            stage.getComments().add(newComment);
+                    // lets the content service refresh its view of the sop
+                    SOPDto sopDto = new SOPDto();
+                    sopDto.setId(sop.getId());
+                    outboxService.publish("sop-stage-updated", sopDto);
+                    onApplied.accept(sop);
+                });
+                return updated;
+            });
+        } catch (DataAccessException e) {
+            // another transaction wrote the sop first, checked again like an update that missed
+            if (isConflict(e)) {
+                return Optional.empty();
+            }
+            throw e;
         }
+    }
 
-        stage.setApprovalStatus(updateStageDto.getApprovalStatus());
-        return workflowStageRepository.save(stage);
+    /**
+     * Moves the user's stages in many sops at once and returns the result of every item, in request order.
+     * The sops are read with one query and each item is checked on its own, so an invalid item only fails itself.
+     * The valid moves are written with one bulk write in one transaction, along with their comments and the events
+     * eventsOf returns for each updated sop; a concurrent write to one of the sops retries the batch on a new read.
+     */
+    public List<BulkReviewResultDto> transitionStages(UUID userId, List<BulkReviewItemDto> items,
+                                                      BiFunction<SOP, BulkReviewItemDto, List<OutboxEvent>> eventsOf) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<BulkReviewResultDto> results = transactionTemplate.execute(status -> applyTransitions(userId, items, eventsOf));
+
+                // after the commit, each sop appears once in a batch so every key is evicted once
+                for (BulkReviewResultDto result : results) {
+                    if (result.isSuccess()) {
+                        sopCacheService.evictSop(result.getSopId());
+                        sopCacheService.evictStage(result.getSopId(), userId);
+                    }
+                }
+                return results;
+            } catch (DataAccessException e) {
+                if (!isConflict(e) || attempt == MAX_TRANSITION_ATTEMPTS) {
+                    throw isConflict(e) ? new ConflictException("SOPs were updated concurrently, please retry") : e;
+                }
+                log.debug("Bulk stage transition of {} items conflicted on attempt {}, retrying", items.size(), attempt);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private List<BulkReviewResultDto> applyTransitions(UUID userId, List<BulkReviewItemDto> items,
+                                                       BiFunction<SOP, BulkReviewItemDto, List<OutboxEvent>> eventsOf) {
+        Set<String> sopIds = new LinkedHashSet<>();
+        items.forEach(item -> sopIds.add(item.getSopId()));
+        Map<String, SOP> sops = new HashMap<>();
+        sopRepository.findAllById(sopIds).forEach(sop -> sops.put(sop.getId(), sop));
+
+        List<BulkReviewResultDto> results = new ArrayList<>(items.size());
+        List<BulkReviewItemDto> applied = new ArrayList<>();
+        List<WorkflowStateMachine.Transition> transitions = new ArrayList<>();
+        List<CommentSummary> summaries = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (BulkReviewItemDto item : items) {
+            try {
+                if (!seen.add(item.getSopId())) {
+                    throw new BadRequestException("SOP appears more than once in the request");
+                }
+                if (item.getApprovalStatus() == ApprovalStatus.REVISION && item.getComment() == null) {
+                    throw new BadRequestException("Comment is required for Rejecting an SOP");
+                }
+                SOP sop = sops.get(item.getSopId());
+                if (sop == null) {
+                    throw new NotFoundException("SOP not found");
+                }
+
+                WorkflowStateMachine.Transition transition =
+                        WorkflowStateMachine.plan(sop, userId, item.getAction().getRole(), item.getApprovalStatus());
+                Comment comment = item.getComment() == null
+                        ? null
+                        : commentService.newComment(userId, transition.stageId(), item.getComment());
+                if (comment != null) {
+                    comments.add(comment);
+                }
+                transitions.add(transition);
+                summaries.add(comment == null ? null : CommentSummary.from(comment));
+                applied.add(item);
+                results.add(BulkReviewResultDto.applied(item.getSopId()));
+            } catch (BadRequestException | NotFoundException e) {
+                results.add(BulkReviewResultDto.failed(item.getSopId(), e.getMessage()));
+            }
+        }
+
+        if (transitions.isEmpty()) {
+            return results;
+        }
+
+        // every move was checked on this transaction's read, a miss means another write got in first
+        if (sopRepository.transitionStages(transitions, summaries) != transitions.size()) {
+            throw new ConcurrencyFailureException("SOPs changed while applying the bulk review");
+        }
+        commentService.saveComments(comments);
+
+        Map<String, SOP> updated = new HashMap<>();
+        sopRepository.findAllById(applied.stream().map(BulkReviewItemDto::getSopId).toList())
+                .forEach(sop -> updated.put(sop.getId(), sop));
+        List<OutboxEvent> events = new ArrayList<>();
+        for (BulkReviewItemDto item : applied) {
+            SOP sop = updated.get(item.getSopId());
+            SOPDto sopDto = new SOPDto();
+            sopDto.setId(sop.getId());
+            events.add(OutboxService.event("sop-stage-updated", sopDto));
+            events.addAll(eventsOf.apply(sop, item));
+        }
+        outboxService.publishAll(events);
+        return results;
+    }
+
+    // a transaction that lost a write conflict or a bulk write that missed one of its moves
+    private static boolean isConflict(DataAccessException e) {
+        return e instanceof ConcurrencyFailureException
+                || (e.getMostSpecificCause() instanceof MongoException mongoException
+                && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL));
+    }
+
+    // jittered so reviewers that collided do not collide again
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, (5L << attempt) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("SOP was updated concurrently, please retry");
+        }
     }
 
     public boolean isSopApproved(String sopId) {
-        List<WorkflowStage> stages = workflowStageRepository.findBySopId(sopId);
+        List<WorkflowStage> stages = sopRepository.findStagesBySopId(sopId);
         return stages.stream().allMatch(stage -> stage.getApprovalStatus() == ApprovalStatus.APPROVED);
     }
 
     @Caching(evict = {
-            @CacheEvict(value = "workflowStage", allEntries = true),
-            @CacheEvict(value = "workflowStagesList", allEntries = true)
+            @CacheEvict(value = "sop", key = "#sopId"),
+            @CacheEvict(value = "workflowStage", key = "{#userId, #sopId}"),
+            @CacheEvict(value = "workflowStagesList", key = "#sopId")
     })
-    public List<WorkflowStage> saveStages(List<WorkflowStage> stages) {
-        return workflowStageRepository.saveAll(stages);
+    public WorkflowStage updateStageStatus(String sopId, UUID userId, ApprovalStatus approvalStatus) {
+        return sopRepository.updateStage(sopId, userId, approvalStatus, null)
+                .orElseThrow(() -> new NotFoundException("User not assigned on sop"));
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "workflowStage", allEntries = true),
-            @CacheEvict(value = "workflowStagesList", allEntries = true)
-    })
-    public WorkflowStage saveStage(WorkflowStage stage) {
-        return workflowStageRepository.save(stage);
+    private WorkflowStage findStage(String sopId, UUID userId) {
+        return sopRepository.findStagesBySopId(sopId).stream()
+                .filter(stage -> userId.equals(stage.getUserId()))
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("User not assigned on sop"));
     }
 }
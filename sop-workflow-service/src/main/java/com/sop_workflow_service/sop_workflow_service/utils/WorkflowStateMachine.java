@@ -0,0 +1,66 @@
+package com.sop_workflow_service.sop_workflow_service.utils;
+
+import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.Roles;
+import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
+import com.sop_workflow_service.sop_workflow_service.model.SOP;
+import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
+import com.sop_workflow_service.sop_workflow_service.utils.exception.BadRequestException;
+import com.sop_workflow_service.sop_workflow_service.utils.exception.NotFoundException;
+
+import java.util.*;
+
+/**
+ * The moves a review or an approval can make on a stage while its sop is under review.
+ * A move is checked against one read of the sop and then applied by the repository as a conditional update
+ * repeating the same preconditions, so it only lands if they still hold.
+ */
+public final class WorkflowStateMachine {
+
+    // statuses a stage can be moved to, with the statuses it may be in before
+    private static final Map<ApprovalStatus, Set<ApprovalStatus>> SOURCES = Map.of(
+            ApprovalStatus.APPROVED, EnumSet.of(ApprovalStatus.PENDING, ApprovalStatus.REVISION),
+            ApprovalStatus.REVISION, EnumSet.of(ApprovalStatus.PENDING, ApprovalStatus.REVISION, ApprovalStatus.APPROVED));
+
+    /**
+     * A checked move of the user's stage. Moves of different stages commute and are applied whatever else changed,
+     * an approval depends on every reviewer's stage and is only applied to the version they were read from.
+     */
+    public record Transition(String sopId, String stageId, UUID userId, Roles role,
+                             Set<ApprovalStatus> from, ApprovalStatus to,
+                             boolean versionGuarded, Long version) {
+    }
+
+    private WorkflowStateMachine() {
+    }
+
+    public static Transition plan(SOP sop, UUID userId, Roles role, ApprovalStatus to) {
+        if (sop.getStatus() != SOPStatus.UNDER_REVIEWAL) {
+            throw new BadRequestException("SOP is not under reviewal stage");
+        }
+
+        List<WorkflowStage> stages = sop.getWorkflowStages() == null ? List.of() : sop.getWorkflowStages();
+        WorkflowStage stage = stages.stream()
+                .filter(s -> userId.equals(s.getUserId()) && s.getRoleRequired() == role)
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("User not assigned on sop"));
+
+        Set<ApprovalStatus> from = SOURCES.get(to);
+        if (from == null || !from.contains(stage.getApprovalStatus())) {
+            throw new BadRequestException("Stage cannot move from " + stage.getApprovalStatus() + " to " + to);
+        }
+
+        boolean approving = role == Roles.APPROVER && to == ApprovalStatus.APPROVED;
+        if (approving && !allReviewersApproved(stages)) {
+            throw new BadRequestException("Approving not allowed before all reviewers review the SOP");
+        }
+
+        return new Transition(sop.getId(), stage.getId(), userId, role, from, to, approving, sop.getVersion());
+    }
+
+    public static boolean allReviewersApproved(List<WorkflowStage> stages) {
+        return stages.stream()
+                .filter(s -> s.getRoleRequired() == Roles.REVIEWER)
+                .allMatch(s -> s.getApprovalStatus() == ApprovalStatus.APPROVED);
+    }
+}
@@ -0,0 +1,7 @@
+package com.sop_workflow_service.sop_workflow_service.utils.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -44,6 +44,12 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Response<Object>> handleConflictException(ConflictException ex) {
+        Response<Object> response = new Response<>(false, ex.getMessage(), null);
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(AlreadyExistsException.class)
     public ResponseEntity<Response<Object>> handleAlreadyExistsException(Exception ex) {
         Response<Object> response = new Response<>(false, ex.getMessage(), null);
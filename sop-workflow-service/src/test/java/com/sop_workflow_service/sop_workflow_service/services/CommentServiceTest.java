@@ -1,9 +1,14 @@
 package com.sop_workflow_service.sop_workflow_service.services;
 
+import com.sop_workflow_service.sop_workflow_service.dto.CursorPage;
+import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
 import com.sop_workflow_service.sop_workflow_service.model.Comment;
 import com.sop_workflow_service.sop_workflow_service.repository.CommentRepository;
-import com.sop_workflow_service.sop_workflow_service.repository.WorkflowStageRepository;
+import com.sop_workflow_service.sop_workflow_service.repository.SOPRepository;
 import com.sop_workflow_service.sop_workflow_service.service.CommentService;
+import com.sop_workflow_service.sop_workflow_service.service.OutboxService;
+import com.sop_workflow_service.sop_workflow_service.service.SopCacheService;
+import com.sop_workflow_service.sop_workflow_service.utils.SopCursor;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.BadRequestException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,10 +20,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,7 +37,13 @@ class CommentServiceTest {
     private CommentRepository commentRepository;
 
     @Mock
-    private WorkflowStageRepository workflowStageRepository;
+    private SOPRepository sopRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private SopCacheService sopCacheService;
 
     @InjectMocks
     private CommentService commentService;
@@ -83,6 +98,7 @@ class CommentServiceTest {
         when(commentRepository.findByIdAndUserId(testCommentId, testUserId))
                 .thenReturn(testComment);
         doNothing().when(commentRepository).deleteById(testCommentId);
+        when(sopRepository.removeCommentSummary(testStageId, testCommentId)).thenReturn(Optional.of("sop-id"));
 
         // Act
         commentService.deleteCommentById(testCommentId, testUserId);
@@ -90,6 +106,10 @@ class CommentServiceTest {
         // Assert
         verify(commentRepository).findByIdAndUserId(testCommentId, testUserId);
         verify(commentRepository).deleteById(testCommentId);
+        verify(sopRepository).removeCommentSummary(testStageId, testCommentId);
+        verify(sopCacheService).evictSop("sop-id");
+        verify(sopCacheService).evictStage("sop-id", testUserId);
+        verify(outboxService).publish(eq("sop-comment-updated"), argThat(sopDto -> "sop-id".equals(sopDto.getId())));
     }
 
     @Test
@@ -123,11 +143,14 @@ class CommentServiceTest {
                 .thenReturn(testComment);
         when(commentRepository.save(any(Comment.class)))
                 .thenReturn(updatedComment);
+        when(sopRepository.updateCommentSummary(testStageId, testCommentId, updatedContent))
+                .thenReturn(Optional.of("sop-id"));
 
         // Act
         Comment result = commentService.updateComment(testCommentId, testUserId, updatedContent);
 
         // Assert
+        verify(sopRepository).updateCommentSummary(testStageId, testCommentId, updatedContent);
         verify(commentRepository).save(commentCaptor.capture());
         Comment savedComment = commentCaptor.getValue();
 
@@ -194,4 +217,53 @@ class CommentServiceTest {
         // Assert
         verify(commentRepository).save(any(Comment.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getStageComments_ReturnsPageWithCursorOfLastComment() {
+        // Arrange
+        Comment newest = Comment.builder().id("comment-3").stageId(testStageId).createdAt(new Date(3000)).build();
+        Comment middle = Comment.builder().id("comment-2").stageId(testStageId).createdAt(new Date(2000)).build();
+        Comment oldest = Comment.builder().id("comment-1").stageId(testStageId).createdAt(new Date(1000)).build();
+        when(commentRepository.findPageByStageId(testStageId, null, 3))
+                .thenReturn(List.of(newest, middle, oldest));
+
+        // Act
+        CursorPage<Comment> page = commentService.getStageComments(testStageId, null, 2);
+
+        // Assert
+        assertEquals(List.of(newest, middle), page.getItems());
+        assertTrue(page.isHasNext());
+        assertEquals(new SopCursor(new Date(2000), "comment-2"), SopCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getStageComments_LastCommentWithoutCreatedAt_StillGetsACursor() {
+        // Arrange
+        Comment undated = Comment.builder().id("comment-2").stageId(testStageId).build();
+        Comment oldest = Comment.builder().id("comment-1").stageId(testStageId).build();
+        when(commentRepository.findPageByStageId(testStageId, null, 2)).thenReturn(List.of(undated, oldest));
+
+        // Act
+        CursorPage<Comment> page = commentService.getStageComments(testStageId, null, 1);
+
+        // Assert
+        assertEquals(new SopCursor(null, "comment-2"), SopCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getStageComments_LastPage_HasNoCursor() {
+        // Arrange
+        SopCursor after = new SopCursor(new Date(2000), "comment-2");
+        Comment oldest = Comment.builder().id("comment-1").stageId(testStageId).createdAt(new Date(1000)).build();
+        when(commentRepository.findPageByStageId(testStageId, after, CursorPage.DEFAULT_LIMIT + 1))
+                .thenReturn(List.of(oldest));
+
+        // Act
+        CursorPage<Comment> page = commentService.getStageComments(testStageId, after.encode(), null);
+
+        // Assert
+        assertEquals(List.of(oldest), page.getItems());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+}
@@ -0,0 +1,118 @@
+package com.sop_workflow_service.sop_workflow_service.services;
+
+import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
+import com.sop_workflow_service.sop_workflow_service.model.OutboxEvent;
+import com.sop_workflow_service.sop_workflow_service.repository.OutboxEventRepository;
+import com.sop_workflow_service.sop_workflow_service.service.OutboxRelay;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private KafkaTemplate<String, SOPDto> kafkaTemplate;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, mongoTemplate, kafkaTemplate, 10, 10000, 1000);
+    }
+
+    @Test
+    void relay_PublishesKeyedBySopAndDeletesWhatWasAcknowledged() {
+        // Arrange
+        OutboxEvent created = createEvent("event-1", "sop-created", "sop-1");
+        OutboxEvent reviewed = createEvent("event-2", "sop-reviewed", "sop-1");
+        holdLease();
+        when(outboxEventRepository.findAllBy(any(Pageable.class))).thenReturn(List.of(created, reviewed));
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(kafkaTemplate).send("sop-created", "sop-1", created.getPayload());
+        verify(kafkaTemplate).send("sop-reviewed", "sop-1", reviewed.getPayload());
+        verify(outboxEventRepository).deleteAllById(List.of("event-1", "event-2"));
+    }
+
+    @Test
+    void relay_KeepsAFailedEventWithTheLaterEventsOfItsSop() {
+        // Arrange
+        OutboxEvent failed = createEvent("event-1", "sop-created", "sop-1");
+        OutboxEvent otherSop = createEvent("event-2", "sop-created", "sop-2");
+        OutboxEvent later = createEvent("event-3", "sop-stage-updated", "sop-1");
+        holdLease();
+        when(outboxEventRepository.findAllBy(any(Pageable.class))).thenReturn(List.of(failed, otherSop, later));
+        when(kafkaTemplate.send(eq("sop-created"), eq("sop-1"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+        when(kafkaTemplate.send(eq("sop-created"), eq("sop-2"), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaTemplate.send(eq("sop-stage-updated"), eq("sop-1"), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verify(outboxEventRepository).deleteAllById(List.of("event-2"));
+        verify(outboxEventRepository, times(1)).findAllBy(any(Pageable.class));
+    }
+
+    @Test
+    void relay_DoesNothingWhileAnotherInstanceHoldsTheLease() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("outbox-lease")))
+                .thenThrow(new DuplicateKeyException("lease held"));
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        verifyNoInteractions(outboxEventRepository, kafkaTemplate);
+    }
+
+    private void holdLease() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("outbox-lease")))
+                .thenReturn(new Document());
+    }
+
+    private OutboxEvent createEvent(String id, String topic, String sopId) {
+        SOPDto payload = new SOPDto();
+        payload.setId(sopId);
+        return OutboxEvent.builder()
+                .id(id)
+                .topic(topic)
+                .key(sopId)
+                .payload(payload)
+                .createdAt(new Date())
+                .build();
+    }
+}
@@ -1,29 +1,41 @@
 package com.sop_workflow_service.sop_workflow_service.services;
 
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewItemDto;
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewResultDto;
+import com.sop_workflow_service.sop_workflow_service.dto.CursorPage;
 import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
+import com.sop_workflow_service.sop_workflow_service.dto.SopSummaryDto;
 import com.sop_workflow_service.sop_workflow_service.dto.UpdateStageDto;
 import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.ReviewAction;
 import com.sop_workflow_service.sop_workflow_service.enums.Roles;
 import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
 import com.sop_workflow_service.sop_workflow_service.enums.Visibility;
 import com.sop_workflow_service.sop_workflow_service.model.Category;
+import com.sop_workflow_service.sop_workflow_service.model.OutboxEvent;
 import com.sop_workflow_service.sop_workflow_service.model.SOP;
 import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
 import com.sop_workflow_service.sop_workflow_service.repository.SOPRepository;
 import com.sop_workflow_service.sop_workflow_service.service.CategoryService;
+import com.sop_workflow_service.sop_workflow_service.service.OutboxService;
 import com.sop_workflow_service.sop_workflow_service.service.SOPService;
+import com.sop_workflow_service.sop_workflow_service.service.SopCacheService;
 import com.sop_workflow_service.sop_workflow_service.service.WorkflowStageService;
+import com.sop_workflow_service.sop_workflow_service.utils.SopCursor;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.BadRequestException;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.NotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.mockito.stubbing.Answer;
 
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -42,7 +54,10 @@ public class SOPServiceTest {
     private CategoryService categoryService;
 
     @Mock
-    private KafkaTemplate<String, SOPDto> kafkaTemplate;
+    private OutboxService outboxService;
+
+    @Mock
+    private SopCacheService sopCacheService;
 
     @InjectMocks
     private SOPService sopService;
@@ -106,16 +121,36 @@ public class SOPServiceTest {
         // Arrange
         when(categoryService.getCategoryByName(any())).thenReturn(category);
         when(sopRepository.save(any(SOP.class))).thenReturn(sop);
-        when(workflowStageService.saveStages(any())).thenReturn(workflowStages);
 
         // Act
         SOP result = sopService.createSOP(sopDto, departmentId, initiatedBy);
 
         // Assert
+        // saved once, with the stages embedded
+        verify(sopRepository).save(argThat(saved -> saved.getId() != null &&
+                saved.getWorkflowStages().size() == reviewerIds.size() + 2 &&
+                saved.getWorkflowStages().stream().allMatch(stage ->
+                        stage.getId() != null && saved.getId().equals(stage.getSopId()))));
         assertNotNull(result);
         assertEquals(sop.getTitle(), result.getTitle());
         assertEquals(sop.getCategory().getName(), result.getCategory().getName());
-        verify(kafkaTemplate).send(eq("sop-created"), any(SOPDto.class));
+        verify(outboxService).publish(eq("sop-created"), any(SOPDto.class));
+        verify(sopCacheService).evictLists(departmentId, Visibility.PUBLIC);
+    }
+
+    @Test
+    void sopPublishedListener_EvictsOnlyTheSopAndItsLists() throws Exception {
+        // Arrange
+        sop.setVisibility(Visibility.PUBLIC);
+        when(sopRepository.updateStatus(sop.getId(), SOPStatus.PUBLISHED)).thenReturn(Optional.of(sop));
+
+        // Act
+        sopService.sopPublishedListener("{\"id\":\"" + sop.getId() + "\"}");
+
+        // Assert
+        verify(sopCacheService).evictSop(sop.getId());
+        verify(sopCacheService).evictLists(departmentId, Visibility.PUBLIC);
+        verifyNoMoreInteractions(sopCacheService);
     }
 
     @Test
@@ -153,65 +188,161 @@ public class SOPServiceTest {
         );
     }
 
+    @Test
+    void getSops_ReadsSummaryProjection() {
+        // Arrange
+        SopSummaryDto summary = createSummary(sop.getId(), new Date());
+        when(sopRepository.findSummariesByDepartmentIdOrVisibility(
+                departmentId, Visibility.PUBLIC, null, CursorPage.DEFAULT_LIMIT + 1))
+                .thenReturn(List.of(summary));
+
+        // Act
+        CursorPage<SopSummaryDto> result = sopService.getSops(departmentId, null, null);
+
+        // Assert
+        assertEquals(List.of(summary), result.getItems());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        verify(sopRepository, never()).findAll();
+        verify(sopRepository, never()).findById(any());
+    }
+
+    @Test
+    void getAllSops_NextCursorContinuesAfterLastItem() {
+        // Arrange
+        Date createdAt = new Date();
+        List<SopSummaryDto> summaries = List.of(
+                createSummary("sop3", createdAt),
+                createSummary("sop2", createdAt),
+                createSummary("sop1", createdAt));
+        when(sopRepository.findSummaries(null, 3)).thenReturn(summaries);
+
+        // Act
+        CursorPage<SopSummaryDto> first = sopService.getAllSops(null, 2);
+        SopCursor next = SopCursor.decode(first.getNextCursor());
+
+        // Assert
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.isHasNext());
+        assertEquals(new SopCursor(createdAt, "sop2"), next);
+    }
+
+    @Test
+    void getAllSops_InvalidCursor() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> sopService.getAllSops("%%%", null));
+        verifyNoInteractions(sopRepository);
+    }
+
     @Test
     void reviewSOP_Success() {
         // Arrange
         sop.setStatus(SOPStatus.UNDER_REVIEWAL);
-        when(sopRepository.findById(sop.getId())).thenReturn(Optional.of(sop));
-        when(workflowStageService.getStagesBySopId(sop.getId())).thenReturn(workflowStages);
+        when(workflowStageService.transitionStage(eq(sop.getId()), eq(reviewerIds.get(0)), eq(Roles.REVIEWER), any(UpdateStageDto.class), any()))
+                .thenAnswer(applyTo(sop));
 
         // Act
         SOP result = sopService.reviewSOP(sop.getId(), reviewerIds.get(0), "Approved", ApprovalStatus.APPROVED);
 
         // Assert
         assertNotNull(result);
-        verify(workflowStageService).updateStage(eq(reviewerIds.get(0)), eq(sop.getId()), any(UpdateStageDto.class));
+        assertEquals(List.of(), publishedTopics());
+    }
+
+    @Test
+    void reviewSOP_LastApprovalNotifiesTheApprover() {
+        // Arrange
+        sop.setStatus(SOPStatus.UNDER_REVIEWAL);
+        workflowStages.stream()
+                .filter(stage -> stage.getRoleRequired() == Roles.REVIEWER)
+                .forEach(stage -> stage.setApprovalStatus(ApprovalStatus.APPROVED));
+        when(workflowStageService.transitionStage(eq(sop.getId()), eq(reviewerIds.get(1)), eq(Roles.REVIEWER), any(UpdateStageDto.class), any()))
+                .thenAnswer(applyTo(sop));
+
+        // Act
+        sopService.reviewSOP(sop.getId(), reviewerIds.get(1), "Approved", ApprovalStatus.APPROVED);
+
+        // Assert
+        assertEquals(List.of("sop-reviewed"), publishedTopics());
     }
 
     @Test
     void reviewSOP_NotUnderReviewal() {
         // Arrange
-        sop.setStatus(SOPStatus.DRAFTED);
-        when(sopRepository.findById(sop.getId())).thenReturn(Optional.of(sop));
+        when(workflowStageService.transitionStage(eq(sop.getId()), eq(reviewerIds.get(0)), eq(Roles.REVIEWER), any(UpdateStageDto.class), any()))
+                .thenThrow(new BadRequestException("SOP is not under reviewal stage"));
 
         // Act & Assert
         assertThrows(BadRequestException.class, () ->
                 sopService.reviewSOP(sop.getId(), reviewerIds.get(0), "Approved", ApprovalStatus.APPROVED)
         );
+        verifyNoInteractions(outboxService);
     }
 
     @Test
     void approveSOP_Success() {
         // Arrange
         sop.setStatus(SOPStatus.UNDER_REVIEWAL);
-        // Set all reviewer stages to APPROVED
-        workflowStages.stream()
-                .filter(stage -> stage.getRoleRequired() == Roles.REVIEWER)
-                .forEach(stage -> stage.setApprovalStatus(ApprovalStatus.APPROVED));
-
-        when(sopRepository.findById(sop.getId())).thenReturn(Optional.of(sop));
-        when(workflowStageService.getStagesBySopId(sop.getId())).thenReturn(workflowStages);
+        when(workflowStageService.transitionStage(eq(sop.getId()), eq(approverId), eq(Roles.APPROVER), any(UpdateStageDto.class), any()))
+                .thenAnswer(applyTo(sop));
 
         // Act
         SOP result = sopService.approveSOP(sop.getId(), approverId, "Approved", ApprovalStatus.APPROVED);
 
         // Assert
         assertNotNull(result);
-        verify(workflowStageService).updateStage(eq(approverId), eq(sop.getId()), any(UpdateStageDto.class));
-        verify(kafkaTemplate).send(eq("sop-approved"), any(SOPDto.class));
+        assertEquals(List.of("sop-approved"), publishedTopics());
     }
 
     @Test
-    void approveSOP_NotAllReviewersApproved() {
+    void bulkReview_DecidesTheEventsOfEachItemOnItsUpdatedSop() {
         // Arrange
         sop.setStatus(SOPStatus.UNDER_REVIEWAL);
-        when(sopRepository.findById(sop.getId())).thenReturn(Optional.of(sop));
-        when(workflowStageService.getStagesBySopId(sop.getId())).thenReturn(workflowStages);
+        List<BulkReviewItemDto> items = List.of(BulkReviewItemDto.builder()
+                .sopId(sop.getId())
+                .action(ReviewAction.REVIEW)
+                .approvalStatus(ApprovalStatus.REVISION)
+                .comment("Needs changes")
+                .build());
+        List<BulkReviewResultDto> results = List.of(BulkReviewResultDto.applied(sop.getId()));
+        when(workflowStageService.transitionStages(eq(reviewerIds.get(0)), eq(items), any())).thenAnswer(invocation -> {
+            BiFunction<SOP, BulkReviewItemDto, List<OutboxEvent>> eventsOf = invocation.getArgument(2);
+            assertEquals(List.of("sop-revision"),
+                    eventsOf.apply(sop, items.get(0)).stream().map(OutboxEvent::getTopic).toList());
+            return results;
+        });
 
-        // Act & Assert
-        assertThrows(BadRequestException.class, () ->
-                sopService.approveSOP(sop.getId(), approverId, "Approved", ApprovalStatus.APPROVED)
-        );
+        // Act
+        List<BulkReviewResultDto> result = sopService.bulkReview(reviewerIds.get(0), items);
+
+        // Assert
+        assertSame(results, result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> publishedTopics() {
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxService).publishAll(events.capture());
+        return events.getValue().stream().map(OutboxEvent::getTopic).toList();
+    }
+
+    // runs the events callback on the sop as the stage service does after applying the move
+    private Answer<SOP> applyTo(SOP updatedSop) {
+        return invocation -> {
+            Consumer<SOP> onApplied = invocation.getArgument(4);
+            onApplied.accept(updatedSop);
+            return updatedSop;
+        };
+    }
+
+    private SopSummaryDto createSummary(String id, Date createdAt) {
+        return SopSummaryDto.builder()
+                .id(id)
+                .title("Test SOP")
+                .status(SOPStatus.PUBLISHED)
+                .departmentId(departmentId)
+                .createdAt(createdAt)
+                .build();
     }
 
     private WorkflowStage createWorkflowStage(String sopId, Roles role, UUID userId) {
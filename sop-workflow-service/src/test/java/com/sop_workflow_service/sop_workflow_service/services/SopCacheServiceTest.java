@@ -0,0 +1,101 @@
+package com.sop_workflow_service.sop_workflow_service.services;
+
+import com.sop_workflow_service.sop_workflow_service.enums.Visibility;
+import com.sop_workflow_service.sop_workflow_service.service.SopCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SopCacheServiceTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private Cache cache;
+
+    private SopCacheService sopCacheService;
+    private UUID departmentId;
+
+    @BeforeEach
+    void setUp() {
+        sopCacheService = new SopCacheService(cacheManager, redisTemplate);
+        departmentId = UUID.randomUUID();
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(cacheManager.getCache(any())).thenReturn(cache);
+    }
+
+    @Test
+    void summariesKey_CarriesDepartmentAndPublicGenerations() {
+        // Arrange
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList("3", null));
+
+        // Act
+        String key = sopCacheService.summariesKey(departmentId, "cursor", 20);
+
+        // Assert
+        assertEquals(departmentId + ":3:0:cursor:20", key);
+        verify(valueOperations).multiGet(List.of(
+                "sopSummaries:generation:" + departmentId,
+                "sopSummaries:generation:public"));
+    }
+
+    @Test
+    void evictLists_PrivateSop_BumpsOnlyItsDepartment() {
+        // Act
+        sopCacheService.evictLists(departmentId, Visibility.PRIVATE);
+
+        // Assert
+        verify(valueOperations).increment("sopSummaries:generation:" + departmentId);
+        verify(valueOperations, never()).increment("sopSummaries:generation:public");
+        verify(cache).evict(departmentId);
+        verify(cache).evict(SimpleKey.EMPTY);
+        verify(cache, never()).clear();
+    }
+
+    @Test
+    void evictLists_PublicSop_BumpsPublicGeneration() {
+        // Act
+        sopCacheService.evictLists(departmentId, Visibility.PUBLIC);
+
+        // Assert
+        verify(valueOperations).increment("sopSummaries:generation:" + departmentId);
+        verify(valueOperations).increment("sopSummaries:generation:public");
+    }
+
+    @Test
+    void evictStage_UsesTheCachedStageKey() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+
+        // Act
+        sopCacheService.evictStage("sop-id", userId);
+
+        // Assert
+        verify(cacheManager).getCache("workflowStage");
+        verify(cache).evict(List.of(userId, "sop-id"));
+    }
+}
@@ -1,8 +1,13 @@
 package com.sop_workflow_service.sop_workflow_service.services;
 
+import com.sop_workflow_service.sop_workflow_service.dto.CursorPage;
+import com.sop_workflow_service.sop_workflow_service.dto.SopStatusCountDto;
 import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
 import com.sop_workflow_service.sop_workflow_service.model.Comment;
+import com.sop_workflow_service.sop_workflow_service.model.CommentSummary;
 import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
+import com.sop_workflow_service.sop_workflow_service.service.CommentService;
 import com.sop_workflow_service.sop_workflow_service.service.SOPService;
 import com.sop_workflow_service.sop_workflow_service.service.WorkflowGRPCService;
 import com.sop_workflow_service.sop_workflow_service.service.WorkflowStageService;
@@ -15,8 +20,11 @@ import sopWorkflowService.*;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -31,18 +39,27 @@ class WorkflowGRPCServiceTest {
     @Mock
     private WorkflowStageService workflowStageService;
 
+    @Mock
+    private CommentService commentService;
+
     @Mock
     private StreamObserver<IsSOPApprovedResponse> isSOPApprovedResponseObserver;
 
     @Mock
     private StreamObserver<GetWorkflowStageInfoResponse> getWorkflowStageInfoResponseObserver;
 
+    @Mock
+    private StreamObserver<GetSopStatusCountsResponse> getSopStatusCountsResponseObserver;
+
+    @Mock
+    private StreamObserver<GetStageCommentsResponse> getStageCommentsResponseObserver;
+
     private WorkflowGRPCService workflowGRPCService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        workflowGRPCService = new WorkflowGRPCService(sopService, workflowStageService);
+        workflowGRPCService = new WorkflowGRPCService(sopService, workflowStageService, commentService);
     }
 
     @Test
@@ -98,8 +115,8 @@ class WorkflowGRPCServiceTest {
                 .setUserId(userId)
                 .build();
 
-        Comment comment = new Comment();
-        comment.setId("comment-id");
+        CommentSummary comment = new CommentSummary();
+        comment.setCommentId("comment-id");
         comment.setContent("Test comment");
         // Convert LocalDateTime to Date
         LocalDateTime now = LocalDateTime.now();
@@ -122,7 +139,8 @@ class WorkflowGRPCServiceTest {
                 response.getSuccess() &&
                         response.getStatus().equals("PENDING") &&
                         response.getCommentsList().size() == 1 &&
-                        response.getCommentsList().get(0).getCommentId().equals("comment-id")
+                        response.getCommentsList().get(0).getCommentId().equals("comment-id") &&
+                        response.getCommentsList().get(0).getCreatedTime().getSeconds() == date.getTime() / 1000
         ));
         verify(getWorkflowStageInfoResponseObserver).onCompleted();
     }
@@ -180,4 +198,169 @@ class WorkflowGRPCServiceTest {
         ));
         verify(getWorkflowStageInfoResponseObserver).onCompleted();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getWorkflowStageInfo_CarriesOnlyLatestCommentsAndCount() {
+        // Arrange
+        String sopId = "test-sop-id";
+        GetWorkflowStageInfoRequest request = GetWorkflowStageInfoRequest.newBuilder()
+                .setSopId(sopId)
+                .setUserId(UUID.randomUUID().toString())
+                .build();
+
+        List<CommentSummary> comments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            comments.add(new CommentSummary("comment-" + i, UUID.randomUUID(), "Comment " + i, new Date()));
+        }
+
+        WorkflowStage workflowStage = new WorkflowStage();
+        workflowStage.setApprovalStatus(ApprovalStatus.PENDING);
+        workflowStage.setComments(comments);
+        workflowStage.setCommentCount(42);
+
+        when(workflowStageService.getStageBySopIdAndUserId(eq(sopId), any(UUID.class)))
+                .thenReturn(workflowStage);
+
+        // Act
+        workflowGRPCService.getWorkflowStageInfo(request, getWorkflowStageInfoResponseObserver);
+
+        // Assert
+        verify(getWorkflowStageInfoResponseObserver).onNext(argThat(response ->
+                response.getSuccess() &&
+                        response.getCommentCount() == 42 &&
+                        response.getCommentsList().stream().map(Comments::getCommentId).toList()
+                                .equals(List.of("comment-2", "comment-3", "comment-4"))
+        ));
+    }
+
+    @Test
+    void getWorkflowStageInfo_CommentWithoutCreatedAt_IsSentWithoutDate() {
+        // Arrange
+        String sopId = "test-sop-id";
+        GetWorkflowStageInfoRequest request = GetWorkflowStageInfoRequest.newBuilder()
+                .setSopId(sopId)
+                .setUserId(UUID.randomUUID().toString())
+                .build();
+
+        WorkflowStage workflowStage = new WorkflowStage();
+        workflowStage.setApprovalStatus(ApprovalStatus.PENDING);
+        workflowStage.setComments(List.of(new CommentSummary("legacy-comment", UUID.randomUUID(), "Legacy", null)));
+
+        when(workflowStageService.getStageBySopIdAndUserId(eq(sopId), any(UUID.class)))
+                .thenReturn(workflowStage);
+
+        // Act
+        workflowGRPCService.getWorkflowStageInfo(request, getWorkflowStageInfoResponseObserver);
+
+        // Assert
+        verify(getWorkflowStageInfoResponseObserver).onNext(argThat(response ->
+                response.getSuccess() &&
+                        response.getCommentsCount() == 1 &&
+                        response.getComments(0).getCommentId().equals("legacy-comment") &&
+                        !response.getComments(0).hasCreatedTime()
+        ));
+    }
+
+    @Test
+    void getStageComments_ReturnsPageOfStageThread() {
+        // Arrange
+        String sopId = "test-sop-id";
+        UUID userId = UUID.randomUUID();
+        GetStageCommentsRequest request = GetStageCommentsRequest.newBuilder()
+                .setSopId(sopId)
+                .setUserId(userId.toString())
+                .setCursor("cursor")
+                .setLimit(10)
+                .build();
+
+        WorkflowStage workflowStage = new WorkflowStage();
+        workflowStage.setId("stage-id");
+        Comment comment = Comment.builder()
+                .id("comment-id")
+                .content("Test comment")
+                .createdAt(new Date())
+                .build();
+
+        when(workflowStageService.getStageBySopIdAndUserId(sopId, userId)).thenReturn(workflowStage);
+        when(commentService.getStageComments("stage-id", "cursor", 10))
+                .thenReturn(new CursorPage<>(List.of(comment), "next-cursor", true));
+
+        // Act
+        workflowGRPCService.getStageComments(request, getStageCommentsResponseObserver);
+
+        // Assert
+        verify(getStageCommentsResponseObserver).onNext(argThat(response ->
+                response.getSuccess() &&
+                        response.getHasNext() &&
+                        response.getNextCursor().equals("next-cursor") &&
+                        response.getCommentsCount() == 1 &&
+                        response.getComments(0).getCommentId().equals("comment-id")
+        ));
+        verify(getStageCommentsResponseObserver).onCompleted();
+    }
+
+    @Test
+    void getStageComments_HandleException() {
+        // Arrange
+        GetStageCommentsRequest request = GetStageCommentsRequest.newBuilder()
+                .setSopId("test-sop-id")
+                .setUserId("not-a-uuid")
+                .build();
+
+        // Act
+        workflowGRPCService.getStageComments(request, getStageCommentsResponseObserver);
+
+        // Assert
+        verify(getStageCommentsResponseObserver).onNext(argThat(response ->
+                !response.getSuccess() &&
+                        response.getErrorMessage().contains("Failed to get stage comments")
+        ));
+        verifyNoInteractions(commentService);
+    }
+
+    @Test
+    void getSopStatusCounts_PassesRangeBucketAndZone() {
+        // Arrange
+        UUID departmentId = UUID.randomUUID();
+        Date bucketStart = new Date(1700000000000L);
+        GetSopStatusCountsRequest request = GetSopStatusCountsRequest.newBuilder()
+                .setFrom(com.google.protobuf.Timestamp.newBuilder().setSeconds(1690000000L))
+                .setTo(com.google.protobuf.Timestamp.newBuilder().setSeconds(1710000000L))
+                .setBucket(TimeBucket.WEEK)
+                .setTimeZone("Africa/Harare")
+                .setDepartmentId(departmentId.toString())
+                .build();
+
+        when(sopService.getStatusCounts(new Date(1690000000000L), new Date(1710000000000L),
+                ChronoUnit.WEEKS, ZoneId.of("Africa/Harare"), departmentId))
+                .thenReturn(List.of(new SopStatusCountDto(bucketStart, SOPStatus.PUBLISHED, 4)));
+
+        // Act
+        workflowGRPCService.getSopStatusCounts(request, getSopStatusCountsResponseObserver);
+
+        // Assert
+        verify(getSopStatusCountsResponseObserver).onNext(argThat(response ->
+                response.getSuccess() &&
+                        response.getCountsCount() == 1 &&
+                        response.getCounts(0).getStatus().equals("PUBLISHED") &&
+                        response.getCounts(0).getCount() == 4 &&
+                        response.getCounts(0).getBucketStart().getSeconds() == bucketStart.getTime() / 1000
+        ));
+        verify(getSopStatusCountsResponseObserver).onCompleted();
+    }
+
+    @Test
+    void getSopStatusCounts_InvalidTimeZone_ReturnsError() {
+        // Arrange
+        GetSopStatusCountsRequest request = GetSopStatusCountsRequest.newBuilder()
+                .setTimeZone("Not/AZone")
+                .build();
+
+        // Act
+        workflowGRPCService.getSopStatusCounts(request, getSopStatusCountsResponseObserver);
+
+        // Assert
+        verify(getSopStatusCountsResponseObserver).onNext(argThat(response -> !response.getSuccess()));
+        verify(sopService, never()).getStatusCounts(any(), any(), any(), any(), any());
+    }
+}
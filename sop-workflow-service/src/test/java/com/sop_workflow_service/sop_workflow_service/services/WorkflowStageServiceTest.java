@@ -1,37 +1,65 @@
 package com.sop_workflow_service.sop_workflow_service.services;
 
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewItemDto;
+import com.sop_workflow_service.sop_workflow_service.dto.BulkReviewResultDto;
+import com.sop_workflow_service.sop_workflow_service.dto.SOPDto;
 import com.sop_workflow_service.sop_workflow_service.dto.UpdateStageDto;
 import com.sop_workflow_service.sop_workflow_service.enums.ApprovalStatus;
+import com.sop_workflow_service.sop_workflow_service.enums.ReviewAction;
+import com.sop_workflow_service.sop_workflow_service.enums.Roles;
+import com.sop_workflow_service.sop_workflow_service.enums.SOPStatus;
 import com.sop_workflow_service.sop_workflow_service.model.Comment;
+import com.sop_workflow_service.sop_workflow_service.model.CommentSummary;
+import com.sop_workflow_service.sop_workflow_service.model.OutboxEvent;
+import com.sop_workflow_service.sop_workflow_service.model.SOP;
 import com.sop_workflow_service.sop_workflow_service.model.WorkflowStage;
-import com.sop_workflow_service.sop_workflow_service.repository.WorkflowStageRepository;
+import com.sop_workflow_service.sop_workflow_service.repository.SOPRepository;
 import com.sop_workflow_service.sop_workflow_service.service.CommentService;
+import com.sop_workflow_service.sop_workflow_service.service.OutboxService;
+import com.sop_workflow_service.sop_workflow_service.service.SopCacheService;
 import com.sop_workflow_service.sop_workflow_service.service.WorkflowStageService;
+import com.sop_workflow_service.sop_workflow_service.utils.WorkflowStateMachine;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.BadRequestException;
+import com.sop_workflow_service.sop_workflow_service.utils.exception.ConflictException;
 import com.sop_workflow_service.sop_workflow_service.utils.exception.NotFoundException;
+import com.mongodb.MongoException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class WorkflowStageServiceTest {
 
     @Mock
-    private WorkflowStageRepository workflowStageRepository;
+    private SOPRepository sopRepository;
 
     @Mock
     private CommentService commentService;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private SopCacheService sopCacheService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private WorkflowStageService workflowStageService;
 
@@ -47,14 +75,26 @@ class WorkflowStageServiceTest {
         workflowStage.setId("stage-123");
         workflowStage.setSopId(sopId);
         workflowStage.setUserId(userId);
+        workflowStage.setRoleRequired(Roles.REVIEWER);
         workflowStage.setApprovalStatus(ApprovalStatus.PENDING);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private SOP createSop() {
+        SOP sop = new SOP();
+        sop.setId(sopId);
+        sop.setStatus(SOPStatus.UNDER_REVIEWAL);
+        sop.setWorkflowStages(new ArrayList<>(List.of(workflowStage)));
+        return sop;
     }
 
     @Test
     void getStagesBySopId_Success() {
         // Arrange
         List<WorkflowStage> expectedStages = Arrays.asList(workflowStage);
-        when(workflowStageRepository.findBySopId(sopId)).thenReturn(expectedStages);
+        when(sopRepository.findStagesBySopId(sopId)).thenReturn(expectedStages);
 
         // Act
         List<WorkflowStage> actualStages = workflowStageService.getStagesBySopId(sopId);
@@ -62,14 +102,13 @@ class WorkflowStageServiceTest {
         // Assert
         assertNotNull(actualStages);
         assertEquals(expectedStages.size(), actualStages.size());
-        verify(workflowStageRepository).findBySopId(sopId);
+        verify(sopRepository).findStagesBySopId(sopId);
     }
 
     @Test
     void getStageBySopIdAndUserId_Success() {
         // Arrange
-        when(workflowStageRepository.findFirstBySopIdAndUserId(sopId, userId))
-                .thenReturn(Optional.of(workflowStage));
+        when(sopRepository.findStagesBySopId(sopId)).thenReturn(List.of(workflowStage));
 
         // Act
         WorkflowStage result = workflowStageService.getStageBySopIdAndUserId(sopId, userId);
@@ -84,8 +123,9 @@ class WorkflowStageServiceTest {
     @Test
     void getStageBySopIdAndUserId_ThrowsNotFoundException() {
         // Arrange
-        when(workflowStageRepository.findFirstBySopIdAndUserId(sopId, userId))
-                .thenReturn(Optional.empty());
+        WorkflowStage otherStage = new WorkflowStage();
+        otherStage.setUserId(UUID.randomUUID());
+        when(sopRepository.findStagesBySopId(sopId)).thenReturn(List.of(otherStage));
 
         // Act & Assert
         assertThrows(NotFoundException.class, () ->
@@ -93,7 +133,7 @@ class WorkflowStageServiceTest {
     }
 
     @Test
-    void updateStage_Success() {
+    void transitionStage_Success() {
         // Arrange
         UpdateStageDto updateStageDto = UpdateStageDto.builder()
                 .approvalStatus(ApprovalStatus.APPROVED)
@@ -104,35 +144,249 @@ class WorkflowStageServiceTest {
         newComment.setId("comment-123");
         newComment.setContent(updateStageDto.getComment());
 
-        when(workflowStageRepository.findFirstBySopIdAndUserId(sopId, userId))
-                .thenReturn(Optional.of(workflowStage));
-        when(commentService.saveComment(any(), any(), any())).thenReturn(newComment);
-        when(workflowStageRepository.save(any(WorkflowStage.class))).thenReturn(workflowStage);
+        SOP sop = createSop();
+        SOP updatedSop = createSop();
+        Consumer<SOP> onApplied = mock(Consumer.class);
+        when(sopRepository.findById(sopId)).thenReturn(Optional.of(sop));
+        when(commentService.newComment(any(), any(), any())).thenReturn(newComment);
+        when(sopRepository.transitionStage(any(WorkflowStateMachine.Transition.class), any(CommentSummary.class)))
+                .thenReturn(Optional.of(updatedSop));
 
         // Act
-        WorkflowStage result = workflowStageService.updateStage(userId, sopId, updateStageDto);
+        SOP result = workflowStageService.transitionStage(sopId, userId, Roles.REVIEWER, updateStageDto, onApplied);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(ApprovalStatus.APPROVED, result.getApprovalStatus());
-        verify(commentService).saveComment(eq(userId), eq(workflowStage.getId()), eq(updateStageDto.getComment()));
-        verify(workflowStageRepository).save(any(WorkflowStage.class));
+        assertSame(updatedSop, result);
+        verify(commentService).newComment(eq(userId), eq(workflowStage.getId()), eq(updateStageDto.getComment()));
+        verify(commentService).saveComment(newComment);
+        verify(onApplied).accept(updatedSop);
+        verify(sopRepository).transitionStage(
+                argThat(transition -> transition.to() == ApprovalStatus.APPROVED
+                        && transition.from().contains(ApprovalStatus.PENDING)
+                        && !transition.versionGuarded()),
+                argThat(summary -> "comment-123".equals(summary.getCommentId())));
+        verify(outboxService).publish(eq("sop-stage-updated"), any(SOPDto.class));
     }
 
     @Test
-    void updateStage_ThrowsBadRequestException_WhenRevisionWithoutComment() {
+    void transitionStage_ThrowsBadRequestException_WhenRevisionWithoutComment() {
         // Arrange
         UpdateStageDto updateStageDto = UpdateStageDto.builder()
                 .approvalStatus(ApprovalStatus.REVISION)
                 .comment(null)
                 .build();
 
-        when(workflowStageRepository.findFirstBySopIdAndUserId(sopId, userId))
-                .thenReturn(Optional.of(workflowStage));
+        // Act & Assert
+        assertThrows(BadRequestException.class, () ->
+                workflowStageService.transitionStage(sopId, userId, Roles.REVIEWER, updateStageDto, updated -> { }));
+        verify(sopRepository, never()).transitionStage(any(), any());
+    }
+
+    @Test
+    void transitionStage_RetriesOnANewReadWhenTheUpdateMissed() {
+        // Arrange
+        UpdateStageDto updateStageDto = UpdateStageDto.builder()
+                .approvalStatus(ApprovalStatus.APPROVED)
+                .build();
+
+        SOP updatedSop = createSop();
+        when(sopRepository.findById(sopId)).thenReturn(Optional.of(createSop()));
+        when(sopRepository.transitionStage(any(WorkflowStateMachine.Transition.class), isNull()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(updatedSop));
+
+        // Act
+        SOP result = workflowStageService.transitionStage(sopId, userId, Roles.REVIEWER, updateStageDto, updated -> { });
+
+        // Assert
+        assertSame(updatedSop, result);
+        verify(sopRepository, times(2)).findById(sopId);
+        verify(outboxService, times(1)).publish(eq("sop-stage-updated"), any(SOPDto.class));
+    }
+
+    @Test
+    void transitionStage_ThrowsConflictException_WhenEveryAttemptMissed() {
+        // Arrange
+        UpdateStageDto updateStageDto = UpdateStageDto.builder()
+                .approvalStatus(ApprovalStatus.APPROVED)
+                .build();
+
+        when(sopRepository.findById(sopId)).thenReturn(Optional.of(createSop()));
+        when(sopRepository.transitionStage(any(WorkflowStateMachine.Transition.class), isNull()))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () ->
+                workflowStageService.transitionStage(sopId, userId, Roles.REVIEWER, updateStageDto, updated -> { }));
+        verify(sopRepository, times(5)).transitionStage(any(), any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void transitionStage_ThrowsBadRequestException_WhenStageCannotMove() {
+        // Arrange
+        workflowStage.setApprovalStatus(ApprovalStatus.APPROVED);
+        UpdateStageDto updateStageDto = UpdateStageDto.builder()
+                .approvalStatus(ApprovalStatus.APPROVED)
+                .build();
+
+        when(sopRepository.findById(sopId)).thenReturn(Optional.of(createSop()));
 
         // Act & Assert
         assertThrows(BadRequestException.class, () ->
-                workflowStageService.updateStage(userId, sopId, updateStageDto));
+                workflowStageService.transitionStage(sopId, userId, Roles.REVIEWER, updateStageDto, updated -> { }));
+        verify(sopRepository, never()).transitionStage(any(), any());
+    }
+
+    @Test
+    void transitionStage_ThrowsBadRequestException_WhenApprovingBeforeAllReviewersApproved() {
+        // Arrange
+        UUID approverId = UUID.randomUUID();
+        WorkflowStage approverStage = new WorkflowStage();
+        approverStage.setUserId(approverId);
+        approverStage.setRoleRequired(Roles.APPROVER);
+        approverStage.setApprovalStatus(ApprovalStatus.PENDING);
+
+        SOP sop = createSop();
+        sop.setWorkflowStages(List.of(workflowStage, approverStage));
+        UpdateStageDto updateStageDto = UpdateStageDto.builder()
+                .approvalStatus(ApprovalStatus.APPROVED)
+                .build();
+
+        when(sopRepository.findById(sopId)).thenReturn(Optional.of(sop));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () ->
+                workflowStageService.transitionStage(sopId, approverId, Roles.APPROVER, updateStageDto, updated -> { }));
+        verify(sopRepository, never()).transitionStage(any(), any());
+    }
+
+    @Test
+    void transitionStage_RetriesWhenTheTransactionHitAWriteConflict() {
+        // Arrange
+        UpdateStageDto updateStageDto = UpdateStageDto.builder()
+                .approvalStatus(ApprovalStatus.APPROVED)
+                .build();
+
+        MongoException writeConflict = new MongoException(112, "WriteConflict");
+        writeConflict.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+        SOP updatedSop = createSop();
+        when(sopRepository.findById(sopId)).thenReturn(Optional.of(createSop()));
+        when(sopRepository.transitionStage(any(WorkflowStateMachine.Transition.class), isNull()))
+                .thenThrow(new UncategorizedMongoDbException("WriteConflict", writeConflict))
+                .thenReturn(Optional.of(updatedSop));
+
+        // Act
+        SOP result = workflowStageService.transitionStage(sopId, userId, Roles.REVIEWER, updateStageDto, updated -> { });
+
+        // Assert
+        assertSame(updatedSop, result);
+        verify(outboxService, times(1)).publish(eq("sop-stage-updated"), any(SOPDto.class));
+    }
+
+    @Test
+    void transitionStage_ApprovalIsGuardedByTheVersionRead() {
+        // Arrange
+        UUID approverId = UUID.randomUUID();
+        workflowStage.setApprovalStatus(ApprovalStatus.APPROVED);
+        WorkflowStage approverStage = new WorkflowStage();
+        approverStage.setId("stage-456");
+        approverStage.setUserId(approverId);
+        approverStage.setRoleRequired(Roles.APPROVER);
+        approverStage.setApprovalStatus(ApprovalStatus.PENDING);
+
+        SOP sop = createSop();
+        sop.setVersion(7L);
+        sop.setWorkflowStages(List.of(workflowStage, approverStage));
+        UpdateStageDto updateStageDto = UpdateStageDto.builder()
+                .approvalStatus(ApprovalStatus.APPROVED)
+                .build();
+
+        when(sopRepository.findById(sopId)).thenReturn(Optional.of(sop));
+        when(sopRepository.transitionStage(any(WorkflowStateMachine.Transition.class), isNull()))
+                .thenReturn(Optional.of(sop));
+
+        // Act
+        workflowStageService.transitionStage(sopId, approverId, Roles.APPROVER, updateStageDto, updated -> { });
+
+        // Assert
+        verify(sopRepository).transitionStage(
+                argThat(transition -> transition.versionGuarded() && transition.version() == 7L),
+                isNull());
+    }
+
+    @Test
+    void transitionStages_AppliesTheValidItemsInOneBulkWrite() {
+        // Arrange
+        List<BulkReviewItemDto> items = List.of(
+                createItem(sopId, ApprovalStatus.APPROVED),
+                createItem("missing-sop", ApprovalStatus.APPROVED),
+                createItem(sopId, ApprovalStatus.APPROVED));
+        SOP sop = createSop();
+        SOP updatedSop = createSop();
+        when(sopRepository.findAllById(any()))
+                .thenReturn(List.of(sop))
+                .thenReturn(List.of(updatedSop));
+        when(sopRepository.transitionStages(anyList(), anyList())).thenReturn(1);
+        OutboxEvent reviewed = OutboxEvent.builder().topic("sop-reviewed").build();
+
+        // Act
+        List<BulkReviewResultDto> results = workflowStageService.transitionStages(userId, items,
+                (updated, item) -> List.of(reviewed));
+
+        // Assert
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("SOP not found", results.get(1).getMessage());
+        assertEquals("SOP appears more than once in the request", results.get(2).getMessage());
+        verify(sopRepository).transitionStages(argThat(transitions -> transitions.size() == 1), anyList());
+        verify(outboxService).publishAll(argThat(events -> events.size() == 2
+                && "sop-stage-updated".equals(events.get(0).getTopic())
+                && events.get(1) == reviewed));
+        verify(sopCacheService).evictSop(sopId);
+        verify(sopCacheService).evictStage(sopId, userId);
+        verifyNoMoreInteractions(sopCacheService);
+    }
+
+    @Test
+    void transitionStages_RetriesTheBatchWhenAMoveMissed() {
+        // Arrange
+        List<BulkReviewItemDto> items = List.of(createItem(sopId, ApprovalStatus.APPROVED));
+        when(sopRepository.findAllById(any())).thenAnswer(invocation -> List.of(createSop()));
+        when(sopRepository.transitionStages(anyList(), anyList()))
+                .thenReturn(0)
+                .thenReturn(1);
+
+        // Act
+        List<BulkReviewResultDto> results = workflowStageService.transitionStages(userId, items, (updated, item) -> List.of());
+
+        // Assert
+        assertTrue(results.get(0).isSuccess());
+        verify(sopRepository, times(2)).transitionStages(anyList(), anyList());
+        verify(outboxService, times(1)).publishAll(anyList());
+    }
+
+    @Test
+    void transitionStages_DoesNotWriteWhenNoItemIsValid() {
+        // Arrange
+        List<BulkReviewItemDto> items = List.of(createItem(sopId, ApprovalStatus.REVISION));
+        when(sopRepository.findAllById(any())).thenReturn(List.of(createSop()));
+
+        // Act
+        List<BulkReviewResultDto> results = workflowStageService.transitionStages(userId, items, (updated, item) -> List.of());
+
+        // Assert
+        assertFalse(results.get(0).isSuccess());
+        verify(sopRepository, never()).transitionStages(anyList(), anyList());
+        verifyNoInteractions(outboxService, sopCacheService);
+    }
+
+    private BulkReviewItemDto createItem(String itemSopId, ApprovalStatus approvalStatus) {
+        return BulkReviewItemDto.builder()
+                .sopId(itemSopId)
+                .action(ReviewAction.REVIEW)
+                .approvalStatus(approvalStatus)
+                .build();
     }
 
     @Test
@@ -144,7 +398,7 @@ class WorkflowStageServiceTest {
         stage2.setApprovalStatus(ApprovalStatus.APPROVED);
         List<WorkflowStage> approvedStages = Arrays.asList(stage1, stage2);
 
-        when(workflowStageRepository.findBySopId(sopId)).thenReturn(approvedStages);
+        when(sopRepository.findStagesBySopId(sopId)).thenReturn(approvedStages);
 
         // Act
         boolean result = workflowStageService.isSopApproved(sopId);
@@ -162,7 +416,7 @@ class WorkflowStageServiceTest {
         stage2.setApprovalStatus(ApprovalStatus.PENDING);
         List<WorkflowStage> mixedStages = Arrays.asList(stage1, stage2);
 
-        when(workflowStageRepository.findBySopId(sopId)).thenReturn(mixedStages);
+        when(sopRepository.findStagesBySopId(sopId)).thenReturn(mixedStages);
 
         // Act
         boolean result = workflowStageService.isSopApproved(sopId);
@@ -172,31 +426,28 @@ class WorkflowStageServiceTest {
     }
 
     @Test
-    void saveStages_Success() {
+    void updateStageStatus_Success() {
         // Arrange
-        List<WorkflowStage> stages = Arrays.asList(workflowStage);
-        when(workflowStageRepository.saveAll(stages)).thenReturn(stages);
+        workflowStage.setApprovalStatus(ApprovalStatus.APPROVED);
+        when(sopRepository.updateStage(sopId, userId, ApprovalStatus.APPROVED, null))
+                .thenReturn(Optional.of(workflowStage));
 
         // Act
-        List<WorkflowStage> result = workflowStageService.saveStages(stages);
+        WorkflowStage result = workflowStageService.updateStageStatus(sopId, userId, ApprovalStatus.APPROVED);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(stages.size(), result.size());
-        verify(workflowStageRepository).saveAll(stages);
+        assertEquals(ApprovalStatus.APPROVED, result.getApprovalStatus());
+        verify(sopRepository).updateStage(sopId, userId, ApprovalStatus.APPROVED, null);
     }
 
     @Test
-    void saveStage_Success() {
+    void updateStageStatus_ThrowsNotFoundException_WhenUserNotAssigned() {
         // Arrange
-        when(workflowStageRepository.save(workflowStage)).thenReturn(workflowStage);
-
-        // Act
-        WorkflowStage result = workflowStageService.saveStage(workflowStage);
+        when(sopRepository.updateStage(sopId, userId, ApprovalStatus.PENDING, null))
+                .thenReturn(Optional.empty());
 
-        // Assert
-        assertNotNull(result);
-        assertEquals(workflowStage.getId(), result.getId());
-        verify(workflowStageRepository).save(workflowStage);
+        // Act & Assert
+        assertThrows(NotFoundException.class, () ->
+                workflowStageService.updateStageStatus(sopId, userId, ApprovalStatus.PENDING));
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.user_management_service.user_management_service.config;
 
 import com.user_management_service.user_management_service.dtos.CustomUserDto;
+import com.user_management_service.user_management_service.dtos.DepartmentUpdatedDto;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -38,4 +39,9 @@ public class KafkaProducerConfig {
             ProducerFactory<String, CustomUserDto> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
-}
\ No newline at end of file
+
+    @Bean
+    public KafkaTemplate<String, DepartmentUpdatedDto> departmentKafkaTemplate() {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerConfig()));
+    }
+}
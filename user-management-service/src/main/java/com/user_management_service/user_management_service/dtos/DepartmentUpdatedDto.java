@@ -0,0 +1,16 @@
+package com.user_management_service.user_management_service.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// published when a department is renamed, services keeping the department name refresh their copies
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentUpdatedDto {
+    private UUID id;
+    private String name;
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
@@ -23,6 +24,9 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     List<User> findByDepartmentId(UUID departmentId);
     List<User> findByEmailVerifiedFalse();
 
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.department WHERE u.id IN :ids")
+    List<User> findAllWithDepartmentByIdIn(@Param("ids") Collection<UUID> ids);
+
     // Activity related queries
     @Query("SELECT u FROM User u WHERE u.lastLogin < :date")
     List<User> findByLastLoginBefore(@Param("date") LocalDateTime date);
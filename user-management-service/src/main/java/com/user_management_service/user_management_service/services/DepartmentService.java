@@ -6,6 +6,7 @@ import com.user_management_service.user_management_service.exceptions.ResourceNo
 import com.user_management_service.user_management_service.models.Department;
 import com.user_management_service.user_management_service.dtos.DepartmentCreationDTO;
 import com.user_management_service.user_management_service.dtos.DepartmentDTO;
+import com.user_management_service.user_management_service.dtos.DepartmentUpdatedDto;
 import com.user_management_service.user_management_service.dtos.DepartmentUpdateDTO;
 import com.user_management_service.user_management_service.exceptions.DepartmentAlreadyExistsException;
 import com.user_management_service.user_management_service.exceptions.DepartmentNotEmptyException;
@@ -14,6 +15,7 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -21,6 +23,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -32,6 +35,7 @@ import java.util.stream.Collectors;
 public class DepartmentService {
     private final DepartmentRepository departmentRepository;
     private final UserService userService;
+    private final KafkaTemplate<String, DepartmentUpdatedDto> departmentKafkaTemplate;
 
     private static final int MAX_DEPARTMENT_NAME_LENGTH = 100;
     private static final int MAX_DEPARTMENT_DESCRIPTION_LENGTH = 500;
@@ -93,6 +97,13 @@ public class DepartmentService {
         return convertToDTO(department);
     }
 
+    public List<Department> getActiveDepartmentsByIds(Collection<UUID> ids) {
+        log.info("Fetching {} departments by ID", ids.size());
+        return departmentRepository.findAllById(ids).stream()
+                .filter(Department::isActive)
+                .collect(Collectors.toList());
+    }
+
     @Cacheable(value = "departments")
     public List<DepartmentDTO> getAllDepartments() {
         log.info("Fetching all active departments");
@@ -133,6 +144,7 @@ public class DepartmentService {
                 );
             }
 
+            String previousName = department.getName();
             department.setName(updateDTO.getName().trim());
             department.setDescription(updateDTO.getDescription() != null ?
                     updateDTO.getDescription().trim() : null);
@@ -141,6 +153,12 @@ public class DepartmentService {
             Department updatedDepartment = departmentRepository.save(department);
             log.info("Department updated successfully");
 
+            // sop views keep the department name, keyed by department so renames arrive in order
+            if (!updatedDepartment.getName().equals(previousName)) {
+                departmentKafkaTemplate.send("department-updated", updatedDepartment.getId().toString(),
+                        new DepartmentUpdatedDto(updatedDepartment.getId(), updatedDepartment.getName()));
+            }
+
             return convertToDTO(updatedDepartment);
 
         } catch (DataIntegrityViolationException e) {
@@ -2,6 +2,7 @@ package com.user_management_service.user_management_service.services;
 
 import com.user_management_service.user_management_service.dtos.DepartmentDTO;
 import com.user_management_service.user_management_service.dtos.UserResponseDTO;
+import com.user_management_service.user_management_service.models.Department;
 import com.user_management_service.user_management_service.models.User;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +10,7 @@ import net.devh.boot.grpc.server.service.GrpcService;
 import org.springframework.beans.factory.annotation.Autowired;
 import userService.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -77,4 +79,74 @@ public class UserInfoService extends userServiceGrpc.userServiceImplBase {
             responseObserver.onCompleted();
         }
     }
+
+    @Override
+    public void getUsersInfo(getUsersInfoRequest request, StreamObserver<getUsersInfoResponse> responseObserver) {
+        try {
+            log.info("Fetching user info for {} users", request.getUserIdsCount());
+            List<UUID> userIds = request.getUserIdsList().stream()
+                    .map(UUID::fromString)
+                    .distinct()
+                    .toList();
+
+            List<User> users = userService.getUsersByIds(userIds);
+
+            getUsersInfoResponse.Builder response = getUsersInfoResponse.newBuilder()
+                    .setSuccess(true);
+
+            for (User user : users) {
+                response.addUsers(userInfo.newBuilder()
+                        .setUserId(user.getId().toString())
+                        .setName(user.getName())
+                        .setProfilePictureUrl(user.getProfilePictureUrl() != null ? user.getProfilePictureUrl() : "")
+                        .setDepartmentName(user.getDepartment() != null ? user.getDepartment().getName() : "")
+                        .build());
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("Error fetching user info by user ids: ", e);
+            getUsersInfoResponse response = getUsersInfoResponse.newBuilder()
+                    .setSuccess(false)
+                    .setErrorMessage("Failed to get user info by user ids: " + e.getMessage())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
+
+    @Override
+    public void getDepartmentNames(getDepartmentNamesRequest request, StreamObserver<getDepartmentNamesResponse> responseObserver) {
+        try {
+            log.info("Fetching department names for {} departments", request.getDepartmentIdsCount());
+            List<UUID> departmentIds = request.getDepartmentIdsList().stream()
+                    .map(UUID::fromString)
+                    .distinct()
+                    .toList();
+
+            List<Department> departments = departmentService.getActiveDepartmentsByIds(departmentIds);
+
+            getDepartmentNamesResponse.Builder response = getDepartmentNamesResponse.newBuilder()
+                    .setSuccess(true);
+
+            for (Department department : departments) {
+                response.addDepartments(departmentInfo.newBuilder()
+                        .setDepartmentId(department.getId().toString())
+                        .setDepartmentName(department.getName())
+                        .build());
+            }
+
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("Error fetching department names by ids: ", e);
+            getDepartmentNamesResponse response = getDepartmentNamesResponse.newBuilder()
+                    .setSuccess(false)
+                    .setErrorMessage("Failed to fetch department names by ids: " + e.getMessage())
+                    .build();
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        }
+    }
 }
@@ -57,6 +57,7 @@ public class UserProfileService {
 
         User updatedUser = userRepository.save(user);
         auditService.logUserUpdate(user.getId(), user.getEmail());
+        publishProfileUpdated(user);
         return mapToUserProfileDTO(updatedUser);
     }
 
@@ -77,6 +78,7 @@ public class UserProfileService {
 
             User updatedUser = userRepository.save(user);
             auditService.logProfilePictureUpdate(user.getId(), user.getEmail());
+            publishProfileUpdated(user);
             return mapToUserProfileDTO(updatedUser);
         } catch (IOException e) {
             throw new RuntimeException("Failed to upload profile picture", e);
@@ -94,6 +96,7 @@ public class UserProfileService {
             user.setProfilePictureUrl(null);
             User updatedUser = userRepository.save(user);
             auditService.logProfilePictureUpdate(user.getId(), user.getEmail());
+            publishProfileUpdated(user);
             return mapToUserProfileDTO(updatedUser);
         }
         return mapToUserProfileDTO(user);
@@ -124,6 +127,16 @@ public class UserProfileService {
         auditService.logPasswordChange(user.getId(), user.getEmail());
     }
 
+    // services showing user names or pictures (the sop detail views) refresh their copies from this
+    private void publishProfileUpdated(User user) {
+        CustomUserDto customUserDto = new CustomUserDto();
+        customUserDto.setId(user.getId());
+        customUserDto.setEmail(user.getEmail());
+        customUserDto.setName(user.getName());
+
+        kafkaTemplate.send("user-profile-updated", customUserDto);
+    }
+
     private UserProfileDTO mapToUserProfileDTO(User user) {
         UserProfileDTO dto = new UserProfileDTO();
         dto.setId(user.getId());
@@ -20,6 +20,7 @@ import sopService.AssignRoleResponse;
 import sopService.GetRoleByUserIdResponse;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -112,6 +113,11 @@ public class  UserService {
         return mapToUserResponseDTO(user, userRole);
     }
 
+    public List<User> getUsersByIds(Collection<UUID> ids) {
+        log.debug("Fetching {} users by ID", ids.size());
+        return userRepository.findAllWithDepartmentByIdIn(ids);
+    }
+
     @Transactional
     @CachePut(value = "user", key = "#id")
     public UserResponseDTO updateUser(UUID id, UserUpdateDTO updateDTO) {
@@ -142,6 +148,7 @@ public class  UserService {
         }
 
         auditService.logUserUpdate(user.getId(), user.getEmail());
+        publishProfileUpdated(updatedUser);
 
         return mapToUserResponseDTO(updatedUser, userRole);
     }
@@ -335,6 +342,16 @@ public class  UserService {
     }
 
 
+    // renames by an admin reach the sop detail views like the user's own profile edits
+    private void publishProfileUpdated(User user) {
+        CustomUserDto customUserDto = new CustomUserDto();
+        customUserDto.setId(user.getId());
+        customUserDto.setEmail(user.getEmail());
+        customUserDto.setName(user.getName());
+
+        kafkaTemplate.send("user-profile-updated", customUserDto);
+    }
+
     private UserResponseDTO mapToUserResponseDTO(User user, GetRoleByUserIdResponse userRole) {
         UserResponseDTO dto = new UserResponseDTO();
         dto.setId(user.getId());
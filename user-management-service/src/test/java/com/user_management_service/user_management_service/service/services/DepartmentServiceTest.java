@@ -6,6 +6,7 @@ import com.user_management_service.user_management_service.models.Department;
 import com.user_management_service.user_management_service.dtos.DepartmentCreationDTO;
 import com.user_management_service.user_management_service.dtos.DepartmentDTO;
 import com.user_management_service.user_management_service.dtos.DepartmentUpdateDTO;
+import com.user_management_service.user_management_service.dtos.DepartmentUpdatedDto;
 import com.user_management_service.user_management_service.repositories.DepartmentRepository;
 import com.user_management_service.user_management_service.services.DepartmentService;
 import com.user_management_service.user_management_service.services.UserService;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -35,6 +37,9 @@ class DepartmentServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private KafkaTemplate<String, DepartmentUpdatedDto> departmentKafkaTemplate;
+
     @InjectMocks
     private DepartmentService departmentService;
 
@@ -161,6 +166,24 @@ class DepartmentServiceTest {
         assertEquals(updateDTO.getDescription(), result.getDescription());
         verify(departmentRepository).findById(departmentId);
         verify(departmentRepository).save(any(Department.class));
+        verify(departmentKafkaTemplate).send("department-updated", departmentId.toString(),
+                new DepartmentUpdatedDto(departmentId, updateDTO.getName()));
+    }
+
+    @Test
+    void updateDepartment_WhenNameUnchanged_ShouldNotPublishRename() {
+        // Arrange
+        updateDTO.setName(department.getName());
+        when(departmentRepository.findById(departmentId)).thenReturn(Optional.of(department));
+        when(departmentRepository.save(any(Department.class))).thenReturn(department);
+        when(userService.getDepartmentUsersCount(departmentId)).thenReturn(5L);
+
+        // Act
+        departmentService.updateDepartment(departmentId, updateDTO);
+
+        // Assert
+        verify(departmentRepository).save(any(Department.class));
+        verifyNoInteractions(departmentKafkaTemplate);
     }
 
     @Test
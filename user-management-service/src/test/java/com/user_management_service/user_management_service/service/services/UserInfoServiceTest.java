@@ -2,6 +2,8 @@ package com.user_management_service.user_management_service.service.services;
 
 import com.user_management_service.user_management_service.dtos.DepartmentDTO;
 import com.user_management_service.user_management_service.dtos.UserResponseDTO;
+import com.user_management_service.user_management_service.models.Department;
+import com.user_management_service.user_management_service.models.User;
 import com.user_management_service.user_management_service.services.DepartmentService;
 import com.user_management_service.user_management_service.services.UserInfoService;
 import com.user_management_service.user_management_service.services.UserService;
@@ -18,7 +20,10 @@ import userService.getDepartmentNameRequest;
 import userService.getDepartmentNameResponse;
 import userService.getUserInfoRequest;
 import userService.getUserInfoResponse;
+import userService.getUsersInfoRequest;
+import userService.getUsersInfoResponse;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -191,4 +196,41 @@ class UserInfoServiceTest {
         assertFalse(capturedResponse.getSuccess());
         assertTrue(capturedResponse.getErrorMessage().contains("Failed to fetch department name"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUsersInfo_WhenSuccessful_ShouldLookUpEachUserOnce() {
+        // Arrange
+        Department department = new Department();
+        department.setName("IT Department");
+
+        User user = new User();
+        user.setId(userId);
+        user.setName("Test User");
+        user.setDepartment(department);
+
+        getUsersInfoRequest request = getUsersInfoRequest.newBuilder()
+                .addUserIds(userId.toString())
+                .addUserIds(userId.toString())
+                .build();
+
+        when(userService.getUsersByIds(List.of(userId))).thenReturn(List.of(user));
+
+        @SuppressWarnings("unchecked")
+        StreamObserver<getUsersInfoResponse> usersInfoResponseObserver = mock(StreamObserver.class);
+        ArgumentCaptor<getUsersInfoResponse> usersInfoResponseCaptor = ArgumentCaptor.forClass(getUsersInfoResponse.class);
+
+        // Act
+        userInfoService.getUsersInfo(request, usersInfoResponseObserver);
+
+        // Assert
+        verify(usersInfoResponseObserver).onNext(usersInfoResponseCaptor.capture());
+        verify(usersInfoResponseObserver).onCompleted();
+
+        getUsersInfoResponse capturedResponse = usersInfoResponseCaptor.getValue();
+        assertTrue(capturedResponse.getSuccess());
+        assertEquals(1, capturedResponse.getUsersCount());
+        assertEquals(userId.toString(), capturedResponse.getUsers(0).getUserId());
+        assertEquals("", capturedResponse.getUsers(0).getProfilePictureUrl());
+        assertEquals("IT Department", capturedResponse.getUsers(0).getDepartmentName());
+    }
+}
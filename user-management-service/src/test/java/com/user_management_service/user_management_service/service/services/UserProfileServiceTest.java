@@ -123,6 +123,7 @@ class UserProfileServiceTest {
         assertEquals("Updated Name", savedUser.getName());
         assertEquals("+9876543210", savedUser.getPhoneNumber());
         verify(auditService).logUserUpdate(userId, testUser.getEmail());
+        verify(kafkaTemplate).send(eq("user-profile-updated"), any(CustomUserDto.class));
     }
 
     @Test
@@ -182,6 +182,10 @@ class UserServiceTest {
         assertNotNull(result);
         verify(userRepository).save(any(User.class));
         verify(auditService).logUserUpdate(any(), any());
+        ArgumentCaptor<CustomUserDto> published = ArgumentCaptor.forClass(CustomUserDto.class);
+        verify(kafkaTemplate).send(eq("user-profile-updated"), published.capture());
+        assertEquals(userId, published.getValue().getId());
+        assertEquals("Updated Name", published.getValue().getName());
     }
 
     @Test
@@ -3,10 +3,12 @@ package com.version_control_service.version_control_service;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
 @EnableMongoAuditing
+@EnableScheduling
 public class VersionControlServiceApplication {
 
     public static void main(String[] args) {
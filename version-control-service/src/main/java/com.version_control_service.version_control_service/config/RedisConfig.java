@@ -3,6 +3,8 @@ package com.version_control_service.version_control_service.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.version_control_service.version_control_service.service.VersionContentStore;
+import com.version_control_service.version_control_service.service.VersionDiffService;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -13,6 +15,8 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
+import java.time.Duration;
+
 @Configuration
 @EnableCaching
 public class RedisConfig {
@@ -33,6 +37,9 @@ public class RedisConfig {
 
         return RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(redisCacheConfiguration)
+                // rebuilt version contents never go stale, the ttl only bounds how many are kept
+                .withCacheConfiguration(VersionContentStore.CACHE, redisCacheConfiguration.entryTtl(Duration.ofHours(24)))
+                .withCacheConfiguration(VersionDiffService.CACHE, redisCacheConfiguration.entryTtl(Duration.ofHours(24)))
                 .build();
     }
 }
\ No newline at end of file
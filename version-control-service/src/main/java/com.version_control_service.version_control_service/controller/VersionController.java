@@ -1,8 +1,11 @@
 package com.version_control_service.version_control_service.controller;
 
+import com.version_control_service.version_control_service.dto.CursorPage;
+import com.version_control_service.version_control_service.dto.SopVersionDiffDto;
 import com.version_control_service.version_control_service.dto.SopVersionDto;
 import com.version_control_service.version_control_service.model.Version;
 import com.version_control_service.version_control_service.service.SopVersionService;
+import com.version_control_service.version_control_service.service.VersionDiffService;
 import com.version_control_service.version_control_service.utils.Response;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -13,10 +16,12 @@ import java.util.List;
 @RequestMapping("/api/v1/versions")
 public class VersionController {
     private final SopVersionService sopVersionService;
+    private final VersionDiffService versionDiffService;
 
     @Autowired
-    public VersionController(SopVersionService sopVersionService) {
+    public VersionController(SopVersionService sopVersionService, VersionDiffService versionDiffService) {
         this.sopVersionService = sopVersionService;
+        this.versionDiffService = versionDiffService;
     }
 
     @PutMapping("/{sopId}")
@@ -32,10 +37,27 @@ public class VersionController {
         return new Response<>(true, "Versions fetched successfully", versions);
     }
 
+    @GetMapping("/{sopId}/history")
+    public Response<CursorPage<SopVersionDto>> getVersionHistory(@PathVariable String sopId,
+                                                                 @RequestParam(name = "cursor", required = false) String cursor,
+                                                                 @RequestParam(name = "limit", required = false) Integer limit) {
+        CursorPage<SopVersionDto> versions = sopVersionService.getSopVersionHistory(sopId, cursor, limit);
+        return new Response<>(true, "Version history fetched successfully", versions);
+    }
+
     @GetMapping("/{sopId}/compare")
-    public Response<List<Version>> compareSopVersions(@RequestParam(name = "firstVersion") Float firstVersion,
-                                                      @RequestParam(name = "secondVersion") Float secondVersion,
-                                                      @PathVariable String sopId) {
+    public Response<SopVersionDiffDto> compareSopVersions(@RequestParam(name = "firstVersion") Float firstVersion,
+                                                          @RequestParam(name = "secondVersion") Float secondVersion,
+                                                          @PathVariable String sopId) {
+        SopVersionDiffDto diff = versionDiffService.diffSopVersions(sopId, firstVersion, secondVersion);
+        return new Response<>(true, "Versions compared successfully", diff);
+    }
+
+    // both versions in full, for clients rendering their own comparison
+    @GetMapping("/{sopId}/compare/documents")
+    public Response<List<Version>> getVersionsToCompare(@RequestParam(name = "firstVersion") Float firstVersion,
+                                                        @RequestParam(name = "secondVersion") Float secondVersion,
+                                                        @PathVariable String sopId) {
         List<Version> versions = sopVersionService.compareSopVersions(sopId, firstVersion, secondVersion);
         return new Response<>(true, "Versions to compare fetched successfully", versions);
     }
@@ -0,0 +1,26 @@
+package com.version_control_service.version_control_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentDiffDto {
+    // changed fields besides the body
+    private List<FieldChangeDto> fields;
+    private List<String> documentsAdded;
+    private List<String> documentsRemoved;
+    private DiffStatsDto stats;
+    // the body's changed lines with up to three unchanged lines around them
+    private List<DiffHunkDto> hunks;
+    // too many lines changed for a line by line diff, everything between the first and last change is one replacement
+    private boolean approximate;
+    // hunks past the size limit were left out, the stats still count them
+    private boolean truncated;
+}
@@ -0,0 +1,28 @@
+package com.version_control_service.version_control_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// one page of a keyset paginated listing, nextCursor is passed back as ?cursor= to fetch the following page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasNext;
+
+    public static int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
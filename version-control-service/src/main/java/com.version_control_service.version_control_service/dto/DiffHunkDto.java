@@ -0,0 +1,21 @@
+package com.version_control_service.version_control_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// line numbers start at 1, as in a unified diff
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiffHunkDto {
+    private int fromLine;
+    private int fromCount;
+    private int toLine;
+    private int toCount;
+    private List<DiffLineDto> lines;
+}
@@ -0,0 +1,24 @@
+package com.version_control_service.version_control_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.version_control_service.version_control_service.enums.DiffOp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// a changed line has segments instead of text
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DiffLineDto {
+    private DiffOp op;
+    private String text;
+    // characters cut from the middle of a long unchanged line
+    private Integer skipped;
+    private List<DiffSegmentDto> segments;
+}
@@ -0,0 +1,21 @@
+package com.version_control_service.version_control_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.version_control_service.version_control_service.enums.DiffOp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// a run of words of a changed line
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DiffSegmentDto {
+    private DiffOp op;
+    private String text;
+    // characters cut from the middle of a long unchanged run
+    private Integer skipped;
+}
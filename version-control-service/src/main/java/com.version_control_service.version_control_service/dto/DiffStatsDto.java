@@ -0,0 +1,19 @@
+package com.version_control_service.version_control_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiffStatsDto {
+    private int linesAdded;
+    private int linesRemoved;
+    private int linesChanged;
+    private int wordsAdded;
+    private int wordsRemoved;
+    private int hunks;
+}
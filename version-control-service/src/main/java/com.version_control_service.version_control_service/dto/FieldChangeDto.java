@@ -0,0 +1,16 @@
+package com.version_control_service.version_control_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FieldChangeDto {
+    private String field;
+    private String from;
+    private String to;
+}
@@ -0,0 +1,17 @@
+package com.version_control_service.version_control_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SopVersionDiffDto {
+    private String sopId;
+    private Float fromVersion;
+    private Float toVersion;
+    private ContentDiffDto diff;
+}
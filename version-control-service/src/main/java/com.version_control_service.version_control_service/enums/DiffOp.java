@@ -0,0 +1,9 @@
+package com.version_control_service.version_control_service.enums;
+
+public enum DiffOp {
+    EQUAL,
+    ADDED,
+    REMOVED,
+    // a line edited in place, its words are in the line's segments
+    CHANGED
+}
@@ -0,0 +1,180 @@
+package com.version_control_service.version_control_service.migration;
+
+import com.version_control_service.version_control_service.model.Version;
+import com.version_control_service.version_control_service.model.VersionContent;
+import com.version_control_service.version_control_service.repository.VersionRepository;
+import com.version_control_service.version_control_service.service.VersionContentStore;
+import com.version_control_service.version_control_service.utils.ContentHash;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Background compaction of the version contents written as full copies before deltas.
+ * The versions of each sop holding such contents are re-encoded in version order, in place so the versions'
+ * references stay valid. Every content reads the same before and after, so the service keeps serving meanwhile,
+ * and a stopped run resumes on the next start since encoded contents no longer match.
+ * Contents stored before reference counting get their count and, unless an equal content already has it, their hash.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VersionContentMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final VersionRepository versionRepository;
+    private final VersionContentStore versionContentStore;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread.ofVirtual().name("version-content-migration").start(() -> {
+            try {
+                migrate();
+            } catch (RuntimeException e) {
+                log.error("Version content migration stopped, it resumes on the next start", e);
+            }
+        });
+    }
+
+    private void migrate() {
+        int migrated = 0;
+        String lastId = null;
+        while (true) {
+            List<String> ids = legacyContentIds(lastId);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            Query referencing = Query.query(Criteria.where("content.$id").in(ids.stream().map(VersionContentMigration::toObjectId).toList()));
+            for (String sopId : mongoTemplate.findDistinct(referencing, "sopId", Version.class, String.class)) {
+                migrateSop(sopId);
+            }
+
+            // contents no version refers to are only marked, the collector deletes them
+            mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(ids).and("depth").exists(false)),
+                    new Update().set("depth", 0), VersionContent.class);
+            mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(ids).and("refCount").exists(false)),
+                    new Update().set("refCount", 0), VersionContent.class);
+
+            migrated += ids.size();
+            lastId = ids.get(ids.size() - 1);
+        }
+
+        if (migrated > 0) {
+            log.info("Encoded and counted {} version contents", migrated);
+        }
+    }
+
+    // full copies written before deltas have no depth, contents written before counting no refCount
+    private List<String> legacyContentIds(String afterId) {
+        Criteria criteria = new Criteria().orOperator(
+                Criteria.where("depth").exists(false),
+                Criteria.where("refCount").exists(false));
+        if (afterId != null) {
+            criteria.and("id").gt(toObjectId(afterId));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(BATCH_SIZE);
+        query.fields().include("id");
+        return mongoTemplate.find(query, VersionContent.class).stream()
+                .map(VersionContent::getId)
+                .toList();
+    }
+
+    private void migrateSop(String sopId) {
+        List<Version> versions = versionRepository.findAllBySopId(sopId).stream()
+                .filter(version -> version.getContent() != null)
+                .sorted(Comparator.comparing(Version::getVersionNumber))
+                .toList();
+
+        List<String> contentIds = versions.stream().map(version -> version.getContent().getId()).distinct().toList();
+        Set<String> unencodedIds = idsWithout("depth", contentIds);
+        Set<String> uncountedIds = idsWithout("refCount", contentIds);
+
+        // versions and deltas referring to each content, deltas of a sop's contents are based on its own contents
+        Map<String, Integer> references = new HashMap<>();
+        Map<String, VersionContent> contents = new HashMap<>();
+        VersionContent previous = null;
+        for (Version version : versions) {
+            VersionContent stored = version.getContent();
+            references.merge(stored.getId(), 1, Integer::sum);
+            if (contents.containsKey(stored.getId())) {
+                previous = contents.get(stored.getId());
+                continue;
+            }
+
+            VersionContent content = versionContentStore.load(stored);
+            String baseId = stored.getBaseId();
+            if (unencodedIds.contains(content.getId())) {
+                VersionContent encoded = versionContentStore.encode(content, previous);
+                // an update rather than a save, which would stamp a new updatedAt on the content
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(content.getId())), encodingOf(encoded), VersionContent.class);
+                content.setDepth(encoded.getDepth());
+                baseId = encoded.getBaseId();
+            }
+            if (baseId != null) {
+                references.merge(baseId, 1, Integer::sum);
+            }
+            contents.put(content.getId(), content);
+            previous = content;
+        }
+
+        for (String id : uncountedIds) {
+            // an increment, so a count set since the ids were read is not overwritten
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(id)),
+                    new Update().inc("refCount", references.getOrDefault(id, 0)), VersionContent.class);
+            try {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(id).and("contentHash").exists(false)),
+                        new Update().set("contentHash", ContentHash.of(contents.get(id))), VersionContent.class);
+            } catch (DuplicateKeyException e) {
+                log.debug("Version content {} duplicates an already hashed one and keeps its own record", id);
+            }
+        }
+    }
+
+    private Set<String> idsWithout(String field, List<String> ids) {
+        Query query = Query.query(Criteria.where("id").in(ids).and(field).exists(false));
+        query.fields().include("id");
+        return mongoTemplate.find(query, VersionContent.class).stream()
+                .map(VersionContent::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static Update encodingOf(VersionContent encoded) {
+        Update update = new Update()
+                .set("delta", encoded.isDelta())
+                .set("depth", encoded.getDepth());
+        if (encoded.isDelta()) {
+            update.set("baseId", encoded.getBaseId())
+                    .set("bodyDelta", encoded.getBodyDelta())
+                    .set("descriptionDelta", encoded.getDescriptionDelta())
+                    .unset("body")
+                    .unset("description");
+        }
+        return update;
+    }
+
+    private static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
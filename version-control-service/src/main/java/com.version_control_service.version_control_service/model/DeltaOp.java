@@ -0,0 +1,15 @@
+package com.version_control_service.version_control_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one edit of a delta: text is inserted as is, or when null count tokens of the base are copied from start
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeltaOp {
+    private int start;
+    private int count;
+    private String text;
+}
@@ -2,17 +2,19 @@ package com.version_control_service.version_control_service.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.util.List;
-
+// the versions themselves are queried from sop_version by sopId, so publishing never rewrites a growing history here
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 @Document(collection = "sop")
 public class SOP {
     @Id
     private String id;
-    @DBRef
-    private List<Version> versions;
+    // the last version number handed out, incremented atomically by each publish
+    private long lastVersionNumber;
+    private String currentVersionId;
+    private float currentVersionNumber;
 }
@@ -4,6 +4,7 @@ import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -12,6 +13,8 @@ import java.util.Date;
 @Data
 @Builder
 @Document(collection = "sop_version")
+// version history pages and lookups by number; not unique, as sops versioned before the counter may hold duplicates
+@CompoundIndex(name = "sopId_versionNumber", def = "{'sopId': 1, 'versionNumber': -1}")
 public class Version {
     @Id
     private String id;
@@ -1,10 +1,12 @@
 package com.version_control_service.version_control_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.version_control_service.version_control_service.enums.Visibility;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -13,7 +15,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
 @Document(collection = "version_content")
 public class VersionContent {
     @Id
@@ -26,6 +30,26 @@ public class VersionContent {
     private Visibility visibility;
     private String category;
     private UUID departmentId;
+    // delta records hold the body and description as edits of their base record's content, every other field in full.
+    // records written before deltas have no depth and are full copies
+    @JsonIgnore
+    private boolean delta;
+    @JsonIgnore
+    private String baseId;
+    @JsonIgnore
+    private List<DeltaOp> bodyDelta;
+    @JsonIgnore
+    private List<DeltaOp> descriptionDelta;
+    // deltas between this record and the full copy its chain starts from, 0 for full copies
+    private int depth;
+    // equal contents are stored once, see ContentHash
+    @JsonIgnore
+    @Indexed(unique = true, sparse = true)
+    private String contentHash;
+    // versions pointing at this record plus delta records based on it, collected once it drops to 0.
+    // records stored before counting have none and are never collected
+    @JsonIgnore
+    private int refCount;
     @CreatedDate
     private Date createdAt;
     @LastModifiedDate
@@ -5,5 +5,5 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface SopRepository extends MongoRepository<SOP, String> {
+public interface SopRepository extends MongoRepository<SOP, String>, SopRepositoryCustom {
 }
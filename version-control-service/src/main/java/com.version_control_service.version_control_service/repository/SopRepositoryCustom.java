@@ -0,0 +1,14 @@
+package com.version_control_service.version_control_service.repository;
+
+import com.version_control_service.version_control_service.model.SOP;
+
+public interface SopRepositoryCustom {
+    // the sop with its next version number in lastVersionNumber, created on its first publish
+    SOP allocateVersionNumber(String sopId);
+
+    // points the sop at a newly published version, false when a later version is already current
+    boolean advanceCurrentVersion(String sopId, String versionId, float versionNumber);
+
+    // points the sop at any of its versions, as a revert does
+    void setCurrentVersion(String sopId, String versionId, float versionNumber);
+}
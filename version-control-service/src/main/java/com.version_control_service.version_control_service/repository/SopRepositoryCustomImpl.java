@@ -0,0 +1,77 @@
+package com.version_control_service.version_control_service.repository;
+
+import com.version_control_service.version_control_service.model.SOP;
+import com.version_control_service.version_control_service.model.Version;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class SopRepositoryCustomImpl implements SopRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public SOP allocateVersionNumber(String sopId) {
+        SOP sop = incrementVersionCounter(sopId);
+        if (sop != null) {
+            return sop;
+        }
+
+        // a first publish, or a sop versioned before the counter, which continues from its highest version
+        Query latest = Query.query(Criteria.where("sopId").is(sopId))
+                .with(Sort.by(Sort.Direction.DESC, "versionNumber"))
+                .limit(1);
+        latest.fields().include("versionNumber");
+        Version latestVersion = mongoTemplate.findOne(latest, Version.class);
+        try {
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("id").is(sopId).and("lastVersionNumber").exists(false)),
+                    new Update()
+                            .set("lastVersionNumber", latestVersion == null ? 0L : (long) latestVersion.getVersionNumber())
+                            .unset("versions"),
+                    SOP.class);
+        } catch (DuplicateKeyException e) {
+            // the counter was created by a concurrent publish
+        }
+        return incrementVersionCounter(sopId);
+    }
+
+    @Override
+    public boolean advanceCurrentVersion(String sopId, String versionId, float versionNumber) {
+        Criteria older = new Criteria().orOperator(
+                Criteria.where("currentVersionId").exists(false),
+                Criteria.where("currentVersionNumber").lt(versionNumber));
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(sopId).andOperator(older)),
+                currentVersion(versionId, versionNumber),
+                SOP.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public void setCurrentVersion(String sopId, String versionId, float versionNumber) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(sopId)),
+                currentVersion(versionId, versionNumber),
+                SOP.class);
+    }
+
+    private SOP incrementVersionCounter(String sopId) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(sopId).and("lastVersionNumber").exists(true)),
+                new Update().inc("lastVersionNumber", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                SOP.class);
+    }
+
+    private static Update currentVersion(String versionId, float versionNumber) {
+        return new Update()
+                .set("currentVersionId", versionId)
+                .set("currentVersionNumber", versionNumber);
+    }
+}
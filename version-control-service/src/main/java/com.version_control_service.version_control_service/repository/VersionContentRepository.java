@@ -5,5 +5,5 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface VersionContentRepository extends MongoRepository<VersionContent, String> {
+public interface VersionContentRepository extends MongoRepository<VersionContent, String>, VersionContentRepositoryCustom {
 }
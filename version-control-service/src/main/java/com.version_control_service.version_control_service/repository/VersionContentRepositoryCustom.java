@@ -0,0 +1,23 @@
+package com.version_control_service.version_control_service.repository;
+
+import com.version_control_service.version_control_service.model.VersionContent;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface VersionContentRepositoryCustom {
+    // takes a reference on the record holding the content with this hash, empty when there is none
+    Optional<VersionContent> referenceByHash(String contentHash);
+
+    // the stored depth of the record, empty when it is gone or was written before deltas and not encoded yet
+    Optional<Integer> findDepth(String id);
+
+    // a negative count releases references, records without a count are left alone
+    void addReferences(String id, int count);
+
+    // id, delta and baseId of up to limit records no version or delta refers to anymore
+    List<VersionContent> findUnreferenced(int limit);
+
+    // false when the record was referenced again or deleted in between
+    boolean deleteIfUnreferenced(String id);
+}
@@ -0,0 +1,57 @@
+package com.version_control_service.version_control_service.repository;
+
+import com.version_control_service.version_control_service.model.VersionContent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class VersionContentRepositoryCustomImpl implements VersionContentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<VersionContent> referenceByHash(String contentHash) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                Query.query(Criteria.where("contentHash").is(contentHash)),
+                new Update().inc("refCount", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                VersionContent.class));
+    }
+
+    @Override
+    public Optional<Integer> findDepth(String id) {
+        Query query = Query.query(Criteria.where("id").is(id).and("depth").exists(true));
+        query.fields().include("depth");
+        return Optional.ofNullable(mongoTemplate.findOne(query, VersionContent.class)).map(VersionContent::getDepth);
+    }
+
+    @Override
+    public void addReferences(String id, int count) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("id").is(id).and("refCount").exists(true)),
+                new Update().inc("refCount", count),
+                VersionContent.class);
+    }
+
+    @Override
+    public List<VersionContent> findUnreferenced(int limit) {
+        Query query = Query.query(Criteria.where("refCount").lte(0)).limit(limit);
+        query.fields().include("id", "delta", "baseId");
+        return mongoTemplate.find(query, VersionContent.class);
+    }
+
+    // the count is checked again by the delete itself, a publish may have reused the content since it was read
+    @Override
+    public boolean deleteIfUnreferenced(String id) {
+        return mongoTemplate.remove(
+                Query.query(Criteria.where("id").is(id).and("refCount").lte(0)),
+                VersionContent.class).getDeletedCount() == 1;
+    }
+}
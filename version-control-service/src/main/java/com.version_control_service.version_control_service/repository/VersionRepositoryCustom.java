@@ -0,0 +1,6 @@
+package com.version_control_service.version_control_service.repository;
+
+public interface VersionRepositoryCustom {
+    // unflags every version of the sop but the current one
+    void clearCurrentVersion(String sopId, String currentVersionId);
+}
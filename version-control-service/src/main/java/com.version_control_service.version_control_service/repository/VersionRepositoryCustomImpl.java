@@ -0,0 +1,22 @@
+package com.version_control_service.version_control_service.repository;
+
+import com.version_control_service.version_control_service.model.Version;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class VersionRepositoryCustomImpl implements VersionRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void clearCurrentVersion(String sopId, String currentVersionId) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("sopId").is(sopId).and("currentVersion").is(true).and("id").ne(currentVersionId)),
+                new Update().set("currentVersion", false),
+                Version.class);
+    }
+}
@@ -1,44 +1,49 @@
 package com.version_control_service.version_control_service.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.version_control_service.version_control_service.dto.CursorPage;
 import com.version_control_service.version_control_service.dto.PublishedSopDto;
 import com.version_control_service.version_control_service.dto.SopVersionDto;
 import com.version_control_service.version_control_service.model.SOP;
 import com.version_control_service.version_control_service.model.Version;
 import com.version_control_service.version_control_service.model.VersionContent;
 import com.version_control_service.version_control_service.repository.SopRepository;
-import com.version_control_service.version_control_service.repository.VersionContentRepository;
 import com.version_control_service.version_control_service.repository.VersionRepository;
 import com.version_control_service.version_control_service.utils.DtoConverter;
+import com.version_control_service.version_control_service.utils.exception.BadRequestException;
 import com.version_control_service.version_control_service.utils.exception.NotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
 public class SopVersionService {
 
     private final SopRepository sopRepository;
-    private final VersionContentRepository versionContentRepository;
+    private final VersionContentStore versionContentStore;
     private final VersionRepository versionRepository;
     private final KafkaTemplate<String,Object> kafkaTemplate;
 
     @Autowired
     public SopVersionService(SopRepository sopRepository,
-                             VersionContentRepository versionContentRepository,
+                             VersionContentStore versionContentStore,
                              VersionRepository versionRepository,
                              KafkaTemplate<String, Object> kafkaTemplate) {
         this.sopRepository = sopRepository;
-        this.versionContentRepository = versionContentRepository;
+        this.versionContentStore = versionContentStore;
         this.versionRepository = versionRepository;
         this.kafkaTemplate = kafkaTemplate;
     }
@@ -50,30 +55,40 @@ public class SopVersionService {
 
         PublishedSopDto publishedSopDto = DtoConverter.publishedSopDtoFromJson(data);
 
-        // Update the version of the SOP
-        SOP existingVersionedSop = sopRepository.findById(publishedSopDto.getId()).orElse(null);
+        // allocated atomically, so concurrent publishes of a sop never share a number
+        SOP sop = sopRepository.allocateVersionNumber(publishedSopDto.getId());
 
-        //save first version if it's a newly published SOP
-        if (existingVersionedSop != null){
-            Version version = versionRepository.findFirstBySopIdAndCurrentVersion(publishedSopDto.getId(), true);
-            version.setCurrentVersion(false);
-            versionRepository.save(version);
+        // the new content is stored as a delta of the current one
+        Version currentVersion = currentVersion(sop);
+        VersionContent currentContent = currentVersion == null ? null : versionContentStore.load(currentVersion.getContent());
 
-            float versionNumber = versionRepository
-                    .findTopBySopIdOrderByVersionNumberDesc(publishedSopDto.getId())
-                    .getVersionNumber();
+        recordSopVersionContent(publishedSopDto, sop.getLastVersionNumber(), currentContent);
 
-            recordSopVersionContent(existingVersionedSop, publishedSopDto, versionNumber);
-        }else{
-            recordSopVersionContent(null, publishedSopDto, 0.0f);
+        // lets the content service refresh the versions shown with the sop
+        kafkaTemplate.send("sop-version-created", publishedSopDto);
+    }
+
+    // the versions of a deleted sop release their contents, which the collector deletes once unreferenced
+    @KafkaListener(topics = "sop-deleted")
+    @CacheEvict(value = "sop-versions", allEntries = true)
+    public void sopDeletedListener(String data) throws JsonProcessingException {
+        String sopId = DtoConverter.sopIdFromJson(data);
+        if (sopId == null) {
+            return;
         }
 
+        List<Version> versions = versionRepository.findAllBySopId(sopId);
+        versionRepository.deleteAll(versions);
+        sopRepository.deleteById(sopId);
+        versions.forEach(version -> versionContentStore.release(version.getContent()));
+        log.info("Deleted {} versions of deleted SOP {}", versions.size(), sopId);
     }
 
     @Transactional
     @CacheEvict(value = "sop-versions", allEntries = true)
     public Version revertSopVersion(String sopId, Float versionNumber){
-        Version currentVersion = versionRepository.findFirstBySopIdAndCurrentVersion(sopId,true);
+        SOP sop = sopRepository.findById(sopId).orElse(null);
+        Version currentVersion = sop == null ? null : currentVersion(sop);
         Version version = versionRepository.findFirstBySopIdAndVersionNumber(sopId,versionNumber);
 
         if(version == null){
@@ -88,11 +103,11 @@ public class SopVersionService {
             throw new NotFoundException("Can't revert to the current version");
         }
 
-        currentVersion.setCurrentVersion(false);
         version.setCurrentVersion(true);
-
-        versionRepository.save(currentVersion);
         versionRepository.save(version);
+        sopRepository.setCurrentVersion(sopId, version.getId(), version.getVersionNumber());
+        versionRepository.clearCurrentVersion(sopId, version.getId());
+        version.setContent(versionContentStore.load(version.getContent()));
 
         PublishedSopDto revertedSopDto = PublishedSopDto
                 .builder()
@@ -132,19 +147,58 @@ public class SopVersionService {
         return sopVersionDtos;
     }
 
+    // versions of many sops keyed by sop id, used for batched lookups over grpc
+    public Map<String, List<SopVersionDto>> getSopsVersions(Collection<String> ids) {
+        Map<String, List<SopVersionDto>> sopsVersions = new HashMap<>();
+        for (Version version : versionRepository.findAllBySopIdIn(ids)) {
+            sopsVersions.computeIfAbsent(version.getSopId(), sopId -> new ArrayList<>())
+                    .add(SopVersionDto
+                            .builder()
+                            .versionNumber(version.getVersionNumber())
+                            .currentVersion(version.isCurrentVersion())
+                            .createdAt(version.getCreatedAt())
+                            .updatedAt(version.getUpdatedAt())
+                            .build());
+        }
+        return sopsVersions;
+    }
+
+    // newest first, cursor is the version number the previous page ended at
+    public CursorPage<SopVersionDto> getSopVersionHistory(String sopId, String cursor, Integer limit) {
+        int pageSize = CursorPage.pageSize(limit);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Version> versions = cursor == null
+                ? versionRepository.findBySopIdOrderByVersionNumberDesc(sopId, page)
+                : versionRepository.findBySopIdAndVersionNumberLessThanOrderByVersionNumberDesc(sopId, versionNumberCursor(cursor), page);
+
+        boolean hasNext = versions.size() > pageSize;
+        List<SopVersionDto> items = versions.stream()
+                .limit(pageSize)
+                .map(version -> SopVersionDto
+                        .builder()
+                        .versionNumber(version.getVersionNumber())
+                        .currentVersion(version.isCurrentVersion())
+                        .createdAt(version.getCreatedAt())
+                        .updatedAt(version.getUpdatedAt())
+                        .build())
+                .toList();
+        String nextCursor = hasNext ? String.valueOf(items.get(items.size() - 1).getVersionNumber()) : null;
+        return new CursorPage<>(items, nextCursor, hasNext);
+    }
+
     public List<Version> compareSopVersions(String sopId, Float firstVersion, Float secondVersion) {
         List<Float> versionNumbers = new ArrayList<>();
         versionNumbers.add(firstVersion);
         versionNumbers.add(secondVersion);
-        return versionRepository.findAllBySopIdAndVersionNumberIn(sopId,versionNumbers);
+        List<Version> versions = versionRepository.findAllBySopIdAndVersionNumberIn(sopId,versionNumbers);
+        versions.forEach(version -> version.setContent(versionContentStore.load(version.getContent())));
+        return versions;
     }
 
-    public void recordSopVersionContent(SOP sop,
-                                        PublishedSopDto publishedSopDto,
-                                        Float versionNumber) {
-
-        //List of version to use if there are no previous versions
-        List<Version> initialVersions = new ArrayList<>();
+    // baseContent is the full content of the version this one follows, null for the first version
+    public void recordSopVersionContent(PublishedSopDto publishedSopDto,
+                                        long versionNumber,
+                                        VersionContent baseContent) {
 
         VersionContent content =  VersionContent.builder()
                 .title(publishedSopDto.getTitle())
@@ -159,12 +213,12 @@ public class SopVersionService {
                 .updatedAt(publishedSopDto.getUpdatedAt())
                 .build();
 
-        VersionContent savedContent = versionContentRepository.save(content);
+        VersionContent savedContent = versionContentStore.save(content, baseContent);
 
 
         Version newVersion = Version.builder()
                 .sopId(publishedSopDto.getId())
-                .versionNumber(versionNumber + 1.0f)
+                .versionNumber(versionNumber)
                 .currentVersion(true)
                 .content(savedContent)
                 .createdAt(publishedSopDto.getCreatedAt())
@@ -172,21 +226,28 @@ public class SopVersionService {
 
         Version savedVersion = versionRepository.save(newVersion);
 
-        if(sop == null){
-            initialVersions.add(savedVersion);
-
-            sop =  SOP.builder()
-                    .id(publishedSopDto.getId())
-                    .versions(initialVersions)
-                    .build();
-
-            sopRepository.save(sop);
-            return;
+        if (sopRepository.advanceCurrentVersion(publishedSopDto.getId(), savedVersion.getId(), savedVersion.getVersionNumber())) {
+            versionRepository.clearCurrentVersion(publishedSopDto.getId(), savedVersion.getId());
+        } else {
+            // a later version was published meanwhile and stays current
+            savedVersion.setCurrentVersion(false);
+            versionRepository.save(savedVersion);
         }
+    }
 
-        List<Version> versions = sop.getVersions();
-        versions.add(savedVersion);
+    private Version currentVersion(SOP sop) {
+        if (sop.getCurrentVersionId() != null) {
+            return versionRepository.findById(sop.getCurrentVersionId()).orElse(null);
+        }
+        // sops versioned before the pointer only have the flag on the version
+        return versionRepository.findFirstBySopIdAndCurrentVersion(sop.getId(), true);
+    }
 
-        sopRepository.save(sop);
+    private static Float versionNumberCursor(String cursor) {
+        try {
+            return Float.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor " + cursor);
+        }
     }
 }
@@ -0,0 +1,45 @@
+package com.version_control_service.version_control_service.service;
+
+import com.version_control_service.version_control_service.model.VersionContent;
+import com.version_control_service.version_control_service.repository.VersionContentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Deletes the version contents nothing refers to anymore.
+ * Deleting a delta releases its base, which is collected in the same run when that was its last reference.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VersionContentCollector {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final VersionContentRepository versionContentRepository;
+
+    @Scheduled(fixedDelayString = "${versions.gc.interval-ms:3600000}", initialDelayString = "${versions.gc.initial-delay-ms:600000}")
+    public void collect() {
+        int collected = 0;
+        List<VersionContent> unreferenced;
+        while (!(unreferenced = versionContentRepository.findUnreferenced(BATCH_SIZE)).isEmpty()) {
+            for (VersionContent content : unreferenced) {
+                if (!versionContentRepository.deleteIfUnreferenced(content.getId())) {
+                    continue;
+                }
+                collected++;
+                if (content.isDelta()) {
+                    versionContentRepository.addReferences(content.getBaseId(), -1);
+                }
+            }
+        }
+
+        if (collected > 0) {
+            log.info("Collected {} unreferenced version contents", collected);
+        }
+    }
+}
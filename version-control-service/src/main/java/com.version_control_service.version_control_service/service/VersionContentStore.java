@@ -0,0 +1,165 @@
+package com.version_control_service.version_control_service.service;
+
+import com.version_control_service.version_control_service.model.DeltaOp;
+import com.version_control_service.version_control_service.model.VersionContent;
+import com.version_control_service.version_control_service.repository.VersionContentRepository;
+import com.version_control_service.version_control_service.utils.ContentHash;
+import com.version_control_service.version_control_service.utils.TextDelta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores version content as a delta of the version it follows, with a full copy every snapshotInterval records
+ * of a chain, so reading a version applies at most snapshotInterval - 1 deltas.
+ * Equal contents share one record, found by their ContentHash and kept while it is referenced.
+ * Contents never change once written, so the rebuilt ones are cached by record id without eviction.
+ */
+@Service
+public class VersionContentStore {
+
+    public static final String CACHE = "version-content";
+
+    private final VersionContentRepository versionContentRepository;
+    private final CacheManager cacheManager;
+    private final int snapshotInterval;
+
+    public VersionContentStore(VersionContentRepository versionContentRepository,
+                               CacheManager cacheManager,
+                               @Value("${versions.snapshot-interval:10}") int snapshotInterval) {
+        this.versionContentRepository = versionContentRepository;
+        this.cacheManager = cacheManager;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * The record a new version of this content points at, with the version's reference already taken.
+     * An existing record with the same content is reused, otherwise a new one is stored against base,
+     * the full content of the version the new one follows, null for a first version.
+     */
+    public VersionContent save(VersionContent content, VersionContent base) {
+        String contentHash = ContentHash.of(content);
+        Optional<VersionContent> existing = versionContentRepository.referenceByHash(contentHash);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        VersionContent saved;
+        try {
+            saved = versionContentRepository.insert(encode(content, base).toBuilder()
+                    .contentHash(contentHash)
+                    .refCount(1)
+                    .build());
+        } catch (DuplicateKeyException e) {
+            // the same content was stored by a concurrent publish
+            return versionContentRepository.referenceByHash(contentHash).orElseThrow(() -> e);
+        }
+
+        if (saved.isDelta()) {
+            versionContentRepository.addReferences(saved.getBaseId(), 1);
+        }
+        return saved;
+    }
+
+    // drops a version's reference, the record is collected once nothing refers to it
+    public void release(VersionContent stored) {
+        if (stored != null) {
+            versionContentRepository.addReferences(stored.getId(), -1);
+        }
+    }
+
+    /**
+     * The record to store for the full content: a delta of base while its chain stays below the snapshot interval
+     * and the edits are smaller than the texts, a full copy otherwise. The content's id is kept.
+     * The base's depth is read from its stored record, the migration may have turned a loaded full copy into a delta
+     * since, and a record it has not encoded yet gets no deltas until it has.
+     */
+    public VersionContent encode(VersionContent content, VersionContent base) {
+        VersionContent full = content.toBuilder()
+                .delta(false)
+                .baseId(null)
+                .bodyDelta(null)
+                .descriptionDelta(null)
+                .depth(0)
+                .build();
+        if (base == null || base.getId() == null) {
+            return full;
+        }
+        Optional<Integer> baseDepth = versionContentRepository.findDepth(base.getId());
+        if (baseDepth.isEmpty() || baseDepth.get() + 1 >= snapshotInterval) {
+            return full;
+        }
+
+        List<DeltaOp> bodyDelta = TextDelta.encode(base.getBody(), content.getBody());
+        List<DeltaOp> descriptionDelta = TextDelta.encode(base.getDescription(), content.getDescription());
+        if (TextDelta.size(bodyDelta) + TextDelta.size(descriptionDelta) >= length(content.getBody()) + length(content.getDescription())) {
+            return full;
+        }
+
+        return full.toBuilder()
+                .delta(true)
+                .baseId(base.getId())
+                .body(null)
+                .bodyDelta(bodyDelta)
+                .description(null)
+                .descriptionDelta(descriptionDelta)
+                .depth(baseDepth.get() + 1)
+                .build();
+    }
+
+    // the full content of a stored record, a delta is applied on the nearest cached or full record of its chain
+    public VersionContent load(VersionContent stored) {
+        if (stored == null || !stored.isDelta()) {
+            return stored;
+        }
+
+        Cache cache = cacheManager.getCache(CACHE);
+        VersionContent cached = cached(cache, stored.getId());
+        if (cached != null) {
+            return cached;
+        }
+
+        Deque<VersionContent> deltas = new ArrayDeque<>();
+        VersionContent current = stored;
+        while (current.isDelta()) {
+            deltas.push(current);
+            String baseId = current.getBaseId();
+            VersionContent base = cached(cache, baseId);
+            current = base != null ? base : versionContentRepository.findById(baseId)
+                    .orElseThrow(() -> new IllegalStateException("Base content " + baseId + " of a version delta is missing"));
+        }
+
+        // every rebuilt record is cached, the versions after it are usually read next
+        VersionContent full = current;
+        while (!deltas.isEmpty()) {
+            VersionContent delta = deltas.pop();
+            full = delta.toBuilder()
+                    .delta(false)
+                    .baseId(null)
+                    .body(TextDelta.apply(full.getBody(), delta.getBodyDelta()))
+                    .bodyDelta(null)
+                    .description(TextDelta.apply(full.getDescription(), delta.getDescriptionDelta()))
+                    .descriptionDelta(null)
+                    .build();
+            if (cache != null) {
+                cache.put(full.getId(), full);
+            }
+        }
+        return full;
+    }
+
+    private static VersionContent cached(Cache cache, String id) {
+        return cache == null ? null : cache.get(id, VersionContent.class);
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+}
@@ -0,0 +1,310 @@
+package com.version_control_service.version_control_service.service;
+
+import com.version_control_service.version_control_service.dto.ContentDiffDto;
+import com.version_control_service.version_control_service.dto.DiffHunkDto;
+import com.version_control_service.version_control_service.dto.DiffLineDto;
+import com.version_control_service.version_control_service.dto.DiffSegmentDto;
+import com.version_control_service.version_control_service.dto.DiffStatsDto;
+import com.version_control_service.version_control_service.dto.FieldChangeDto;
+import com.version_control_service.version_control_service.dto.SopVersionDiffDto;
+import com.version_control_service.version_control_service.enums.DiffOp;
+import com.version_control_service.version_control_service.model.Version;
+import com.version_control_service.version_control_service.model.VersionContent;
+import com.version_control_service.version_control_service.repository.VersionRepository;
+import com.version_control_service.version_control_service.utils.ContentHash;
+import com.version_control_service.version_control_service.utils.MyersDiff;
+import com.version_control_service.version_control_service.utils.exception.NotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Line and word level differences between two versions of a sop. A diff only depends on the two contents,
+ * so it is cached by their exact ContentHash pair and shared by every pair of versions holding them.
+ * Bodies are diffed by line and lines edited in place by word, each search bounded by a number of edits:
+ * past it a body becomes one approximate replacement and a line is shown removed and added.
+ * Unchanged text is cut down to its start and end, and hunks stop once MAX_HUNK_LINES lines are returned.
+ */
+@Service
+@RequiredArgsConstructor
+public class VersionDiffService {
+
+    public static final String CACHE = "version-diffs";
+
+    private static final int CONTEXT_LINES = 3;
+    private static final int MAX_LINE_EDITS = 2000;
+    private static final int MAX_WORD_EDITS = 2000;
+    private static final int MAX_HUNK_LINES = 2000;
+    private static final int MAX_UNCHANGED_CHARS = 160;
+
+    private final VersionRepository versionRepository;
+    private final VersionContentStore versionContentStore;
+    private final CacheManager cacheManager;
+
+    public SopVersionDiffDto diffSopVersions(String sopId, Float fromVersion, Float toVersion) {
+        VersionContent from = versionContent(sopId, fromVersion);
+        VersionContent to = versionContent(sopId, toVersion);
+
+        return SopVersionDiffDto.builder()
+                .sopId(sopId)
+                .fromVersion(fromVersion)
+                .toVersion(toVersion)
+                .diff(diff(from, to))
+                .build();
+    }
+
+    public ContentDiffDto diff(VersionContent from, VersionContent to) {
+        // hashed from the full contents as they are: stored hashes ignore surrounding whitespace the diff shows,
+        // and records may predate hashing
+        String key = ContentHash.exact(from) + ":" + ContentHash.exact(to);
+        Cache cache = cacheManager.getCache(CACHE);
+        ContentDiffDto cached = cache == null ? null : cache.get(key, ContentDiffDto.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        ContentDiffDto diff = new BodyDiff(lines(from.getBody()), lines(to.getBody())).toDto()
+                .fields(fieldChanges(from, to))
+                .documentsAdded(missingFrom(from.getDocumentUrls(), to.getDocumentUrls()))
+                .documentsRemoved(missingFrom(to.getDocumentUrls(), from.getDocumentUrls()))
+                .build();
+        if (cache != null) {
+            cache.put(key, diff);
+        }
+        return diff;
+    }
+
+    private VersionContent versionContent(String sopId, Float versionNumber) {
+        Version version = versionRepository.findFirstBySopIdAndVersionNumber(sopId, versionNumber);
+        if (version == null || version.getContent() == null) {
+            throw new NotFoundException("Version " + versionNumber + " of SOP " + sopId + " not found");
+        }
+        return versionContentStore.load(version.getContent());
+    }
+
+    private static List<FieldChangeDto> fieldChanges(VersionContent from, VersionContent to) {
+        List<FieldChangeDto> changes = new ArrayList<>();
+        addChange(changes, "title", from.getTitle(), to.getTitle());
+        addChange(changes, "description", from.getDescription(), to.getDescription());
+        addChange(changes, "coverUrl", from.getCoverUrl(), to.getCoverUrl());
+        addChange(changes, "category", from.getCategory(), to.getCategory());
+        addChange(changes, "visibility", Objects.toString(from.getVisibility(), null), Objects.toString(to.getVisibility(), null));
+        addChange(changes, "departmentId", Objects.toString(from.getDepartmentId(), null), Objects.toString(to.getDepartmentId(), null));
+        return changes;
+    }
+
+    private static void addChange(List<FieldChangeDto> changes, String field, String from, String to) {
+        if (!Objects.equals(from, to)) {
+            changes.add(new FieldChangeDto(field, from, to));
+        }
+    }
+
+    private static List<String> missingFrom(List<String> urls, List<String> others) {
+        if (others == null) {
+            return List.of();
+        }
+        return others.stream()
+                .filter(url -> urls == null || !urls.contains(url))
+                .toList();
+    }
+
+    private static List<String> lines(String body) {
+        if (body == null || body.isEmpty()) {
+            return List.of();
+        }
+        return List.of(body.replace("\r\n", "\n").split("\n", -1));
+    }
+
+    // words keep the whitespace after them, markup tags are words of their own
+    private static List<String> words(String line) {
+        List<String> words = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '<' && i > start) {
+                words.add(line.substring(start, i));
+                start = i;
+            } else if ((Character.isWhitespace(c) || c == '>')
+                    && (i + 1 == line.length() || !Character.isWhitespace(line.charAt(i + 1)))) {
+                words.add(line.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < line.length()) {
+            words.add(line.substring(start));
+        }
+        return words;
+    }
+
+    private static int wordCount(List<String> words) {
+        return (int) words.stream()
+                .filter(word -> !word.isBlank() && !word.startsWith("<"))
+                .count();
+    }
+
+    // the start and end of long unchanged text, with the number of characters cut between them
+    private static String cut(String text) {
+        if (text.length() <= MAX_UNCHANGED_CHARS) {
+            return text;
+        }
+        int kept = MAX_UNCHANGED_CHARS / 2;
+        return text.substring(0, kept) + text.substring(text.length() - kept);
+    }
+
+    private static Integer skipped(String text) {
+        return text.length() <= MAX_UNCHANGED_CHARS ? null : text.length() - MAX_UNCHANGED_CHARS / 2 * 2;
+    }
+
+    private static final class BodyDiff {
+        private final List<String> fromLines;
+        private final List<String> toLines;
+        private final DiffStatsDto stats = new DiffStatsDto();
+        private final List<DiffHunkDto> hunks = new ArrayList<>();
+        private boolean approximate;
+        private boolean truncated;
+        private int returnedLines;
+
+        BodyDiff(List<String> fromLines, List<String> toLines) {
+            this.fromLines = fromLines;
+            this.toLines = toLines;
+
+            List<MyersDiff.Edit> edits = MyersDiff.diff(fromLines, toLines, MAX_LINE_EDITS);
+            if (edits == null) {
+                edits = MyersDiff.replaceMiddle(fromLines, toLines);
+                approximate = true;
+            }
+            addHunks(changes(edits));
+        }
+
+        ContentDiffDto.ContentDiffDtoBuilder toDto() {
+            return ContentDiffDto.builder()
+                    .stats(stats)
+                    .hunks(hunks)
+                    .approximate(approximate)
+                    .truncated(truncated);
+        }
+
+        // the line ranges {fromStart, fromEnd, toStart, toEnd} between unchanged lines
+        private static List<int[]> changes(List<MyersDiff.Edit> edits) {
+            List<int[]> changes = new ArrayList<>();
+            for (MyersDiff.Edit edit : edits) {
+                if (edit.op() == MyersDiff.Op.EQUAL) {
+                    continue;
+                }
+                int[] last = changes.isEmpty() ? null : changes.get(changes.size() - 1);
+                if (last != null && last[1] == edit.fromStart() && last[3] == edit.toStart()) {
+                    last[1] = edit.fromEnd();
+                    last[3] = edit.toEnd();
+                } else {
+                    changes.add(new int[]{edit.fromStart(), edit.fromEnd(), edit.toStart(), edit.toEnd()});
+                }
+            }
+            return changes;
+        }
+
+        // changes closer than twice the context share a hunk
+        private void addHunks(List<int[]> changes) {
+            int first = 0;
+            while (first < changes.size()) {
+                int last = first;
+                while (last + 1 < changes.size() && changes.get(last + 1)[0] - changes.get(last)[1] <= 2 * CONTEXT_LINES) {
+                    last++;
+                }
+
+                int fromStart = Math.max(0, changes.get(first)[0] - CONTEXT_LINES);
+                int toStart = changes.get(first)[2] - (changes.get(first)[0] - fromStart);
+                int fromEnd = Math.min(fromLines.size(), changes.get(last)[1] + CONTEXT_LINES);
+                int toEnd = changes.get(last)[3] + (fromEnd - changes.get(last)[1]);
+
+                List<DiffLineDto> lines = new ArrayList<>();
+                int next = fromStart;
+                for (int[] change : changes.subList(first, last + 1)) {
+                    addUnchanged(lines, next, change[0]);
+                    addChange(lines, change);
+                    next = change[1];
+                }
+                addUnchanged(lines, next, fromEnd);
+
+                stats.setHunks(stats.getHunks() + 1);
+                if (!truncated && returnedLines + lines.size() <= MAX_HUNK_LINES) {
+                    hunks.add(new DiffHunkDto(fromStart + 1, fromEnd - fromStart, toStart + 1, toEnd - toStart, lines));
+                    returnedLines += lines.size();
+                } else {
+                    truncated = true;
+                }
+                first = last + 1;
+            }
+        }
+
+        private void addUnchanged(List<DiffLineDto> lines, int fromStart, int fromEnd) {
+            for (String line : fromLines.subList(fromStart, fromEnd)) {
+                lines.add(DiffLineDto.builder().op(DiffOp.EQUAL).text(cut(line)).skipped(skipped(line)).build());
+            }
+        }
+
+        // as many lines removed as added are taken as edited in place, unless the whole body was approximated
+        private void addChange(List<DiffLineDto> lines, int[] change) {
+            List<String> removed = fromLines.subList(change[0], change[1]);
+            List<String> added = toLines.subList(change[2], change[3]);
+            if (!approximate && removed.size() == added.size()) {
+                for (int i = 0; i < removed.size(); i++) {
+                    addChangedLine(lines, removed.get(i), added.get(i));
+                }
+                return;
+            }
+
+            removed.forEach(line -> addLine(lines, DiffOp.REMOVED, line));
+            added.forEach(line -> addLine(lines, DiffOp.ADDED, line));
+        }
+
+        private void addChangedLine(List<DiffLineDto> lines, String from, String to) {
+            List<String> fromWords = words(from);
+            List<String> toWords = words(to);
+            List<MyersDiff.Edit> edits = MyersDiff.diff(fromWords, toWords, MAX_WORD_EDITS);
+            if (edits == null) {
+                addLine(lines, DiffOp.REMOVED, from);
+                addLine(lines, DiffOp.ADDED, to);
+                return;
+            }
+
+            List<DiffSegmentDto> segments = new ArrayList<>();
+            for (MyersDiff.Edit edit : edits) {
+                switch (edit.op()) {
+                    case EQUAL -> {
+                        String text = String.join("", fromWords.subList(edit.fromStart(), edit.fromEnd()));
+                        segments.add(new DiffSegmentDto(DiffOp.EQUAL, cut(text), skipped(text)));
+                    }
+                    case DELETE -> {
+                        List<String> words = fromWords.subList(edit.fromStart(), edit.fromEnd());
+                        stats.setWordsRemoved(stats.getWordsRemoved() + wordCount(words));
+                        segments.add(new DiffSegmentDto(DiffOp.REMOVED, String.join("", words), null));
+                    }
+                    case INSERT -> {
+                        List<String> words = toWords.subList(edit.toStart(), edit.toEnd());
+                        stats.setWordsAdded(stats.getWordsAdded() + wordCount(words));
+                        segments.add(new DiffSegmentDto(DiffOp.ADDED, String.join("", words), null));
+                    }
+                }
+            }
+            stats.setLinesChanged(stats.getLinesChanged() + 1);
+            lines.add(DiffLineDto.builder().op(DiffOp.CHANGED).segments(segments).build());
+        }
+
+        private void addLine(List<DiffLineDto> lines, DiffOp op, String line) {
+            int words = wordCount(words(line));
+            if (op == DiffOp.ADDED) {
+                stats.setLinesAdded(stats.getLinesAdded() + 1);
+                stats.setWordsAdded(stats.getWordsAdded() + words);
+            } else {
+                stats.setLinesRemoved(stats.getLinesRemoved() + 1);
+                stats.setWordsRemoved(stats.getWordsRemoved() + words);
+            }
+            lines.add(DiffLineDto.builder().op(op).text(line).build());
+        }
+    }
+}
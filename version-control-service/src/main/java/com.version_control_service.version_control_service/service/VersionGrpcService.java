@@ -9,6 +9,7 @@ import sopVersionService.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @GrpcService
@@ -55,4 +56,41 @@ public class VersionGrpcService extends VersionServiceGrpc.VersionServiceImplBas
            responseObserver.onCompleted();
        }
     }
+
+    @Override
+    public void getSopsVersions(GetSopsVersionsRequest request, StreamObserver<GetSopsVersionsResponse> responseObserver) {
+       try {
+           log.info("Fetching SOP versions for {} SOPs", request.getSopIdsCount());
+
+           Map<String, List<SopVersionDto>> sopsVersions = sopVersionService.getSopsVersions(request.getSopIdsList());
+
+           GetSopsVersionsResponse.Builder response = GetSopsVersionsResponse.newBuilder()
+                   .setSuccess(true);
+
+           for (Map.Entry<String, List<SopVersionDto>> entry : sopsVersions.entrySet()) {
+               SopVersions.Builder sopVersions = SopVersions.newBuilder()
+                       .setSopId(entry.getKey());
+
+               for (SopVersionDto sopVersion : entry.getValue()) {
+                   sopVersions.addVersions(SopVersion.newBuilder()
+                           .setVersionNumber(sopVersion.getVersionNumber())
+                           .setCurrentVersion(sopVersion.getCurrentVersion())
+                           .build());
+               }
+
+               response.addSopVersions(sopVersions.build());
+           }
+
+           responseObserver.onNext(response.build());
+           responseObserver.onCompleted();
+       } catch (Exception e) {
+           log.error("Error fetching SOP versions by SOP ids: ", e);
+           GetSopsVersionsResponse response = GetSopsVersionsResponse.newBuilder()
+                   .setSuccess(false)
+                   .setErrorMessage("Failed to get SOP versions by SOP ids: " + e.getMessage())
+                   .build();
+           responseObserver.onNext(response);
+           responseObserver.onCompleted();
+       }
+    }
 }
@@ -0,0 +1,61 @@
+package com.version_control_service.version_control_service.utils;
+
+import com.version_control_service.version_control_service.model.VersionContent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * SHA-256 of a version's content, equal for contents a reader cannot tell apart.
+ * Texts are compared with unix line breaks and without surrounding whitespace. Every field that is handed back
+ * on a revert is part of the hash, so versions sharing a record also revert to the same sop.
+ * exact hashes the same fields as they are, for results that show every character of the texts.
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    public static String of(VersionContent content) {
+        return hash(content, true);
+    }
+
+    public static String exact(VersionContent content) {
+        return hash(content, false);
+    }
+
+    private static String hash(VersionContent content, boolean normalize) {
+        StringBuilder fields = new StringBuilder();
+        append(fields, content.getTitle(), normalize);
+        append(fields, content.getDescription(), normalize);
+        append(fields, content.getBody(), normalize);
+        append(fields, content.getCoverUrl(), normalize);
+        append(fields, content.getCategory(), normalize);
+        append(fields, content.getVisibility() == null ? null : content.getVisibility().name(), normalize);
+        append(fields, content.getDepartmentId() == null ? null : content.getDepartmentId().toString(), normalize);
+        List<String> documentUrls = content.getDocumentUrls() == null ? List.of() : content.getDocumentUrls();
+        fields.append(documentUrls.size()).append('#');
+        documentUrls.forEach(url -> append(fields, url, normalize));
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fields.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // length prefixed, so no two different field lists give the same string; null differs from empty
+    private static void append(StringBuilder fields, String value, boolean normalize) {
+        if (value == null) {
+            fields.append("-1:");
+            return;
+        }
+
+        String text = normalize ? value.replace("\r\n", "\n").strip() : value;
+        fields.append(text.length()).append(':').append(text);
+    }
+}
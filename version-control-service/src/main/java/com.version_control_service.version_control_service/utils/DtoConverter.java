@@ -12,6 +12,11 @@ public class DtoConverter {
         return objectMapper.readValue(json, PublishedSopDto.class);
     }
 
+    // only the id is read, events from other services carry fields PublishedSopDto does not have
+    public static String sopIdFromJson(String json) throws JsonProcessingException {
+        return objectMapper.readTree(json).path("id").asText(null);
+    }
+
     public static String publishedSopDtoTojson(PublishedSopDto publishedSopDto) throws JsonProcessingException {
         return objectMapper.writeValueAsString(publishedSopDto);
     }
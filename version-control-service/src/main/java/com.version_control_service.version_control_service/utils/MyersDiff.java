@@ -0,0 +1,157 @@
+package com.version_control_service.version_control_service.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shortest edit script between two token lists (Myers, "An O(ND) Difference Algorithm and Its Variations").
+ * The common prefix and suffix are matched before the search, which keeps the usual small edits of a long text cheap.
+ * The search keeps one frontier per edit, so it is bounded by a maximum number of edits past which the caller
+ * falls back to the coarse script of replaceMiddle.
+ */
+public final class MyersDiff {
+
+    public enum Op {
+        EQUAL,
+        DELETE,
+        INSERT
+    }
+
+    // a run of one op, from[fromStart, fromEnd) and to[toStart, toEnd); an equal run spans both, the others one side
+    public record Edit(Op op, int fromStart, int fromEnd, int toStart, int toEnd) {
+    }
+
+    private MyersDiff() {
+    }
+
+    // the runs turning from into to, null when more than maxEdits tokens have to be deleted or inserted
+    public static List<Edit> diff(List<String> from, List<String> to, int maxEdits) {
+        int prefix = commonPrefix(from, to);
+        int suffix = commonSuffix(from, to, prefix);
+        int n = from.size() - prefix - suffix;
+        int m = to.size() - prefix - suffix;
+
+        int bound = Math.min(n + m, maxEdits);
+        int offset = bound + 1;
+        int[] v = new int[2 * bound + 3];
+        List<int[]> trace = new ArrayList<>();
+        int edits = -1;
+        int endX = 0;
+        int endY = 0;
+
+        search:
+        for (int d = 0; d <= bound; d++) {
+            // frontier reached with d - 1 edits, indexed by diagonal k + d
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && from.get(prefix + x).equals(to.get(prefix + y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    edits = d;
+                    endX = x;
+                    endY = y;
+                    break search;
+                }
+            }
+        }
+        if (edits < 0) {
+            return null;
+        }
+
+        // walked back from the end, one op per token
+        List<Op> reversed = new ArrayList<>();
+        int x = endX;
+        int y = endY;
+        for (int d = edits; d >= 0; d--) {
+            int[] frontier = trace.get(d);
+            int k = x - y;
+            int previousX = 0;
+            int previousY = 0;
+            if (d > 0) {
+                int previousK = k == -d || (k != d && frontier[k - 1 + d] < frontier[k + 1 + d]) ? k + 1 : k - 1;
+                previousX = frontier[previousK + d];
+                previousY = previousX - previousK;
+            }
+            while (x > previousX && y > previousY) {
+                reversed.add(Op.EQUAL);
+                x--;
+                y--;
+            }
+            if (d > 0) {
+                reversed.add(x == previousX ? Op.INSERT : Op.DELETE);
+                x = previousX;
+                y = previousY;
+            }
+        }
+
+        Runs runs = new Runs();
+        runs.add(Op.EQUAL, prefix);
+        for (int i = reversed.size() - 1; i >= 0; i--) {
+            runs.add(reversed.get(i), 1);
+        }
+        runs.add(Op.EQUAL, suffix);
+        return runs.edits;
+    }
+
+    // the common prefix and suffix kept, everything between them deleted and inserted
+    public static List<Edit> replaceMiddle(List<String> from, List<String> to) {
+        int prefix = commonPrefix(from, to);
+        int suffix = commonSuffix(from, to, prefix);
+
+        Runs runs = new Runs();
+        runs.add(Op.EQUAL, prefix);
+        runs.add(Op.DELETE, from.size() - prefix - suffix);
+        runs.add(Op.INSERT, to.size() - prefix - suffix);
+        runs.add(Op.EQUAL, suffix);
+        return runs.edits;
+    }
+
+    private static int commonPrefix(List<String> from, List<String> to) {
+        int prefix = 0;
+        while (prefix < from.size() && prefix < to.size() && from.get(prefix).equals(to.get(prefix))) {
+            prefix++;
+        }
+        return prefix;
+    }
+
+    private static int commonSuffix(List<String> from, List<String> to, int prefix) {
+        int suffix = 0;
+        while (suffix < from.size() - prefix && suffix < to.size() - prefix
+                && from.get(from.size() - 1 - suffix).equals(to.get(to.size() - 1 - suffix))) {
+            suffix++;
+        }
+        return suffix;
+    }
+
+    // appends ops in order, merging each into the run before it when it is the same op
+    private static final class Runs {
+        private final List<Edit> edits = new ArrayList<>();
+        private int x;
+        private int y;
+
+        void add(Op op, int count) {
+            if (count <= 0) {
+                return;
+            }
+
+            int nextX = op == Op.INSERT ? x : x + count;
+            int nextY = op == Op.DELETE ? y : y + count;
+            Edit last = edits.isEmpty() ? null : edits.get(edits.size() - 1);
+            if (last != null && last.op() == op) {
+                edits.set(edits.size() - 1, new Edit(op, last.fromStart(), nextX, last.toStart(), nextY));
+            } else {
+                edits.add(new Edit(op, x, nextX, y, nextY));
+            }
+            x = nextX;
+            y = nextY;
+        }
+    }
+}
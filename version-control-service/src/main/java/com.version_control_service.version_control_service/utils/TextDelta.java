@@ -0,0 +1,148 @@
+package com.version_control_service.version_control_service.utils;
+
+import com.version_control_service.version_control_service.model.DeltaOp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A text stored as edits of a base text: runs of the base's tokens copied over and new text inserted.
+ * Tokens end after a line break, a space or a tag's closing bracket and keep that character,
+ * so applying the edits to the same base gives back the exact text.
+ */
+public final class TextDelta {
+
+    // base positions tried per token, around the one the previous copy ended at,
+    // so tokens repeated all over the text such as blank lines keep encoding linear
+    private static final int CANDIDATE_WINDOW = 16;
+    // rough stored size of an op besides its text
+    private static final int OP_OVERHEAD = 16;
+
+    private TextDelta() {
+    }
+
+    // null when the target is null, a null base is encoded against as an empty text
+    public static List<DeltaOp> encode(String base, String target) {
+        if (target == null) {
+            return null;
+        }
+
+        List<String> baseTokens = tokens(base);
+        List<String> targetTokens = tokens(target);
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < baseTokens.size(); i++) {
+            positions.computeIfAbsent(baseTokens.get(i), token -> new ArrayList<>()).add(i);
+        }
+
+        List<DeltaOp> ops = new ArrayList<>();
+        StringBuilder inserted = new StringBuilder();
+        int next = 0;
+        int i = 0;
+        while (i < targetTokens.size()) {
+            int bestStart = -1;
+            int bestLength = 0;
+            List<Integer> candidates = positions.getOrDefault(targetTokens.get(i), List.of());
+            int from = Math.max(0, insertionPoint(candidates, next) - CANDIDATE_WINDOW / 2);
+            for (int c = from; c < Math.min(candidates.size(), from + CANDIDATE_WINDOW); c++) {
+                int start = candidates.get(c);
+                int length = runLength(baseTokens, start, targetTokens, i);
+                if (length > bestLength) {
+                    bestStart = start;
+                    bestLength = length;
+                }
+            }
+
+            if (bestLength == 0) {
+                inserted.append(targetTokens.get(i));
+                i++;
+                continue;
+            }
+
+            if (!inserted.isEmpty()) {
+                ops.add(new DeltaOp(0, 0, inserted.toString()));
+                inserted.setLength(0);
+            }
+            ops.add(new DeltaOp(bestStart, bestLength, null));
+            i += bestLength;
+            next = bestStart + bestLength;
+        }
+        if (!inserted.isEmpty()) {
+            ops.add(new DeltaOp(0, 0, inserted.toString()));
+        }
+        return ops;
+    }
+
+    // null when the ops are null, fails when the ops were not encoded against this base
+    public static String apply(String base, List<DeltaOp> ops) {
+        if (ops == null) {
+            return null;
+        }
+
+        List<String> baseTokens = tokens(base);
+        StringBuilder text = new StringBuilder();
+        for (DeltaOp op : ops) {
+            if (op.getText() != null) {
+                text.append(op.getText());
+                continue;
+            }
+            if (op.getStart() < 0 || op.getCount() < 0 || op.getStart() + op.getCount() > baseTokens.size()) {
+                throw new IllegalStateException("Delta does not match its base text");
+            }
+            for (int token = op.getStart(); token < op.getStart() + op.getCount(); token++) {
+                text.append(baseTokens.get(token));
+            }
+        }
+        return text.toString();
+    }
+
+    // rough stored size of the ops, to compare with the length of the full text
+    public static int size(List<DeltaOp> ops) {
+        if (ops == null) {
+            return 0;
+        }
+
+        int size = 0;
+        for (DeltaOp op : ops) {
+            size += OP_OVERHEAD + (op.getText() == null ? 0 : op.getText().length());
+        }
+        return size;
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == ' ' || c == '>') {
+                tokens.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            tokens.add(text.substring(start));
+        }
+        return tokens;
+    }
+
+    private static int insertionPoint(List<Integer> sortedPositions, int position) {
+        int index = Collections.binarySearch(sortedPositions, position);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int runLength(List<String> baseTokens, int baseStart, List<String> targetTokens, int targetStart) {
+        int length = 0;
+        while (baseStart + length < baseTokens.size()
+                && targetStart + length < targetTokens.size()
+                && baseTokens.get(baseStart + length).equals(targetTokens.get(targetStart + length))) {
+            length++;
+        }
+        return length;
+    }
+}
@@ -1,6 +1,7 @@
 package com.version_control_service.version_control_service.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.version_control_service.version_control_service.dto.CursorPage;
 import com.version_control_service.version_control_service.dto.PublishedSopDto;
 import com.version_control_service.version_control_service.dto.SopVersionDto;
 import com.version_control_service.version_control_service.enums.Visibility;
@@ -8,10 +9,11 @@ import com.version_control_service.version_control_service.model.SOP;
 import com.version_control_service.version_control_service.model.Version;
 import com.version_control_service.version_control_service.model.VersionContent;
 import com.version_control_service.version_control_service.repository.SopRepository;
-import com.version_control_service.version_control_service.repository.VersionContentRepository;
 import com.version_control_service.version_control_service.repository.VersionRepository;
 import com.version_control_service.version_control_service.service.SopVersionService;
+import com.version_control_service.version_control_service.service.VersionContentStore;
 import com.version_control_service.version_control_service.utils.DtoConverter;
+import com.version_control_service.version_control_service.utils.exception.BadRequestException;
 import com.version_control_service.version_control_service.utils.exception.NotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +26,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,7 +36,7 @@ class SopVersionServiceTest {
     @Mock
     private SopRepository sopRepository;
     @Mock
-    private VersionContentRepository versionContentRepository;
+    private VersionContentStore versionContentStore;
     @Mock
     private VersionRepository versionRepository;
     @Mock
@@ -50,7 +53,7 @@ class SopVersionServiceTest {
     void setUp() {
         sopVersionService = new SopVersionService(
                 sopRepository,
-                versionContentRepository,
+                versionContentStore,
                 versionRepository,
                 kafkaTemplate
         );
@@ -66,45 +69,95 @@ class SopVersionServiceTest {
     void updateSopVersion_WhenNewSop_ShouldCreateInitialVersion() throws JsonProcessingException {
         // Arrange
         String sopId = "test-sop-1";
-        String jsonData = "{\"id\":\"test-sop-1\"}"; // Simplified JSON
+        String jsonData = DtoConverter.publishedSopDtoTojson(createSamplePublishedSopDto(sopId));
+        Version savedVersion = createSampleVersion(sopId, 1.0f);
+        savedVersion.setId("v1");
 
-        when(DtoConverter.publishedSopDtoFromJson(jsonData)).thenReturn(createSamplePublishedSopDto(sopId));
-        when(sopRepository.findById(sopId)).thenReturn(Optional.empty());
-        when(versionContentRepository.save(any())).thenReturn(createSampleVersionContent());
-        when(versionRepository.save(any())).thenReturn(createSampleVersion(sopId, 1.0f));
+        when(sopRepository.allocateVersionNumber(sopId)).thenReturn(SOP.builder().id(sopId).lastVersionNumber(1).build());
+        when(versionContentStore.save(any(), isNull())).thenReturn(createSampleVersionContent());
+        when(versionRepository.save(any())).thenReturn(savedVersion);
+        when(sopRepository.advanceCurrentVersion(sopId, "v1", 1.0f)).thenReturn(true);
 
         // Act
         sopVersionService.updateSopVersion(jsonData);
 
         // Assert
-        verify(sopRepository).save(any(SOP.class));
-        verify(versionContentRepository).save(any(VersionContent.class));
-        verify(versionRepository).save(any(Version.class));
+        verify(versionContentStore).save(any(VersionContent.class), isNull());
+        verify(versionRepository).save(argThat(version -> version.getVersionNumber() == 1.0f && version.isCurrentVersion()));
+        verify(versionRepository).clearCurrentVersion(sopId, "v1");
+        verify(kafkaTemplate).send(eq("sop-version-created"), any(PublishedSopDto.class));
     }
 
     @Test
     void updateSopVersion_WhenExistingSop_ShouldCreateNewVersion() throws JsonProcessingException {
         // Arrange
         String sopId = "test-sop-1";
-        String jsonData = "{\"id\":\"test-sop-1\"}";
+        String jsonData = DtoConverter.publishedSopDtoTojson(createSamplePublishedSopDto(sopId));
 
-        SOP existingSop = createSampleSOP(sopId);
         Version currentVersion = createSampleVersion(sopId, 1.0f);
+        currentVersion.setId("v1");
         currentVersion.setCurrentVersion(true);
+        Version savedVersion = createSampleVersion(sopId, 2.0f);
+        savedVersion.setId("v2");
+        SOP existingSop = SOP.builder().id(sopId).lastVersionNumber(2).currentVersionId("v1").currentVersionNumber(1.0f).build();
 
-        when(DtoConverter.publishedSopDtoFromJson(jsonData)).thenReturn(createSamplePublishedSopDto(sopId));
-        when(sopRepository.findById(sopId)).thenReturn(Optional.of(existingSop));
-        when(versionRepository.findFirstBySopIdAndCurrentVersion(sopId, true))
-                .thenReturn(currentVersion);
-        when(versionRepository.findTopBySopIdOrderByVersionNumberDesc(sopId))
-                .thenReturn(currentVersion);
+        when(sopRepository.allocateVersionNumber(sopId)).thenReturn(existingSop);
+        when(versionRepository.findById("v1")).thenReturn(Optional.of(currentVersion));
+        when(versionContentStore.load(currentVersion.getContent())).thenReturn(currentVersion.getContent());
+        when(versionRepository.save(any())).thenReturn(savedVersion);
+        when(sopRepository.advanceCurrentVersion(sopId, "v2", 2.0f)).thenReturn(true);
 
         // Act
         sopVersionService.updateSopVersion(jsonData);
 
         // Assert
-        verify(versionRepository).save(currentVersion);
-        assertFalse(currentVersion.isCurrentVersion());
+        verify(versionContentStore).save(any(VersionContent.class), eq(currentVersion.getContent()));
+        verify(versionRepository).save(argThat(version -> version.getVersionNumber() == 2.0f));
+        verify(versionRepository).clearCurrentVersion(sopId, "v2");
+    }
+
+    @Test
+    void updateSopVersion_WhenLaterVersionAlreadyCurrent_ShouldUnflagNewVersion() throws JsonProcessingException {
+        // Arrange
+        String sopId = "test-sop-1";
+        String jsonData = DtoConverter.publishedSopDtoTojson(createSamplePublishedSopDto(sopId));
+        Version savedVersion = createSampleVersion(sopId, 2.0f);
+        savedVersion.setId("v2");
+        savedVersion.setCurrentVersion(true);
+
+        when(sopRepository.allocateVersionNumber(sopId)).thenReturn(SOP.builder().id(sopId).lastVersionNumber(2).build());
+        when(versionRepository.save(any())).thenReturn(savedVersion);
+        when(sopRepository.advanceCurrentVersion(sopId, "v2", 2.0f)).thenReturn(false);
+
+        // Act
+        sopVersionService.updateSopVersion(jsonData);
+
+        // Assert
+        assertFalse(savedVersion.isCurrentVersion());
+        verify(versionRepository, never()).clearCurrentVersion(any(), any());
+    }
+
+    @Test
+    void sopDeletedListener_ShouldDeleteVersionsAndReleaseTheirContents() throws JsonProcessingException {
+        // Arrange
+        String sopId = "test-sop-1";
+        List<Version> versions = Arrays.asList(
+                createSampleVersion(sopId, 1.0f),
+                createSampleVersion(sopId, 2.0f)
+        );
+        versions.get(0).getContent().setId("c1");
+        versions.get(1).getContent().setId("c2");
+
+        when(versionRepository.findAllBySopId(sopId)).thenReturn(versions);
+
+        // Act
+        sopVersionService.sopDeletedListener("{\"id\":\"test-sop-1\",\"status\":\"DRAFTED\"}");
+
+        // Assert
+        verify(versionRepository).deleteAll(versions);
+        verify(sopRepository).deleteById(sopId);
+        verify(versionContentStore).release(versions.get(0).getContent());
+        verify(versionContentStore).release(versions.get(1).getContent());
     }
 
     @Test
@@ -113,20 +166,27 @@ class SopVersionServiceTest {
         String sopId = "test-sop-1";
         float oldVersion = 1.0f;
         Version currentVersion = createSampleVersion(sopId, 2.0f);
+        currentVersion.setId("v2");
         Version targetVersion = createSampleVersion(sopId, oldVersion);
+        targetVersion.setId("v1");
         currentVersion.setCurrentVersion(true);
 
-        when(versionRepository.findFirstBySopIdAndCurrentVersion(sopId, true))
-                .thenReturn(currentVersion);
+        when(sopRepository.findById(sopId))
+                .thenReturn(Optional.of(SOP.builder().id(sopId).currentVersionId("v2").currentVersionNumber(2.0f).build()));
+        when(versionRepository.findById("v2")).thenReturn(Optional.of(currentVersion));
         when(versionRepository.findFirstBySopIdAndVersionNumber(sopId, oldVersion))
                 .thenReturn(targetVersion);
+        VersionContent fullContent = createSampleVersionContent();
+        when(versionContentStore.load(targetVersion.getContent())).thenReturn(fullContent);
 
         // Act
         Version result = sopVersionService.revertSopVersion(sopId, oldVersion);
 
         // Assert
-        assertFalse(currentVersion.isCurrentVersion());
         assertTrue(result.isCurrentVersion());
+        assertSame(fullContent, result.getContent());
+        verify(sopRepository).setCurrentVersion(sopId, "v1", oldVersion);
+        verify(versionRepository).clearCurrentVersion(sopId, "v1");
         verify(kafkaTemplate).send(eq("sop-version-reverted"), any(PublishedSopDto.class));
     }
 
@@ -138,6 +198,8 @@ class SopVersionServiceTest {
                 createSampleVersion(sopId, 1.0f),
                 createSampleVersion(sopId, 2.0f)
         );
+        versions.get(0).getContent().setId("c1");
+        versions.get(1).getContent().setId("c2");
 
         when(versionRepository.findAllBySopId(sopId)).thenReturn(versions);
 
@@ -150,6 +212,35 @@ class SopVersionServiceTest {
         assertEquals(2.0f, result.get(1).getVersionNumber());
     }
 
+    @Test
+    void getSopVersionHistory_ShouldReturnNewestPageWithCursor() {
+        // Arrange
+        String sopId = "test-sop-1";
+        List<Version> versions = Arrays.asList(
+                createSampleVersion(sopId, 5.0f),
+                createSampleVersion(sopId, 4.0f),
+                createSampleVersion(sopId, 3.0f)
+        );
+
+        when(versionRepository.findBySopIdAndVersionNumberLessThanOrderByVersionNumberDesc(eq(sopId), eq(6.0f), any()))
+                .thenReturn(versions);
+
+        // Act
+        CursorPage<SopVersionDto> result = sopVersionService.getSopVersionHistory(sopId, "6.0", 2);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertEquals(5.0f, result.getItems().get(0).getVersionNumber());
+        assertTrue(result.isHasNext());
+        assertEquals("4.0", result.getNextCursor());
+    }
+
+    @Test
+    void getSopVersionHistory_WhenCursorInvalid_ShouldThrowBadRequestException() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> sopVersionService.getSopVersionHistory("test-sop-1", "abc", null));
+    }
+
     @Test
     void compareSopVersions_ShouldReturnRequestedVersions() {
         // Arrange
@@ -165,6 +256,7 @@ class SopVersionServiceTest {
                 eq(sopId),
                 anyList()
         )).thenReturn(versions);
+        when(versionContentStore.load(any(VersionContent.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
         List<Version> result = sopVersionService.compareSopVersions(sopId, version1, version2);
@@ -219,11 +311,4 @@ class SopVersionServiceTest {
                 .createdAt(new Date())
                 .build();
     }
-
-    private SOP createSampleSOP(String id) {
-        return SOP.builder()
-                .id(id)
-                .versions(Collections.singletonList(createSampleVersion(id, 1.0f)))
-                .build();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.version_control_service.version_control_service.services;
+
+import com.version_control_service.version_control_service.model.VersionContent;
+import com.version_control_service.version_control_service.repository.VersionContentRepository;
+import com.version_control_service.version_control_service.service.VersionContentCollector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VersionContentCollectorTest {
+
+    @Mock
+    private VersionContentRepository versionContentRepository;
+
+    private VersionContentCollector versionContentCollector;
+
+    @BeforeEach
+    void setUp() {
+        versionContentCollector = new VersionContentCollector(versionContentRepository);
+    }
+
+    @Test
+    void collect_ShouldDeleteUnreferencedContentsAndReleaseTheirBases() {
+        // Arrange
+        VersionContent delta = VersionContent.builder().id("v2").delta(true).baseId("v1").build();
+        VersionContent full = VersionContent.builder().id("v1").build();
+        when(versionContentRepository.findUnreferenced(anyInt()))
+                .thenReturn(List.of(delta))
+                .thenReturn(List.of(full))
+                .thenReturn(List.of());
+        when(versionContentRepository.deleteIfUnreferenced("v2")).thenReturn(true);
+        when(versionContentRepository.deleteIfUnreferenced("v1")).thenReturn(true);
+
+        // Act
+        versionContentCollector.collect();
+
+        // Assert
+        verify(versionContentRepository).addReferences("v1", -1);
+        verify(versionContentRepository).deleteIfUnreferenced("v1");
+    }
+
+    @Test
+    void collect_WhenContentReferencedAgain_ShouldKeepItsBase() {
+        // Arrange
+        VersionContent delta = VersionContent.builder().id("v2").delta(true).baseId("v1").build();
+        when(versionContentRepository.findUnreferenced(anyInt()))
+                .thenReturn(List.of(delta))
+                .thenReturn(List.of());
+        when(versionContentRepository.deleteIfUnreferenced("v2")).thenReturn(false);
+
+        // Act
+        versionContentCollector.collect();
+
+        // Assert
+        verify(versionContentRepository, never()).addReferences(anyString(), anyInt());
+    }
+}
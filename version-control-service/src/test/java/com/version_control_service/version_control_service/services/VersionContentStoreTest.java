@@ -0,0 +1,236 @@
+package com.version_control_service.version_control_service.services;
+
+import com.version_control_service.version_control_service.model.VersionContent;
+import com.version_control_service.version_control_service.repository.VersionContentRepository;
+import com.version_control_service.version_control_service.service.VersionContentStore;
+import com.version_control_service.version_control_service.utils.ContentHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VersionContentStoreTest {
+
+    private static final int SNAPSHOT_INTERVAL = 3;
+
+    @Mock
+    private VersionContentRepository versionContentRepository;
+    @Mock
+    private CacheManager cacheManager;
+
+    private ConcurrentMapCache cache;
+    private VersionContentStore versionContentStore;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConcurrentMapCache(VersionContentStore.CACHE);
+        lenient().when(cacheManager.getCache(VersionContentStore.CACHE)).thenReturn(cache);
+        versionContentStore = new VersionContentStore(versionContentRepository, cacheManager, SNAPSHOT_INTERVAL);
+    }
+
+    @Test
+    void encode_WhenFirstVersion_ShouldStoreFullCopy() {
+        // Act
+        VersionContent encoded = versionContentStore.encode(content("v1", longBody("step")), null);
+
+        // Assert
+        assertFalse(encoded.isDelta());
+        assertEquals(0, encoded.getDepth());
+        assertEquals(longBody("step"), encoded.getBody());
+    }
+
+    @Test
+    void encode_WhenEditedVersion_ShouldStoreSmallDeltaOfBase() {
+        // Arrange
+        VersionContent base = content("v1", longBody("step"));
+        VersionContent next = content("v2", longBody("step").replace("step 50 ", "step fifty "));
+        when(versionContentRepository.findDepth("v1")).thenReturn(Optional.of(0));
+
+        // Act
+        VersionContent encoded = versionContentStore.encode(next, base);
+
+        // Assert
+        assertTrue(encoded.isDelta());
+        assertEquals("v1", encoded.getBaseId());
+        assertEquals(1, encoded.getDepth());
+        assertNull(encoded.getBody());
+        assertTrue(encoded.getBodyDelta().size() <= 3);
+        assertEquals("Title v2", encoded.getTitle());
+    }
+
+    @Test
+    void encode_WhenChainReachesSnapshotInterval_ShouldStoreFullCopy() {
+        // Arrange
+        VersionContent base = content("v3", longBody("step"));
+        when(versionContentRepository.findDepth("v3")).thenReturn(Optional.of(SNAPSHOT_INTERVAL - 1));
+
+        // Act
+        VersionContent encoded = versionContentStore.encode(content("v4", longBody("step") + "more "), base);
+
+        // Assert
+        assertFalse(encoded.isDelta());
+        assertEquals(0, encoded.getDepth());
+    }
+
+    @Test
+    void encode_WhenBaseTurnedIntoDeltaSinceLoaded_ShouldCountItsStoredDepth() {
+        // Arrange
+        VersionContent loadedBase = content("v3", longBody("step"));
+        when(versionContentRepository.findDepth("v3")).thenReturn(Optional.of(1));
+
+        // Act
+        VersionContent encoded = versionContentStore.encode(content("v4", longBody("step") + "more "), loadedBase);
+
+        // Assert
+        assertTrue(encoded.isDelta());
+        assertEquals(2, encoded.getDepth());
+    }
+
+    @Test
+    void encode_WhenBaseNotEncodedYet_ShouldStoreFullCopy() {
+        // Arrange
+        VersionContent legacyBase = content("v1", longBody("step"));
+        when(versionContentRepository.findDepth("v1")).thenReturn(Optional.empty());
+
+        // Act
+        VersionContent encoded = versionContentStore.encode(content("v2", longBody("step") + "more "), legacyBase);
+
+        // Assert
+        assertFalse(encoded.isDelta());
+        assertEquals(0, encoded.getDepth());
+    }
+
+    @Test
+    void load_ShouldRebuildChainFromFullCopyAndCacheIt() {
+        // Arrange
+        VersionContent v1 = content("v1", longBody("step"));
+        VersionContent v2 = content("v2", longBody("step").replace("step 10 ", "step ten "));
+        VersionContent v3 = content("v3", longBody("step").replace("step 10 ", "step ten ") + "appendix ");
+        v3.setDescription(null);
+
+        when(versionContentRepository.findDepth("v1")).thenReturn(Optional.of(0));
+        VersionContent storedV2 = versionContentStore.encode(v2, v1);
+        when(versionContentRepository.findDepth("v2")).thenReturn(Optional.of(storedV2.getDepth()));
+        VersionContent storedV3 = versionContentStore.encode(v3, v2);
+        when(versionContentRepository.findById("v2")).thenReturn(Optional.of(storedV2));
+        when(versionContentRepository.findById("v1")).thenReturn(Optional.of(v1));
+
+        // Act
+        VersionContent loaded = versionContentStore.load(storedV3);
+
+        // Assert
+        assertEquals(v3.getBody(), loaded.getBody());
+        assertNull(loaded.getDescription());
+        assertEquals(2, loaded.getDepth());
+        assertFalse(loaded.isDelta());
+        assertEquals(v2.getBody(), cache.get("v2", VersionContent.class).getBody());
+
+        // a second read is served from the cache
+        versionContentStore.load(storedV3);
+        verify(versionContentRepository, times(1)).findById("v1");
+    }
+
+    @Test
+    void load_WhenFullCopy_ShouldReturnItUnchanged() {
+        // Arrange
+        VersionContent stored = content("v1", "Test Body");
+
+        // Act
+        VersionContent loaded = versionContentStore.load(stored);
+
+        // Assert
+        assertSame(stored, loaded);
+        verifyNoInteractions(versionContentRepository);
+    }
+
+    @Test
+    void save_WhenSameContentStored_ShouldReuseRecord() {
+        // Arrange
+        VersionContent published = content(null, longBody("step"));
+        VersionContent existing = content("v1", longBody("step"));
+        when(versionContentRepository.referenceByHash(ContentHash.of(published))).thenReturn(Optional.of(existing));
+
+        // Act
+        VersionContent saved = versionContentStore.save(published, existing);
+
+        // Assert
+        assertSame(existing, saved);
+        verify(versionContentRepository, never()).insert(any(VersionContent.class));
+    }
+
+    @Test
+    void save_WhenNewContent_ShouldInsertReferencedDeltaAndReferenceBase() {
+        // Arrange
+        VersionContent base = content("v1", longBody("step"));
+        VersionContent published = content(null, longBody("step") + "appendix ");
+        when(versionContentRepository.referenceByHash(any())).thenReturn(Optional.empty());
+        when(versionContentRepository.findDepth("v1")).thenReturn(Optional.of(0));
+        when(versionContentRepository.insert(any(VersionContent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        VersionContent saved = versionContentStore.save(published, base);
+
+        // Assert
+        assertTrue(saved.isDelta());
+        assertEquals(1, saved.getRefCount());
+        assertEquals(ContentHash.of(published), saved.getContentHash());
+        verify(versionContentRepository).addReferences("v1", 1);
+    }
+
+    @Test
+    void save_WhenSameContentInsertedConcurrently_ShouldReuseTheOtherRecord() {
+        // Arrange
+        VersionContent published = content(null, "Test Body");
+        VersionContent raced = content("v2", "Test Body");
+        when(versionContentRepository.referenceByHash(ContentHash.of(published)))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(raced));
+        when(versionContentRepository.insert(any(VersionContent.class))).thenThrow(new DuplicateKeyException("contentHash"));
+
+        // Act
+        VersionContent saved = versionContentStore.save(published, null);
+
+        // Assert
+        assertSame(raced, saved);
+        verify(versionContentRepository, never()).addReferences(any(), anyInt());
+    }
+
+    @Test
+    void contentHash_ShouldIgnoreLineBreakStyleButNotFields() {
+        // Arrange
+        VersionContent published = content(null, "Test Body");
+        VersionContent other = content(null, "Test Body");
+        other.setCategory("Other");
+
+        // Act & Assert
+        assertEquals(ContentHash.of(published), ContentHash.of(content(null, "Test Body\r\n")));
+        assertNotEquals(ContentHash.of(published), ContentHash.of(other));
+    }
+
+    private static VersionContent content(String id, String body) {
+        return VersionContent.builder()
+                .id(id)
+                .title("Title " + id)
+                .description("Shared description of the procedure")
+                .body(body)
+                .build();
+    }
+
+    private static String longBody(String word) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            body.append("<p>").append(word).append(" ").append(i).append(" </p>\n");
+        }
+        return body.toString();
+    }
+}
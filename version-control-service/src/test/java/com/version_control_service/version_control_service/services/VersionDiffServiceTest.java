@@ -0,0 +1,185 @@
+package com.version_control_service.version_control_service.services;
+
+import com.version_control_service.version_control_service.dto.ContentDiffDto;
+import com.version_control_service.version_control_service.dto.DiffHunkDto;
+import com.version_control_service.version_control_service.dto.DiffLineDto;
+import com.version_control_service.version_control_service.dto.SopVersionDiffDto;
+import com.version_control_service.version_control_service.enums.DiffOp;
+import com.version_control_service.version_control_service.model.Version;
+import com.version_control_service.version_control_service.model.VersionContent;
+import com.version_control_service.version_control_service.repository.VersionRepository;
+import com.version_control_service.version_control_service.service.VersionContentStore;
+import com.version_control_service.version_control_service.service.VersionDiffService;
+import com.version_control_service.version_control_service.utils.exception.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VersionDiffServiceTest {
+
+    @Mock
+    private VersionRepository versionRepository;
+    @Mock
+    private VersionContentStore versionContentStore;
+    @Mock
+    private CacheManager cacheManager;
+
+    private ConcurrentMapCache cache;
+    private VersionDiffService versionDiffService;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConcurrentMapCache(VersionDiffService.CACHE);
+        lenient().when(cacheManager.getCache(VersionDiffService.CACHE)).thenReturn(cache);
+        versionDiffService = new VersionDiffService(versionRepository, versionContentStore, cacheManager);
+    }
+
+    @Test
+    void diff_WhenOneLineEdited_ShouldReturnWordChangesWithContext() {
+        // Arrange
+        VersionContent from = content(body(20));
+        VersionContent to = content(body(20).replace("<p>step 10 of the procedure</p>", "<p>step 10 of the new procedure</p>"));
+
+        // Act
+        ContentDiffDto diff = versionDiffService.diff(from, to);
+
+        // Assert
+        assertEquals(1, diff.getHunks().size());
+        DiffHunkDto hunk = diff.getHunks().get(0);
+        assertEquals(7, hunk.getFromLine());
+        assertEquals(7, hunk.getFromCount());
+        assertEquals(7, hunk.getLines().size());
+
+        DiffLineDto changed = hunk.getLines().get(3);
+        assertEquals(DiffOp.CHANGED, changed.getOp());
+        assertTrue(changed.getSegments().stream()
+                .anyMatch(segment -> segment.getOp() == DiffOp.ADDED && segment.getText().equals("new ")));
+        assertEquals(1, diff.getStats().getLinesChanged());
+        assertEquals(1, diff.getStats().getWordsAdded());
+        assertEquals(0, diff.getStats().getWordsRemoved());
+        assertTrue(diff.getFields().isEmpty());
+        assertFalse(diff.isApproximate());
+    }
+
+    @Test
+    void diff_WhenLinesAddedAndFieldsChanged_ShouldReportBoth() {
+        // Arrange
+        VersionContent from = content(body(5));
+        VersionContent to = content(body(5) + "\n<p>appendix</p>");
+        to.setTitle("Renamed");
+        to.setDocumentUrls(List.of("a.pdf", "b.pdf"));
+
+        // Act
+        ContentDiffDto diff = versionDiffService.diff(from, to);
+
+        // Assert
+        assertEquals(1, diff.getStats().getLinesAdded());
+        assertEquals(DiffOp.ADDED, diff.getHunks().get(0).getLines().get(diff.getHunks().get(0).getLines().size() - 1).getOp());
+        assertEquals(1, diff.getFields().size());
+        assertEquals("title", diff.getFields().get(0).getField());
+        assertEquals(List.of("b.pdf"), diff.getDocumentsAdded());
+        assertTrue(diff.getDocumentsRemoved().isEmpty());
+    }
+
+    @Test
+    void diff_WhenSameContentsComparedAgain_ShouldServeCachedDiff() {
+        // Arrange
+        VersionContent from = content(body(5));
+        VersionContent to = content(body(6));
+
+        // Act
+        ContentDiffDto first = versionDiffService.diff(from, to);
+        ContentDiffDto second = versionDiffService.diff(content(body(5)), content(body(6)));
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    void diff_WhenContentsDifferOnlyInSurroundingWhitespace_ShouldNotServeTheOtherDiff() {
+        // Arrange
+        VersionContent from = content(body(5));
+        ContentDiffDto unchanged = versionDiffService.diff(from, content(body(5)));
+
+        // Act
+        ContentDiffDto trailingLine = versionDiffService.diff(from, content(body(5) + "\n"));
+
+        // Assert
+        assertTrue(unchanged.getHunks().isEmpty());
+        assertNotSame(unchanged, trailingLine);
+        assertEquals(1, trailingLine.getStats().getLinesAdded());
+    }
+
+    @Test
+    void diff_WhenLongUnchangedLine_ShouldCutIt() {
+        // Arrange
+        String longLine = "word ".repeat(100);
+        VersionContent from = content(longLine + "\nold");
+        VersionContent to = content(longLine + "\nnew");
+
+        // Act
+        DiffLineDto context = versionDiffService.diff(from, to).getHunks().get(0).getLines().get(0);
+
+        // Assert
+        assertEquals(DiffOp.EQUAL, context.getOp());
+        assertTrue(context.getText().length() < longLine.length());
+        assertEquals(longLine.length(), context.getText().length() + context.getSkipped());
+    }
+
+    @Test
+    void diffSopVersions_ShouldDiffLoadedContents() {
+        // Arrange
+        Version first = Version.builder().sopId("sop1").versionNumber(1.0f).content(content(body(3))).build();
+        Version second = Version.builder().sopId("sop1").versionNumber(2.0f).content(content(body(4))).build();
+        when(versionRepository.findFirstBySopIdAndVersionNumber("sop1", 1.0f)).thenReturn(first);
+        when(versionRepository.findFirstBySopIdAndVersionNumber("sop1", 2.0f)).thenReturn(second);
+        when(versionContentStore.load(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        SopVersionDiffDto result = versionDiffService.diffSopVersions("sop1", 1.0f, 2.0f);
+
+        // Assert
+        assertEquals("sop1", result.getSopId());
+        assertEquals(1, result.getDiff().getStats().getLinesAdded());
+    }
+
+    @Test
+    void diffSopVersions_WhenVersionNotFound_ShouldThrowNotFoundException() {
+        // Arrange
+        when(versionRepository.findFirstBySopIdAndVersionNumber("sop1", 1.0f)).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> versionDiffService.diffSopVersions("sop1", 1.0f, 2.0f));
+    }
+
+    private static VersionContent content(String body) {
+        return VersionContent.builder()
+                .title("Title")
+                .description("Description")
+                .body(body)
+                .documentUrls(List.of("a.pdf"))
+                .build();
+    }
+
+    private static String body(int lines) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= lines; i++) {
+            if (i > 1) {
+                body.append('\n');
+            }
+            body.append("<p>step ").append(i).append(" of the procedure</p>");
+        }
+        return body.toString();
+    }
+}